@@ -0,0 +1,93 @@
+package com.elecciones.audit;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evento de auditoría inmutable. La secuencia es única y creciente dentro del registro y
+ * sirve de cursor para paginar.
+ */
+public final class AuditEvent {
+    
+    private final long sequence;
+    private final long timestamp;
+    private final AuditEventType type;
+    private final String actor;
+    private final String ip;
+    private final boolean success;
+    private final String detail;
+    
+    public AuditEvent(long sequence, long timestamp, AuditEventType type, String actor, String ip,
+                      boolean success, String detail) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.actor = actor;
+        this.ip = ip;
+        this.success = success;
+        this.detail = detail;
+    }
+    
+    AuditEvent withTimestamp(long timestamp) {
+        return new AuditEvent(sequence, timestamp, type, actor, ip, success, detail);
+    }
+    
+    /**
+     * Fila persistida (archivo JSONL o tabla security_audit_log)
+     */
+    Map<String, Object> toRow() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("seq", sequence);
+        row.put("occurred_at", Instant.ofEpochMilli(timestamp).toString());
+        row.put("type", type.name());
+        row.put("actor", actor);
+        row.put("ip", ip);
+        row.put("status", success ? "success" : "failed");
+        row.put("detail", detail);
+        return row;
+    }
+    
+    static AuditEvent fromRow(Map<String, Object> row) {
+        return new AuditEvent(
+            ((Number) row.get("seq")).longValue(),
+            Instant.parse((String) row.get("occurred_at")).toEpochMilli(),
+            AuditEventType.valueOf((String) row.get("type")),
+            (String) row.get("actor"),
+            (String) row.get("ip"),
+            "success".equals(row.get("status")),
+            (String) row.get("detail"));
+    }
+    
+    /**
+     * Formato de la respuesta de /api/superadmin/audit/security
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", sequence);
+        map.put("timestamp", Instant.ofEpochMilli(timestamp).toString());
+        map.put("type", type.name());
+        map.put("action", type.getLabel());
+        map.put("user", actor != null ? actor : "unknown");
+        map.put("ip", ip);
+        map.put("status", success ? "success" : "failed");
+        map.put("detail", detail);
+        return map;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public AuditEventType getType() {
+        return type;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+}
@@ -0,0 +1,22 @@
+package com.elecciones.audit;
+
+/**
+ * Tipos de evento de auditoría de seguridad, con la descripción que se muestra en el panel
+ */
+public enum AuditEventType {
+    
+    LOGIN("Inicio de sesión"),
+    TOKEN_REJECTED("Token rechazado"),
+    DATA_CLEANING("Limpieza de datos"),
+    VOTE_INVALIDATION("Invalidación de votos");
+    
+    private final String label;
+    
+    AuditEventType(String label) {
+        this.label = label;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,139 @@
+package com.elecciones.audit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice en memoria de los eventos recientes, en buckets de tiempo de tamaño fijo.
+ *
+ * Solo escribe el hilo de AuditLog y siempre en orden de secuencia con tiempos no decrecientes,
+ * así que dentro del índice el orden por secuencia coincide con el orden por tiempo. Una
+ * consulta visita solo los buckets del rango, salta los que no tienen eventos de los tipos
+ * pedidos y cuenta el total con los contadores de los buckets completos.
+ */
+class AuditIndex {
+    
+    private final long bucketMillis;
+    private final long retentionMillis;
+    private final int maxEvents;
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+    private volatile int size;
+    
+    AuditIndex(long bucketMillis, long retentionMillis, int maxEvents) {
+        this.bucketMillis = bucketMillis;
+        this.retentionMillis = retentionMillis;
+        this.maxEvents = maxEvents;
+    }
+    
+    void add(AuditEvent event) {
+        buckets.computeIfAbsent(bucketOf(event.getTimestamp()), start -> new Bucket()).add(event);
+        size++;
+    }
+    
+    /**
+     * Descarta los buckets fuera de la retención o que exceden maxEvents, del más antiguo al más nuevo
+     */
+    void evict(long now) {
+        long oldest = bucketOf(now - retentionMillis);
+        Iterator<Map.Entry<Long, Bucket>> entries = buckets.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, Bucket> entry = entries.next();
+            if (entry.getKey() >= oldest && size <= maxEvents) {
+                return;
+            }
+            size -= entry.getValue().count();
+            entries.remove();
+        }
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Eventos de [from, to] con secuencia menor a before, del más nuevo al más antiguo.
+     * Retorna hasta limit + 1 eventos para que el llamador sepa si hay otra página.
+     */
+    Page query(long from, long to, Set<AuditEventType> types, Boolean success, long before, int limit) {
+        NavigableMap<Long, Bucket> range = buckets.subMap(bucketOf(from), true, bucketOf(to), true).descendingMap();
+        List<AuditEvent> events = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<Long, Bucket> entry : range.entrySet()) {
+            long start = entry.getKey();
+            Bucket bucket = entry.getValue();
+            long matchingInBucket = bucket.count(types);
+            if (matchingInBucket == 0) {
+                continue;
+            }
+            boolean complete = start >= from && start + bucketMillis - 1 <= to;
+            if (complete && success == null) {
+                total += matchingInBucket;
+                if (events.size() > limit) {
+                    continue;
+                }
+            }
+            AuditEvent[] snapshot = bucket.snapshot();
+            for (int i = snapshot.length - 1; i >= 0; i--) {
+                AuditEvent event = snapshot[i];
+                if (event.getTimestamp() < from || event.getTimestamp() > to || !types.contains(event.getType())
+                        || (success != null && success != event.isSuccess())) {
+                    continue;
+                }
+                if (!complete || success != null) {
+                    total++;
+                }
+                if (event.getSequence() < before && events.size() <= limit) {
+                    events.add(event);
+                }
+            }
+        }
+        return new Page(events, total);
+    }
+    
+    private long bucketOf(long millis) {
+        return Math.floorDiv(millis, bucketMillis) * bucketMillis;
+    }
+    
+    record Page(List<AuditEvent> events, long total) {
+    }
+    
+    /**
+     * Eventos de un intervalo en orden de secuencia, con contadores por tipo
+     */
+    private static final class Bucket {
+        private AuditEvent[] events = new AuditEvent[16];
+        private int count;
+        private final Map<AuditEventType, Integer> byType = new EnumMap<>(AuditEventType.class);
+        
+        synchronized void add(AuditEvent event) {
+            if (count == events.length) {
+                events = Arrays.copyOf(events, count * 2);
+            }
+            events[count++] = event;
+            byType.merge(event.getType(), 1, Integer::sum);
+        }
+        
+        synchronized int count() {
+            return count;
+        }
+        
+        synchronized long count(Set<AuditEventType> types) {
+            long matching = 0;
+            for (AuditEventType type : types) {
+                matching += byType.getOrDefault(type, 0);
+            }
+            return matching;
+        }
+        
+        synchronized AuditEvent[] snapshot() {
+            return Arrays.copyOf(events, count);
+        }
+    }
+}
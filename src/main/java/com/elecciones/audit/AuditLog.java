@@ -0,0 +1,271 @@
+package com.elecciones.audit;
+
+import com.elecciones.filter.AdminAuthenticationFilter;
+import com.elecciones.filter.ClientAddress;
+import com.elecciones.service.TokenService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Registro de auditoría de seguridad: inicios de sesión, tokens rechazados, limpiezas de datos
+ * e invalidaciones de votos.
+ *
+ * record() no bloquea ni hace I/O: toma una secuencia con getAndIncrement y deja el evento en
+ * un buffer circular, como SlowRequestRecorder. Un hilo propio vacía el buffer en orden de
+ * secuencia cada audit.flush-interval-ms, escribe el lote en el AuditSink configurado y lo agrega
+ * al índice por tiempo que atiende las consultas. Si el buffer da la vuelta antes de que el hilo
+ * lo vacíe, los eventos sobrescritos se cuentan en dropped. Al iniciar, el índice se reconstruye
+ * con los eventos persistidos dentro de audit.retention-hours.
+ */
+@Component
+@Slf4j
+public class AuditLog {
+    
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_DETAIL_LENGTH = 500;
+    
+    private final AuditSink sink;
+    private final AuditIndex index;
+    private final AtomicReferenceArray<AuditEvent> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long retentionMillis;
+    private final int trustedProxyHops;
+    
+    // Solo los usa el hilo de escritura; volatile para las estadísticas
+    private volatile long nextToDrain;
+    private volatile long lastTimestamp;
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sinkFailures = new LongAdder();
+    
+    private Thread writer;
+    private volatile boolean running;
+    
+    public AuditLog(AuditSink sink,
+                    @Value("${audit.buffer-capacity:8192}") int capacity,
+                    @Value("${audit.batch-size:500}") int batchSize,
+                    @Value("${audit.flush-interval-ms:200}") long flushIntervalMillis,
+                    @Value("${audit.index.bucket-minutes:10}") long bucketMinutes,
+                    @Value("${audit.retention-hours:168}") long retentionHours,
+                    @Value("${audit.index.max-events:200000}") int maxIndexedEvents,
+                    @Value("${ratelimit.trusted-proxy-hops:1}") int trustedProxyHops) {
+        this.sink = sink;
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+        this.index = new AuditIndex(TimeUnit.MINUTES.toMillis(Math.max(1, bucketMinutes)), retentionMillis,
+            maxIndexedEvents);
+        this.trustedProxyHops = trustedProxyHops;
+    }
+    
+    @PostConstruct
+    public void start() {
+        long now = System.currentTimeMillis();
+        long[] last = {-1};
+        try {
+            sink.readSince(now - retentionMillis, event -> {
+                index(event);
+                last[0] = Math.max(last[0], event.getSequence());
+            });
+        } catch (IOException e) {
+            log.error("No se pudo reconstruir el índice de auditoría: {}", e.getMessage());
+        }
+        index.evict(now);
+        // Secuencias crecientes entre reinicios aunque los eventos antiguos ya no estén en el índice
+        long first = Math.max(last[0] + 1, TimeUnit.MILLISECONDS.toMicros(now));
+        sequence.set(first);
+        nextToDrain = first;
+        
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Auditoría de seguridad en {} ({} eventos recientes en el índice)", sink.describe(), index.size());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // ========== REGISTRO ==========
+    
+    /**
+     * Registra un evento. La IP y, si actor es null, el usuario del token se toman de la
+     * solicitud en curso.
+     */
+    public void record(AuditEventType type, String actor, boolean success, String detail) {
+        String ip = null;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            ip = ClientAddress.resolve(request, trustedProxyHops);
+            if (actor == null && request.getAttribute(AdminAuthenticationFilter.CLAIMS_ATTRIBUTE)
+                    instanceof TokenService.TokenClaims claims) {
+                actor = claims.getEmail();
+            }
+        }
+        if (detail != null && detail.length() > MAX_DETAIL_LENGTH) {
+            detail = detail.substring(0, MAX_DETAIL_LENGTH);
+        }
+        long assigned = sequence.getAndIncrement();
+        slots.set((int) (assigned & mask), new AuditEvent(assigned, System.currentTimeMillis(), type, actor, ip,
+            success, detail));
+    }
+    
+    // ========== ESCRITURA ==========
+    
+    private void writeLoop() {
+        long backoffMillis = flushIntervalMillis;
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            boolean stopping = !running;
+            if (batch.isEmpty()) {
+                drain(batch);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    sink.append(batch);
+                    persisted.add(batch.size());
+                    batch.clear();
+                    backoffMillis = flushIntervalMillis;
+                    index.evict(System.currentTimeMillis());
+                    continue;
+                } catch (IOException | RuntimeException e) {
+                    sinkFailures.increment();
+                    log.warn("No se pudieron guardar {} eventos de auditoría: {}", batch.size(), e.getMessage());
+                    if (stopping) {
+                        log.error("Se pierden {} eventos de auditoría sin guardar", batch.size() + pending());
+                        return;
+                    }
+                    backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+                }
+            } else if (stopping) {
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+        }
+    }
+    
+    /**
+     * Pasa al lote los eventos publicados desde nextToDrain y los agrega al índice
+     */
+    private void drain(List<AuditEvent> batch) {
+        long published = sequence.get();
+        long next = nextToDrain;
+        while (next < published && batch.size() < batchSize) {
+            AuditEvent event = slots.get((int) (next & mask));
+            if (event == null || event.getSequence() < next) {
+                // Secuencia tomada pero el evento aún no está en su posición
+                break;
+            }
+            if (event.getSequence() > next) {
+                // El buffer dio la vuelta: el evento de esta secuencia se sobrescribió
+                dropped.increment();
+                next++;
+                continue;
+            }
+            batch.add(index(event));
+            next++;
+        }
+        nextToDrain = next;
+    }
+    
+    /**
+     * Los tiempos se ajustan para que no retrocedan respecto del evento anterior: dos hilos
+     * pueden tomar secuencias y relojes en distinto orden por unos microsegundos
+     */
+    private AuditEvent index(AuditEvent event) {
+        if (event.getTimestamp() < lastTimestamp) {
+            event = event.withTimestamp(lastTimestamp);
+        }
+        lastTimestamp = event.getTimestamp();
+        index.add(event);
+        return event;
+    }
+    
+    private long pending() {
+        return Math.max(0, sequence.get() - nextToDrain);
+    }
+    
+    // ========== CONSULTA ==========
+    
+    /**
+     * Eventos de [from, to] (epoch ms), del más reciente al más antiguo, con paginación por
+     * cursor: before es el id del último evento de la página anterior
+     */
+    public Map<String, Object> query(Long from, Long to, Set<AuditEventType> types, Boolean success,
+                                     Long before, int limit) {
+        long now = System.currentTimeMillis();
+        long fromMillis = from != null ? from : 0;
+        long toMillis = to != null ? to : now;
+        if (fromMillis > toMillis) {
+            throw new IllegalArgumentException("El inicio del rango es posterior al fin");
+        }
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit debe estar entre 1 y 1000");
+        }
+        Set<AuditEventType> filter = types == null || types.isEmpty() ? EnumSet.allOf(AuditEventType.class) : types;
+        
+        AuditIndex.Page page = index.query(fromMillis, toMillis, filter, success,
+            before != null ? before : Long.MAX_VALUE, limit);
+        List<AuditEvent> events = page.events();
+        boolean hasMore = events.size() > limit;
+        List<Map<String, Object>> logs = new ArrayList<>(Math.min(events.size(), limit));
+        for (int i = 0; i < events.size() && i < limit; i++) {
+            logs.add(events.get(i).toMap());
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("logs", logs);
+        result.put("total", page.total());
+        result.put("hasMore", hasMore);
+        result.put("nextBefore", hasMore ? events.get(limit - 1).getSequence() : null);
+        result.put("stats", stats());
+        return result;
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sink", sink.describe());
+        stats.put("persisted", persisted.sum());
+        stats.put("pending", pending());
+        stats.put("dropped", dropped.sum());
+        stats.put("sinkFailures", sinkFailures.sum());
+        stats.put("indexedEvents", index.size());
+        stats.put("bufferCapacity", slots.length());
+        return stats;
+    }
+}
@@ -0,0 +1,23 @@
+package com.elecciones.audit;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Destino persistente de los eventos de auditoría. Solo lo usa el hilo de escritura de AuditLog.
+ */
+public interface AuditSink {
+    
+    /**
+     * Agrega el lote al final del almacenamiento; al retornar los eventos son durables
+     */
+    void append(List<AuditEvent> batch) throws IOException;
+    
+    /**
+     * Recorre los eventos persistidos desde fromMillis, en orden de secuencia, para reconstruir el índice
+     */
+    void readSince(long fromMillis, Consumer<AuditEvent> consumer) throws IOException;
+    
+    String describe();
+}
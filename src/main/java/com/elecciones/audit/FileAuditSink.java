@@ -0,0 +1,151 @@
+package com.elecciones.audit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Auditoría en archivos JSONL de solo agregado, uno por día UTC (audit-yyyy-MM-dd.jsonl).
+ * Cada lote se escribe con una sola escritura y se sincroniza con el disco si audit.file.fsync
+ * es true. Una última línea cortada por una caída se ignora al leer.
+ */
+@Component
+@ConditionalOnProperty(name = "audit.sink", havingValue = "file", matchIfMissing = true)
+@Slf4j
+public class FileAuditSink implements AuditSink {
+    
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".jsonl";
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {};
+    
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final boolean fsync;
+    
+    private FileChannel channel;
+    private LocalDate channelDay;
+    
+    public FileAuditSink(ObjectMapper objectMapper,
+                         @Value("${audit.file.directory:./data/audit}") String directory,
+                         @Value("${audit.file.fsync:true}") boolean fsync) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.fsync = fsync;
+    }
+    
+    @Override
+    public void append(List<AuditEvent> batch) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(batch.size() * 192);
+        LocalDate day = null;
+        for (AuditEvent event : batch) {
+            LocalDate eventDay = day(event.getTimestamp());
+            if (day != null && !eventDay.equals(day)) {
+                // El lote cruza la medianoche: lo anterior va al archivo del día que termina
+                write(day, lines);
+                lines.reset();
+            }
+            day = eventDay;
+            objectMapper.writeValue(lines, event.toRow());
+            lines.write('\n');
+        }
+        if (day != null) {
+            write(day, lines);
+        }
+    }
+    
+    private void write(LocalDate day, ByteArrayOutputStream lines) throws IOException {
+        if (channel == null || !day.equals(channelDay)) {
+            close();
+            Files.createDirectories(directory);
+            channel = FileChannel.open(file(day), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+            channelDay = day;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+    
+    @Override
+    public void readSince(long fromMillis, Consumer<AuditEvent> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        LocalDate firstDay = day(fromMillis);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(PREFIX) && name.endsWith(SUFFIX)
+                        && name.substring(PREFIX.length(), name.length() - SUFFIX.length()).compareTo(firstDay.toString()) >= 0;
+                })
+                .sorted()
+                .toList();
+        }
+        for (Path file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        AuditEvent event = AuditEvent.fromRow(objectMapper.readValue(line, ROW));
+                        if (event.getTimestamp() >= fromMillis) {
+                            consumer.accept(event);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        log.warn("Línea de auditoría ilegible en {}: {}", file.getFileName(), e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+    
+    @Override
+    public String describe() {
+        return "file:" + directory.toAbsolutePath().normalize();
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+    
+    private Path file(LocalDate day) {
+        return directory.resolve(PREFIX + day + SUFFIX);
+    }
+    
+    private static LocalDate day(long millis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,103 @@
+package com.elecciones.audit;
+
+import com.elecciones.config.SupabaseConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Auditoría en la tabla security_audit_log de Supabase, con un INSERT por lote:
+ *
+ *   create table security_audit_log (
+ *     id bigint generated always as identity primary key,
+ *     seq bigint not null, occurred_at timestamptz not null, type text not null,
+ *     actor text, ip text, status text not null, detail text);
+ *   create index on security_audit_log (occurred_at);
+ *
+ * Se activa con audit.sink=supabase y usa la service key, así que la tabla puede tener RLS
+ * sin políticas para el rol anon.
+ */
+@Component
+@ConditionalOnProperty(name = "audit.sink", havingValue = "supabase")
+@Profile("!inmemory")
+@RequiredArgsConstructor
+@Slf4j
+public class SupabaseAuditSink implements AuditSink {
+    
+    private static final String TABLE = "security_audit_log";
+    private static final int PAGE_SIZE = 1000;
+    
+    private final SupabaseConfig supabaseConfig;
+    private final RestTemplate restTemplate;
+    
+    private HttpHeaders createServiceHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("apikey", supabaseConfig.getSupabaseServiceKey());
+        headers.set("Authorization", supabaseConfig.getServiceAuthHeader());
+        headers.set("Content-Type", "application/json");
+        headers.set("Prefer", "return=minimal");
+        return headers;
+    }
+    
+    @Override
+    public void append(List<AuditEvent> batch) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>(batch.size());
+        for (AuditEvent event : batch) {
+            rows.add(event.toRow());
+        }
+        try {
+            restTemplate.exchange(supabaseConfig.getApiUrl() + "/" + TABLE, HttpMethod.POST,
+                new HttpEntity<>(rows, createServiceHeaders()), Void.class);
+        } catch (RestClientException e) {
+            throw new IOException("Error al guardar eventos de auditoría: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public void readSince(long fromMillis, Consumer<AuditEvent> consumer) throws IOException {
+        String from = Instant.ofEpochMilli(fromMillis).toString();
+        for (int offset = 0; ; offset += PAGE_SIZE) {
+            String url = supabaseConfig.getApiUrl() + "/" + TABLE + "?select=seq,occurred_at,type,actor,ip,status,detail"
+                + "&occurred_at=gte." + from + "&order=seq.asc&limit=" + PAGE_SIZE + "&offset=" + offset;
+            List<Map<String, Object>> page;
+            try {
+                ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(url, HttpMethod.GET,
+                    new HttpEntity<>(createServiceHeaders()), new ParameterizedTypeReference<>() {});
+                page = response.getBody() != null ? response.getBody() : List.of();
+            } catch (RestClientException e) {
+                throw new IOException("Error al leer eventos de auditoría: " + e.getMessage(), e);
+            }
+            for (Map<String, Object> row : page) {
+                try {
+                    consumer.accept(AuditEvent.fromRow(row));
+                } catch (RuntimeException e) {
+                    log.warn("Fila de auditoría ilegible (seq {}): {}", row.get("seq"), e.getMessage());
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                return;
+            }
+        }
+    }
+    
+    @Override
+    public String describe() {
+        return "supabase:" + TABLE;
+    }
+}
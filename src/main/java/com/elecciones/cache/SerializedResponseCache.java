@@ -0,0 +1,179 @@
+package com.elecciones.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas JSON ya serializadas y comprimidas, con ETag fuerte.
+ *
+ * Cada clave guarda una sola entrada: la versión de los datos, los bytes JSON, su variante
+ * gzip y el ETag (SHA-256 de los bytes). Mientras la versión no cambie, cada solicitud solo
+ * copia los bytes, y si el cliente envía If-None-Match con el ETag vigente de la variante que
+ * le corresponde (identity o gzip) se responde 304 sin cuerpo, con ese mismo ETag. La versión
+ * la decide quien llama y debe ser barata de comparar con equals, como el número de versión
+ * de la instantánea del dashboard.
+ */
+@Component
+@Slf4j
+public class SerializedResponseCache {
+    
+    // Por debajo de este tamaño gzip no ahorra lo que cuesta descomprimir
+    private static final int MIN_GZIP_BYTES = 1024;
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+    
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    public SerializedResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Respuesta para la clave; el cuerpo se serializa solo si la versión cambió
+     *
+     * @param version  identifica los datos; se compara con equals contra la versión guardada
+     * @param body     se invoca solo al cambiar la versión
+     * @param request  headers de la solicitud (If-None-Match y Accept-Encoding)
+     * @param extra    headers adicionales para la respuesta, también en el 304
+     */
+    public ResponseEntity<byte[]> respond(String key, Object version, Supplier<?> body,
+                                          HttpHeaders request, HttpHeaders extra) {
+        Entry entry = entries.compute(key, (k, cached) ->
+            cached != null && cached.version.equals(version) ? cached : serialize(k, version, body.get()));
+        
+        boolean gzip = entry.gzip != null && acceptsGzip(String.join(",", request.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)));
+        String etag = gzip ? entry.etag + GZIP_ETAG_SUFFIX : entry.etag;
+        if (matches(String.join(",", request.getOrEmpty(HttpHeaders.IF_NONE_MATCH)), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .headers(extra)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.OK)
+            .headers(extra)
+            .eTag(etag)
+            // Los clientes pueden guardar la respuesta pero deben revalidarla con el ETag
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, GZIP).contentLength(entry.gzip.length).body(entry.gzip);
+        }
+        return builder.contentLength(entry.json.length).body(entry.json);
+    }
+    
+    private Entry serialize(String key, Object version, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al serializar respuesta: " + e.getMessage(), e);
+        }
+        byte[] gzip = json.length >= MIN_GZIP_BYTES ? gzip(json) : null;
+        String etag = etag(json);
+        log.debug("Respuesta {} serializada: {} bytes, gzip {} bytes, ETag {}", key, json.length,
+            gzip != null ? gzip.length : "-", etag);
+        return new Entry(version, json, gzip, etag);
+    }
+    
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 18));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase(GZIP) && !parts[0].trim().equals("*")) {
+                continue;
+            }
+            // gzip;q=0 lo rechaza explícitamente
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) == 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            return !refused;
+        }
+        return false;
+    }
+    
+    /**
+     * Comparación débil de If-None-Match contra el ETag de la variante que se enviaría: un
+     * cliente que guardó la otra codificación recibe la respuesta completa, y el 304 lleva
+     * siempre el ETag que el cliente ya tiene
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String quoted = "\"" + etag + "\"";
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static final class Entry {
+        private final Object version;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        
+        Entry(Object version, byte[] json, byte[] gzip, String etag) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.elecciones.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecutores internos de la aplicación: pools fijos de hilos daemon con nombre, que se
+ * detienen juntos al apagar la aplicación.
+ */
+@Component
+public class BackgroundExecutors {
+    
+    private final List<ExecutorService> pools = new CopyOnWriteArrayList<>();
+    
+    /**
+     * @param name            prefijo de los nombres de hilo
+     * @param platformThreads tamaño del pool
+     * @return pool fijo; quien lo necesite puede redimensionarlo con setCorePoolSize/setMaximumPoolSize
+     */
+    public ThreadPoolExecutor newExecutor(String name, int platformThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(platformThreads, platformThreads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pools.add(pool);
+        return pool;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pools.forEach(ExecutorService::shutdownNow);
+    }
+}
@@ -35,7 +35,7 @@ public class CorsConfig {
         config.setAllowedHeaders(Arrays.asList("*"));
         
         // Headers expuestos
-        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Idempotent-Replayed", "Retry-After"));
         
         // Aplicar configuración a todas las rutas
         source.registerCorsConfiguration("/**", config);
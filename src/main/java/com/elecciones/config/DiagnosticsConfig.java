@@ -0,0 +1,28 @@
+package com.elecciones.config;
+
+import com.elecciones.filter.SlowRequestFilter;
+import com.elecciones.metrics.SlowRequestRecorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class DiagnosticsConfig {
+    
+    @Value("${diagnostics.slow-requests.enabled:true}")
+    private boolean enabled;
+    
+    /**
+     * Primer filtro de la cadena, para medir también la seguridad y el límite de frecuencia
+     */
+    @Bean
+    public FilterRegistrationBean<SlowRequestFilter> slowRequestFilterRegistration(SlowRequestRecorder recorder) {
+        FilterRegistrationBean<SlowRequestFilter> registration = new FilterRegistrationBean<>(new SlowRequestFilter(recorder));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns("/api/*");
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
@@ -0,0 +1,76 @@
+package com.elecciones.config;
+
+import com.elecciones.filter.RateLimitFilter;
+import com.elecciones.filter.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class RateLimitConfig {
+    
+    @Value("${ratelimit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ratelimit.max-keys:100000}")
+    private int maxKeys;
+    
+    @Value("${ratelimit.trusted-proxy-hops:1}")
+    private int trustedProxyHops;
+    
+    // POST /api/voters/verify (cada intento puede costar una consulta pagada a Factiliza)
+    @Value("${ratelimit.verify.ip-per-minute:20}")
+    private int verifyIpPerMinute;
+    
+    @Value("${ratelimit.verify.ip-burst:10}")
+    private int verifyIpBurst;
+    
+    @Value("${ratelimit.verify.dni-per-minute:5}")
+    private int verifyDniPerMinute;
+    
+    @Value("${ratelimit.verify.dni-burst:3}")
+    private int verifyDniBurst;
+    
+    // POST /api/votes
+    @Value("${ratelimit.votes.ip-per-minute:30}")
+    private int votesIpPerMinute;
+    
+    @Value("${ratelimit.votes.ip-burst:10}")
+    private int votesIpBurst;
+    
+    @Value("${ratelimit.votes.dni-per-minute:6}")
+    private int votesDniPerMinute;
+    
+    @Value("${ratelimit.votes.dni-burst:3}")
+    private int votesDniBurst;
+    
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        List<RateLimitFilter.RoutePolicy> policies = new ArrayList<>();
+        if (enabled) {
+            policies.add(new RateLimitFilter.RoutePolicy("POST", "/api/voters/verify",
+                new RateLimiter("verify-ip", verifyIpPerMinute, verifyIpBurst, maxKeys),
+                new RateLimiter("verify-dni", verifyDniPerMinute, verifyDniBurst, maxKeys),
+                "dni"));
+            policies.add(new RateLimitFilter.RoutePolicy("POST", "/api/votes",
+                new RateLimiter("votes-ip", votesIpPerMinute, votesIpBurst, maxKeys),
+                new RateLimiter("votes-dni", votesDniPerMinute, votesDniBurst, maxKeys),
+                "voterDni"));
+        }
+        return new RateLimitFilter(policies, trustedProxyHops);
+    }
+    
+    /**
+     * El filtro se ejecuta dentro de la cadena de Spring Security, no como filtro de servlet aparte
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -1,19 +1,28 @@
 package com.elecciones.config;
 
+import com.elecciones.metrics.OutboundCallMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class RestTemplateConfig {
     
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(30000);
-        factory.setReadTimeout(30000);
-        return new RestTemplate(factory);
+    public RestTemplate restTemplate(OutboundCallMetrics outboundCallMetrics) {
+        // HttpURLConnection no admite PATCH, que PostgREST usa para las actualizaciones
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(30000))
+            .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(30000));
+        RestTemplate restTemplate = new RestTemplate(factory);
+        restTemplate.getInterceptors().add(outboundCallMetrics);
+        return restTemplate;
     }
 }
 
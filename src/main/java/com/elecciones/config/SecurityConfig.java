@@ -1,29 +1,74 @@
 package com.elecciones.config;
 
+import com.elecciones.audit.AuditLog;
+import com.elecciones.filter.AdminAuthenticationFilter;
+import com.elecciones.filter.RateLimitFilter;
+import com.elecciones.service.TokenService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     
+    @Value("${security.token-cache.ttl-ms:30000}")
+    private long tokenCacheTtlMillis;
+    
+    @Value("${security.token-cache.max-entries:1000}")
+    private int tokenCacheMaxEntries;
+    
+    @Value("${server.port:8080}")
+    private int serverPort;
+    
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+    
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService, AuditLog auditLog,
+                                                   RateLimitFilter rateLimitFilter) throws Exception {
+        AdminAuthenticationFilter adminAuthenticationFilter =
+            new AdminAuthenticationFilter(tokenService, auditLog, tokenCacheTtlMillis, tokenCacheMaxEntries);
         http
             .csrf(csrf -> csrf.disable())
+            // Usa el bean corsFilter para que las respuestas 401 del filtro también lleven CORS
+            .cors(Customizer.withDefaults())
+            // Los patrones se comparan con la ruta decodificada, igual que el mapeo de Spring MVC
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers("/error").permitAll()
+                // Endpoints de sesión que validan el token por su cuenta
+                .requestMatchers("/api/admin/login", "/api/admin/verify", "/api/admin/logout",
+                    "/api/superadmin/login", "/api/superadmin/verify", "/api/superadmin/logout").permitAll()
+                .requestMatchers("/api/superadmin/**").hasRole("SUPERADMIN")
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/voters/list").hasAnyRole("ADMIN", "SUPERADMIN")
                 .requestMatchers("/api/**").permitAll()
+                // Scrape de Prometheus solo por el puerto de gestión, que no se publica; si comparte el
+                // puerto público, /actuator queda bajo anyRequest().authenticated()
+                .requestMatchers(request -> managementPort != serverPort
+                    && request.getLocalPort() == managementPort).permitAll()
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
-            );
+            )
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(adminAuthenticationFilter.entryPoint())
+                .accessDeniedHandler(adminAuthenticationFilter.accessDeniedHandler())
+            )
+            // Límite de frecuencia antes de cualquier otro trabajo
+            .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
+            // Token Bearer -> Authentication; los roles por ruta están en authorizeHttpRequests
+            .addFilterBefore(adminAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
 }
-
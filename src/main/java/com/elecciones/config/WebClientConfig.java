@@ -0,0 +1,101 @@
+package com.elecciones.config;
+
+import com.elecciones.metrics.OutboundCallMetrics;
+import com.elecciones.model.Candidate;
+import com.elecciones.model.Vote;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+@Configuration
+public class WebClientConfig {
+    
+    /**
+     * WebClient de PostgREST para ReactiveSupabaseService.
+     *
+     * Usa el HttpClient del JDK en modo asíncrono: unos pocos hilos (supabase.reactive.threads)
+     * atienden todas las llamadas en curso y decodifican las respuestas. Jackson lee las filas
+     * en snake_case directamente en los modelos.
+     */
+    @Bean
+    public WebClient supabaseWebClient(SupabaseConfig supabaseConfig,
+                                       OutboundCallMetrics outboundCallMetrics,
+                                       BackgroundExecutors executors,
+                                       @Value("${supabase.reactive.threads:2}") int threads) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(30000))
+            .executor(executors.newExecutor("supabase-reactive", threads))
+            .build();
+        ObjectMapper mapper = postgrestMapper();
+        return WebClient.builder()
+            .baseUrl(supabaseConfig.getApiUrl())
+            .clientConnector(new JdkClientHttpConnector(httpClient))
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper, MediaType.APPLICATION_JSON));
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper, MediaType.APPLICATION_JSON));
+            })
+            .defaultHeader("apikey", supabaseConfig.getSupabaseKey())
+            .defaultHeader("Authorization", supabaseConfig.getAuthHeader())
+            .filter(outboundCallMetrics.exchangeFilter())
+            // Equivale al read timeout del RestTemplate: tiempo máximo hasta recibir los headers
+            .filter((request, next) -> next.exchange(request).timeout(Duration.ofMillis(30000)))
+            .build();
+    }
+    
+    /**
+     * Filas de PostgREST a modelos: columnas en snake_case, categorías en minúsculas y
+     * timestamps con o sin zona horaria (se descarta la zona, igual que en SupabaseService)
+     */
+    static ObjectMapper postgrestMapper() {
+        return JsonMapper.builder()
+            .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .addModule(new JavaTimeModule()
+                .addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer(DateTimeFormatter.ISO_DATE_TIME)))
+            .addMixIn(Vote.class, VoteColumns.class)
+            .build();
+    }
+    
+    /**
+     * La fila de votes trae candidate_id: se lee como un Candidate con solo el id, que
+     * ReactiveSupabaseService reemplaza por el candidato completo
+     */
+    abstract static class VoteColumns {
+        @JsonProperty("candidate_id")
+        @JsonDeserialize(using = CandidateReference.class)
+        private Candidate candidate;
+    }
+    
+    static final class CandidateReference extends JsonDeserializer<Candidate> {
+        @Override
+        public Candidate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            Candidate candidate = new Candidate();
+            candidate.setId(parser.getValueAsString());
+            return candidate;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -83,19 +84,36 @@ public class AdminController {
         }
     }
     
+    /**
+     * Endpoint para cerrar sesión (revoca el token hasta su expiración)
+     * POST /api/admin/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Map<String, Object> response = new HashMap<>();
+        
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            response.put("success", false);
+            response.put("message", "Token no proporcionado");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        boolean revoked = adminService.revokeToken(authHeader.substring(7));
+        response.put("success", revoked);
+        response.put("message", revoked ? "Sesión cerrada" : "Token inválido o expirado");
+        
+        return revoked ? ResponseEntity.ok(response) : ResponseEntity.status(401).body(response);
+    }
+    
     /**
      * Endpoint para eliminar valores nulos
      * POST /api/admin/clean/null-values
      */
     @PostMapping("/clean/null-values")
-    public ResponseEntity<Map<String, Object>> deleteNullValues(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<Map<String, Object>> deleteNullValues() {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
             int deletedCount = adminService.deleteNullValues();
             response.put("success", true);
             response.put("deletedCount", deletedCount);
@@ -115,14 +133,10 @@ public class AdminController {
      * POST /api/admin/clean/duplicates
      */
     @PostMapping("/clean/duplicates")
-    public ResponseEntity<Map<String, Object>> deleteDuplicates(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<Map<String, Object>> deleteDuplicates() {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
             int deletedCount = adminService.deleteDuplicateVotes();
             response.put("success", true);
             response.put("deletedCount", deletedCount);
@@ -142,20 +156,16 @@ public class AdminController {
      * GET /api/admin/clean/validate-dnis
      */
     @GetMapping("/clean/validate-dnis")
-    public ResponseEntity<Map<String, Object>> validateDNIs(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<Map<String, Object>> validateDNIs() {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
             java.util.List<String> invalidDNIs = adminService.validateDNIs();
             response.put("success", true);
             response.put("invalidDNIs", invalidDNIs);
             response.put("count", invalidDNIs.size());
-            response.put("message", invalidDNIs.isEmpty() ? 
-                "Todos los DNIs tienen el formato correcto" : 
+            response.put("message", invalidDNIs.isEmpty() ?
+                "Todos los DNIs tienen el formato correcto" :
                 "Se encontraron " + invalidDNIs.size() + " DNIs con formato inválido");
             
             return ResponseEntity.ok(response);
@@ -172,14 +182,10 @@ public class AdminController {
      * POST /api/admin/clean/normalize
      */
     @PostMapping("/clean/normalize")
-    public ResponseEntity<Map<String, Object>> normalizeData(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<Map<String, Object>> normalizeData() {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
             int normalizedCount = adminService.normalizeData();
             response.put("success", true);
             response.put("normalizedCount", normalizedCount);
@@ -199,26 +205,22 @@ public class AdminController {
      * POST /api/admin/training/trends
      */
     @PostMapping("/training/trends")
-    public ResponseEntity<Map<String, Object>> analyzeTrends(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
-            Map<String, Object> trendsData = adminService.analyzeTrends();
-            response.put("success", true);
-            response.put("data", trendsData);
-            response.put("message", "Análisis de tendencias completado");
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error al analizar tendencias: {}", e.getMessage(), e);
-            response.put("success", false);
-            response.put("message", "Error al analizar tendencias: " + e.getMessage());
-            return ResponseEntity.status(500).body(response);
-        }
+    public Mono<ResponseEntity<Map<String, Object>>> analyzeTrends() {
+        return adminService.analyzeTrends()
+            .map(trendsData -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", trendsData);
+                response.put("message", "Análisis de tendencias completado");
+                return ResponseEntity.ok(response);
+            })
+            .onErrorResume(e -> {
+                log.error("Error al analizar tendencias: {}", e.getMessage(), e);
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "Error al analizar tendencias: " + e.getMessage());
+                return Mono.just(ResponseEntity.status(500).body(response));
+            });
     }
     
     /**
@@ -226,26 +228,22 @@ public class AdminController {
      * POST /api/admin/training/anomalies
      */
     @PostMapping("/training/anomalies")
-    public ResponseEntity<Map<String, Object>> detectAnomalies(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
-            Map<String, Object> anomaliesData = adminService.detectAnomalies();
-            response.put("success", true);
-            response.put("data", anomaliesData);
-            response.put("message", "Detección de anomalías completada");
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error al detectar anomalías: {}", e.getMessage(), e);
-            response.put("success", false);
-            response.put("message", "Error al detectar anomalías: " + e.getMessage());
-            return ResponseEntity.status(500).body(response);
-        }
+    public Mono<ResponseEntity<Map<String, Object>>> detectAnomalies() {
+        return adminService.detectAnomalies()
+            .map(anomaliesData -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", anomaliesData);
+                response.put("message", "Detección de anomalías completada");
+                return ResponseEntity.ok(response);
+            })
+            .onErrorResume(e -> {
+                log.error("Error al detectar anomalías: {}", e.getMessage(), e);
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "Error al detectar anomalías: " + e.getMessage());
+                return Mono.just(ResponseEntity.status(500).body(response));
+            });
     }
     
     /**
@@ -253,46 +251,21 @@ public class AdminController {
      * POST /api/admin/training/participation
      */
     @PostMapping("/training/participation")
-    public ResponseEntity<Map<String, Object>> analyzeParticipation(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
-            Map<String, Object> participationData = adminService.analyzeParticipation();
-            response.put("success", true);
-            response.put("data", participationData);
-            response.put("message", "Análisis de participación completado");
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error al analizar participación: {}", e.getMessage(), e);
-            response.put("success", false);
-            response.put("message", "Error al analizar participación: " + e.getMessage());
-            return ResponseEntity.status(500).body(response);
-        }
-    }
-    
-    /**
-     * Valida el token de autenticación
-     */
-    private boolean validateAuth(String authHeader, Map<String, Object> response) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            response.put("success", false);
-            response.put("message", "Token no proporcionado");
-            return false;
-        }
-        
-        String token = authHeader.substring(7);
-        if (!adminService.validateToken(token)) {
-            response.put("success", false);
-            response.put("message", "Token inválido o expirado");
-            return false;
-        }
-        
-        return true;
+    public Mono<ResponseEntity<Map<String, Object>>> analyzeParticipation() {
+        return adminService.analyzeParticipation()
+            .map(participationData -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", participationData);
+                response.put("message", "Análisis de participación completado");
+                return ResponseEntity.ok(response);
+            })
+            .onErrorResume(e -> {
+                log.error("Error al analizar participación: {}", e.getMessage(), e);
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "Error al analizar participación: " + e.getMessage());
+                return Mono.just(ResponseEntity.status(500).body(response));
+            });
     }
 }
-
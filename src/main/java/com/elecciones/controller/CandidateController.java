@@ -1,13 +1,20 @@
 package com.elecciones.controller;
 
+import com.elecciones.cache.SerializedResponseCache;
 import com.elecciones.dto.CandidateDTO;
+import com.elecciones.model.Candidate;
 import com.elecciones.service.CandidateService;
+import com.elecciones.service.DashboardSnapshotService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/candidates")
@@ -15,15 +22,33 @@ import java.util.List;
 @Slf4j
 public class CandidateController {
     
+    private static final Set<String> CATEGORIES = Arrays.stream(Candidate.ElectoralCategory.values())
+        .map(category -> category.name().toLowerCase())
+        .collect(Collectors.toSet());
+    private static final String VIEW_SUMMARY = "summary";
+    private static final String VIEW_FULL = "full";
+    
     private final CandidateService candidateService;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final SerializedResponseCache responseCache;
     
     /**
-     * Obtiene todos los candidatos
+     * Obtiene todos los candidatos: resumen para la boleta, o con todos los textos con view=full
      * GET /api/candidates
+     * La versión es la de la instantánea del dashboard: el resumen sale de ella y la vista completa
+     * se vuelve a leer de Supabase solo cuando la instantánea cambió; entre tanto se reutiliza el
+     * JSON ya serializado (ETag / 304)
      */
     @GetMapping
-    public ResponseEntity<List<CandidateDTO>> obtenerTodosLosCandidatos() {
-        return ResponseEntity.ok(candidateService.obtenerTodosLosCandidatos());
+    public ResponseEntity<byte[]> obtenerTodosLosCandidatos(@RequestParam(defaultValue = VIEW_SUMMARY) String view,
+                                                            @RequestHeader HttpHeaders headers) {
+        DashboardSnapshotService.Snapshot snapshot = dashboardSnapshotService.getSnapshot();
+        if (VIEW_FULL.equals(view)) {
+            return responseCache.respond("candidates:full", snapshot.getVersion(),
+                candidateService::obtenerTodosLosCandidatos, headers, HttpHeaders.EMPTY);
+        }
+        return responseCache.respond("candidates", snapshot.getVersion(),
+            () -> snapshot.getStats().getCandidates(), headers, HttpHeaders.EMPTY);
     }
     
     /**
@@ -31,9 +56,35 @@ public class CandidateController {
      * GET /api/candidates/category/{category}
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<CandidateDTO>> obtenerCandidatosPorCategoria(
-            @PathVariable String category) {
-        return ResponseEntity.ok(candidateService.obtenerCandidatosPorCategoria(category));
+    public ResponseEntity<byte[]> obtenerCandidatosPorCategoria(
+            @PathVariable String category,
+            @RequestParam(defaultValue = VIEW_SUMMARY) String view,
+            @RequestHeader HttpHeaders headers) {
+        DashboardSnapshotService.Snapshot snapshot = dashboardSnapshotService.getSnapshot();
+        if (!CATEGORIES.contains(category)) {
+            // Cualquier otro valor no tiene candidatos y comparte una sola entrada
+            return responseCache.respond("candidates:?", snapshot.getVersion(), List::of, headers, HttpHeaders.EMPTY);
+        }
+        String key = "candidates:" + category;
+        if (VIEW_FULL.equals(view)) {
+            return responseCache.respond(key + ":full", snapshot.getVersion(),
+                () -> candidateService.obtenerCandidatosPorCategoria(category), headers, HttpHeaders.EMPTY);
+        }
+        // La instantánea ya viene ordenada por votos, igual que la consulta por categoría
+        return responseCache.respond(key, snapshot.getVersion(), () -> snapshot.getStats().getCandidates().stream()
+            .filter(candidate -> category.equals(candidate.getCategory()))
+            .toList(), headers, HttpHeaders.EMPTY);
+    }
+    
+    /**
+     * Detalle de un candidato con descripción, formación, experiencia y propuesta
+     * GET /api/candidates/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CandidateDTO> obtenerCandidato(@PathVariable String id) {
+        return candidateService.obtenerCandidato(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 }
 
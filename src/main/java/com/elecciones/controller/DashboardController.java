@@ -1,15 +1,21 @@
 package com.elecciones.controller;
 
-import com.elecciones.dto.CandidateDTO;
-import com.elecciones.dto.DashboardStatsDTO;
-import com.elecciones.service.CandidateService;
-import com.elecciones.service.SupabaseService;
+import com.elecciones.cache.SerializedResponseCache;
+import com.elecciones.geo.GeoRollup;
+import com.elecciones.service.DashboardSnapshotService;
+import com.elecciones.service.ResultsStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -17,42 +23,63 @@ import java.util.List;
 @Slf4j
 public class DashboardController {
     
-    private final SupabaseService supabaseService;
-    private final CandidateService candidateService;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final ResultsStreamService resultsStreamService;
+    private final SerializedResponseCache responseCache;
+    private final GeoRollup geoRollup;
     
     /**
-     * Obtiene las estadísticas del dashboard
+     * Obtiene las estadísticas del dashboard desde la instantánea precalculada
      * GET /api/dashboard/stats
+     * El header Age indica los segundos desde que se calculó; el JSON se serializa una vez por instantánea
      */
     @GetMapping("/stats")
-    public ResponseEntity<DashboardStatsDTO> obtenerEstadisticas() {
-        DashboardStatsDTO stats = new DashboardStatsDTO();
-        
-        // Total de votos
-        long totalVotes = supabaseService.countVotes();
-        stats.setTotalVotes(totalVotes);
-        
-        // Total de votantes
-        long totalVoters = supabaseService.countVoters();
-        stats.setTotalVoters(totalVoters);
-        
-        // Votantes únicos que han votado
-        long uniqueVotersWhoVoted = supabaseService.countDistinctVoters();
-        
-        // Tasa de participación
-        double participationRate = totalVoters > 0 ? 
-            (double) uniqueVotersWhoVoted / totalVoters * 100 : 0;
-        stats.setParticipationRate(participationRate);
-        
-        // Votos por categoría
-        stats.setPresidentialVotes(supabaseService.countVotesByCategory("presidencial"));
-        stats.setDistritalVotes(supabaseService.countVotesByCategory("distrital"));
-        stats.setRegionalVotes(supabaseService.countVotesByCategory("regional"));
-        
-        // Candidatos
-        List<CandidateDTO> candidates = candidateService.obtenerTodosLosCandidatos();
-        stats.setCandidates(candidates);
-        
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<byte[]> obtenerEstadisticas(@RequestHeader HttpHeaders headers) {
+        DashboardSnapshotService.Snapshot snapshot = dashboardSnapshotService.getSnapshot();
+        HttpHeaders extra = new HttpHeaders();
+        extra.set(HttpHeaders.AGE, Long.toString(TimeUnit.MILLISECONDS.toSeconds(snapshot.getAgeMillis())));
+        extra.setLastModified(snapshot.getGeneratedAt());
+        return responseCache.respond("dashboard:stats", snapshot.getVersion(), snapshot::getStats, headers, extra);
+    }
+    
+    /**
+     * Resultados en vivo: evento "snapshot" al conectar y luego eventos "delta" con los
+     * candidatos cuyo conteo cambió, los totales por categoría y la participación
+     * GET /api/dashboard/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamResultados() {
+        return resultsStreamService.subscribe();
+    }
+    
+    /**
+     * Resultados y participación del país con sus departamentos
+     * GET /api/dashboard/geo
+     */
+    @GetMapping("/geo")
+    public ResponseEntity<Map<String, Object>> obtenerResultadosPais() {
+        return obtenerResultadosGeograficos(0);
+    }
+    
+    /**
+     * Resultados y participación de un departamento, provincia o distrito con sus hijos;
+     * los ids salen de "children" y "path" de la respuesta anterior
+     * GET /api/dashboard/geo/{id}
+     */
+    @GetMapping("/geo/{id}")
+    public ResponseEntity<Map<String, Object>> obtenerResultadosGeograficos(@PathVariable int id) {
+        Map<String, Object> response = new HashMap<>();
+        if (!geoRollup.isReady()) {
+            response.put("success", false);
+            response.put("message", "Resultados geográficos en preparación");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+        return geoRollup.view(id)
+            .map(view -> {
+                response.put("success", true);
+                response.put("data", view);
+                return ResponseEntity.ok(response);
+            })
+            .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -1,6 +1,6 @@
 package com.elecciones.controller;
 
-import com.elecciones.service.SupabaseService;
+import com.elecciones.repository.VoterRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -15,7 +15,7 @@ import java.util.Map;
 @Slf4j
 public class HealthController {
     
-    private final SupabaseService supabaseService;
+    private final VoterRepository voterRepository;
     
     /**
      * Verifica la conexión con Supabase
@@ -27,7 +27,7 @@ public class HealthController {
         
         try {
             // Intentar contar votantes (operación simple que verifica la conexión)
-            long voterCount = supabaseService.countVoters();
+            long voterCount = voterRepository.countVoters();
             
             response.put("success", true);
             response.put("connected", true);
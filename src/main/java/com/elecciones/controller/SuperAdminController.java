@@ -1,14 +1,33 @@
 package com.elecciones.controller;
 
+import com.elecciones.audit.AuditEventType;
 import com.elecciones.dto.LoginRequest;
+import com.elecciones.metrics.SlowRequestRecorder;
+import com.elecciones.service.MigrationExportService;
+import com.elecciones.service.MigrationImportService;
+import com.elecciones.service.PadronLoaderService;
 import com.elecciones.service.SuperAdminService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/superadmin")
@@ -17,6 +36,11 @@ import java.util.Map;
 public class SuperAdminController {
     
     private final SuperAdminService superAdminService;
+    private final MigrationExportService migrationExportService;
+    private final MigrationImportService migrationImportService;
+    private final PadronLoaderService padronLoaderService;
+    private final SlowRequestRecorder slowRequestRecorder;
+    private final ObjectMapper objectMapper;
     
     /**
      * Endpoint para login de super administrador
@@ -86,19 +110,36 @@ public class SuperAdminController {
         }
     }
     
+    /**
+     * Endpoint para cerrar sesión (revoca el token hasta su expiración)
+     * POST /api/superadmin/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Map<String, Object> response = new HashMap<>();
+        
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            response.put("success", false);
+            response.put("message", "Token no proporcionado");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        boolean revoked = superAdminService.revokeToken(authHeader.substring(7));
+        response.put("success", revoked);
+        response.put("message", revoked ? "Sesión cerrada" : "Token inválido o expirado");
+        
+        return revoked ? ResponseEntity.ok(response) : ResponseEntity.status(401).body(response);
+    }
+    
     /**
      * Endpoint para exportar todos los datos
      * GET /api/superadmin/migration/export
      */
     @GetMapping("/migration/export")
-    public ResponseEntity<Map<String, Object>> exportData(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<Map<String, Object>> exportData() {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
             Map<String, Object> exportData = superAdminService.exportAllData();
             response.put("success", true);
             response.put("data", exportData);
@@ -113,22 +154,45 @@ public class SuperAdminController {
         }
     }
     
+    /**
+     * Exportación completa en streaming: NDJSON con gzip, con filas y SHA-256 por tabla
+     * GET /api/superadmin/migration/export/stream
+     */
+    @GetMapping("/migration/export/stream")
+    public void exportDataStream(HttpServletResponse response) throws IOException {
+        String fileName = "elecciones-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".ndjson.gz";
+        response.setContentType("application/gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
+        
+        try {
+            Map<String, Object> manifest = migrationExportService.export(response.getOutputStream());
+            log.info("Datos exportados en streaming: {}", manifest.get("tables"));
+        } catch (IOException | RuntimeException e) {
+            log.error("Error al exportar datos: {}", e.getMessage(), e);
+            if (!response.isCommitted()) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("success", false);
+                error.put("message", "Error al exportar datos: " + e.getMessage());
+                response.reset();
+                response.setStatus(500);
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(), error);
+            }
+            // Con la respuesta ya enviada el archivo termina en una línea "error", sin manifest
+        }
+    }
+    
     /**
      * Endpoint para importar datos
      * POST /api/superadmin/migration/import
      */
     @PostMapping("/migration/import")
     public ResponseEntity<Map<String, Object>> importData(
-            @RequestHeader(value = "Authorization", required = false) String authHeader,
             @RequestBody Map<String, Object> data) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
-            }
-            
-            superAdminService.importData(data);
+            response.put("data", superAdminService.importData(data));
             response.put("success", true);
             response.put("message", "Datos importados exitosamente");
             
@@ -142,24 +206,168 @@ public class SuperAdminController {
     }
     
     /**
-     * Endpoint para obtener logs de auditoría de seguridad
-     * GET /api/superadmin/audit/security
+     * Importación de un archivo de /migration/export/stream (NDJSON con o sin gzip) en el cuerpo
+     * de la solicitud. Corre en segundo plano; subir el mismo archivo otra vez la retoma.
+     * POST /api/superadmin/migration/import/stream
+     */
+    @PostMapping("/migration/import/stream")
+    public ResponseEntity<Map<String, Object>> importDataStream(HttpServletRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Map<String, Object> status = migrationImportService.start(request.getInputStream());
+            response.put("success", true);
+            response.put("data", status);
+            response.put("message", "Importación " + status.get("state"));
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(409).body(response);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error al recibir el archivo de importación: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Error al importar datos: " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    /**
+     * Estado de una importación: filas por tabla, filas por segundo y reporte de fallas
+     * GET /api/superadmin/migration/import/{id}
+     */
+    @GetMapping("/migration/import/{id}")
+    public ResponseEntity<Map<String, Object>> getImportStatus(@PathVariable String id) {
+        return migrationImportService.status(id)
+            .map(status -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", status);
+                return ResponseEntity.ok(response);
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Retoma una importación fallida o interrumpida desde su último checkpoint
+     * POST /api/superadmin/migration/import/{id}/resume
+     */
+    @PostMapping("/migration/import/{id}/resume")
+    public ResponseEntity<Map<String, Object>> resumeImport(@PathVariable String id) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            return migrationImportService.resume(id)
+                .map(status -> {
+                    response.put("success", true);
+                    response.put("data", status);
+                    response.put("message", "Importación " + status.get("state"));
+                    return ResponseEntity.accepted().body(response);
+                })
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(409).body(response);
+        }
+    }
+    
+    /**
+     * Carga del padrón desde un CSV del directorio padron.directory, en segundo plano.
+     * Body: {"file": "padron.csv", "restart": false}. Si la última carga de ese archivo no
+     * terminó, continúa desde su checkpoint salvo que restart sea true.
+     * POST /api/superadmin/padron/load
+     */
+    @PostMapping("/padron/load")
+    public ResponseEntity<Map<String, Object>> loadPadron(@RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Map<String, Object> status = padronLoaderService.start(
+                (String) request.get("file"), Boolean.TRUE.equals(request.get("restart")));
+            response.put("success", true);
+            response.put("data", status);
+            response.put("message", "Carga del padrón " + status.get("state"));
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(409).body(response);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error al iniciar la carga del padrón: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Error al cargar el padrón: " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    /**
+     * Progreso de la última carga del padrón: bytes, filas escritas e inválidas y filas por segundo
+     * GET /api/superadmin/padron/load
+     */
+    @GetMapping("/padron/load")
+    public ResponseEntity<Map<String, Object>> getPadronStatus() {
+        return padronLoaderService.status()
+            .map(status -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", status);
+                return ResponseEntity.ok(response);
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Endpoint para obtener logs de auditoría de seguridad, del más reciente al más antiguo.
+     * from y to son fechas ISO-8601 (con zona o en la hora del servidor), type una lista de
+     * tipos separados por coma y status success o failed. Para la página siguiente se envía
+     * before con el nextBefore de la respuesta.
+     * GET /api/superadmin/audit/security?from=&to=&type=&status=&before=&limit=50
      */
     @GetMapping("/audit/security")
-    public ResponseEntity<Map<String, Object>> getSecurityAudit(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<Map<String, Object>> getSecurityAudit(@RequestParam(required = false) String from,
+                                                                @RequestParam(required = false) String to,
+                                                                @RequestParam(required = false) String type,
+                                                                @RequestParam(required = false) String status,
+                                                                @RequestParam(required = false) Long before,
+                                                                @RequestParam(defaultValue = "50") int limit) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            if (!validateAuth(authHeader, response)) {
-                return ResponseEntity.status(401).body(response);
+            Set<AuditEventType> types = EnumSet.noneOf(AuditEventType.class);
+            if (type != null && !type.isBlank()) {
+                for (String name : type.split(",")) {
+                    try {
+                        types.add(AuditEventType.valueOf(name.trim().toUpperCase()));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("tipo de evento desconocido: " + name.trim());
+                    }
+                }
             }
-            
-            Map<String, Object> auditLogs = superAdminService.getSecurityAuditLogs();
+            Boolean success = status == null || status.isBlank() ? null : switch (status.trim().toLowerCase()) {
+                case "success" -> true;
+                case "failed" -> false;
+                default -> throw new IllegalArgumentException("status debe ser success o failed");
+            };
+            Map<String, Object> auditLogs = superAdminService.getSecurityAuditLogs(
+                parseInstant(from), parseInstant(to), types, success, before, limit);
             response.put("success", true);
             response.put("data", auditLogs);
             response.put("message", "Logs de auditoría obtenidos exitosamente");
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.put("success", false);
+            response.put("message", "Parámetros inválidos: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             log.error("Error al obtener logs de auditoría: {}", e.getMessage(), e);
             response.put("success", false);
@@ -169,23 +377,36 @@ public class SuperAdminController {
     }
     
     /**
-     * Valida el token de autenticación
+     * Últimas solicitudes lentas con sus llamadas a Supabase y Factiliza
+     * GET /api/superadmin/diagnostics/slow-requests?limit=50
      */
-    private boolean validateAuth(String authHeader, Map<String, Object> response) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            response.put("success", false);
-            response.put("message", "Token no proporcionado");
-            return false;
-        }
+    @GetMapping("/diagnostics/slow-requests")
+    public ResponseEntity<Map<String, Object>> getSlowRequests(@RequestParam(defaultValue = "50") int limit) {
+        Map<String, Object> response = new HashMap<>();
         
-        String token = authHeader.substring(7);
-        if (!superAdminService.validateToken(token)) {
-            response.put("success", false);
-            response.put("message", "Token inválido o expirado");
-            return false;
-        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("thresholdMs", slowRequestRecorder.getThresholdMillis());
+        data.put("capacity", slowRequestRecorder.getCapacity());
+        data.put("recorded", slowRequestRecorder.getRecordedCount());
+        data.put("traces", slowRequestRecorder.recent(Math.max(1, Math.min(limit, slowRequestRecorder.getCapacity()))));
         
-        return true;
+        response.put("success", true);
+        response.put("data", data);
+        response.put("message", "Solicitudes lentas obtenidas exitosamente");
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Epoch ms de una fecha ISO-8601; sin zona se interpreta en la hora del servidor
+     */
+    private static Long parseInstant(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
     }
 }
-
@@ -1,6 +1,7 @@
 package com.elecciones.controller;
 
 import com.elecciones.dto.VoteRequest;
+import com.elecciones.service.IdempotencyService;
 import com.elecciones.service.VoteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/votes")
@@ -19,14 +21,47 @@ import java.util.Map;
 @Slf4j
 public class VoteController {
     
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    
     private final VoteService voteService;
+    private final IdempotencyService idempotencyService;
     
     /**
      * Registra los votos de un votante
      * POST /api/votes
+     * Con el header Idempotency-Key los reintentos devuelven la respuesta original
+     * sin volver a ejecutar el registro.
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> registrarVotos(@Valid @RequestBody VoteRequest voteRequest) {
+    public ResponseEntity<Map<String, Object>> registrarVotos(
+            @Valid @RequestBody VoteRequest voteRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ejecutarRegistro(voteRequest);
+        }
+        
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", "Idempotency-Key inválida");
+            return ResponseEntity.badRequest().body(error);
+        }
+        
+        // La clave se aísla por votante para que no pueda colisionar entre DNIs distintos
+        IdempotencyService.Result result = idempotencyService.execute(
+            voteRequest.getVoterDni(), idempotencyKey, fingerprint(voteRequest),
+            () -> ejecutarRegistro(voteRequest)
+        );
+        
+        if (!result.isReplayed()) {
+            return result.getResponse();
+        }
+        return ResponseEntity.status(result.getResponse().getStatusCode())
+            .header(IDEMPOTENT_REPLAYED_HEADER, "true")
+            .body(result.getResponse().getBody());
+    }
+    
+    private ResponseEntity<Map<String, Object>> ejecutarRegistro(VoteRequest voteRequest) {
         try {
             voteService.registrarVotos(voteRequest);
             
@@ -36,6 +71,13 @@ public class VoteController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalStateException e) {
+            // Boleta repetida: el votante ya votó en alguna de las categorías
+            log.warn("Votos rechazados: {}", e.getMessage());
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         } catch (Exception e) {
             log.error("Error al registrar votos: {}", e.getMessage(), e);
             Map<String, Object> error = new HashMap<>();
@@ -45,6 +87,19 @@ public class VoteController {
         }
     }
     
+    /**
+     * Huella del contenido de la boleta, independiente del orden de las selecciones
+     */
+    private static String fingerprint(VoteRequest voteRequest) {
+        if (voteRequest.getSelections() == null) {
+            return "";
+        }
+        return voteRequest.getSelections().stream()
+            .map(selection -> String.valueOf(selection.getCategory()).toLowerCase() + "=" + selection.getCandidateId())
+            .sorted()
+            .collect(Collectors.joining(","));
+    }
+    
     /**
      * Obtiene las categorías ya votadas por un votante
      * GET /api/votes/voter/{dni}/categories
@@ -67,21 +67,13 @@ public class VoterController {
     /**
      * Obtiene listado de votantes (solo para administradores)
      * GET /api/voters/list
+     * La autenticación la resuelve AdminAuthenticationFilter
      */
     @GetMapping("/list")
-    public ResponseEntity<Map<String, Object>> obtenerListadoVotantes(
-            @RequestHeader(value = "Authorization", required = false) String authHeader,
-            @RequestParam(required = false) String dni) {
+    public ResponseEntity<Map<String, Object>> obtenerListadoVotantes(@RequestParam(required = false) String dni) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            // Verificar autenticación de admin (simplificado, en producción usar mejor validación)
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                response.put("success", false);
-                response.put("error", "No autorizado");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-            }
-            
             java.util.List<VoterDTO> voters = voterService.obtenerListadoVotantes(dni);
             
             response.put("success", true);
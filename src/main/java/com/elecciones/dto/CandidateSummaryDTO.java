@@ -0,0 +1,19 @@
+package com.elecciones.dto;
+
+import lombok.Value;
+
+/**
+ * Candidato para listados y la boleta: sin descripciones, formación, experiencia ni propuesta.
+ * El detalle completo está en GET /api/candidates/{id}. Inmutable, porque las instantáneas
+ * del dashboard lo comparten entre solicitudes
+ */
+@Value
+public class CandidateSummaryDTO {
+    String id;
+    String name;
+    String photoUrl;
+    String partyName;
+    String partyLogoUrl;
+    String category;
+    Integer voteCount;
+}
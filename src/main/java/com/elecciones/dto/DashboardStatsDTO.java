@@ -1,20 +1,32 @@
 package com.elecciones.dto;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 import java.util.List;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+/**
+ * Estadísticas del dashboard. Inmutable: la misma instancia se comparte entre todas las
+ * solicitudes que leen la instantánea
+ */
+@Value
 public class DashboardStatsDTO {
-    private Long totalVotes;
-    private Long totalVoters;
-    private Double participationRate;
-    private Long presidentialVotes;
-    private Long distritalVotes;
-    private Long regionalVotes;
-    private List<CandidateDTO> candidates;
+    Long totalVotes;
+    Long totalVoters;
+    Double participationRate;
+    Long presidentialVotes;
+    Long distritalVotes;
+    Long regionalVotes;
+    List<CandidateSummaryDTO> candidates;
+    
+    public DashboardStatsDTO(Long totalVotes, Long totalVoters, Double participationRate,
+                             Long presidentialVotes, Long distritalVotes, Long regionalVotes,
+                             List<CandidateSummaryDTO> candidates) {
+        this.totalVotes = totalVotes;
+        this.totalVoters = totalVoters;
+        this.participationRate = participationRate;
+        this.presidentialVotes = presidentialVotes;
+        this.distritalVotes = distritalVotes;
+        this.regionalVotes = regionalVotes;
+        this.candidates = candidates != null ? List.copyOf(candidates) : List.of();
+    }
 }
 
@@ -0,0 +1,163 @@
+package com.elecciones.filter;
+
+import com.elecciones.audit.AuditEventType;
+import com.elecciones.audit.AuditLog;
+import com.elecciones.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autenticación única para los endpoints administrativos.
+ * Verifica el token Bearer una sola vez, guarda las verificaciones exitosas
+ * durante un TTL corto y deja el rol en el request para los controladores.
+ * Qué rutas exigen qué rol lo decide SecurityConfig, con el mismo emparejamiento de rutas
+ * (decodificadas) que Spring MVC; este filtro solo autentica. Los rechazos los responde
+ * entryPoint()/accessDeniedHandler() y quedan en la auditoría de seguridad.
+ */
+@Slf4j
+public class AdminAuthenticationFilter extends OncePerRequestFilter {
+    
+    public static final String CLAIMS_ATTRIBUTE = AdminAuthenticationFilter.class.getName() + ".claims";
+    
+    private static final byte[] MISSING_TOKEN = ("{\"success\":false,\"message\":\"Token no proporcionado\","
+        + "\"error\":\"No autorizado\"}").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INVALID_TOKEN = ("{\"success\":false,\"message\":\"Token inválido o expirado\","
+        + "\"error\":\"No autorizado\"}").getBytes(StandardCharsets.UTF_8);
+    
+    // Token presente pero inválido o expirado, para responder con el mensaje correcto
+    private static final String INVALID_ATTRIBUTE = AdminAuthenticationFilter.class.getName() + ".invalid";
+    
+    private final SecurityContextRepository contextRepository = new RequestAttributeSecurityContextRepository();
+    
+    private final TokenService tokenService;
+    private final AuditLog auditLog;
+    private final long cacheTtlMillis;
+    private final int cacheMaxEntries;
+    private final Map<String, CachedVerification> verifiedTokens = new ConcurrentHashMap<>();
+    
+    public AdminAuthenticationFilter(TokenService tokenService, AuditLog auditLog, long cacheTtlMillis, int cacheMaxEntries) {
+        this.tokenService = tokenService;
+        this.auditLog = auditLog;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        return authHeader == null || !authHeader.startsWith("Bearer ");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TokenService.TokenClaims claims = verify(request.getHeader("Authorization").substring(7));
+        if (claims == null) {
+            request.setAttribute(INVALID_ATTRIBUTE, Boolean.TRUE);
+        } else {
+            request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(new UsernamePasswordAuthenticationToken(
+                claims.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_" + claims.getRole().toUpperCase()))
+            ));
+            SecurityContextHolder.setContext(context);
+            // Los controladores asíncronos vuelven a pasar por la cadena en un despacho ASYNC, donde
+            // este filtro no corre: el contexto queda en la solicitud para que se recupere
+            contextRepository.saveContext(context, request, response);
+        }
+        chain.doFilter(request, response);
+    }
+    
+    /**
+     * Respuesta a una ruta protegida sin token válido
+     */
+    public AuthenticationEntryPoint entryPoint() {
+        return (request, response, exception) -> {
+            boolean invalid = request.getAttribute(INVALID_ATTRIBUTE) != null;
+            if (invalid) {
+                log.warn("Token rechazado para {} {}", request.getMethod(), request.getRequestURI());
+            }
+            auditLog.record(AuditEventType.TOKEN_REJECTED, null, false,
+                (invalid ? "Token inválido o expirado: " : "Token no proporcionado: ")
+                    + request.getMethod() + " " + request.getRequestURI());
+            reject(response, invalid ? INVALID_TOKEN : MISSING_TOKEN);
+        };
+    }
+    
+    /**
+     * Respuesta a un token válido cuyo rol no tiene acceso a la ruta
+     */
+    public AccessDeniedHandler accessDeniedHandler() {
+        return (request, response, exception) -> {
+            log.warn("Token rechazado para {} {}", request.getMethod(), request.getRequestURI());
+            String role = request.getAttribute(CLAIMS_ATTRIBUTE) instanceof TokenService.TokenClaims claims
+                ? claims.getRole() : null;
+            auditLog.record(AuditEventType.TOKEN_REJECTED, null, false,
+                "Rol " + role + " sin acceso: " + request.getMethod() + " " + request.getRequestURI());
+            reject(response, INVALID_TOKEN);
+        };
+    }
+    
+    /**
+     * Verifica el token usando la caché de verificaciones recientes
+     */
+    private TokenService.TokenClaims verify(String token) {
+        long now = System.currentTimeMillis();
+        CachedVerification cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (cached.validUntil > now && !tokenService.isRevoked(token)) {
+                return cached.claims;
+            }
+            verifiedTokens.remove(token);
+        }
+        
+        TokenService.TokenClaims claims = tokenService.verify(token);
+        if (claims == null) {
+            return null;
+        }
+        
+        if (verifiedTokens.size() >= cacheMaxEntries) {
+            verifiedTokens.values().removeIf(entry -> entry.validUntil <= now);
+            if (verifiedTokens.size() >= cacheMaxEntries) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(token, new CachedVerification(claims, Math.min(now + cacheTtlMillis, claims.getExpiresAt())));
+        return claims;
+    }
+    
+    private static void reject(HttpServletResponse response, byte[] body) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+    
+    private static final class CachedVerification {
+        private final TokenService.TokenClaims claims;
+        private final long validUntil;
+        
+        private CachedVerification(TokenService.TokenClaims claims, long validUntil) {
+            this.claims = claims;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.elecciones.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * IP real del cliente. Detrás del proxy de Render/Railway la última entrada
+ * de X-Forwarded-For la agrega el proxy, las anteriores las controla el cliente.
+ */
+public final class ClientAddress {
+    
+    private ClientAddress() {
+    }
+    
+    /**
+     * @param trustedProxyHops proxies propios delante de la aplicación (ratelimit.trusted-proxy-hops)
+     */
+    public static String resolve(HttpServletRequest request, int trustedProxyHops) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (trustedProxyHops <= 0 || forwardedFor == null || forwardedFor.isEmpty()) {
+            return request.getRemoteAddr();
+        }
+        String[] hops = forwardedFor.split(",");
+        return hops[Math.max(0, hops.length - trustedProxyHops)].trim();
+    }
+}
@@ -0,0 +1,231 @@
+package com.elecciones.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita la frecuencia de las rutas costosas (verificación de DNI y emisión de votos)
+ * por IP del cliente y por DNI. Los rechazos se resuelven en memoria y responden 429
+ * con Retry-After, sin tocar Supabase ni Factiliza.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    // Los cuerpos de estas rutas son JSON pequeños; uno mayor en una ruta con límite por DNI se rechaza
+    private static final int MAX_BUFFERED_BODY = 16 * 1024;
+    private static final byte[] TOO_LARGE = "{\"success\":false,\"error\":\"Solicitud demasiado grande\"}"
+        .getBytes(StandardCharsets.UTF_8);
+    private static final JsonFactory JSON = new JsonFactory();
+    
+    private final List<RoutePolicy> policies;
+    private final int trustedProxyHops;
+    
+    public RateLimitFilter(List<RoutePolicy> policies, int trustedProxyHops) {
+        this.policies = policies;
+        this.trustedProxyHops = trustedProxyHops;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return findPolicy(request) == null;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RoutePolicy policy = findPolicy(request);
+        
+        long wait = policy.ipLimiter.tryAcquire(ClientAddress.resolve(request, trustedProxyHops));
+        if (wait > 0) {
+            reject(response, wait, policy.ipLimiter.getName());
+            return;
+        }
+        
+        HttpServletRequest forwarded = request;
+        if (policy.dniLimiter != null) {
+            if (request.getContentLengthLong() > MAX_BUFFERED_BODY) {
+                tooLarge(response);
+                return;
+            }
+            // Sin Content-Length (chunked) el tamaño se sabe al leer
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            if (cached.body.length > MAX_BUFFERED_BODY) {
+                tooLarge(response);
+                return;
+            }
+            String dni = extractField(cached.body, policy.dniField);
+            if (dni != null) {
+                wait = policy.dniLimiter.tryAcquire(dni);
+                if (wait > 0) {
+                    reject(response, wait, policy.dniLimiter.getName());
+                    return;
+                }
+            }
+            forwarded = cached;
+        }
+        
+        chain.doFilter(forwarded, response);
+    }
+    
+    private RoutePolicy findPolicy(HttpServletRequest request) {
+        String method = request.getMethod();
+        // Ruta decodificada y sin parámetros ";", como la compara Spring MVC: /api/vote%73 es /api/votes
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        for (RoutePolicy policy : policies) {
+            if (policy.method.equals(method) && policy.path.equals(path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+    
+    private static void reject(HttpServletResponse response, long waitNanos, String limiter) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.debug("Solicitud limitada por {} - Retry-After: {}s", limiter, retryAfter);
+        
+        byte[] body = ("{\"success\":false,\"error\":\"Demasiadas solicitudes. Intente nuevamente en "
+            + retryAfter + " segundos.\"}").getBytes(StandardCharsets.UTF_8);
+        response.setStatus(429);
+        response.setHeader("Retry-After", Long.toString(retryAfter));
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+    
+    private static void tooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(TOO_LARGE.length);
+        response.getOutputStream().write(TOO_LARGE);
+    }
+    
+    /**
+     * Valor de un campo de primer nivel tal como lo vincula Jackson en el controlador: con
+     * escapes resueltos, un número se toma como texto y, si el campo se repite, gana el último.
+     * null si falta, no es escalar o el JSON es inválido (el controlador lo rechaza igual)
+     */
+    static String extractField(byte[] json, String field) {
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String value = null;
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                boolean match = field.equals(parser.currentName());
+                token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    if (match) {
+                        value = null;
+                    }
+                } else if (match) {
+                    value = token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT ? parser.getText() : null;
+                }
+            }
+            return token == JsonToken.END_OBJECT ? value : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Política de una ruta: límite por IP obligatorio y límite por DNI opcional
+     */
+    public static final class RoutePolicy {
+        private final String method;
+        private final String path;
+        private final RateLimiter ipLimiter;
+        private final RateLimiter dniLimiter;
+        private final String dniField;
+        
+        public RoutePolicy(String method, String path, RateLimiter ipLimiter, RateLimiter dniLimiter, String dniField) {
+            this.method = method;
+            this.path = path;
+            this.ipLimiter = ipLimiter;
+            this.dniLimiter = dniLimiter;
+            this.dniField = dniField;
+        }
+    }
+    
+    /**
+     * Request cuyo cuerpo ya fue leído completo en memoria para inspeccionarlo (uno mayor que
+     * MAX_BUFFERED_BODY se rechaza antes de reenviarlo). Al reenviarlo se entrega desde memoria.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+        
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            // Un byte de más para saber si el cuerpo supera el máximo
+            this.body = request.getInputStream().readNBytes(MAX_BUFFERED_BODY + 1);
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // El cuerpo ya está en memoria: todo está disponible de inmediato
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+                
+                @Override
+                public int read() {
+                    return in.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.elecciones.filter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin bloqueos por clave (formulación GCRA).
+ * Cada clave guarda un único AtomicLong con el "theoretical arrival time";
+ * admitir o rechazar es un CAS, sin locks ni llamadas externas.
+ * Cuando el mapa llega a su tamaño máximo se eliminan las claves inactivas y, si no
+ * alcanzan, las de bucket más lleno; una clave nueva siempre queda limitada, así que
+ * una avalancha de claves no apaga el límite.
+ */
+@Slf4j
+public class RateLimiter {
+    
+    private final String name;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxKeys;
+    
+    // ConcurrentHashMap ya está particionado internamente, así que las claves no compiten entre sí
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    
+    /**
+     * @param permitsPerMinute tasa sostenida permitida
+     * @param burst            solicitudes que se pueden hacer de golpe con el bucket lleno
+     */
+    public RateLimiter(String name, int permitsPerMinute, int burst, int maxKeys) {
+        this.name = name;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, permitsPerMinute);
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.maxKeys = maxKeys;
+    }
+    
+    /**
+     * Intenta consumir un permiso para la clave.
+     * Devuelve 0 si se admite, o los nanosegundos a esperar antes de reintentar.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            if (buckets.size() >= maxKeys) {
+                makeRoom(now);
+            }
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            long wait = base - toleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Elimina las claves cuyo bucket ya se rellenó por completo. Si no liberan al menos un
+     * décimo del mapa se eliminan también las de menor "theoretical arrival time": son las
+     * más cercanas a rellenarse, y las que están siendo limitadas se conservan.
+     * Mientras un hilo hace espacio los demás insertan igual y el mapa puede pasarse un poco.
+     */
+    private void makeRoom(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int before = buckets.size();
+            buckets.values().removeIf(tat -> tat.get() <= now);
+            int excess = buckets.size() - maxKeys * 9 / 10;
+            if (excess > 0) {
+                long[] arrivals = buckets.values().stream().mapToLong(AtomicLong::get).sorted().toArray();
+                long cutoff = arrivals[Math.min(excess, arrivals.length) - 1];
+                buckets.values().removeIf(tat -> tat.get() <= cutoff);
+            }
+            log.debug("Rate limiter {}: {} claves eliminadas", name, before - buckets.size());
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    public int size() {
+        return buckets.size();
+    }
+    
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,48 @@
+package com.elecciones.filter;
+
+import com.elecciones.metrics.RequestTrace;
+import com.elecciones.metrics.SlowRequestRecorder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Abre una RequestTrace por solicitud para que OutboundCallMetrics anote las llamadas a
+ * Supabase y Factiliza, y al terminar la entrega a SlowRequestRecorder. El id de la traza
+ * se devuelve en X-Request-Id para ubicarla en el endpoint de diagnóstico.
+ */
+public class SlowRequestFilter extends OncePerRequestFilter {
+    
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    
+    private final SlowRequestRecorder recorder;
+    
+    public SlowRequestFilter(SlowRequestRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.begin(request.getMethod(), request.getRequestURI());
+        response.setHeader(REQUEST_ID_HEADER, trace.getId());
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            RequestTrace.end();
+            // La ruta cruda lleva DNIs (/api/voters/12345678): se guarda el patrón del controlador
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern) {
+                trace.setRoute(pattern);
+            }
+            // Una excepción que sale del filtro termina como 500 aunque el estado aún diga 200
+            recorder.complete(trace, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.elecciones.geo;
+
+import com.elecciones.model.Candidate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Una generación del cubo de resultados: por nodo del diccionario, inscritos, votantes que
+ * votaron, votos válidos por categoría y votos por candidato. Cada cambio se suma en el
+ * distrito y en todos sus ancestros, así que cualquier nodo se lee sin recorrer sus hijos.
+ * Los candidatos se fijan al construir la generación.
+ */
+final class GeoCube {
+    
+    static final String[] CATEGORIES = {"presidencial", "distrital", "regional"};
+    static final int REGISTERED = 0;
+    static final int VOTED = 1;
+    private static final int FIRST_CATEGORY = 2;
+    private static final int FIRST_CANDIDATE = FIRST_CATEGORY + CATEGORIES.length;
+    
+    private final GeoDictionary dictionary;
+    private final Map<String, Integer> candidateIndex = new HashMap<>();
+    private final Candidate[] candidates;
+    private final int[] candidateCategory;
+    private final int width;
+    private final long builtAt = System.currentTimeMillis();
+    
+    private volatile AtomicLongArray[] counters = new AtomicLongArray[64];
+    
+    GeoCube(GeoDictionary dictionary, List<Candidate> candidates) {
+        this.dictionary = dictionary;
+        this.candidates = candidates.stream()
+            .filter(candidate -> candidate.getId() != null && candidate.getCategory() != null)
+            .toArray(Candidate[]::new);
+        this.candidateCategory = new int[this.candidates.length];
+        for (int i = 0; i < this.candidates.length; i++) {
+            candidateIndex.put(this.candidates[i].getId(), i);
+            candidateCategory[i] = category(this.candidates[i].getCategory().name().toLowerCase());
+        }
+        this.width = FIRST_CANDIDATE + this.candidates.length;
+    }
+    
+    /**
+     * Suma delta en el nodo y en sus ancestros
+     */
+    void add(int node, int slot, long delta) {
+        for (int id = node; id >= 0; id = dictionary.node(id).getParent()) {
+            counters(id).addAndGet(slot, delta);
+        }
+    }
+    
+    /**
+     * Suma un voto (o lo resta con delta negativo); false si el candidato no está en esta generación
+     */
+    boolean addVote(int node, String candidateId, long delta) {
+        Integer candidate = candidateId != null ? candidateIndex.get(candidateId) : null;
+        if (candidate == null) {
+            return false;
+        }
+        for (int id = node; id >= 0; id = dictionary.node(id).getParent()) {
+            AtomicLongArray row = counters(id);
+            row.addAndGet(FIRST_CATEGORY + candidateCategory[candidate], delta);
+            row.addAndGet(FIRST_CANDIDATE + candidate, delta);
+        }
+        return true;
+    }
+    
+    long get(int node, int slot) {
+        AtomicLongArray[] table = counters;
+        AtomicLongArray row = node < table.length ? table[node] : null;
+        return row != null ? row.get(slot) : 0;
+    }
+    
+    long categoryVotes(int node, int category) {
+        return get(node, FIRST_CATEGORY + category);
+    }
+    
+    long candidateVotes(int node, int candidate) {
+        return get(node, FIRST_CANDIDATE + candidate);
+    }
+    
+    int candidateCount() {
+        return candidates.length;
+    }
+    
+    Candidate candidate(int index) {
+        return candidates[index];
+    }
+    
+    int candidateCategory(int index) {
+        return candidateCategory[index];
+    }
+    
+    long getBuiltAt() {
+        return builtAt;
+    }
+    
+    /**
+     * Índice de la categoría en CATEGORIES, o -1
+     */
+    static int category(String category) {
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            if (CATEGORIES[i].equals(category)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private AtomicLongArray counters(int node) {
+        AtomicLongArray[] table = counters;
+        AtomicLongArray row = node < table.length ? table[node] : null;
+        return row != null ? row : create(node);
+    }
+    
+    private synchronized AtomicLongArray create(int node) {
+        AtomicLongArray[] table = counters;
+        if (node >= table.length) {
+            table = Arrays.copyOf(table, Math.max(table.length * 2, node + 1));
+        }
+        if (table[node] == null) {
+            table[node] = new AtomicLongArray(width);
+        }
+        counters = table;
+        return table[node];
+    }
+}
@@ -0,0 +1,119 @@
+package com.elecciones.geo;
+
+import com.elecciones.service.TextNormalizer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario de la geografía electoral: el país, cada departamento, cada provincia dentro de
+ * su departamento y cada distrito dentro de su provincia reciben un id entero, que es la
+ * posición del nodo en una tabla. Los nombres se comparan plegados ("LIMA" y "Lima" son el
+ * mismo nodo) y se muestra el primero que se vio. Solo crece, así que los ids no cambian
+ * mientras viva el proceso aunque el cubo se reconstruya.
+ */
+final class GeoDictionary {
+    
+    static final int ROOT = 0;
+    static final String UNKNOWN = "Sin información";
+    
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Node[] nodes = new Node[64];
+    private volatile int size;
+    
+    GeoDictionary() {
+        nodes[ROOT] = new Node(ROOT, GeoLevel.PAIS, -1, "Perú");
+        size = 1;
+    }
+    
+    /**
+     * Id del distrito, creando en el camino el departamento y la provincia que falten
+     */
+    int district(String department, String province, String district) {
+        int departmentId = child(ROOT, GeoLevel.DEPARTAMENTO, department);
+        int provinceId = child(departmentId, GeoLevel.PROVINCIA, province);
+        return child(provinceId, GeoLevel.DISTRITO, district);
+    }
+    
+    /**
+     * Nodo por id, o null si el id no existe
+     */
+    Node node(int id) {
+        Node[] table = nodes;
+        return id >= 0 && id < size && id < table.length ? table[id] : null;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    private int child(int parent, GeoLevel level, String name) {
+        String label = name == null || name.isBlank() ? UNKNOWN : name.trim();
+        String key = parent + "/" + TextNormalizer.fold(label);
+        Integer id = ids.get(key);
+        return id != null ? id : create(key, parent, level, label);
+    }
+    
+    private synchronized int create(String key, int parent, GeoLevel level, String label) {
+        Integer existing = ids.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        Node[] table = nodes;
+        if (id == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[id] = new Node(id, level, parent, label);
+        nodes = table;
+        size = id + 1;
+        table[parent].addChild(id);
+        ids.put(key, id);
+        return id;
+    }
+    
+    /**
+     * Nodo del diccionario; sus hijos se agregan con el monitor del diccionario tomado
+     */
+    static final class Node {
+        private final int id;
+        private final GeoLevel level;
+        private final int parent;
+        private final String name;
+        private volatile int[] children = new int[0];
+        
+        private Node(int id, GeoLevel level, int parent, String name) {
+            this.id = id;
+            this.level = level;
+            this.parent = parent;
+            this.name = name;
+        }
+        
+        private void addChild(int child) {
+            int[] grown = Arrays.copyOf(children, children.length + 1);
+            grown[children.length] = child;
+            children = grown;
+        }
+        
+        int getId() {
+            return id;
+        }
+        
+        GeoLevel getLevel() {
+            return level;
+        }
+        
+        int getParent() {
+            return parent;
+        }
+        
+        String getName() {
+            return name;
+        }
+        
+        int[] getChildren() {
+            return children;
+        }
+    }
+}
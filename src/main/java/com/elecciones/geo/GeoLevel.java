@@ -0,0 +1,8 @@
+package com.elecciones.geo;
+
+/**
+ * Niveles de la geografía electoral, del país al distrito
+ */
+public enum GeoLevel {
+    PAIS, DEPARTAMENTO, PROVINCIA, DISTRITO
+}
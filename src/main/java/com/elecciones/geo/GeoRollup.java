@@ -0,0 +1,695 @@
+package com.elecciones.geo;
+
+import com.elecciones.config.BackgroundExecutors;
+import com.elecciones.model.Candidate;
+import com.elecciones.model.Vote;
+import com.elecciones.model.Voter;
+import com.elecciones.repository.CandidateRepository;
+import com.elecciones.repository.ElectionDataRepository;
+import com.elecciones.service.ElectionAnalytics;
+import com.elecciones.wal.BallotRecord;
+import com.elecciones.wal.WriteBehindVoteStore;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Resultados y participación por departamento, provincia y distrito, mantenidos en memoria.
+ *
+ * Al iniciar se siembra el cubo recorriendo voters y votes por páginas; desde ahí cada boleta
+ * y cada votante nuevo se suman al cubo en la misma solicitud que los guarda, y leer cualquier
+ * nivel no consulta Supabase. La boleta se reserva antes de escribirla y se confirma o cancela
+ * después: mientras una reconstrucción recorre las tablas, lo reservado queda en un diario, el
+ * recorrido salta sus filas y al terminar se aplica sobre el cubo nuevo, así que nada se cuenta
+ * dos veces ni se pierde. Lo mismo vale para las boletas del WAL que aún no se envían.
+ *
+ * Los cambios masivos (limpieza de datos, carga del padrón, importación) y los que no se
+ * pueden aplicar como diferencia piden una reconstrucción, que se hace en segundo plano
+ * mientras el cubo anterior sigue respondiendo.
+ */
+@Component
+@Slf4j
+public class GeoRollup {
+    
+    // Espera antes de reintentar una reconstrucción fallida; el reintento lo dispara una consulta
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    
+    private final ElectionDataRepository electionDataRepository;
+    private final CandidateRepository candidateRepository;
+    // Presente solo con votes.write-behind.enabled=true
+    private final Optional<WriteBehindVoteStore> writeBehind;
+    private final BackgroundExecutors executors;
+    private final boolean enabled;
+    private final int pageSize;
+    
+    private final GeoDictionary dictionary = new GeoDictionary();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Pending> inflight = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    
+    private Executor rebuilder;
+    private volatile GeoCube cube;
+    private volatile Journal journal;
+    private volatile long lastRebuildMillis;
+    private volatile String lastError;
+    private volatile long lastFailureNanos;
+    
+    public GeoRollup(ElectionDataRepository electionDataRepository,
+                     CandidateRepository candidateRepository,
+                     Optional<WriteBehindVoteStore> writeBehind,
+                     BackgroundExecutors executors,
+                     @Value("${geo.rollup.enabled:true}") boolean enabled,
+                     @Value("${geo.rollup.page-size:1000}") int pageSize) {
+        this.electionDataRepository = electionDataRepository;
+        this.candidateRepository = candidateRepository;
+        this.writeBehind = writeBehind;
+        this.executors = executors;
+        this.enabled = enabled;
+        this.pageSize = Math.max(1, pageSize);
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            rebuilder = executors.newExecutor("geo-rollup", 1);
+            requestRebuild();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * true cuando ya hay un cubo sembrado
+     */
+    public boolean isReady() {
+        retryAfterFailure();
+        return cube != null;
+    }
+    
+    // ========== CAMBIOS ==========
+    
+    /**
+     * Reserva el alta de un votante nuevo; se confirma o cancela según resulte su guardado
+     */
+    public Pending registration(Voter voter) {
+        return reserve(new Pending(voter.getDni(), district(voter), true, false, List.of()));
+    }
+    
+    /**
+     * Reserva una boleta; firstBallot indica que el votante no tenía votos antes de esta boleta
+     */
+    public Pending ballot(Voter voter, List<BallotRecord.Selection> selections, boolean firstBallot) {
+        return reserve(new Pending(voter.getDni(), district(voter), false, firstBallot, List.copyOf(selections)));
+    }
+    
+    /**
+     * La escritura terminó bien: lo sumado queda
+     */
+    public void confirm(Pending pending) {
+        inflight.remove(pending);
+    }
+    
+    /**
+     * La escritura falló: se descuenta lo sumado y no se aplica en una reconstrucción en curso
+     */
+    public void cancel(Pending pending) {
+        if (!enabled) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            inflight.remove(pending);
+            pending.cancelled = true;
+            GeoCube current = cube;
+            if (current != null && pending.cube == current) {
+                apply(current, pending, -1);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * El votante cambió de departamento, provincia o distrito (datos nuevos de RENIEC). Si ya
+     * votó, sus votos siguen en el distrito anterior y se pide una reconstrucción
+     */
+    public void moved(String department, String province, String district, Voter voter) {
+        if (!enabled) {
+            return;
+        }
+        int before = dictionary.district(department, province, district);
+        int after = district(voter);
+        if (before == after) {
+            return;
+        }
+        if (Boolean.TRUE.equals(voter.getHasVoted())) {
+            requestRebuild();
+            return;
+        }
+        adjust(current -> {
+            current.add(before, GeoCube.REGISTERED, -1);
+            current.add(after, GeoCube.REGISTERED, 1);
+        });
+    }
+    
+    /**
+     * Votos invalidados (candidate_id en NULL): dejan de contar para su candidato y categoría
+     */
+    public void invalidated(Voter voter, List<Vote> votes) {
+        if (!enabled) {
+            return;
+        }
+        int node = voter != null ? district(voter) : dictionary.district(null, null, null);
+        adjust(current -> {
+            for (Vote vote : votes) {
+                if (vote.getCandidate() != null) {
+                    current.addVote(node, vote.getCandidate().getId(), -1);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Reconstruye el cubo en segundo plano; las solicitudes hechas durante una reconstrucción
+     * se agrupan en una sola siguiente
+     */
+    public void requestRebuild() {
+        if (enabled && rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+    
+    private void retryAfterFailure() {
+        if (lastError != null && System.nanoTime() - lastFailureNanos > RETRY_NANOS) {
+            lastFailureNanos = System.nanoTime();
+            requestRebuild();
+        }
+    }
+    
+    private Pending reserve(Pending pending) {
+        if (!enabled) {
+            return pending;
+        }
+        boolean unknownCandidate = false;
+        lock.readLock().lock();
+        try {
+            GeoCube current = cube;
+            if (current != null) {
+                unknownCandidate = !apply(current, pending, 1);
+                pending.cube = current;
+            }
+            inflight.add(pending);
+            Journal active = journal;
+            if (active != null) {
+                active.add(pending);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (unknownCandidate) {
+            // Candidato creado después de la última reconstrucción
+            requestRebuild();
+        }
+        return pending;
+    }
+    
+    /**
+     * Ajuste que no se puede repetir sobre un recorrido en curso: se aplica al cubo vigente y,
+     * si hay reconstrucción, se pide otra al terminar
+     */
+    private void adjust(Consumer<GeoCube> change) {
+        lock.readLock().lock();
+        try {
+            GeoCube current = cube;
+            if (current != null) {
+                change.accept(current);
+            }
+            Journal active = journal;
+            if (active != null) {
+                active.dirty = true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private boolean apply(GeoCube target, Pending pending, int sign) {
+        if (pending.registration) {
+            target.add(pending.district, GeoCube.REGISTERED, sign);
+        }
+        if (pending.firstBallot) {
+            target.add(pending.district, GeoCube.VOTED, sign);
+        }
+        boolean known = true;
+        for (BallotRecord.Selection selection : pending.selections) {
+            known &= target.addVote(pending.district, selection.getCandidateId(), sign);
+        }
+        return known;
+    }
+    
+    private int district(Voter voter) {
+        return dictionary.district(voter.getDepartment(), voter.getProvince(), voter.getDistrict());
+    }
+    
+    // ========== RECONSTRUCCIÓN ==========
+    
+    private void rebuild() {
+        long start = System.nanoTime();
+        Journal active = new Journal();
+        lock.writeLock().lock();
+        try {
+            journal = active;
+            inflight.forEach(active::add);
+            // Boletas ya confirmadas al votante que el shipper del WAL todavía no envía
+            writeBehind.ifPresent(store -> store.pendingBallots().forEach(active::add));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        GeoCube next;
+        DniTable districts = new DniTable();
+        long[] skipped = new long[1];
+        try {
+            next = new GeoCube(dictionary, candidateRepository.findCandidateSummaries());
+            electionDataRepository.forEachRow("voters", pageSize, row -> {
+                String dni = text(row, "dni");
+                if (dni == null) {
+                    return;
+                }
+                int node = dictionary.district(text(row, "department"), text(row, "province"), text(row, "district"));
+                districts.put(dni, node);
+                if (!active.registrations.contains(dni)) {
+                    next.add(node, GeoCube.REGISTERED, 1);
+                }
+            });
+            int unknown = dictionary.district(null, null, null);
+            electionDataRepository.forEachRow("votes", pageSize, row -> {
+                String dni = text(row, "voter_dni");
+                if (dni == null || active.ballots.contains(key(dni, text(row, "category")))) {
+                    return;
+                }
+                int node = districts.district(dni, unknown);
+                if (districts.markVoted(dni, node)) {
+                    next.add(node, GeoCube.VOTED, 1);
+                }
+                // Los votos invalidados tienen candidate_id en NULL: cuentan para la participación
+                String candidateId = text(row, "candidate_id");
+                if (candidateId != null && !next.addVote(node, candidateId, 1)) {
+                    skipped[0]++;
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastError = e.getMessage();
+            lastFailureNanos = System.nanoTime();
+            log.error("Error al reconstruir los resultados geográficos: {}", e.getMessage(), e);
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            replay(active, next, districts);
+            cube = next;
+            journal = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis();
+        lastError = null;
+        log.info("Resultados geográficos reconstruidos en {} ms: {} nodos, {} inscritos, {} votaron{}",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), dictionary.size(),
+            next.get(GeoDictionary.ROOT, GeoCube.REGISTERED), next.get(GeoDictionary.ROOT, GeoCube.VOTED),
+            skipped[0] > 0 ? " (" + skipped[0] + " votos de candidatos desconocidos)" : "");
+        if (active.dirty) {
+            requestRebuild();
+        }
+    }
+    
+    /**
+     * Aplica al cubo nuevo lo reservado durante el recorrido, una vez por (dni, categoría).
+     * Se llama con el candado de escritura: ninguna reserva puede quedar entre el diario y el cubo
+     */
+    private void replay(Journal active, GeoCube next, DniTable districts) {
+        Set<String> applied = new HashSet<>();
+        for (Object entry : active.entries) {
+            if (entry instanceof Pending pending) {
+                if (pending.cancelled) {
+                    continue;
+                }
+                if (pending.registration && applied.add(pending.dni)) {
+                    next.add(pending.district, GeoCube.REGISTERED, 1);
+                    districts.put(pending.dni, pending.district);
+                }
+                for (BallotRecord.Selection selection : pending.selections) {
+                    if (applied.add(key(pending.dni, selection.getCategory()))) {
+                        replayVote(next, districts, pending.dni, pending.district, selection.getCandidateId());
+                    }
+                }
+                pending.cube = next;
+            } else if (entry instanceof BallotRecord ballot) {
+                int node = districts.district(ballot.getVoterDni(), dictionary.district(null, null, null));
+                for (BallotRecord.Selection selection : ballot.getSelections()) {
+                    if (applied.add(key(ballot.getVoterDni(), selection.getCategory()))) {
+                        replayVote(next, districts, ballot.getVoterDni(), node, selection.getCandidateId());
+                    }
+                }
+            }
+        }
+    }
+    
+    private void replayVote(GeoCube next, DniTable districts, String dni, int node, String candidateId) {
+        if (districts.markVoted(dni, node)) {
+            next.add(node, GeoCube.VOTED, 1);
+        }
+        next.addVote(node, candidateId, 1);
+    }
+    
+    private static String key(String dni, String category) {
+        return dni + "|" + category;
+    }
+    
+    private static String text(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        return value != null ? value.toString() : null;
+    }
+    
+    // ========== CONSULTAS ==========
+    
+    /**
+     * Resultados de un nodo (0 es el país) con sus hijos; vacío si el id no existe
+     */
+    public Optional<Map<String, Object>> view(int id) {
+        GeoCube current = cube;
+        GeoDictionary.Node node = dictionary.node(id);
+        if (current == null || node == null) {
+            return Optional.empty();
+        }
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", node.getId());
+        view.put("level", node.getLevel().name().toLowerCase());
+        view.put("name", node.getName());
+        view.put("path", path(node));
+        totals(view, current, id);
+        Map<String, Object> categories = new LinkedHashMap<>();
+        for (int category = 0; category < GeoCube.CATEGORIES.length; category++) {
+            Map<String, Object> results = new LinkedHashMap<>();
+            long total = current.categoryVotes(id, category);
+            results.put("totalVotes", total);
+            results.put("candidates", ranking(current, id, category, total, Integer.MAX_VALUE));
+            categories.put(GeoCube.CATEGORIES[category], results);
+        }
+        view.put("categories", categories);
+        List<Map<String, Object>> children = new ArrayList<>();
+        for (int child : node.getChildren()) {
+            GeoDictionary.Node childNode = dictionary.node(child);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("id", child);
+            summary.put("name", childNode.getName());
+            totals(summary, current, child);
+            Map<String, Object> leaders = new LinkedHashMap<>();
+            for (int category = 0; category < GeoCube.CATEGORIES.length; category++) {
+                List<Map<String, Object>> top = ranking(current, child, category, current.categoryVotes(child, category), 1);
+                leaders.put(GeoCube.CATEGORIES[category], top.isEmpty() ? null : top.get(0));
+            }
+            summary.put("leaders", leaders);
+            children.add(summary);
+        }
+        children.sort(Comparator.comparing(child -> (String) child.get("name")));
+        view.put("children", children);
+        view.put("updatedAt", Instant.ofEpochMilli(current.getBuiltAt()).toString());
+        return Optional.of(view);
+    }
+    
+    /**
+     * Participación por departamento con el formato de ElectionDataRepository.getParticipationData
+     */
+    public Optional<Map<String, Object>> participationData() {
+        retryAfterFailure();
+        GeoCube current = cube;
+        if (current == null) {
+            return Optional.empty();
+        }
+        Map<String, Integer> totalByDepartment = new HashMap<>();
+        Map<String, Integer> votedByDepartment = new HashMap<>();
+        for (int department : dictionary.node(GeoDictionary.ROOT).getChildren()) {
+            String name = dictionary.node(department).getName();
+            if (!GeoDictionary.UNKNOWN.equals(name)) {
+                totalByDepartment.put(name, (int) current.get(department, GeoCube.REGISTERED));
+                votedByDepartment.put(name, (int) current.get(department, GeoCube.VOTED));
+            }
+        }
+        return Optional.of(ElectionAnalytics.participation(totalByDepartment, votedByDepartment,
+            (int) current.get(GeoDictionary.ROOT, GeoCube.REGISTERED), (int) current.get(GeoDictionary.ROOT, GeoCube.VOTED)));
+    }
+    
+    /**
+     * Estado del cubo para el panel de superadmin
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("ready", isReady());
+        status.put("rebuilding", journal != null);
+        status.put("nodes", dictionary.size());
+        status.put("lastRebuild", lastRebuildMillis > 0 ? Instant.ofEpochMilli(lastRebuildMillis).toString() : null);
+        status.put("lastError", lastError);
+        return status;
+    }
+    
+    private List<Map<String, Object>> path(GeoDictionary.Node node) {
+        List<Map<String, Object>> path = new ArrayList<>();
+        for (int id = node.getParent(); id >= 0; id = dictionary.node(id).getParent()) {
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("id", id);
+            step.put("name", dictionary.node(id).getName());
+            path.add(0, step);
+        }
+        return path;
+    }
+    
+    private static void totals(Map<String, Object> target, GeoCube current, int id) {
+        long registered = current.get(id, GeoCube.REGISTERED);
+        long voted = current.get(id, GeoCube.VOTED);
+        target.put("registered", registered);
+        target.put("voted", voted);
+        target.put("participationRate", registered > 0 ? Math.round(voted * 1000.0 / registered) / 10.0 : 0.0);
+    }
+    
+    private static List<Map<String, Object>> ranking(GeoCube current, int id, int category, long total, int limit) {
+        List<int[]> ranked = new ArrayList<>();
+        for (int candidate = 0; candidate < current.candidateCount(); candidate++) {
+            if (current.candidateCategory(candidate) == category) {
+                ranked.add(new int[]{candidate});
+            }
+        }
+        ranked.sort(Comparator.comparingLong((int[] candidate) -> current.candidateVotes(id, candidate[0])).reversed());
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int[] candidate : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            long votes = current.candidateVotes(id, candidate[0]);
+            if (limit == 1 && votes == 0) {
+                break;
+            }
+            Candidate info = current.candidate(candidate[0]);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", info.getId());
+            result.put("name", info.getName());
+            result.put("partyName", info.getPartyName());
+            result.put("votes", votes);
+            result.put("percentage", total > 0 ? Math.round(votes * 1000.0 / total) / 10.0 : 0.0);
+            results.add(result);
+        }
+        return results;
+    }
+    
+    // ========== ESTRUCTURAS ==========
+    
+    /**
+     * Alta o boleta reservada en el cubo; el llamador la confirma o cancela
+     */
+    public static final class Pending {
+        private final String dni;
+        private final int district;
+        private final boolean registration;
+        private final boolean firstBallot;
+        private final List<BallotRecord.Selection> selections;
+        private volatile GeoCube cube;
+        private volatile boolean cancelled;
+        
+        private Pending(String dni, int district, boolean registration, boolean firstBallot,
+                        List<BallotRecord.Selection> selections) {
+            this.dni = dni;
+            this.district = district;
+            this.registration = registration;
+            this.firstBallot = firstBallot;
+            this.selections = selections;
+        }
+    }
+    
+    /**
+     * Lo reservado mientras una reconstrucción recorre las tablas: sus filas se saltan en el
+     * recorrido y se aplican al final
+     */
+    private static final class Journal {
+        private final ConcurrentLinkedQueue<Object> entries = new ConcurrentLinkedQueue<>();
+        private final Set<String> registrations = ConcurrentHashMap.newKeySet();
+        private final Set<String> ballots = ConcurrentHashMap.newKeySet();
+        private volatile boolean dirty;
+        
+        void add(Pending pending) {
+            entries.add(pending);
+            if (pending.registration) {
+                registrations.add(pending.dni);
+            }
+            pending.selections.forEach(selection -> ballots.add(key(pending.dni, selection.getCategory())));
+        }
+        
+        void add(BallotRecord ballot) {
+            entries.add(ballot);
+            ballot.getSelections().forEach(selection -> ballots.add(key(ballot.getVoterDni(), selection.getCategory())));
+        }
+    }
+    
+    /**
+     * DNI -> distrito durante una reconstrucción, con un bit de "ya votó". Los DNI de 8 dígitos
+     * se guardan como int con direccionamiento abierto (unos 16 MB por millón de votantes); los
+     * demás, en un HashMap
+     */
+    private static final class DniTable {
+        private static final int EMPTY = -1;
+        private static final int VOTED = 1 << 30;
+        
+        private int[] keys = emptyKeys(1 << 10);
+        private int[] values = new int[1 << 10];
+        private int size;
+        private final Map<String, Integer> other = new HashMap<>();
+        
+        void put(String dni, int district) {
+            int key = numeric(dni);
+            if (key < 0) {
+                other.merge(dni, district, (previous, ignored) -> (previous & VOTED) | district);
+                return;
+            }
+            int slot = slot(key);
+            if (keys[slot] == EMPTY) {
+                insert(slot, key, district);
+            } else {
+                values[slot] = (values[slot] & VOTED) | district;
+            }
+        }
+        
+        int district(String dni, int missing) {
+            int key = numeric(dni);
+            if (key < 0) {
+                Integer value = other.get(dni);
+                return value != null ? value & ~VOTED : missing;
+            }
+            int slot = slot(key);
+            return keys[slot] == EMPTY ? missing : values[slot] & ~VOTED;
+        }
+        
+        /**
+         * Marca al votante como que votó; true si es la primera vez. Un DNI que no está en
+         * voters se agrega con el distrito indicado
+         */
+        boolean markVoted(String dni, int district) {
+            int key = numeric(dni);
+            if (key < 0) {
+                Integer value = other.get(dni);
+                if (value != null && (value & VOTED) != 0) {
+                    return false;
+                }
+                other.put(dni, (value != null ? value : district) | VOTED);
+                return true;
+            }
+            int slot = slot(key);
+            if (keys[slot] == EMPTY) {
+                insert(slot, key, district | VOTED);
+                return true;
+            }
+            if ((values[slot] & VOTED) != 0) {
+                return false;
+            }
+            values[slot] |= VOTED;
+            return true;
+        }
+        
+        private void insert(int slot, int key, int value) {
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                int[] oldKeys = keys;
+                int[] oldValues = values;
+                keys = emptyKeys(oldKeys.length * 2);
+                values = new int[oldKeys.length * 2];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != EMPTY) {
+                        int moved = slot(oldKeys[i]);
+                        keys[moved] = oldKeys[i];
+                        values[moved] = oldValues[i];
+                    }
+                }
+            }
+        }
+        
+        private int slot(int key) {
+            int mask = keys.length - 1;
+            int slot = (key * 0x9E3779B9) >>> 7 & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+        
+        private static int numeric(String dni) {
+            if (dni.length() != 8) {
+                return -1;
+            }
+            int value = 0;
+            for (int i = 0; i < 8; i++) {
+                char c = dni.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+        
+        private static int[] emptyKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.elecciones.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR de una llamada a Supabase o Factiliza. Solo se registra con una grabación
+ * activa y si supera el umbral (configurable en el archivo .jfc).
+ */
+@Name("com.elecciones.OutboundCall")
+@Label("Llamada saliente")
+@Category({"Elecciones", "HTTP"})
+@Description("Llamada del RestTemplate a Supabase o Factiliza")
+@Threshold("20 ms")
+@StackTrace(false)
+class OutboundCallEvent extends jdk.jfr.Event {
+    
+    @Label("Servicio")
+    String service;
+    
+    @Label("Operación")
+    String operation;
+    
+    @Label("Método HTTP")
+    String method;
+    
+    @Label("Tabla")
+    String table;
+    
+    @Label("Estado HTTP")
+    int status;
+    
+    @Label("Bytes de respuesta")
+    @DataAmount
+    long bytes;
+}
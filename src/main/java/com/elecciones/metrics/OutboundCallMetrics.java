@@ -0,0 +1,403 @@
+package com.elecciones.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Métricas de las llamadas salientes del RestTemplate (Supabase y Factiliza).
+ *
+ * Por cada operación registra la latencia (hasta terminar de leer la respuesta), las llamadas,
+ * los errores, los bytes recibidos y las filas decodificadas, con los tags service, table,
+ * method y operation. La operación es el método de la aplicación que hizo la llamada
+ * (por ejemplo SupabaseService.findVoterByDni), obtenido de la pila.
+ *
+ * Cada llamada también se agrega a la RequestTrace de la solicitud en curso y, con una
+ * grabación JFR activa, se emite como evento com.elecciones.OutboundCall.
+ *
+ * Las llamadas del WebClient reactivo se miden con exchangeFilter(). Como se ejecutan en los
+ * hilos del cliente HTTP, la operación se lee del contexto de Reactor (clave OPERATION) y no
+ * se agregan a la RequestTrace.
+ */
+@Component
+public class OutboundCallMetrics implements ClientHttpRequestInterceptor {
+    
+    static final String REQUESTS = "elecciones.outbound.requests";
+    static final String ERRORS = "elecciones.outbound.errors";
+    static final String RESPONSE_BYTES = "elecciones.outbound.response.bytes";
+    static final String ROWS = "elecciones.outbound.rows";
+    
+    /**
+     * Clave del contexto de Reactor con el nombre de la operación de una llamada del WebClient
+     */
+    public static final String OPERATION = OutboundCallMetrics.class.getName() + ".operation";
+    
+    private static final String POSTGREST_PREFIX = "/rest/v1/";
+    private static final String APP_PACKAGE = "com.elecciones.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    
+    private final MeterRegistry registry;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    
+    public OutboundCallMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        OutboundCallEvent event = new OutboundCallEvent();
+        event.begin();
+        PendingCall call = new PendingCall(meters(request.getURI(), request.getMethod().name(), operation()),
+            request.getURI(), event, RequestTrace.current());
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            call.finish(0, "IO_ERROR", e.getClass().getSimpleName(), 0, 0);
+            throw e;
+        }
+        return new MeteredResponse(response, call);
+    }
+    
+    /**
+     * Filtro del WebClient: mide desde el envío hasta terminar de leer el cuerpo de la respuesta
+     */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> Mono.deferContextual(context -> {
+            OutboundCallEvent event = new OutboundCallEvent();
+            event.begin();
+            String operation = context.getOrDefault(OPERATION, "desconocida");
+            PendingCall call = new PendingCall(meters(request.url(), request.method().name(), operation),
+                request.url(), event, null);
+            AtomicBoolean recorded = new AtomicBoolean();
+            return next.exchange(request)
+                .map(response -> meteredResponse(response, call, recorded))
+                .doOnError(e -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        call.finish(0, "IO_ERROR", e.getClass().getSimpleName(), 0, 0);
+                    }
+                });
+        });
+    }
+    
+    private static ClientResponse meteredResponse(ClientResponse response, PendingCall call, AtomicBoolean recorded) {
+        int status = response.statusCode().value();
+        String error = status >= 400 ? Integer.toString(status) : null;
+        String outcome = status >= 500 ? "SERVER_ERROR" : status >= 400 ? "CLIENT_ERROR" : "SUCCESS";
+        RowCounter counter = new RowCounter();
+        return response.mutate()
+            .body(body -> body
+                .doOnNext(buffer -> {
+                    for (int i = buffer.readPosition(); i < buffer.writePosition(); i++) {
+                        counter.scan(buffer.getByte(i));
+                    }
+                })
+                .doFinally(signal -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        // El cuerpo de un error de PostgREST es un objeto, no una fila
+                        call.finish(status, outcome, error, counter.bytes, error != null ? 0 : counter.rows);
+                    }
+                }))
+            .build();
+    }
+    
+    private Meters meters(URI uri, String method, String operation) {
+        String path = uri.getRawPath();
+        String service;
+        String table;
+        int prefix = path == null ? -1 : path.indexOf(POSTGREST_PREFIX);
+        if (prefix >= 0) {
+            service = "supabase";
+            int start = prefix + POSTGREST_PREFIX.length();
+            int end = path.indexOf('/', start);
+            table = end < 0 ? path.substring(start) : path.substring(start, end);
+        } else {
+            // El DNI va en la ruta de Factiliza: no se usa como tag
+            service = "factiliza";
+            table = "dni";
+        }
+        String key = service + ' ' + table + ' ' + method + ' ' + operation;
+        return meters.computeIfAbsent(key, k -> new Meters(service, table, method, operation));
+    }
+    
+    /**
+     * Primer método de la aplicación en la pila fuera de este interceptor, sin el sufijo de las lambdas
+     */
+    private static String operation() {
+        return STACK_WALKER.walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                && !frame.getClassName().startsWith(OutboundCallMetrics.class.getName()))
+            .findFirst()
+            .map(frame -> {
+                String className = frame.getClassName();
+                String method = frame.getMethodName();
+                if (method.startsWith("lambda$")) {
+                    int end = method.indexOf('$', 7);
+                    method = end < 0 ? method.substring(7) : method.substring(7, end);
+                }
+                return className.substring(className.lastIndexOf('.') + 1) + "." + method;
+            })
+            .orElse("desconocida"));
+    }
+    
+    /**
+     * Medidores de una combinación service/table/method/operation
+     */
+    private final class Meters {
+        private final String service;
+        private final String table;
+        private final String method;
+        private final String operation;
+        private final DistributionSummary responseBytes;
+        private final DistributionSummary rows;
+        private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+        private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+        
+        Meters(String service, String table, String method, String operation) {
+            this.service = service;
+            this.table = table;
+            this.method = method;
+            this.operation = operation;
+            this.responseBytes = DistributionSummary.builder(RESPONSE_BYTES)
+                .description("Bytes del cuerpo de las respuestas")
+                .baseUnit("bytes")
+                .tags("service", service, "table", table, "method", method, "operation", operation)
+                .register(registry);
+            this.rows = DistributionSummary.builder(ROWS)
+                .description("Filas JSON decodificadas por respuesta")
+                .baseUnit("rows")
+                .tags("service", service, "table", table, "method", method, "operation", operation)
+                .register(registry);
+        }
+        
+        void record(long nanos, String outcome, String error, long bytes, long decodedRows) {
+            timers.computeIfAbsent(outcome, o -> Timer.builder(REQUESTS)
+                .description("Latencia de las llamadas salientes hasta leer la respuesta completa")
+                .tags("service", service, "table", table, "method", method, "operation", operation, "outcome", o)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                errors.computeIfAbsent(error, e -> Counter.builder(ERRORS)
+                    .description("Llamadas salientes con error HTTP o de red")
+                    .tags("service", service, "table", table, "method", method, "operation", operation, "error", e)
+                    .register(registry))
+                    .increment();
+            }
+            responseBytes.record(bytes);
+            rows.record(decodedRows);
+        }
+    }
+    
+    /**
+     * Llamada en curso: al terminar actualiza las métricas, la traza de la solicitud
+     * (si hay una) y el evento JFR
+     */
+    private static final class PendingCall {
+        private final Meters meters;
+        private final URI target;
+        private final OutboundCallEvent event;
+        private final RequestTrace trace;
+        private final long start = System.nanoTime();
+        
+        PendingCall(Meters meters, URI target, OutboundCallEvent event, RequestTrace trace) {
+            this.meters = meters;
+            this.target = target;
+            this.event = event;
+            this.trace = trace;
+        }
+        
+        void finish(int status, String outcome, String error, long bytes, long rows) {
+            long nanos = System.nanoTime() - start;
+            meters.record(nanos, outcome, error, bytes, rows);
+            if (trace != null) {
+                trace.addCall(meters.service, meters.operation, meters.method, target, status, start, nanos, bytes);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.service = meters.service;
+                event.operation = meters.operation;
+                event.method = meters.method;
+                event.table = meters.table;
+                event.status = status;
+                event.bytes = bytes;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Respuesta que cuenta bytes y filas al leerse y registra la llamada al cerrarse
+     */
+    private static final class MeteredResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final PendingCall call;
+        private CountingInputStream body;
+        private boolean recorded;
+        
+        MeteredResponse(ClientHttpResponse delegate, PendingCall call) {
+            this.delegate = delegate;
+            this.call = call;
+        }
+        
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+        
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+        
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody());
+            }
+            return body;
+        }
+        
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (!recorded) {
+                    recorded = true;
+                    record();
+                }
+            }
+        }
+        
+        private void record() {
+            int status = 0;
+            String outcome;
+            String error = null;
+            try {
+                status = delegate.getStatusCode().value();
+                if (status >= 500) {
+                    outcome = "SERVER_ERROR";
+                    error = Integer.toString(status);
+                } else if (status >= 400) {
+                    outcome = "CLIENT_ERROR";
+                    error = Integer.toString(status);
+                } else {
+                    outcome = "SUCCESS";
+                }
+            } catch (IOException e) {
+                outcome = "IO_ERROR";
+                error = e.getClass().getSimpleName();
+            }
+            // El cuerpo de un error de PostgREST es un objeto, no una fila
+            call.finish(status, outcome, error,
+                body == null ? 0 : body.counter.bytes, body == null || error != null ? 0 : body.counter.rows);
+        }
+    }
+    
+    /**
+     * Cuenta los bytes leídos del cuerpo de la respuesta
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final RowCounter counter = new RowCounter();
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.scan(b);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            for (int i = offset; i < offset + n; i++) {
+                counter.scan(buffer[i]);
+            }
+            return n;
+        }
+    }
+    
+    /**
+     * Cuenta bytes y objetos del arreglo JSON de primer nivel (las filas de PostgREST)
+     * sin decodificar el contenido
+     */
+    private static final class RowCounter {
+        private long bytes;
+        private long rows;
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+        private boolean array;
+        
+        void scan(int b) {
+            bytes++;
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                return;
+            }
+            switch (b) {
+                case '"' -> inString = true;
+                case '[' -> {
+                    if (depth == 0) {
+                        array = true;
+                    }
+                    depth++;
+                }
+                case '{' -> {
+                    if (depth == 0) {
+                        // Un objeto suelto (p. ej. con Accept: application/vnd.pgrst.object) es una fila
+                        rows++;
+                    } else if (depth == 1 && array) {
+                        rows++;
+                    }
+                    depth++;
+                }
+                case ']', '}' -> depth--;
+                default -> {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.elecciones.metrics;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Línea de tiempo de las llamadas salientes hechas por una solicitud HTTP.
+ *
+ * La traza vive en un ThreadLocal mientras el filtro procesa la solicitud; OutboundCallMetrics
+ * agrega cada llamada y solo si la solicitud resulta lenta se arma la vista con las URLs
+ * convertidas en plantillas (sin DNIs ni otros valores de los filtros). La ruta de la solicitud
+ * también se guarda como plantilla: la del controlador (/api/voters/{dni}) o, si ninguno la
+ * atendió, con los segmentos que llevan dígitos reemplazados.
+ */
+public final class RequestTrace {
+    
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final int MAX_CALLS = 256;
+    // Parámetros de PostgREST que describen la consulta y no llevan datos del votante
+    private static final Set<String> SHAPE_PARAMETERS = Set.of("select", "order", "on_conflict");
+    private static final Set<String> OPERATORS = Set.of(
+        "eq", "neq", "gt", "gte", "lt", "lte", "like", "ilike", "in", "is", "not", "cs", "cd", "fts");
+    
+    // Identificador que el filtro devuelve en X-Request-Id; aleatorio para no exponer el volumen de solicitudes
+    private final String id = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final String method;
+    private String uri;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final List<Call> calls = new ArrayList<>();
+    // Iniciado con la solicitud para que el evento JFR tenga su duración real
+    private final SlowRequestEvent event = new SlowRequestEvent();
+    private int droppedCalls;
+    
+    private RequestTrace(String method, String uri) {
+        this.method = method;
+        this.uri = pathTemplate(uri);
+        event.begin();
+    }
+    
+    public static RequestTrace begin(String method, String uri) {
+        RequestTrace trace = new RequestTrace(method, uri);
+        CURRENT.set(trace);
+        return trace;
+    }
+    
+    public static void end() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * Patrón del controlador que atendió la solicitud (HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)
+     */
+    public void setRoute(String pattern) {
+        this.uri = pattern;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+    
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    void addCall(String service, String operation, String httpMethod, URI target, int status,
+                 long callStartNanos, long durationNanos, long bytes) {
+        if (calls.size() >= MAX_CALLS) {
+            droppedCalls++;
+            return;
+        }
+        calls.add(new Call(service, operation, httpMethod, target, status, callStartNanos - startNanos, durationNanos, bytes));
+    }
+    
+    String getMethod() {
+        return method;
+    }
+    
+    String getUri() {
+        return uri;
+    }
+    
+    SlowRequestEvent getEvent() {
+        return event;
+    }
+    
+    int getCallCount() {
+        return calls.size() + droppedCalls;
+    }
+    
+    long getOutboundNanos() {
+        long total = 0;
+        for (Call call : calls) {
+            total += call.durationNanos;
+        }
+        return total;
+    }
+    
+    /**
+     * Vista para el endpoint de diagnóstico
+     */
+    Map<String, Object> toMap(int status, long durationNanos) {
+        long outboundNanos = getOutboundNanos();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("requestId", id);
+        map.put("method", method);
+        map.put("uri", uri);
+        map.put("status", status);
+        map.put("startedAt", startedAt.toString());
+        map.put("durationMs", millis(durationNanos));
+        map.put("outboundMs", millis(outboundNanos));
+        // Las llamadas son secuenciales en el hilo de la solicitud: el resto es tiempo propio
+        map.put("applicationMs", millis(Math.max(0, durationNanos - outboundNanos)));
+        map.put("outboundCalls", getCallCount());
+        if (droppedCalls > 0) {
+            map.put("droppedCalls", droppedCalls);
+        }
+        List<Map<String, Object>> timeline = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("offsetMs", millis(call.offsetNanos));
+            entry.put("durationMs", millis(call.durationNanos));
+            entry.put("service", call.service);
+            entry.put("operation", call.operation);
+            entry.put("method", call.method);
+            entry.put("url", urlTemplate(call.target, call.service));
+            entry.put("status", call.status);
+            entry.put("bytes", call.bytes);
+            timeline.add(entry);
+        }
+        map.put("calls", timeline);
+        return map;
+    }
+    
+    /**
+     * Ruta con los segmentos que llevan dígitos (DNIs, ids) reemplazados: /api/voters/?
+     */
+    static String pathTemplate(String path) {
+        StringBuilder sb = new StringBuilder(path.length());
+        int start = 0;
+        while (start <= path.length()) {
+            int slash = path.indexOf('/', start);
+            int end = slash < 0 ? path.length() : slash;
+            String segment = path.substring(start, end);
+            sb.append(segment.chars().anyMatch(Character::isDigit) ? "?" : segment);
+            if (slash < 0) {
+                break;
+            }
+            sb.append('/');
+            start = slash + 1;
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Ruta con los valores de los filtros reemplazados: /rest/v1/votes?voter_dni=eq.?&select=*
+     */
+    static String urlTemplate(URI target, String service) {
+        String path = target.getRawPath();
+        if ("factiliza".equals(service)) {
+            return path.substring(0, path.lastIndexOf('/') + 1) + "{dni}";
+        }
+        String query = target.getRawQuery();
+        if (query == null) {
+            return path;
+        }
+        StringBuilder sb = new StringBuilder(path).append('?');
+        String[] parameters = query.split("&");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                sb.append('&');
+            }
+            String parameter = parameters[i];
+            int equals = parameter.indexOf('=');
+            if (equals < 0) {
+                sb.append(parameter);
+                continue;
+            }
+            String name = parameter.substring(0, equals);
+            String value = parameter.substring(equals + 1);
+            sb.append(name).append('=');
+            if (SHAPE_PARAMETERS.contains(name)) {
+                sb.append(value);
+                continue;
+            }
+            int dot = value.indexOf('.');
+            if (dot > 0 && OPERATORS.contains(value.substring(0, dot))) {
+                sb.append(value, 0, dot + 1);
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+    
+    private static double millis(long nanos) {
+        return Math.round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1) * 10) / 10.0;
+    }
+    
+    private static final class Call {
+        private final String service;
+        private final String operation;
+        private final String method;
+        private final URI target;
+        private final int status;
+        private final long offsetNanos;
+        private final long durationNanos;
+        private final long bytes;
+        
+        Call(String service, String operation, String method, URI target, int status,
+             long offsetNanos, long durationNanos, long bytes) {
+            this.service = service;
+            this.operation = operation;
+            this.method = method;
+            this.target = target;
+            this.status = status;
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+            this.bytes = bytes;
+        }
+    }
+}
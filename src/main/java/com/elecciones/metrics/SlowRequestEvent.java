@@ -0,0 +1,35 @@
+package com.elecciones.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR de una solicitud que superó el umbral de diagnostics.slow-requests.threshold-ms
+ */
+@Name("com.elecciones.SlowRequest")
+@Label("Solicitud lenta")
+@Category({"Elecciones", "HTTP"})
+@Description("Solicitud HTTP sobre el umbral, con el tiempo pasado en llamadas salientes")
+@StackTrace(false)
+class SlowRequestEvent extends jdk.jfr.Event {
+    
+    @Label("Método")
+    String method;
+    
+    @Label("URI")
+    String uri;
+    
+    @Label("Estado HTTP")
+    int status;
+    
+    @Label("Llamadas salientes")
+    int outboundCalls;
+    
+    @Label("Tiempo en llamadas salientes")
+    @Timespan(Timespan.NANOSECONDS)
+    long outboundDuration;
+}
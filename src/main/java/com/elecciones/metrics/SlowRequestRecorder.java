@@ -0,0 +1,103 @@
+package com.elecciones.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Conserva las últimas solicitudes lentas con su línea de tiempo de llamadas salientes.
+ *
+ * Las trazas van a un buffer circular sin locks: cada escritor toma una secuencia con
+ * getAndIncrement y ocupa su posición; el lector descarta las posiciones ya reutilizadas.
+ * Una solicitud rápida solo paga la comparación con el umbral.
+ */
+@Component
+@Slf4j
+public class SlowRequestRecorder {
+    
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<Slot> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public SlowRequestRecorder(@Value("${diagnostics.slow-requests.threshold-ms:1000}") long thresholdMillis,
+                               @Value("${diagnostics.slow-requests.capacity:128}") int capacity) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+    
+    /**
+     * Cierra la traza de la solicitud y la guarda si superó el umbral
+     */
+    public void complete(RequestTrace trace, int status) {
+        long durationNanos = trace.elapsedNanos();
+        if (durationNanos < thresholdNanos) {
+            return;
+        }
+        
+        Map<String, Object> snapshot = trace.toMap(status, durationNanos);
+        long assigned = sequence.getAndIncrement();
+        slots.set((int) (assigned & mask), new Slot(assigned, snapshot));
+        
+        SlowRequestEvent event = trace.getEvent();
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = trace.getMethod();
+            event.uri = trace.getUri();
+            event.status = status;
+            event.outboundCalls = trace.getCallCount();
+            event.outboundDuration = trace.getOutboundNanos();
+            event.commit();
+        }
+        log.debug("Solicitud lenta: {} {} -> {} en {} ms ({} llamadas salientes, {} ms)", trace.getMethod(), trace.getUri(), status,
+            snapshot.get("durationMs"), snapshot.get("outboundCalls"), snapshot.get("outboundMs"));
+    }
+    
+    /**
+     * Trazas más recientes primero
+     */
+    public List<Map<String, Object>> recent(int limit) {
+        long last = sequence.get() - 1;
+        long oldest = Math.max(0, last - mask);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (long s = last; s >= oldest && result.size() < limit; s--) {
+            Slot slot = slots.get((int) (s & mask));
+            // Una posición con otra secuencia ya fue reutilizada o aún no se escribió
+            if (slot != null && slot.sequence == s) {
+                result.add(slot.trace);
+            }
+        }
+        return result;
+    }
+    
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+    
+    public long getRecordedCount() {
+        return sequence.get();
+    }
+    
+    public int getCapacity() {
+        return slots.length();
+    }
+    
+    private static final class Slot {
+        private final long sequence;
+        private final Map<String, Object> trace;
+        
+        Slot(long sequence, Map<String, Object> trace) {
+            this.sequence = sequence;
+            this.trace = trace;
+        }
+    }
+}
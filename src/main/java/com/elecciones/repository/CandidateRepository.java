@@ -0,0 +1,40 @@
+package com.elecciones.repository;
+
+import com.elecciones.model.Candidate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso a la tabla candidates
+ */
+public interface CandidateRepository {
+    
+    List<Candidate> findAllCandidates();
+    
+    /**
+     * @param category "presidencial", "distrital" o "regional"
+     */
+    List<Candidate> findCandidatesByCategory(String category);
+    
+    /**
+     * Candidatos ordenados por votos con solo las columnas de los listados: id, nombre, foto,
+     * partido, logo, categoría y votos. Los textos largos quedan en null
+     */
+    List<Candidate> findCandidateSummaries();
+    
+    /**
+     * Como findCandidateSummaries, filtrando por categoría
+     */
+    List<Candidate> findCandidateSummariesByCategory(String category);
+    
+    Optional<Candidate> findCandidateById(String id);
+    
+    /**
+     * Candidatos con los ids indicados en una sola consulta; los ids que no existen se omiten
+     */
+    List<Candidate> findCandidatesByIds(Collection<String> ids);
+    
+    Candidate updateCandidate(Candidate candidate);
+}
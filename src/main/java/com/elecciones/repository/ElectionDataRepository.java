@@ -0,0 +1,57 @@
+package com.elecciones.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Operaciones de limpieza y análisis sobre el conjunto completo de datos electorales
+ */
+public interface ElectionDataRepository {
+    
+    /**
+     * Elimina registros con valores nulos o vacíos
+     */
+    int deleteNullValues();
+    
+    /**
+     * Elimina votos duplicados (mismo voter_dni y category)
+     */
+    int deleteDuplicateVotes();
+    
+    /**
+     * Valida DNIs y retorna lista de DNIs inválidos
+     */
+    List<String> validateDNIs();
+    
+    /**
+     * Normaliza datos (nombres, direcciones, etc.)
+     */
+    int normalizeData();
+    
+    /**
+     * Votos agrupados por fecha para análisis de tendencias
+     */
+    List<Map<String, Object>> getVotesByDate();
+    
+    Map<String, Object> detectAnomalies();
+    
+    /**
+     * Datos de participación por región y demografía
+     */
+    Map<String, Object> getParticipationData();
+    
+    /**
+     * Recorre todas las filas de una tabla (voters, candidates o votes) con los nombres de
+     * columna de la BD, en orden de clave primaria y por páginas de pageSize filas. Cada fila
+     * se entrega al consumidor apenas se lee, sin acumular la tabla en memoria.
+     */
+    void forEachRow(String table, int pageSize, Consumer<Map<String, Object>> consumer);
+    
+    /**
+     * Inserta o actualiza por clave primaria un lote de filas de una tabla, con los nombres de
+     * columna de la BD, en una sola operación. Reenviar un lote es seguro. Si los datos del lote
+     * son rechazados lanza IllegalArgumentException; cualquier otra falla puede ser transitoria.
+     */
+    void upsertRows(String table, List<Map<String, Object>> rows);
+}
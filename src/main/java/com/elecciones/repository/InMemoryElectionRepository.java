@@ -0,0 +1,803 @@
+package com.elecciones.repository;
+
+import com.elecciones.model.Candidate;
+import com.elecciones.model.Vote;
+import com.elecciones.model.Voter;
+import com.elecciones.service.ElectionAnalytics;
+import com.elecciones.service.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Backend de repositorios en memoria, activo con el perfil "inmemory".
+ *
+ * Pensado para medir la capa de servicios y hacer pruebas de carga sin red:
+ * mantiene índices por categoría y por votante, la restricción única
+ * (voter_dni, category) y el incremento de vote_count que en Supabase hace un trigger.
+ * Los datos no se persisten; al iniciar se cargan candidatos y votantes sintéticos.
+ */
+@Repository
+@Profile("inmemory")
+@Slf4j
+public class InMemoryElectionRepository implements VoterRepository, CandidateRepository, VoteRepository, ElectionDataRepository {
+    
+    private static final Pattern DNI_PATTERN = Pattern.compile("^\\d{8}$");
+    private static final String[] SEED_DEPARTMENTS = {
+        "Lima", "Arequipa", "Cusco", "La Libertad", "Piura", "Junín", "Lambayeque", "Puno", "Loreto", "Ica"
+    };
+    
+    private final int seedCandidatesPerCategory;
+    private final int seedVoters;
+    
+    private final Map<String, Voter> voters = new ConcurrentHashMap<>();
+    
+    private final Map<String, Candidate> candidates = new ConcurrentHashMap<>();
+    private final Map<Candidate.ElectoralCategory, Set<String>> candidatesByCategory = new ConcurrentHashMap<>();
+    // vote_count se mantiene aparte para incrementarlo sin copiar el candidato
+    private final Map<String, AtomicInteger> candidateVoteCounts = new ConcurrentHashMap<>();
+    
+    private final Map<String, StoredVote> votes = new ConcurrentHashMap<>();
+    // Restricción única (voter_dni, category) -> id del voto
+    private final Map<String, String> voteByVoterCategory = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> votesByVoter = new ConcurrentHashMap<>();
+    private final Map<Vote.ElectoralCategory, LongAdder> votesPerCategory = new EnumMap<>(Vote.ElectoralCategory.class);
+    private final LongAdder totalVotes = new LongAdder();
+    
+    public InMemoryElectionRepository(@Value("${inmemory.seed.candidates-per-category:5}") int seedCandidatesPerCategory,
+                                      @Value("${inmemory.seed.voters:1000}") int seedVoters) {
+        this.seedCandidatesPerCategory = seedCandidatesPerCategory;
+        this.seedVoters = seedVoters;
+        for (Vote.ElectoralCategory category : Vote.ElectoralCategory.values()) {
+            votesPerCategory.put(category, new LongAdder());
+        }
+    }
+    
+    @PostConstruct
+    public void seed() {
+        for (Candidate.ElectoralCategory category : Candidate.ElectoralCategory.values()) {
+            for (int i = 1; i <= seedCandidatesPerCategory; i++) {
+                Candidate candidate = new Candidate();
+                candidate.setId(seedCandidateId(category, i));
+                candidate.setName("Candidato " + category.name().toLowerCase() + " " + i);
+                candidate.setPartyName("Partido " + i);
+                candidate.setDescription("Candidato generado para pruebas");
+                candidate.setPhotoUrl("https://example.com/candidatos/" + i + ".png");
+                candidate.setCategory(category);
+                putCandidate(candidate);
+            }
+        }
+        for (int i = 0; i < seedVoters; i++) {
+            Voter voter = new Voter();
+            voter.setDni(String.format("%08d", 10000000 + i));
+            voter.setFullName("Votante " + i);
+            voter.setAddress("Av. Principal " + i);
+            voter.setDistrict("Distrito " + (i % 50));
+            voter.setProvince("Provincia " + (i % 20));
+            voter.setDepartment(SEED_DEPARTMENTS[i % SEED_DEPARTMENTS.length]);
+            voter.setBirthDate(LocalDate.of(1960 + i % 45, 1 + i % 12, 1 + i % 28));
+            voters.put(voter.getDni(), voter);
+        }
+        log.info("Repositorio en memoria inicializado: {} candidatos, {} votantes", candidates.size(), voters.size());
+    }
+    
+    /**
+     * Id determinístico de los candidatos sembrados, para que los generadores de carga puedan referenciarlos
+     */
+    public static String seedCandidateId(Candidate.ElectoralCategory category, int index) {
+        return UUID.nameUUIDFromBytes(("candidate-" + category.name() + "-" + index).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+    
+    // ========== VOTERS ==========
+    
+    @Override
+    public List<Voter> findAllVoters(String dniFilter) {
+        String filter = dniFilter != null && !dniFilter.trim().isEmpty() ? dniFilter.trim() : null;
+        return voters.values().stream()
+            .filter(voter -> filter == null || voter.getDni().contains(filter))
+            .sorted(Comparator.comparing(Voter::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+            .map(InMemoryElectionRepository::copy)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public Optional<Voter> findVoterByDni(String dni) {
+        return Optional.ofNullable(voters.get(dni)).map(InMemoryElectionRepository::copy);
+    }
+    
+    @Override
+    public Voter saveVoter(Voter voter) {
+        if (voter.getDni() == null) {
+            throw new RuntimeException("Error al guardar votante: dni es requerido");
+        }
+        Voter stored = copy(voter);
+        voters.merge(voter.getDni(), stored, (existing, updated) -> {
+            // Upsert: se conserva la fecha de creación original
+            updated.setCreatedAt(existing.getCreatedAt());
+            return updated;
+        });
+        return copy(voters.get(voter.getDni()));
+    }
+    
+    @Override
+    public Voter updateVoter(Voter voter) {
+        if (!voters.containsKey(voter.getDni())) {
+            return voter;
+        }
+        return saveVoter(voter);
+    }
+    
+    @Override
+    public long countVoters() {
+        return voters.size();
+    }
+    
+    @Override
+    public void markVotersAsVoted(Collection<String> dnis) {
+        LocalDateTime now = LocalDateTime.now();
+        for (String dni : dnis) {
+            voters.computeIfPresent(dni, (key, existing) -> {
+                Voter updated = copy(existing);
+                updated.setHasVoted(true);
+                updated.setVotedAt(now);
+                return updated;
+            });
+        }
+    }
+    
+    // ========== CANDIDATES ==========
+    
+    @Override
+    public List<Candidate> findAllCandidates() {
+        return candidates.values().stream()
+            .map(this::copyWithCount)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Candidate> findCandidatesByCategory(String category) {
+        Candidate.ElectoralCategory parsed;
+        try {
+            parsed = Candidate.ElectoralCategory.valueOf(category.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return new ArrayList<>();
+        }
+        return candidatesByCategory.getOrDefault(parsed, Set.of()).stream()
+            .map(candidates::get)
+            .filter(candidate -> candidate != null)
+            .map(this::copyWithCount)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Candidate> findCandidateSummaries() {
+        return findAllCandidates().stream()
+            .map(InMemoryElectionRepository::summary)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Candidate> findCandidateSummariesByCategory(String category) {
+        return findCandidatesByCategory(category).stream()
+            .map(InMemoryElectionRepository::summary)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public Optional<Candidate> findCandidateById(String id) {
+        return Optional.ofNullable(candidates.get(id)).map(this::copyWithCount);
+    }
+    
+    @Override
+    public List<Candidate> findCandidatesByIds(Collection<String> ids) {
+        return ids.stream()
+            .distinct()
+            .map(candidates::get)
+            .filter(candidate -> candidate != null)
+            .map(this::copyWithCount)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public Candidate updateCandidate(Candidate candidate) {
+        if (!candidates.containsKey(candidate.getId())) {
+            throw new RuntimeException("Error al actualizar candidato: no existe " + candidate.getId());
+        }
+        Candidate previous = candidates.get(candidate.getId());
+        if (previous.getCategory() != candidate.getCategory()) {
+            candidatesByCategory.getOrDefault(previous.getCategory(), Set.of()).remove(candidate.getId());
+        }
+        candidate.setUpdatedAt(LocalDateTime.now());
+        putCandidate(candidate);
+        return copyWithCount(candidates.get(candidate.getId()));
+    }
+    
+    private void putCandidate(Candidate candidate) {
+        Candidate stored = copy(candidate);
+        candidates.put(stored.getId(), stored);
+        if (stored.getCategory() != null) {
+            candidatesByCategory.computeIfAbsent(stored.getCategory(), key -> ConcurrentHashMap.newKeySet()).add(stored.getId());
+        }
+        candidateVoteCounts.computeIfAbsent(stored.getId(),
+            key -> new AtomicInteger(stored.getVoteCount() != null ? stored.getVoteCount() : 0));
+    }
+    
+    // ========== VOTES ==========
+    
+    @Override
+    public void saveVote(Vote vote) {
+        String candidateId = vote.getCandidate() != null ? vote.getCandidate().getId() : null;
+        insertVote(UUID.randomUUID().toString(), vote.getVoterDni(), candidateId, vote.getCategory(),
+            vote.getVotedAt() != null ? vote.getVotedAt() : LocalDateTime.now(), true);
+    }
+    
+    @Override
+    public void saveVotes(List<Vote> ballot) {
+        List<StoredVote> inserted = new ArrayList<>();
+        try {
+            for (Vote vote : ballot) {
+                String candidateId = vote.getCandidate() != null ? vote.getCandidate().getId() : null;
+                inserted.add(insertVote(UUID.randomUUID().toString(), vote.getVoterDni(), candidateId, vote.getCategory(),
+                    vote.getVotedAt() != null ? vote.getVotedAt() : LocalDateTime.now(), true));
+            }
+        } catch (RuntimeException e) {
+            // Como la transacción de PostgREST: si un voto falla no queda ninguno
+            for (StoredVote stored : inserted) {
+                removeVote(stored);
+                if (stored.candidateId != null) {
+                    candidateVoteCounts.get(stored.candidateId).decrementAndGet();
+                }
+            }
+            throw e;
+        }
+    }
+    
+    @Override
+    public void saveVotesBatch(List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            String category = (String) row.get("category");
+            Object votedAt = row.get("voted_at");
+            insertVote(UUID.randomUUID().toString(), (String) row.get("voter_dni"), (String) row.get("candidate_id"),
+                category != null ? Vote.ElectoralCategory.valueOf(category.toUpperCase()) : null,
+                votedAt != null ? LocalDateTime.parse(votedAt.toString()) : LocalDateTime.now(), false);
+        }
+    }
+    
+    /**
+     * Inserta un voto respetando la restricción única (voter_dni, category).
+     * Con failOnDuplicate=false el duplicado se ignora, como ON CONFLICT DO NOTHING, y se retorna null.
+     */
+    private StoredVote insertVote(String id, String voterDni, String candidateId, Vote.ElectoralCategory category,
+                            LocalDateTime votedAt, boolean failOnDuplicate) {
+        if (voterDni == null || category == null) {
+            throw new RuntimeException("Error al guardar voto: voter_dni y category son requeridos");
+        }
+        if (candidateId != null && !candidates.containsKey(candidateId)) {
+            throw new RuntimeException("Error al guardar voto: violates foreign key constraint (candidate_id " + candidateId + ")");
+        }
+        
+        if (voteByVoterCategory.putIfAbsent(uniqueKey(voterDni, category), id) != null) {
+            if (failOnDuplicate) {
+                // Mismo texto que PostgREST para que VoteService lo reconozca
+                throw new RuntimeException("Error al guardar voto: duplicate key value violates unique constraint \"votes_voter_dni_category_key\"");
+            }
+            return null;
+        }
+        
+        StoredVote stored = new StoredVote(id, voterDni, candidateId, category, votedAt);
+        votes.put(id, stored);
+        votesByVoter.computeIfAbsent(voterDni, key -> ConcurrentHashMap.newKeySet()).add(id);
+        votesPerCategory.get(category).increment();
+        totalVotes.increment();
+        if (candidateId != null) {
+            candidateVoteCounts.get(candidateId).incrementAndGet();
+        }
+        return stored;
+    }
+    
+    @Override
+    public List<Vote> findVotesByVoterDni(String voterDni) {
+        List<Vote> result = new ArrayList<>();
+        for (String id : votesByVoter.getOrDefault(voterDni, Set.of())) {
+            StoredVote stored = votes.get(id);
+            if (stored != null) {
+                result.add(toVote(stored));
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public long countVotes() {
+        return totalVotes.sum();
+    }
+    
+    @Override
+    public long countVotesByCategory(String category) {
+        try {
+            return votesPerCategory.get(Vote.ElectoralCategory.valueOf(category.toUpperCase())).sum();
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+    
+    @Override
+    public long countDistinctVoters() {
+        return votesByVoter.values().stream().filter(ids -> !ids.isEmpty()).count();
+    }
+    
+    @Override
+    public int invalidarVotos(String voterDni) {
+        int invalidated = 0;
+        for (String id : votesByVoter.getOrDefault(voterDni, Set.of())) {
+            StoredVote stored = votes.get(id);
+            // replace solo gana una vez: dos invalidaciones simultáneas no descuentan el voto dos veces
+            if (stored != null && stored.candidateId != null
+                && votes.replace(id, stored, new StoredVote(id, stored.voterDni, null, stored.category, stored.votedAt))) {
+                candidateVoteCounts.get(stored.candidateId).decrementAndGet();
+                invalidated++;
+            }
+        }
+        log.info("Invalidados {} votos para DNI: {}", invalidated, voterDni);
+        return invalidated;
+    }
+    
+    private void removeVote(StoredVote stored) {
+        if (votes.remove(stored.id) == null) {
+            return;
+        }
+        voteByVoterCategory.remove(uniqueKey(stored.voterDni, stored.category), stored.id);
+        votesByVoter.computeIfPresent(stored.voterDni, (key, ids) -> {
+            ids.remove(stored.id);
+            return ids.isEmpty() ? null : ids;
+        });
+        votesPerCategory.get(stored.category).decrement();
+        totalVotes.decrement();
+    }
+    
+    private static String uniqueKey(String voterDni, Vote.ElectoralCategory category) {
+        return voterDni + ":" + category.name();
+    }
+    
+    // ========== CLEANING METHODS ==========
+    
+    @Override
+    public int deleteNullValues() {
+        int deletedCount = 0;
+        for (Candidate candidate : new ArrayList<>(candidates.values())) {
+            if (isBlank(candidate.getName()) || isBlank(candidate.getPartyName())
+                || isBlank(candidate.getDescription()) || isBlank(candidate.getPhotoUrl())) {
+                candidates.remove(candidate.getId());
+                if (candidate.getCategory() != null) {
+                    candidatesByCategory.getOrDefault(candidate.getCategory(), Set.of()).remove(candidate.getId());
+                }
+                deletedCount++;
+            }
+        }
+        for (Voter voter : new ArrayList<>(voters.values())) {
+            if (isBlank(voter.getFullName()) || isBlank(voter.getAddress()) || isBlank(voter.getDistrict())
+                || isBlank(voter.getProvince()) || isBlank(voter.getDepartment())) {
+                voters.remove(voter.getDni());
+                deletedCount++;
+            }
+        }
+        for (StoredVote stored : new ArrayList<>(votes.values())) {
+            if (stored.candidateId == null) {
+                removeVote(stored);
+                deletedCount++;
+            }
+        }
+        log.info("Eliminados {} registros con valores nulos", deletedCount);
+        return deletedCount;
+    }
+    
+    @Override
+    public int deleteDuplicateVotes() {
+        // La restricción única impide que existan duplicados
+        return 0;
+    }
+    
+    @Override
+    public List<String> validateDNIs() {
+        List<String> invalidDNIs = new ArrayList<>();
+        for (Voter voter : voters.values()) {
+            if (!DNI_PATTERN.matcher(voter.getDni()).matches()) {
+                invalidDNIs.add(voter.getDni() + " (" + (voter.getFullName() != null ? voter.getFullName() : "sin nombre") + ")");
+            }
+        }
+        for (String voterDni : votesByVoter.keySet()) {
+            if (!DNI_PATTERN.matcher(voterDni).matches() && !invalidDNIs.contains(voterDni + " (en votos)")) {
+                invalidDNIs.add(voterDni + " (en votos)");
+            }
+        }
+        return invalidDNIs;
+    }
+    
+    @Override
+    public int normalizeData() {
+        int normalizedCount = 0;
+        for (Voter voter : voters.values()) {
+            Voter normalized = copy(voter);
+            normalized.setFullName(TextNormalizer.capitalizeWords(voter.getFullName()));
+            normalized.setAddress(voter.getAddress() != null ? voter.getAddress().trim() : null);
+            normalized.setDistrict(TextNormalizer.capitalizeWords(voter.getDistrict()));
+            normalized.setProvince(TextNormalizer.capitalizeWords(voter.getProvince()));
+            normalized.setDepartment(TextNormalizer.capitalizeWords(voter.getDepartment()));
+            if (!normalized.equals(voter)) {
+                voters.replace(voter.getDni(), voter, normalized);
+                normalizedCount++;
+            }
+        }
+        for (Candidate candidate : candidates.values()) {
+            Candidate normalized = copy(candidate);
+            normalized.setName(TextNormalizer.capitalizeWords(candidate.getName()));
+            normalized.setPartyName(candidate.getPartyName() != null ? candidate.getPartyName().trim() : null);
+            if (!normalized.equals(candidate)) {
+                candidates.replace(candidate.getId(), candidate, normalized);
+                normalizedCount++;
+            }
+        }
+        log.info("Normalizados {} registros", normalizedCount);
+        return normalizedCount;
+    }
+    
+    // ========== TRAINING DATA METHODS ==========
+    
+    @Override
+    public List<Map<String, Object>> getVotesByDate() {
+        return ElectionAnalytics.votesByDate(voteRows());
+    }
+    
+    @Override
+    public Map<String, Object> detectAnomalies() {
+        return ElectionAnalytics.detectAnomalies(voteRows());
+    }
+    
+    @Override
+    public Map<String, Object> getParticipationData() {
+        List<Map<String, Object>> voterRows = new ArrayList<>(voters.size());
+        for (Voter voter : voters.values()) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("dni", voter.getDni());
+            row.put("department", voter.getDepartment());
+            voterRows.add(row);
+        }
+        return ElectionAnalytics.participation(voterRows, voteRows());
+    }
+    
+    private List<Map<String, Object>> voteRows() {
+        List<Map<String, Object>> rows = new ArrayList<>(votes.size());
+        for (StoredVote stored : votes.values()) {
+            rows.add(voteRow(stored));
+        }
+        return rows;
+    }
+    
+    // ========== MIGRATION ==========
+    
+    /**
+     * Los datos ya están en memoria: pageSize no aplica y solo se ordenan las claves
+     */
+    @Override
+    public void forEachRow(String table, int pageSize, Consumer<Map<String, Object>> consumer) {
+        switch (table) {
+            case "voters" -> voters.keySet().stream().sorted().map(voters::get)
+                .filter(Objects::nonNull).map(InMemoryElectionRepository::voterRow).forEach(consumer);
+            case "candidates" -> candidates.keySet().stream().sorted().map(candidates::get)
+                .filter(Objects::nonNull).map(candidate -> candidateRow(copyWithCount(candidate))).forEach(consumer);
+            case "votes" -> votes.keySet().stream().sorted().map(votes::get)
+                .filter(Objects::nonNull).map(InMemoryElectionRepository::voteRow).forEach(consumer);
+            default -> throw new IllegalArgumentException("Tabla desconocida: " + table);
+        }
+    }
+    
+    /**
+     * Las filas de un lote se aplican una a una: si una falla, las anteriores quedan guardadas.
+     * Como merge-duplicates, en votantes y candidatos existentes solo cambian las columnas
+     * presentes en la fila. Los votos se reemplazan y vote_count se ajusta como lo haría el trigger.
+     */
+    @Override
+    public void upsertRows(String table, List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            try {
+                switch (table) {
+                    case "voters" -> {
+                        Voter existing = voters.get(requiredText(row, "dni"));
+                        Voter voter = voterFromRow(row, existing != null ? copy(existing) : new Voter());
+                        voters.put(voter.getDni(), voter);
+                    }
+                    case "candidates" -> {
+                        Candidate previous = candidates.get(requiredText(row, "id"));
+                        Candidate candidate = candidateFromRow(row, previous != null ? copy(previous) : new Candidate());
+                        if (previous != null && previous.getCategory() != candidate.getCategory()) {
+                            candidatesByCategory.getOrDefault(previous.getCategory(), Set.of()).remove(candidate.getId());
+                        }
+                        putCandidate(candidate);
+                    }
+                    case "votes" -> upsertVote(row);
+                    default -> throw new IllegalArgumentException("Tabla desconocida: " + table);
+                }
+            } catch (DateTimeException | ClassCastException e) {
+                throw new IllegalArgumentException("Fila inválida en " + table + ": " + e.getMessage(), e);
+            }
+        }
+    }
+    
+    private void upsertVote(Map<String, Object> row) {
+        String id = requiredText(row, "id");
+        String candidateId = (String) row.get("candidate_id");
+        Vote.ElectoralCategory category = category(Vote.ElectoralCategory.class, row.get("category"));
+        LocalDateTime votedAt = row.get("voted_at") != null ? dateTime(row.get("voted_at")) : LocalDateTime.now();
+        StoredVote previous = votes.get(id);
+        if (previous != null) {
+            removeVote(previous);
+            if (previous.candidateId != null) {
+                candidateVoteCounts.get(previous.candidateId).decrementAndGet();
+            }
+        }
+        try {
+            insertVote(id, requiredText(row, "voter_dni"), candidateId, category, votedAt, true);
+        } catch (RuntimeException e) {
+            if (previous != null) {
+                insertVote(previous.id, previous.voterDni, previous.candidateId, previous.category, previous.votedAt, false);
+            }
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+    
+    private static Voter voterFromRow(Map<String, Object> row, Voter voter) {
+        voter.setDni(requiredText(row, "dni"));
+        if (row.containsKey("full_name")) {
+            voter.setFullName((String) row.get("full_name"));
+        }
+        if (row.containsKey("address")) {
+            voter.setAddress((String) row.get("address"));
+        }
+        if (row.containsKey("district")) {
+            voter.setDistrict((String) row.get("district"));
+        }
+        if (row.containsKey("province")) {
+            voter.setProvince((String) row.get("province"));
+        }
+        if (row.containsKey("department")) {
+            voter.setDepartment((String) row.get("department"));
+        }
+        if (row.containsKey("birth_date")) {
+            voter.setBirthDate(row.get("birth_date") != null ? LocalDate.parse(row.get("birth_date").toString().split("T")[0]) : null);
+        }
+        if (row.containsKey("has_voted")) {
+            voter.setHasVoted(Boolean.TRUE.equals(row.get("has_voted")));
+        }
+        if (row.containsKey("voted_at")) {
+            voter.setVotedAt(row.get("voted_at") != null ? dateTime(row.get("voted_at")) : null);
+        }
+        if (row.get("created_at") != null) {
+            voter.setCreatedAt(dateTime(row.get("created_at")));
+        }
+        return voter;
+    }
+    
+    /**
+     * vote_count no se copia: para un candidato nuevo empieza en 0 y lo incrementan sus votos
+     */
+    private static Candidate candidateFromRow(Map<String, Object> row, Candidate candidate) {
+        candidate.setId(requiredText(row, "id"));
+        if (row.containsKey("name")) {
+            candidate.setName((String) row.get("name"));
+        }
+        if (row.containsKey("photo_url")) {
+            candidate.setPhotoUrl((String) row.get("photo_url"));
+        }
+        if (row.containsKey("description")) {
+            candidate.setDescription((String) row.get("description"));
+        }
+        if (row.containsKey("party_name")) {
+            candidate.setPartyName((String) row.get("party_name"));
+        }
+        if (row.containsKey("party_logo_url")) {
+            candidate.setPartyLogoUrl((String) row.get("party_logo_url"));
+        }
+        if (row.containsKey("party_description")) {
+            candidate.setPartyDescription((String) row.get("party_description"));
+        }
+        if (row.containsKey("category") || candidate.getCategory() == null) {
+            candidate.setCategory(category(Candidate.ElectoralCategory.class, row.get("category")));
+        }
+        if (row.containsKey("academic_formation")) {
+            candidate.setAcademicFormation((String) row.get("academic_formation"));
+        }
+        if (row.containsKey("professional_experience")) {
+            candidate.setProfessionalExperience((String) row.get("professional_experience"));
+        }
+        if (row.containsKey("campaign_proposal")) {
+            candidate.setCampaignProposal((String) row.get("campaign_proposal"));
+        }
+        if (row.get("created_at") != null) {
+            candidate.setCreatedAt(dateTime(row.get("created_at")));
+        }
+        if (row.containsKey("updated_at")) {
+            candidate.setUpdatedAt(row.get("updated_at") != null ? dateTime(row.get("updated_at")) : null);
+        }
+        return candidate;
+    }
+    
+    private static String requiredText(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        if (value == null || value.toString().isBlank()) {
+            throw new IllegalArgumentException(column + " es requerido");
+        }
+        return value.toString();
+    }
+    
+    private static <E extends Enum<E>> E category(Class<E> type, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("category es requerido");
+        }
+        try {
+            return Enum.valueOf(type, value.toString().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Categoría inválida: " + value);
+        }
+    }
+    
+    private static LocalDateTime dateTime(Object value) {
+        return LocalDateTime.parse(value.toString().replace("Z", "").replace("+00:00", ""));
+    }
+    
+    private static Map<String, Object> voterRow(Voter voter) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("dni", voter.getDni());
+        row.put("full_name", voter.getFullName());
+        row.put("address", voter.getAddress());
+        row.put("district", voter.getDistrict());
+        row.put("province", voter.getProvince());
+        row.put("department", voter.getDepartment());
+        row.put("birth_date", voter.getBirthDate() != null ? voter.getBirthDate().toString() : null);
+        row.put("has_voted", voter.getHasVoted());
+        row.put("voted_at", voter.getVotedAt() != null ? voter.getVotedAt().toString() : null);
+        row.put("created_at", voter.getCreatedAt() != null ? voter.getCreatedAt().toString() : null);
+        return row;
+    }
+    
+    private static Map<String, Object> candidateRow(Candidate candidate) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", candidate.getId());
+        row.put("name", candidate.getName());
+        row.put("photo_url", candidate.getPhotoUrl());
+        row.put("description", candidate.getDescription());
+        row.put("party_name", candidate.getPartyName());
+        row.put("party_logo_url", candidate.getPartyLogoUrl());
+        row.put("party_description", candidate.getPartyDescription());
+        row.put("category", candidate.getCategory() != null ? candidate.getCategory().name().toLowerCase() : null);
+        row.put("academic_formation", candidate.getAcademicFormation());
+        row.put("professional_experience", candidate.getProfessionalExperience());
+        row.put("campaign_proposal", candidate.getCampaignProposal());
+        row.put("vote_count", candidate.getVoteCount());
+        row.put("created_at", candidate.getCreatedAt() != null ? candidate.getCreatedAt().toString() : null);
+        row.put("updated_at", candidate.getUpdatedAt() != null ? candidate.getUpdatedAt().toString() : null);
+        return row;
+    }
+    
+    private static Map<String, Object> voteRow(StoredVote stored) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", stored.id);
+        row.put("voter_dni", stored.voterDni);
+        row.put("candidate_id", stored.candidateId);
+        row.put("category", stored.category.name().toLowerCase());
+        row.put("voted_at", stored.votedAt.toString());
+        return row;
+    }
+    
+    // ========== MAPPER METHODS ==========
+    
+    private Vote toVote(StoredVote stored) {
+        Vote vote = new Vote();
+        vote.setId(stored.id);
+        vote.setVoterDni(stored.voterDni);
+        if (stored.candidateId != null) {
+            findCandidateById(stored.candidateId).ifPresent(vote::setCandidate);
+        }
+        vote.setCategory(stored.category);
+        vote.setVotedAt(stored.votedAt);
+        return vote;
+    }
+    
+    private Candidate copyWithCount(Candidate candidate) {
+        Candidate copy = copy(candidate);
+        AtomicInteger count = candidateVoteCounts.get(candidate.getId());
+        copy.setVoteCount(count != null ? count.get() : 0);
+        return copy;
+    }
+    
+    /**
+     * Misma proyección que el select de columnas de SupabaseService
+     */
+    private static Candidate summary(Candidate candidate) {
+        candidate.setDescription(null);
+        candidate.setPartyDescription(null);
+        candidate.setAcademicFormation(null);
+        candidate.setProfessionalExperience(null);
+        candidate.setCampaignProposal(null);
+        return candidate;
+    }
+    
+    private static Candidate copy(Candidate source) {
+        Candidate copy = new Candidate();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setPhotoUrl(source.getPhotoUrl());
+        copy.setDescription(source.getDescription());
+        copy.setPartyName(source.getPartyName());
+        copy.setPartyLogoUrl(source.getPartyLogoUrl());
+        copy.setPartyDescription(source.getPartyDescription());
+        copy.setCategory(source.getCategory());
+        copy.setAcademicFormation(source.getAcademicFormation());
+        copy.setProfessionalExperience(source.getProfessionalExperience());
+        copy.setCampaignProposal(source.getCampaignProposal());
+        copy.setVoteCount(source.getVoteCount());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+    
+    private static Voter copy(Voter source) {
+        Voter copy = new Voter();
+        copy.setDni(source.getDni());
+        copy.setFullName(source.getFullName());
+        copy.setAddress(source.getAddress());
+        copy.setDistrict(source.getDistrict());
+        copy.setProvince(source.getProvince());
+        copy.setDepartment(source.getDepartment());
+        copy.setBirthDate(source.getBirthDate());
+        copy.setPhotoUrl(source.getPhotoUrl());
+        copy.setHasVoted(source.getHasVoted());
+        copy.setVotedAt(source.getVotedAt());
+        copy.setCreatedAt(source.getCreatedAt());
+        return copy;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+    
+    private static final class StoredVote {
+        private final String id;
+        private final String voterDni;
+        private final String candidateId;
+        private final Vote.ElectoralCategory category;
+        private final LocalDateTime votedAt;
+        
+        private StoredVote(String id, String voterDni, String candidateId, Vote.ElectoralCategory category, LocalDateTime votedAt) {
+            this.id = id;
+            this.voterDni = voterDni;
+            this.candidateId = candidateId;
+            this.category = category;
+            this.votedAt = votedAt;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.elecciones.repository;
+
+import com.elecciones.model.Candidate;
+import com.elecciones.model.Vote;
+import com.elecciones.model.Voter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Variante no bloqueante del acceso a votantes, candidatos y votos.
+ *
+ * Las operaciones no bloquean al hilo que llama: retornan Mono/Flux que hacen la consulta al
+ * suscribirse. Los métodos stream* recorren tablas completas por páginas y solo piden la
+ * siguiente cuando el consumidor la necesita. Los errores llegan como RuntimeException en
+ * la señal de error, salvo en los métodos de análisis, que como en ElectionDataRepository
+ * retornan un resultado vacío.
+ */
+public interface ReactiveElectionRepository {
+    
+    // ========== VOTERS ==========
+    
+    Mono<Voter> findVoterByDni(String dni);
+    
+    /**
+     * Todos los votantes ordenados por DNI
+     */
+    Flux<Voter> streamVoters();
+    
+    Mono<Long> countVoters();
+    
+    // ========== CANDIDATES ==========
+    
+    Flux<Candidate> findAllCandidates();
+    
+    Flux<Candidate> findCandidatesByCategory(String category);
+    
+    Mono<Candidate> findCandidateById(String id);
+    
+    Flux<Candidate> findCandidatesByIds(Collection<String> ids);
+    
+    // ========== VOTES ==========
+    
+    Flux<Vote> findVotesByVoterDni(String voterDni);
+    
+    /**
+     * Todos los votos con su candidato, ordenados por id
+     */
+    Flux<Vote> streamVotes();
+    
+    /**
+     * Inserta los votos de una boleta en una sola solicitud, con la misma atomicidad que
+     * VoteRepository.saveVotes
+     */
+    Mono<Void> saveVotes(List<Vote> votes);
+    
+    Mono<Long> countVotes();
+    
+    Mono<Long> countVotesByCategory(String category);
+    
+    Mono<Long> countDistinctVoters();
+    
+    // ========== TRAINING DATA ==========
+    
+    Mono<List<Map<String, Object>>> getVotesByDate();
+    
+    Mono<Map<String, Object>> detectAnomalies();
+    
+    Mono<Map<String, Object>> getParticipationData();
+}
@@ -0,0 +1,41 @@
+package com.elecciones.repository;
+
+import com.elecciones.model.Vote;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso a la tabla votes.
+ * (voter_dni, category) es único: un segundo voto en la misma categoría falla
+ * con un error que menciona "duplicate".
+ */
+public interface VoteRepository {
+    
+    void saveVote(Vote vote);
+    
+    /**
+     * Inserta los votos de una boleta en una sola solicitud. Es atómico: si alguna
+     * categoría ya fue votada no se inserta ninguno y el error menciona "duplicate".
+     */
+    void saveVotes(List<Vote> votes);
+    
+    /**
+     * Inserta un lote de filas (voter_dni, candidate_id, category, voted_at).
+     * Las filas que ya existen se ignoran, por lo que reenviar un lote es seguro.
+     */
+    void saveVotesBatch(List<Map<String, Object>> votes);
+    
+    List<Vote> findVotesByVoterDni(String voterDni);
+    
+    long countVotes();
+    
+    long countVotesByCategory(String category);
+    
+    long countDistinctVoters();
+    
+    /**
+     * Invalida los votos de un votante (marca candidate_id como NULL)
+     */
+    int invalidarVotos(String voterDni);
+}
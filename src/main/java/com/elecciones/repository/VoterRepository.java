@@ -0,0 +1,34 @@
+package com.elecciones.repository;
+
+import com.elecciones.model.Voter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso a la tabla voters
+ */
+public interface VoterRepository {
+    
+    /**
+     * Lista votantes, opcionalmente filtrando por DNI parcial, del más reciente al más antiguo
+     */
+    List<Voter> findAllVoters(String dniFilter);
+    
+    Optional<Voter> findVoterByDni(String dni);
+    
+    /**
+     * Crea el votante o actualiza el existente con el mismo DNI
+     */
+    Voter saveVoter(Voter voter);
+    
+    Voter updateVoter(Voter voter);
+    
+    long countVoters();
+    
+    /**
+     * Marca a los votantes indicados como que ya votaron
+     */
+    void markVotersAsVoted(Collection<String> dnis);
+}
@@ -1,25 +1,36 @@
 package com.elecciones.service;
 
+import com.elecciones.audit.AuditEventType;
+import com.elecciones.audit.AuditLog;
+import com.elecciones.geo.GeoRollup;
+import com.elecciones.repository.ElectionDataRepository;
+import com.elecciones.repository.ReactiveElectionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AdminService {
     
-    private final SupabaseService supabaseService;
+    private final ElectionDataRepository electionDataRepository;
+    // Los análisis leen tablas completas: con Supabase se usan las consultas no bloqueantes
+    private final ObjectProvider<ReactiveElectionRepository> reactiveElectionRepository;
+    private final TokenService tokenService;
+    private final AuditLog auditLog;
+    private final GeoRollup geoRollup;
     
     @Value("${admin.email:admin@elecciones.pe}")
     private String adminEmail;
@@ -27,108 +38,52 @@ public class AdminService {
     @Value("${admin.password:admin123}")
     private String adminPassword;
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-    
-    // Almacenar tokens activos (en producción usar Redis o base de datos)
-    private final Map<String, Long> activeTokens = new HashMap<>();
-    private static final long TOKEN_EXPIRATION = 24 * 60 * 60 * 1000; // 24 horas
-    
     /**
-     * Autentica un administrador y genera un token JWT simple
+     * Autentica un administrador y genera un token firmado
      */
     public String authenticate(String email, String password) {
         log.debug("Autenticando admin - Email: {}, Password configurada: {}", email, adminPassword != null ? "***" : "null");
         
         if (email == null || password == null) {
             log.warn("Email o password nulos");
+            auditLog.record(AuditEventType.LOGIN, email, false, "admin: credenciales incompletas");
             return null;
         }
         
         // Verificar credenciales
         if (email.equals(adminEmail) && password.equals(adminPassword)) {
-            // Generar token simple
-            String token = generateToken(email);
-            activeTokens.put(token, System.currentTimeMillis() + TOKEN_EXPIRATION);
+            String token = tokenService.issue(email, TokenService.ROLE_ADMIN);
             log.info("Token generado para admin: {}", email);
+            auditLog.record(AuditEventType.LOGIN, email, true, "admin");
             return token;
         }
         
         log.warn("Credenciales inválidas para: {}", email);
+        auditLog.record(AuditEventType.LOGIN, email, false, "admin: credenciales inválidas");
         return null;
     }
     
     /**
-     * Valida un token
+     * Valida un token (firma, expiración y rol de administrador)
      */
     public boolean validateToken(String token) {
-        if (token == null || token.isEmpty()) {
-            return false;
-        }
-        
-        // Verificar si el token está en la lista de tokens activos
-        Long expiration = activeTokens.get(token);
-        if (expiration == null) {
-            log.debug("Token no encontrado en tokens activos");
-            return false;
-        }
-        
-        // Verificar si el token no ha expirado
-        if (System.currentTimeMillis() > expiration) {
-            log.debug("Token expirado");
-            activeTokens.remove(token);
-            return false;
-        }
-        
-        return true;
+        TokenService.TokenClaims claims = tokenService.verify(token);
+        return claims != null && claims.hasRole(TokenService.ROLE_ADMIN);
     }
     
     /**
-     * Genera un token JWT simple
+     * Revoca un token de administrador (logout)
      */
-    private String generateToken(String email) {
-        try {
-            long expiration = System.currentTimeMillis() + TOKEN_EXPIRATION;
-            
-            // Crear payload
-            String header = Base64.getUrlEncoder().withoutPadding()
-                .encodeToString("{\"typ\":\"JWT\",\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
-            
-            String payload = Base64.getUrlEncoder().withoutPadding()
-                .encodeToString(String.format("{\"email\":\"%s\",\"exp\":%d}", email, expiration)
-                    .getBytes(StandardCharsets.UTF_8));
-            
-            // Crear signature
-            String data = header + "." + payload;
-            Mac mac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKeySpec = new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            mac.init(secretKeySpec);
-            byte[] signatureBytes = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            String signature = Base64.getUrlEncoder().withoutPadding()
-                .encodeToString(signatureBytes);
-            
-            return data + "." + signature;
-        } catch (Exception e) {
-            log.error("Error al generar token: {}", e.getMessage(), e);
-            // Fallback: token simple con hash
-            try {
-                MessageDigest digest = MessageDigest.getInstance("SHA-256");
-                byte[] hash = digest.digest((email + System.currentTimeMillis() + jwtSecret).getBytes(StandardCharsets.UTF_8));
-                return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-            } catch (Exception ex) {
-                log.error("Error al generar token fallback: {}", ex.getMessage(), ex);
-                return email + "_" + System.currentTimeMillis();
-            }
-        }
+    public boolean revokeToken(String token) {
+        return validateToken(token) && tokenService.revoke(token);
     }
     
     /**
-     * Limpia tokens expirados (debería ejecutarse periódicamente)
+     * Limpia revocaciones de tokens ya expirados
      */
     public void cleanExpiredTokens() {
-        long now = System.currentTimeMillis();
-        activeTokens.entrySet().removeIf(entry -> entry.getValue() < now);
-        log.debug("Tokens limpiados. Tokens activos: {}", activeTokens.size());
+        int removed = tokenService.purgeExpiredRevocations();
+        log.debug("Revocaciones expiradas limpiadas: {}. Revocaciones activas: {}", removed, tokenService.getRevokedCount());
     }
     
     // ========== CLEANING METHODS ==========
@@ -137,36 +92,66 @@ public class AdminService {
      * Elimina registros con valores nulos
      */
     public int deleteNullValues() {
-        return supabaseService.deleteNullValues();
+        return audited("Eliminar valores nulos", electionDataRepository::deleteNullValues);
     }
     
     /**
      * Elimina votos duplicados
      */
     public int deleteDuplicateVotes() {
-        return supabaseService.deleteDuplicateVotes();
+        return audited("Eliminar votos duplicados", electionDataRepository::deleteDuplicateVotes);
     }
     
     /**
      * Valida DNIs y retorna lista de inválidos
      */
     public List<String> validateDNIs() {
-        return supabaseService.validateDNIs();
+        return electionDataRepository.validateDNIs();
     }
     
     /**
      * Normaliza datos (nombres, direcciones, etc.)
      */
     public int normalizeData() {
-        return supabaseService.normalizeData();
+        return audited("Normalizar datos", electionDataRepository::normalizeData);
+    }
+    
+    /**
+     * Ejecuta una operación de limpieza y la deja en la auditoría con su resultado
+     */
+    private int audited(String operation, IntSupplier cleaning) {
+        try {
+            int count = cleaning.getAsInt();
+            auditLog.record(AuditEventType.DATA_CLEANING, null, true, operation + ": " + count + " registros");
+            if (count > 0) {
+                // Borra o cambia filas de votantes y votos: los resultados geográficos se rehacen
+                geoRollup.requestRebuild();
+            }
+            return count;
+        } catch (RuntimeException e) {
+            auditLog.record(AuditEventType.DATA_CLEANING, null, false, operation + ": " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Datos de análisis desde el repositorio reactivo si existe; el backend en memoria no
+     * tiene variante reactiva y responde sin bloquear
+     */
+    private <T> Mono<T> analyticsData(Function<ReactiveElectionRepository, Mono<T>> reactive, Supplier<T> blocking) {
+        ReactiveElectionRepository repository = reactiveElectionRepository.getIfAvailable();
+        return repository != null ? reactive.apply(repository) : Mono.fromSupplier(blocking);
     }
     
     /**
      * Analiza tendencias electorales basadas en datos históricos
      */
-    public Map<String, Object> analyzeTrends() {
-        List<Map<String, Object>> votesByDate = supabaseService.getVotesByDate();
-        
+    public Mono<Map<String, Object>> analyzeTrends() {
+        return analyticsData(ReactiveElectionRepository::getVotesByDate, electionDataRepository::getVotesByDate)
+            .map(this::analyzeTrends);
+    }
+    
+    private Map<String, Object> analyzeTrends(List<Map<String, Object>> votesByDate) {
         Map<String, Object> result = new HashMap<>();
         
         if (votesByDate.isEmpty()) {
@@ -231,9 +216,12 @@ public class AdminService {
     /**
      * Detecta anomalías en los datos de votación
      */
-    public Map<String, Object> detectAnomalies() {
-        Map<String, Object> anomaliesData = supabaseService.detectAnomalies();
-        
+    public Mono<Map<String, Object>> detectAnomalies() {
+        return analyticsData(ReactiveElectionRepository::detectAnomalies, electionDataRepository::detectAnomalies)
+            .map(this::detectAnomalies);
+    }
+    
+    private Map<String, Object> detectAnomalies(Map<String, Object> anomaliesData) {
         Map<String, Object> result = new HashMap<>();
         
         @SuppressWarnings("unchecked")
@@ -262,13 +250,21 @@ public class AdminService {
     /**
      * Analiza la participación por región y demografía
      */
-    public Map<String, Object> analyzeParticipation() {
-        Map<String, Object> participationData = supabaseService.getParticipationData();
-        
+    public Mono<Map<String, Object>> analyzeParticipation() {
+        // Con los resultados geográficos listos la participación por departamento ya está contada
+        Optional<Map<String, Object>> rollup = geoRollup.participationData();
+        if (rollup.isPresent()) {
+            return Mono.just(analyzeParticipation(rollup.get()));
+        }
+        return analyticsData(ReactiveElectionRepository::getParticipationData, electionDataRepository::getParticipationData)
+            .map(this::analyzeParticipation);
+    }
+    
+    private Map<String, Object> analyzeParticipation(Map<String, Object> participationData) {
         Map<String, Object> result = new HashMap<>();
         
         @SuppressWarnings("unchecked")
-        Map<String, Map<String, Object>> participationByRegion = 
+        Map<String, Map<String, Object>> participationByRegion =
             (Map<String, Map<String, Object>>) participationData.get("participationByRegion");
         
         if (participationByRegion == null || participationByRegion.isEmpty()) {
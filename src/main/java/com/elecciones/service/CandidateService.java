@@ -1,12 +1,15 @@
 package com.elecciones.service;
 
 import com.elecciones.dto.CandidateDTO;
+import com.elecciones.dto.CandidateSummaryDTO;
 import com.elecciones.model.Candidate;
+import com.elecciones.repository.CandidateRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -14,26 +17,62 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CandidateService {
     
-    private final SupabaseService supabaseService;
+    private final CandidateRepository candidateRepository;
     
     /**
      * Obtiene todos los candidatos ordenados por votos
      */
     public List<CandidateDTO> obtenerTodosLosCandidatos() {
-        return supabaseService.findAllCandidates().stream()
+        return candidateRepository.findAllCandidates().stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
     }
     
+    /**
+     * Resumen de todos los candidatos ordenados por votos, sin los textos largos
+     */
+    public List<CandidateSummaryDTO> obtenerResumenCandidatos() {
+        return candidateRepository.findCandidateSummaries().stream()
+            .map(this::convertToSummaryDTO)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Resumen de los candidatos de una categoría
+     */
+    public List<CandidateSummaryDTO> obtenerResumenPorCategoria(String category) {
+        return candidateRepository.findCandidateSummariesByCategory(category).stream()
+            .map(this::convertToSummaryDTO)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Detalle completo de un candidato
+     */
+    public Optional<CandidateDTO> obtenerCandidato(String id) {
+        return candidateRepository.findCandidateById(id).map(this::convertToDTO);
+    }
+    
     /**
      * Obtiene candidatos por categoría
      */
     public List<CandidateDTO> obtenerCandidatosPorCategoria(String category) {
-        return supabaseService.findCandidatesByCategory(category).stream()
+        return candidateRepository.findCandidatesByCategory(category).stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
     }
     
+    private CandidateSummaryDTO convertToSummaryDTO(Candidate candidate) {
+        return new CandidateSummaryDTO(
+            candidate.getId(),
+            candidate.getName(),
+            candidate.getPhotoUrl(),
+            candidate.getPartyName(),
+            candidate.getPartyLogoUrl(),
+            candidate.getCategory().name().toLowerCase(),
+            candidate.getVoteCount());
+    }
+    
     private CandidateDTO convertToDTO(Candidate candidate) {
         CandidateDTO dto = new CandidateDTO();
         dto.setId(candidate.getId());
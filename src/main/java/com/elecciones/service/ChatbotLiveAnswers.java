@@ -0,0 +1,134 @@
+package com.elecciones.service;
+
+import com.elecciones.dto.CandidateSummaryDTO;
+import com.elecciones.dto.DashboardStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.text.NumberFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Respuestas del chatbot con datos en vivo. Salen de la instantánea del dashboard sin esperar
+ * su recálculo, y los textos se arman una sola vez por instantánea, así que ningún mensaje
+ * consulta Supabase ni vuelve a formatear mientras la instantánea no cambie.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatbotLiveAnswers {
+    
+    private static final Locale LOCALE = Locale.forLanguageTag("es-PE");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final String[] CATEGORIES = {"presidencial", "distrital", "regional"};
+    private static final int LEADERS = 3;
+    
+    /**
+     * Temas con respuesta en vivo; en chatbot/intents.json se indican con "live"
+     */
+    public enum Topic {
+        PARTICIPACION, CATEGORIAS, LIDERES
+    }
+    
+    private final DashboardSnapshotService dashboardSnapshotService;
+    
+    private final AtomicReference<Rendered> rendered = new AtomicReference<>();
+    
+    /**
+     * Respuesta del tema, o vacío si todavía no hay instantánea (ya quedó pedido su cálculo)
+     */
+    public Optional<String> answer(Topic topic) {
+        Optional<DashboardSnapshotService.Snapshot> snapshot = dashboardSnapshotService.peek();
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        Rendered texts = rendered.get();
+        if (texts == null || texts.source() != snapshot.get()) {
+            // Dos hilos pueden armar la misma instantánea a la vez; el resultado es el mismo
+            texts = render(snapshot.get());
+            rendered.set(texts);
+        }
+        return Optional.of(texts.byTopic().get(topic));
+    }
+    
+    private static Rendered render(DashboardSnapshotService.Snapshot snapshot) {
+        DashboardStatsDTO stats = snapshot.getStats();
+        String footer = "\n\nDatos actualizados a las " + TIME.format(snapshot.getGeneratedAt()) + ".";
+        Map<Topic, String> texts = new EnumMap<>(Topic.class);
+        texts.put(Topic.PARTICIPACION, participation(stats) + footer);
+        texts.put(Topic.CATEGORIAS, categories(stats) + footer);
+        texts.put(Topic.LIDERES, leaders(stats) + footer);
+        return new Rendered(snapshot, texts);
+    }
+    
+    private static String participation(DashboardStatsDTO stats) {
+        return "La participación actual es de **" + percent(value(stats.getParticipationRate())) + "**.\n\n"
+            + "• Votantes registrados: " + number(value(stats.getTotalVoters())) + "\n"
+            + "• Votos emitidos: " + number(value(stats.getTotalVotes()));
+    }
+    
+    private static String categories(DashboardStatsDTO stats) {
+        return "Votos emitidos por categoría:\n\n"
+            + "• Presidencial: " + number(value(stats.getPresidentialVotes())) + "\n"
+            + "• Distrital: " + number(value(stats.getDistritalVotes())) + "\n"
+            + "• Regional: " + number(value(stats.getRegionalVotes())) + "\n\n"
+            + "Total: " + number(value(stats.getTotalVotes())) + " votos.";
+    }
+    
+    private static String leaders(DashboardStatsDTO stats) {
+        List<CandidateSummaryDTO> candidates = stats.getCandidates() != null ? stats.getCandidates() : List.of();
+        StringBuilder text = new StringBuilder("Así van los resultados:");
+        for (String category : CATEGORIES) {
+            List<CandidateSummaryDTO> ranking = candidates.stream()
+                .filter(candidate -> category.equals(candidate.getCategory()))
+                .sorted(Comparator.comparingInt((CandidateSummaryDTO candidate) -> votes(candidate)).reversed())
+                .toList();
+            long total = ranking.stream().mapToLong(ChatbotLiveAnswers::votes).sum();
+            text.append("\n\n**").append(TextNormalizer.capitalizeWords(category)).append("**");
+            if (total == 0) {
+                text.append("\nTodavía no hay votos en esta categoría.");
+                continue;
+            }
+            for (int i = 0; i < Math.min(LEADERS, ranking.size()); i++) {
+                CandidateSummaryDTO candidate = ranking.get(i);
+                text.append("\n").append(i + 1).append(". ").append(candidate.getName());
+                if (candidate.getPartyName() != null && !candidate.getPartyName().isBlank()) {
+                    text.append(" (").append(candidate.getPartyName()).append(")");
+                }
+                text.append(": ").append(number(votes(candidate))).append(" votos, ")
+                    .append(percent(100.0 * votes(candidate) / total));
+            }
+        }
+        return text.toString();
+    }
+    
+    private static int votes(CandidateSummaryDTO candidate) {
+        return candidate.getVoteCount() != null ? candidate.getVoteCount() : 0;
+    }
+    
+    private static long value(Long number) {
+        return number != null ? number : 0;
+    }
+    
+    private static double value(Double number) {
+        return number != null ? number : 0;
+    }
+    
+    private static String number(long value) {
+        return NumberFormat.getIntegerInstance(LOCALE).format(value);
+    }
+    
+    private static String percent(double value) {
+        return String.format(LOCALE, "%.1f %%", value);
+    }
+    
+    private record Rendered(DashboardSnapshotService.Snapshot source, Map<Topic, String> byTopic) {
+    }
+}
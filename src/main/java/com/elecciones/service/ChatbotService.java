@@ -0,0 +1,149 @@
+package com.elecciones.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Respuestas del chatbot. Los intents se cargan al iniciar desde chatbot.intents (por defecto
+ * classpath:chatbot/intents.json): cada uno tiene palabras clave, que se escriben una sola vez
+ * con tildes porque el mensaje y las palabras se comparan sin ellas, y su respuesta, que se
+ * arma una vez en la tabla de respuestas. Si varios intents aparecen en el mensaje gana el de
+ * más palabras clave distintas y, a igual puntaje, el que está antes en el archivo.
+ *
+ * Los intents con "live" (participacion, categorias o lideres) responden con datos en vivo de
+ * ChatbotLiveAnswers; su "response" se usa solo mientras no hay instantánea del dashboard.
+ */
+@Service
+@Slf4j
+public class ChatbotService {
+    
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final ChatbotLiveAnswers liveAnswers;
+    private final String location;
+    
+    private Catalog catalog;
+    
+    public ChatbotService(ObjectMapper objectMapper,
+                          ResourceLoader resourceLoader,
+                          ChatbotLiveAnswers liveAnswers,
+                          @Value("${chatbot.intents:classpath:chatbot/intents.json}") String location) {
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.liveAnswers = liveAnswers;
+        this.location = location;
+    }
+    
+    @PostConstruct
+    public void init() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            catalog = Catalog.build(objectMapper.readValue(in, IntentFile.class));
+        }
+        log.info("Chatbot: {} intents, {} palabras clave, {} estados del autómata ({})",
+            catalog.ids.length, catalog.automaton.keywordCount(), catalog.automaton.stateCount(), location);
+    }
+    
+    /**
+     * Intent ganador y su respuesta; intent es null cuando se usa la respuesta por defecto
+     */
+    public Reply reply(String message) {
+        Catalog current = catalog;
+        List<IntentAutomaton.Match> matches = current.automaton.match(message);
+        if (matches.isEmpty()) {
+            return new Reply(null, current.fallback, List.of());
+        }
+        List<String> intents = new ArrayList<>(matches.size());
+        for (IntentAutomaton.Match match : matches) {
+            intents.add(current.ids[match.intent()]);
+        }
+        int best = matches.get(0).intent();
+        ChatbotLiveAnswers.Topic topic = current.live[best];
+        String response = topic != null
+            ? liveAnswers.answer(topic).orElse(current.responses[best])
+            : current.responses[best];
+        return new Reply(current.ids[best], response, intents);
+    }
+    
+    /**
+     * @param intent    intent elegido, o null si no se reconoció ninguno
+     * @param response  respuesta ya armada
+     * @param intents   todos los intents reconocidos, del más al menos probable
+     */
+    public record Reply(String intent, String response, List<String> intents) {
+    }
+    
+    /**
+     * Autómata y tabla de respuestas construidos a partir del archivo de intents
+     */
+    static final class Catalog {
+        
+        final IntentAutomaton automaton;
+        final String[] ids;
+        final String[] responses;
+        final ChatbotLiveAnswers.Topic[] live;
+        final String fallback;
+        
+        private Catalog(IntentAutomaton automaton, String[] ids, String[] responses,
+                        ChatbotLiveAnswers.Topic[] live, String fallback) {
+            this.automaton = automaton;
+            this.ids = ids;
+            this.responses = responses;
+            this.live = live;
+            this.fallback = fallback;
+        }
+        
+        static Catalog build(IntentFile file) {
+            List<IntentDefinition> intents = file.getIntents() != null ? file.getIntents() : List.of();
+            String[] ids = new String[intents.size()];
+            String[] responses = new String[intents.size()];
+            ChatbotLiveAnswers.Topic[] live = new ChatbotLiveAnswers.Topic[intents.size()];
+            List<List<String>> keywords = new ArrayList<>(intents.size());
+            for (int i = 0; i < intents.size(); i++) {
+                IntentDefinition intent = intents.get(i);
+                if (intent.getId() == null || intent.getResponse() == null || intent.getResponse().isEmpty()) {
+                    throw new IllegalStateException("Intent del chatbot sin id o sin respuesta (posición " + i + ")");
+                }
+                ids[i] = intent.getId();
+                responses[i] = String.join("\n", intent.getResponse());
+                if (intent.getLive() != null) {
+                    try {
+                        live[i] = ChatbotLiveAnswers.Topic.valueOf(intent.getLive().toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalStateException("Tema en vivo desconocido en el intent " + intent.getId()
+                            + ": " + intent.getLive());
+                    }
+                }
+                keywords.add(intent.getKeywords() != null ? intent.getKeywords() : List.of());
+            }
+            String fallback = file.getFallback() != null ? String.join("\n", file.getFallback()) : "";
+            return new Catalog(new IntentAutomaton(keywords), ids, responses, live, fallback);
+        }
+    }
+    
+    @Data
+    static class IntentFile {
+        private List<IntentDefinition> intents;
+        private List<String> fallback;
+    }
+    
+    @Data
+    static class IntentDefinition {
+        private String id;
+        private List<String> keywords;
+        private List<String> response;
+        private String live;
+    }
+}
@@ -0,0 +1,200 @@
+package com.elecciones.service;
+
+import com.elecciones.config.BackgroundExecutors;
+import com.elecciones.dto.CandidateSummaryDTO;
+import com.elecciones.dto.DashboardStatsDTO;
+import com.elecciones.repository.VoteRepository;
+import com.elecciones.repository.VoterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Instantánea precalculada de las estadísticas del dashboard.
+ *
+ * GET /api/dashboard/stats lee la instantánea en memoria. Cuando tiene más de
+ * dashboard.snapshot.refresh-ms se sigue sirviendo y se recalcula en segundo plano
+ * (stale-while-revalidate); solo si no hay instantánea o supera dashboard.snapshot.max-stale-ms
+ * la solicitud espera el recálculo. En ambos casos hay un único recálculo en curso y todas
+ * las solicitudes que llegan mientras tanto comparten su resultado.
+ */
+@Service
+@Slf4j
+public class DashboardSnapshotService {
+    
+    private final VoterRepository voterRepository;
+    private final VoteRepository voteRepository;
+    private final CandidateService candidateService;
+    private final long refreshNanos;
+    private final long maxStaleNanos;
+    
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final Executor refresher;
+    private volatile long lastFailureNanos;
+    
+    public DashboardSnapshotService(VoterRepository voterRepository,
+                                    VoteRepository voteRepository,
+                                    CandidateService candidateService,
+                                    BackgroundExecutors executors,
+                                    @Value("${dashboard.snapshot.refresh-ms:5000}") long refreshMillis,
+                                    @Value("${dashboard.snapshot.max-stale-ms:60000}") long maxStaleMillis) {
+        this.voterRepository = voterRepository;
+        this.voteRepository = voteRepository;
+        this.candidateService = candidateService;
+        this.refresher = executors.newExecutor("dashboard-snapshot-refresh", 1);
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+        this.maxStaleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(refreshMillis, maxStaleMillis));
+    }
+    
+    /**
+     * Instantánea vigente; dispara el recálculo si está vencida
+     */
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot != null) {
+            long age = System.nanoTime() - snapshot.computedAtNanos;
+            if (age <= refreshNanos) {
+                return snapshot;
+            }
+            if (age <= maxStaleNanos) {
+                refresh();
+                return snapshot;
+            }
+        }
+        
+        try {
+            return refresh().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (snapshot != null) {
+                // Mejor datos viejos que un error mientras Supabase no responde
+                log.warn("No se pudo recalcular el dashboard, se sirve la instantánea anterior: {}", cause.getMessage());
+                return snapshot;
+            }
+            throw new RuntimeException("Error al calcular estadísticas: " + cause.getMessage(), cause);
+        }
+    }
+    
+    /**
+     * Instantánea vigente sin esperar nunca un recálculo: si está vencida, o aún no existe, se
+     * dispara en segundo plano y se retorna lo que haya. Para lecturas de alto tráfico (el
+     * chatbot) que no deben llegar a Supabase por solicitud
+     */
+    public Optional<Snapshot> peek() {
+        Snapshot snapshot = current.get();
+        long now = System.nanoTime();
+        boolean expired = snapshot == null || now - snapshot.computedAtNanos > refreshNanos;
+        // Tras un fallo se espera un intervalo antes de reintentar, para no reintentar por mensaje
+        if (expired && (lastFailureNanos == 0 || now - lastFailureNanos > refreshNanos)) {
+            refresh();
+        }
+        return Optional.ofNullable(snapshot);
+    }
+    
+    /**
+     * Recálculo único: si ya hay uno en curso se retorna ese
+     */
+    private CompletableFuture<Snapshot> refresh() {
+        while (true) {
+            CompletableFuture<Snapshot> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                refresher.execute(() -> {
+                    try {
+                        Snapshot snapshot = compute();
+                        current.set(snapshot);
+                        mine.complete(snapshot);
+                    } catch (Throwable t) {
+                        lastFailureNanos = System.nanoTime();
+                        log.error("Error al recalcular el dashboard: {}", t.getMessage(), t);
+                        mine.completeExceptionally(t);
+                    } finally {
+                        inFlight.compareAndSet(mine, null);
+                    }
+                });
+                return mine;
+            }
+        }
+    }
+    
+    private Snapshot compute() {
+        long start = System.nanoTime();
+        
+        // Total de votos
+        long totalVotes = voteRepository.countVotes();
+        
+        // Total de votantes
+        long totalVoters = voterRepository.countVoters();
+        
+        // Votantes únicos que han votado
+        long uniqueVotersWhoVoted = voteRepository.countDistinctVoters();
+        
+        // Tasa de participación
+        double participationRate = totalVoters > 0 ?
+            (double) uniqueVotersWhoVoted / totalVoters * 100 : 0;
+        
+        // Votos por categoría
+        long presidentialVotes = voteRepository.countVotesByCategory("presidencial");
+        long distritalVotes = voteRepository.countVotesByCategory("distrital");
+        long regionalVotes = voteRepository.countVotesByCategory("regional");
+        
+        // Resumen de candidatos; el DTO guarda una copia inmutable
+        List<CandidateSummaryDTO> candidates = candidateService.obtenerResumenCandidatos();
+        DashboardStatsDTO stats = new DashboardStatsDTO(totalVotes, totalVoters, participationRate,
+            presidentialVotes, distritalVotes, regionalVotes, candidates);
+        
+        log.debug("Dashboard recalculado en {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new Snapshot(versions.incrementAndGet(), stats, Instant.now(), System.nanoTime());
+    }
+    
+    /**
+     * Estadísticas calculadas en un instante; no se modifican después de publicarse
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final DashboardStatsDTO stats;
+        private final Instant generatedAt;
+        private final long computedAtNanos;
+        
+        Snapshot(long version, DashboardStatsDTO stats, Instant generatedAt, long computedAtNanos) {
+            this.version = version;
+            this.stats = stats;
+            this.generatedAt = generatedAt;
+            this.computedAtNanos = computedAtNanos;
+        }
+        
+        /**
+         * Crece con cada recálculo; sirve de versión para las respuestas derivadas de la instantánea
+         */
+        public long getVersion() {
+            return version;
+        }
+        
+        public DashboardStatsDTO getStats() {
+            return stats;
+        }
+        
+        public Instant getGeneratedAt() {
+            return generatedAt;
+        }
+        
+        public long getAgeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - computedAtNanos);
+        }
+    }
+}
@@ -120,7 +120,7 @@ public class FastApiService {
     /**
      * Convierte la respuesta de Factiliza al formato ReniecData
      */
-    private ReniecResponse.ReniecData convertFactilizaToReniecData(Map<String, Object> factilizaData) {
+    ReniecResponse.ReniecData convertFactilizaToReniecData(Map<String, Object> factilizaData) {
         try {
             ReniecResponse.ReniecData reniecData = new ReniecResponse.ReniecData();
             
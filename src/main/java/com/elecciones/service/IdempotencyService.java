@@ -0,0 +1,156 @@
+package com.elecciones.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Almacén acotado y con expiración de respuestas para reintentos con Idempotency-Key.
+ * La primera solicitud ejecuta la operación; los duplicados concurrentes esperan su
+ * resultado y los reintentos posteriores reciben la respuesta guardada.
+ * Solo se conservan respuestas exitosas: un error deja la clave libre para reintentar.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    
+    public static final int MAX_KEY_LENGTH = 255;
+    
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long waitTimeoutMillis;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    public IdempotencyService(@Value("${idempotency.ttl-ms:86400000}") long ttlMillis,
+                              @Value("${idempotency.max-entries:50000}") int maxEntries,
+                              @Value("${idempotency.wait-timeout-ms:30000}") long waitTimeoutMillis) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+    
+    /**
+     * Ejecuta la acción una sola vez por (scope, key).
+     * El fingerprint identifica el contenido de la solicitud: reutilizar la clave
+     * con otro contenido se rechaza en lugar de devolver una respuesta ajena.
+     */
+    public Result execute(String scope, String key, String fingerprint,
+                          Supplier<ResponseEntity<Map<String, Object>>> action) {
+        String storeKey = scope + ":" + key;
+        long now = System.currentTimeMillis();
+        
+        Entry entry = entries.get(storeKey);
+        if (entry != null && entry.expiresAt <= now) {
+            entries.remove(storeKey, entry);
+            entry = null;
+        }
+        
+        if (entry == null) {
+            if (!reserveCapacity(now)) {
+                // Sin espacio: se ejecuta sin protección antes que rechazar el voto
+                log.warn("Almacén de idempotencia lleno ({} entradas), ejecutando sin registrar la clave", entries.size());
+                return new Result(action.get(), false);
+            }
+            Entry created = new Entry(fingerprint, now + ttlMillis);
+            entry = entries.putIfAbsent(storeKey, created);
+            if (entry == null) {
+                return new Result(run(storeKey, created, action), false);
+            }
+        }
+        
+        if (!entry.fingerprint.equals(fingerprint)) {
+            return new Result(error(HttpStatus.UNPROCESSABLE_ENTITY,
+                "La Idempotency-Key ya fue usada con una solicitud diferente"), false);
+        }
+        
+        try {
+            ResponseEntity<Map<String, Object>> stored = entry.response.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            log.info("Respuesta repetida para Idempotency-Key en {}", scope);
+            return new Result(stored, true);
+        } catch (TimeoutException e) {
+            return new Result(error(HttpStatus.CONFLICT,
+                "Una solicitud con la misma Idempotency-Key sigue en proceso"), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(error(HttpStatus.SERVICE_UNAVAILABLE, "Solicitud interrumpida"), false);
+        } catch (ExecutionException e) {
+            return new Result(error(HttpStatus.INTERNAL_SERVER_ERROR, e.getCause().getMessage()), false);
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> run(String storeKey, Entry entry,
+                                                    Supplier<ResponseEntity<Map<String, Object>>> action) {
+        ResponseEntity<Map<String, Object>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(storeKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            entries.remove(storeKey, entry);
+        }
+        // Los duplicados que ya esperaban reciben el mismo resultado, exitoso o no
+        entry.response.complete(response);
+        return response;
+    }
+    
+    /**
+     * Garantiza espacio para una entrada nueva purgando las expiradas
+     */
+    private boolean reserveCapacity(long now) {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        return entries.size() < maxEntries;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("error", message);
+        return ResponseEntity.status(status).body(error);
+    }
+    
+    private static final class Entry {
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<ResponseEntity<Map<String, Object>>> response = new CompletableFuture<>();
+        
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    /**
+     * Respuesta a devolver e indicador de si proviene de una ejecución anterior
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Result {
+        private final ResponseEntity<Map<String, Object>> response;
+        private final boolean replayed;
+    }
+}
@@ -0,0 +1,203 @@
+package com.elecciones.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Autómata de Aho-Corasick sobre las palabras clave de los intents del chatbot. Se construye una
+ * sola vez y reconoce todas las palabras clave en una pasada sobre el mensaje plegado (minúsculas,
+ * sin tildes, espacios colapsados), así que el costo depende del largo del mensaje y no de cuántos
+ * intents haya. Una palabra clave cuenta si empieza al inicio de una palabra del mensaje y puede
+ * terminar a mitad de otra ("candidato" reconoce "candidatos").
+ */
+public final class IntentAutomaton {
+    
+    private static final int[] NONE = new int[0];
+    
+    private final int[] keywordIntent;
+    private final int[] keywordLength;
+    private final int[] columnOf;
+    private final int columns;
+    private final int[] next;
+    private final int[][] output;
+    
+    /**
+     * @param keywordsByIntent palabras clave de cada intent, en el orden de prioridad de los intents
+     */
+    public IntentAutomaton(List<List<String>> keywordsByIntent) {
+        List<String> keywords = new ArrayList<>();
+        List<Integer> intents = new ArrayList<>();
+        for (int intent = 0; intent < keywordsByIntent.size(); intent++) {
+            Set<String> seen = new HashSet<>();
+            for (String keyword : keywordsByIntent.get(intent)) {
+                String folded = foldKeyword(keyword);
+                if (!folded.isEmpty() && seen.add(folded)) {
+                    keywords.add(folded);
+                    intents.add(intent);
+                }
+            }
+        }
+        keywordIntent = intents.stream().mapToInt(Integer::intValue).toArray();
+        keywordLength = keywords.stream().mapToInt(String::length).toArray();
+        
+        // Columnas densas solo para los caracteres que aparecen en alguna palabra clave
+        int maxChar = keywords.stream().flatMapToInt(String::chars).max().orElse(0);
+        columnOf = new int[maxChar + 1];
+        Arrays.fill(columnOf, -1);
+        int columnCount = 0;
+        int states = 1;
+        for (String keyword : keywords) {
+            states += keyword.length();
+            for (int i = 0; i < keyword.length(); i++) {
+                if (columnOf[keyword.charAt(i)] < 0) {
+                    columnOf[keyword.charAt(i)] = columnCount++;
+                }
+            }
+        }
+        columns = Math.max(columnCount, 1);
+        
+        int[] trie = new int[states * columns];
+        Arrays.fill(trie, -1);
+        List<List<Integer>> terminal = new ArrayList<>();
+        terminal.add(new ArrayList<>());
+        int used = 1;
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int slot = state * columns + columnOf[keyword.charAt(i)];
+                if (trie[slot] < 0) {
+                    trie[slot] = used++;
+                    terminal.add(new ArrayList<>());
+                }
+                state = trie[slot];
+            }
+            terminal.get(state).add(k);
+        }
+        
+        // Enlaces de fallo por anchura; las transiciones faltantes se completan para que el
+        // recorrido no tenga que retroceder, y cada estado hereda las salidas de su enlace
+        next = Arrays.copyOf(trie, used * columns);
+        output = new int[used][];
+        int[] fail = new int[used];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        output[0] = NONE;
+        for (int c = 0; c < columns; c++) {
+            if (next[c] < 0) {
+                next[c] = 0;
+            } else {
+                fail[next[c]] = 0;
+                queue.add(next[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] own = terminal.get(state).stream().mapToInt(Integer::intValue).toArray();
+            int[] inherited = output[fail[state]];
+            output[state] = inherited.length == 0 ? (own.length == 0 ? NONE : own) : concat(own, inherited);
+            for (int c = 0; c < columns; c++) {
+                int slot = state * columns + c;
+                int fallback = next[fail[state] * columns + c];
+                if (next[slot] < 0) {
+                    next[slot] = fallback;
+                } else {
+                    fail[next[slot]] = fallback;
+                    queue.add(next[slot]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Intents reconocidos en el mensaje, ordenados por puntaje (palabras clave distintas
+     * encontradas) y luego por prioridad; vacío si no hay ninguno
+     */
+    public List<Match> match(String message) {
+        int length = message.length();
+        char[] folded = new char[length];
+        int[] hits = NONE;
+        int hitCount = 0;
+        int state = 0;
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            char c = TextNormalizer.fold(message.charAt(i));
+            if (Character.isWhitespace(c)) {
+                if (position == 0 || folded[position - 1] == ' ') {
+                    continue;
+                }
+                c = ' ';
+            }
+            folded[position++] = c;
+            int column = c < columnOf.length ? columnOf[c] : -1;
+            state = column < 0 ? 0 : next[state * columns + column];
+            for (int keyword : output[state]) {
+                int start = position - keywordLength[keyword];
+                if (start == 0 || !Character.isLetterOrDigit(folded[start - 1])) {
+                    if (hitCount == hits.length) {
+                        hits = Arrays.copyOf(hits, Math.max(8, hitCount * 2));
+                    }
+                    hits[hitCount++] = keyword;
+                }
+            }
+        }
+        return rank(hits, hitCount);
+    }
+    
+    public int keywordCount() {
+        return keywordIntent.length;
+    }
+    
+    public int stateCount() {
+        return output.length;
+    }
+    
+    private List<Match> rank(int[] hits, int hitCount) {
+        if (hitCount == 0) {
+            return List.of();
+        }
+        // Las palabras clave se numeran por intent, así que ordenarlas agrupa los intents
+        Arrays.sort(hits, 0, hitCount);
+        List<Match> matches = new ArrayList<>();
+        int previous = -1;
+        for (int i = 0; i < hitCount; i++) {
+            int keyword = hits[i];
+            if (keyword == previous) {
+                continue;
+            }
+            previous = keyword;
+            int intent = keywordIntent[keyword];
+            Match last = matches.isEmpty() ? null : matches.get(matches.size() - 1);
+            if (last != null && last.intent() == intent) {
+                matches.set(matches.size() - 1, new Match(intent, last.score() + 1));
+            } else {
+                matches.add(new Match(intent, 1));
+            }
+        }
+        matches.sort((a, b) -> a.score() != b.score() ? Integer.compare(b.score(), a.score())
+            : Integer.compare(a.intent(), b.intent()));
+        return matches;
+    }
+    
+    /**
+     * Pliega una palabra clave igual que se pliega el mensaje al recorrerlo
+     */
+    static String foldKeyword(String keyword) {
+        return TextNormalizer.fold(keyword);
+    }
+    
+    private static int[] concat(int[] a, int[] b) {
+        int[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+    
+    /**
+     * Intent reconocido (índice en el orden de carga) y cuántas de sus palabras clave aparecieron
+     */
+    public record Match(int intent, int score) {
+    }
+}
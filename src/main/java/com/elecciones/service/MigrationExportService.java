@@ -0,0 +1,168 @@
+package com.elecciones.service;
+
+import com.elecciones.repository.ElectionDataRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación completa para migración: NDJSON comprimido con gzip escrito a medida que se lee.
+ *
+ * Cada línea es un objeto JSON con "type":
+ *   header    formato, versión, fecha y tablas en el orden en que vienen
+ *   row       una fila ("table" y "row", con los nombres de columna de la BD)
+ *   table     cierre de una tabla: filas y SHA-256 de sus líneas row
+ *   manifest  última línea: resumen de todas las tablas
+ *   error     la exportación se interrumpió; no hay manifest
+ *
+ * El SHA-256 de una tabla se calcula sobre los bytes UTF-8 de sus líneas row, cada una con
+ * su salto de línea. Las tablas se recorren por páginas y cada fila se escribe apenas se lee,
+ * así que la memoria no depende del tamaño de la elección. Un archivo sin línea manifest
+ * está incompleto.
+ */
+@Service
+@Slf4j
+public class MigrationExportService {
+    
+    public static final String FORMAT = "elecciones-export";
+    public static final int VERSION = 1;
+    public static final List<String> TABLES = List.of("voters", "candidates", "votes");
+    
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+    
+    private final ElectionDataRepository electionDataRepository;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+    
+    public MigrationExportService(ElectionDataRepository electionDataRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${migration.export.page-size:1000}") int pageSize) {
+        this.electionDataRepository = electionDataRepository;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+    
+    /**
+     * Escribe la exportación en out y retorna el manifiesto. No cierra out.
+     */
+    public Map<String, Object> export(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_BYTES);
+        DigestOutputStream digest = new DigestOutputStream(gzip, sha256());
+        digest.on(false);
+        JsonGenerator json = objectMapper.getFactory().createGenerator(digest)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            // Cada flush del generador llegaría hasta el socket: solo se vacía su buffer
+            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        json.setRootValueSeparator(null);
+        
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("type", "header");
+        header.put("format", FORMAT);
+        header.put("version", VERSION);
+        header.put("exportedAt", Instant.now().toString());
+        header.put("tables", TABLES);
+        writeLine(json, header);
+        
+        List<Map<String, Object>> tables = new ArrayList<>();
+        String current = null;
+        try {
+            for (String table : TABLES) {
+                current = table;
+                MessageDigest tableDigest = sha256();
+                json.flush();
+                digest.setMessageDigest(tableDigest);
+                digest.on(true);
+                long[] rows = {0};
+                electionDataRepository.forEachRow(table, pageSize, row -> {
+                    try {
+                        json.writeStartObject();
+                        json.writeStringField("type", "row");
+                        json.writeStringField("table", table);
+                        json.writeFieldName("row");
+                        json.writeObject(row);
+                        json.writeEndObject();
+                        json.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                });
+                json.flush();
+                digest.on(false);
+                
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("table", table);
+                summary.put("rows", rows[0]);
+                summary.put("sha256", HexFormat.of().formatHex(tableDigest.digest()));
+                tables.add(summary);
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("type", "table");
+                line.putAll(summary);
+                writeLine(json, line);
+                log.info("Exportación: tabla {} con {} filas", table, rows[0]);
+            }
+        } catch (RuntimeException e) {
+            // La respuesta ya puede estar en camino: se deja constancia en el archivo y se cierra el gzip
+            fail(json, gzip, current, e);
+            throw new RuntimeException("Error al exportar la tabla " + current + ": " + e.getMessage(), e);
+        }
+        
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("type", "manifest");
+        manifest.put("format", FORMAT);
+        manifest.put("version", VERSION);
+        manifest.put("tables", tables);
+        manifest.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        writeLine(json, manifest);
+        json.flush();
+        gzip.finish();
+        out.flush();
+        return manifest;
+    }
+    
+    private void writeLine(JsonGenerator json, Map<String, Object> line) throws IOException {
+        json.writeObject(line);
+        json.writeRaw('\n');
+    }
+    
+    private void fail(JsonGenerator json, GZIPOutputStream gzip, String table, RuntimeException cause) {
+        try {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("type", "error");
+            line.put("table", table);
+            line.put("message", cause.getMessage());
+            writeLine(json, line);
+            json.flush();
+            gzip.finish();
+        } catch (IOException | RuntimeException e) {
+            // El cliente se desconectó: no hay dónde escribir
+            log.debug("No se pudo escribir el error de exportación: {}", e.getMessage());
+        }
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
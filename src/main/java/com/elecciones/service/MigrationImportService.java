@@ -0,0 +1,933 @@
+package com.elecciones.service;
+
+import com.elecciones.config.BackgroundExecutors;
+import com.elecciones.geo.GeoRollup;
+import com.elecciones.repository.ElectionDataRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importación de una exportación de MigrationExportService (NDJSON, con o sin gzip).
+ *
+ * El archivo subido se guarda primero en migration.import.directory y su SHA-256 identifica la
+ * importación: subir el mismo archivo otra vez la retoma en vez de empezarla de nuevo. Un hilo
+ * lee el archivo, valida cada fila y arma lotes que escriben hasta "writers" hilos con upsert por
+ * clave primaria; con 2 x writers lotes en vuelo el lector espera. Las tablas van en el orden del
+ * archivo (votantes y candidatos antes que los votos) y cada una termina de escribirse antes de
+ * empezar la siguiente.
+ *
+ * El checkpoint guarda por tabla cuántas filas del archivo están escritas sin huecos; al retomar,
+ * esas filas se leen para verificar el SHA-256 pero no se vuelven a escribir. Las filas inválidas
+ * y las que la BD rechaza van al reporte de fallas sin detener la importación. Una falla
+ * transitoria que persiste tras los reintentos la detiene, y se puede retomar después.
+ */
+@Service
+@Slf4j
+public class MigrationImportService {
+    
+    public enum State { RUNNING, COMPLETED, FAILED, INTERRUPTED }
+    
+    private static final Map<String, Set<String>> COLUMNS = Map.of(
+        "voters", Set.of("dni", "full_name", "address", "district", "province", "department", "birth_date",
+            "has_voted", "voted_at", "created_at"),
+        "candidates", Set.of("id", "name", "photo_url", "description", "party_name", "party_logo_url",
+            "party_description", "category", "academic_formation", "professional_experience", "campaign_proposal",
+            "vote_count", "created_at", "updated_at"),
+        "votes", Set.of("id", "voter_dni", "candidate_id", "category", "voted_at", "created_at"));
+    private static final Set<String> CATEGORIES = Set.of("presidencial", "distrital", "regional");
+    private static final Pattern DNI_PATTERN = Pattern.compile("^\\d{8}$");
+    private static final Pattern CAMEL_CASE = Pattern.compile("([a-z0-9])([A-Z])");
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint.json";
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    private static final long CHECKPOINT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private final ElectionDataRepository electionDataRepository;
+    private final ObjectMapper objectMapper;
+    private final BackgroundExecutors executors;
+    private final GeoRollup geoRollup;
+    private final Path directory;
+    private final int batchSize;
+    private final int writers;
+    private final int maxRetries;
+    
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private Executor reader;
+    private Executor writerPool;
+    private volatile boolean stopping;
+    
+    public MigrationImportService(ElectionDataRepository electionDataRepository,
+                                  ObjectMapper objectMapper,
+                                  BackgroundExecutors executors,
+                                  GeoRollup geoRollup,
+                                  @Value("${migration.import.directory:./data/migration-import}") String directory,
+                                  @Value("${migration.import.batch-size:500}") int batchSize,
+                                  @Value("${migration.import.writers:4}") int writers,
+                                  @Value("${migration.import.max-retries:3}") int maxRetries) {
+        this.electionDataRepository = electionDataRepository;
+        this.objectMapper = objectMapper;
+        this.executors = executors;
+        this.geoRollup = geoRollup;
+        this.directory = Paths.get(directory);
+        this.batchSize = Math.max(1, batchSize);
+        this.writers = Math.max(1, writers);
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+    
+    @PostConstruct
+    public void init() throws IOException {
+        reader = executors.newExecutor("migration-import", 1);
+        writerPool = executors.newExecutor("migration-import-write", writers);
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(file -> file.toString().endsWith(CHECKPOINT_SUFFIX)).toList()) {
+                try {
+                    Checkpoint checkpoint = objectMapper.readValue(path.toFile(), Checkpoint.class);
+                    if (checkpoint.getState() == State.RUNNING) {
+                        // La aplicación se detuvo en medio de la importación
+                        checkpoint.setState(State.INTERRUPTED);
+                    }
+                    jobs.put(checkpoint.getId(), new ImportJob(checkpoint));
+                } catch (IOException e) {
+                    log.warn("Checkpoint de importación ilegible {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Importaciones registradas: {}", jobs.keySet());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        for (ImportJob job : jobs.values()) {
+            CompletableFuture<Void> run = job.run;
+            if (run != null) {
+                try {
+                    // El lector deja de leer, espera los lotes en vuelo y guarda el checkpoint
+                    run.get(30, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    log.warn("La importación {} no se detuvo a tiempo: {}", job.checkpoint.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+    
+    // ========== API ==========
+    
+    /**
+     * Guarda el archivo subido e inicia (o retoma) su importación en segundo plano.
+     * Retorna el estado inicial; si el archivo ya se importó retorna el estado final.
+     */
+    public Map<String, Object> start(InputStream upload) throws IOException {
+        Path spool = Files.createTempFile(directory, "upload-", ".part");
+        String id;
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(spool), digest)) {
+                upload.transferTo(out);
+            }
+            id = HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+            checkHeader(spool);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+        
+        synchronized (jobs) {
+            ImportJob running = runningJob();
+            if (running != null) {
+                Files.deleteIfExists(spool);
+                if (running.checkpoint.getId().equals(id)) {
+                    return running.status();
+                }
+                throw new IllegalStateException("Ya hay una importación en curso: " + running.checkpoint.getId());
+            }
+            ImportJob job = jobs.get(id);
+            if (job != null && job.checkpoint.getState() == State.COMPLETED) {
+                Files.deleteIfExists(spool);
+                return job.status();
+            }
+            Files.move(spool, archive(id), StandardCopyOption.REPLACE_EXISTING);
+            if (job == null) {
+                Checkpoint checkpoint = new Checkpoint();
+                checkpoint.setId(id);
+                checkpoint.setStartedAt(Instant.now().toString());
+                job = new ImportJob(checkpoint);
+                jobs.put(id, job);
+            }
+            launch(job);
+            return job.status();
+        }
+    }
+    
+    /**
+     * Retoma una importación fallida o interrumpida desde su checkpoint
+     */
+    public Optional<Map<String, Object>> resume(String id) {
+        synchronized (jobs) {
+            ImportJob job = jobs.get(id);
+            if (job == null) {
+                return Optional.empty();
+            }
+            State state = job.checkpoint.getState();
+            if (state == State.RUNNING || state == State.COMPLETED) {
+                return Optional.of(job.status());
+            }
+            ImportJob running = runningJob();
+            if (running != null) {
+                throw new IllegalStateException("Ya hay una importación en curso: " + running.checkpoint.getId());
+            }
+            if (!Files.exists(archive(id))) {
+                throw new IllegalStateException("El archivo de la importación " + id + " ya no está; vuelva a subirlo");
+            }
+            launch(job);
+            return Optional.of(job.status());
+        }
+    }
+    
+    public Optional<Map<String, Object>> status(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(ImportJob::status);
+    }
+    
+    /**
+     * Importa en el hilo que llama listas de filas por tabla ({"voters": [...], ...}), con los
+     * nombres de columna de la BD o en camelCase como los retorna /migration/export. Las columnas
+     * que no existen en la tabla se descartan.
+     */
+    public Map<String, Object> importRows(Map<String, Object> data) {
+        long start = System.nanoTime();
+        Map<String, Object> tables = new LinkedHashMap<>();
+        List<Map<String, Object>> failures = new ArrayList<>();
+        for (String table : MigrationExportService.TABLES) {
+            // En /migration/export "votes" es solo el total
+            if (!(data.get(table) instanceof List<?> items)) {
+                continue;
+            }
+            long written = 0;
+            long invalid = 0;
+            Batch batch = new Batch(table, 0);
+            long position = 0;
+            for (Object item : items) {
+                position++;
+                if (!(item instanceof Map<?, ?> values)) {
+                    batch.invalid(position, null, "La fila no es un objeto");
+                    continue;
+                }
+                Map<String, Object> row = new LinkedHashMap<>();
+                values.forEach((key, value) -> {
+                    String column = CAMEL_CASE.matcher(String.valueOf(key)).replaceAll("$1_$2").toLowerCase();
+                    if (COLUMNS.get(table).contains(column)) {
+                        row.put(column, value);
+                    }
+                });
+                accept(batch, table, row, position);
+                if (batch.rows.size() >= batchSize) {
+                    write(batch);
+                    written += batch.written;
+                    invalid += batch.failures.size();
+                    failures.addAll(batch.failures);
+                    batch = new Batch(table, position);
+                }
+            }
+            write(batch);
+            written += batch.written;
+            invalid += batch.failures.size();
+            failures.addAll(batch.failures);
+            
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("read", position);
+            counts.put("written", written);
+            counts.put("invalid", invalid);
+            tables.put(table, counts);
+        }
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tables", tables);
+        report.put("failureCount", failures.size());
+        report.put("failures", failures.size() > MAX_REPORTED_FAILURES ? failures.subList(0, MAX_REPORTED_FAILURES) : failures);
+        report.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        geoRollup.requestRebuild();
+        return report;
+    }
+    
+    private ImportJob runningJob() {
+        return jobs.values().stream()
+            .filter(job -> job.checkpoint.getState() == State.RUNNING)
+            .findFirst()
+            .orElse(null);
+    }
+    
+    private void launch(ImportJob job) {
+        job.begin(writers * 2);
+        save(job);
+        job.run = CompletableFuture.runAsync(() -> run(job), reader);
+    }
+    
+    // ========== LECTURA ==========
+    
+    private void run(ImportJob job) {
+        String id = job.checkpoint.getId();
+        log.info("Importación {}: inicio (checkpoint {})", id, job.checkpoint.getTables());
+        try (InputStream in = open(archive(id))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+            String table = null;
+            MessageDigest digest = null;
+            long ordinal = 0;
+            long committed = 0;
+            long lineNumber = 0;
+            Batch batch = null;
+            boolean manifest = false;
+            
+            while (readLine(in, line)) {
+                lineNumber++;
+                if (stopping) {
+                    throw new InterruptedImport();
+                }
+                job.checkFailure();
+                byte[] bytes = line.toByteArray();
+                Map<String, Object> node;
+                try {
+                    node = objectMapper.readValue(bytes, MAP_TYPE);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Línea " + lineNumber + ": JSON inválido");
+                }
+                String type = String.valueOf(node.get("type"));
+                String lineTable = (String) node.get("table");
+                
+                if (("row".equals(type) || "table".equals(type)) && !Objects.equals(lineTable, table)) {
+                    if (table != null) {
+                        throw new IllegalArgumentException("Línea " + lineNumber + ": la tabla " + table + " no se cerró");
+                    }
+                    table = nextTable(job, lineTable, lineNumber);
+                    digest = sha256();
+                    ordinal = 0;
+                    committed = job.committed(table);
+                    batch = null;
+                }
+                
+                switch (type) {
+                    case "header" -> { }
+                    case "row" -> {
+                        digest.update(bytes);
+                        long row = ordinal++;
+                        job.read(table, ordinal);
+                        if (row < committed) {
+                            continue;
+                        }
+                        if (batch == null) {
+                            batch = new Batch(table, row);
+                        }
+                        Map<String, Object> values = node.get("row") instanceof Map<?, ?> map ? castRow(map) : null;
+                        if (values == null) {
+                            batch.invalid(lineNumber, null, "La fila no es un objeto");
+                        } else {
+                            accept(batch, table, values, lineNumber);
+                        }
+                        if (batch.rows.size() >= batchSize) {
+                            submit(job, batch.close(ordinal));
+                            batch = null;
+                        }
+                    }
+                    case "table" -> {
+                        if (batch != null) {
+                            submit(job, batch.close(ordinal));
+                            batch = null;
+                        }
+                        job.drain();
+                        String sha256 = HexFormat.of().formatHex(digest.digest());
+                        long expected = node.get("rows") instanceof Number rows ? rows.longValue() : -1;
+                        job.verify(table, expected, expected == ordinal && sha256.equals(node.get("sha256")));
+                        save(job);
+                        log.info("Importación {}: tabla {} con {} filas", id, table, ordinal);
+                        table = null;
+                    }
+                    case "manifest" -> manifest = true;
+                    case "error" -> throw new IllegalArgumentException("La exportación se interrumpió en "
+                        + node.get("table") + ": " + node.get("message"));
+                    default -> throw new IllegalArgumentException("Línea " + lineNumber + ": tipo desconocido " + type);
+                }
+            }
+            
+            if (table != null || !manifest) {
+                throw new IllegalArgumentException("Archivo incompleto: falta la línea manifest");
+            }
+            job.finish();
+            save(job);
+            if (job.checkpoint.getState() == State.COMPLETED) {
+                Files.deleteIfExists(archive(id));
+            }
+            log.info("Importación {} terminada: {}", id, job.checkpoint.getState());
+        } catch (InterruptedImport e) {
+            job.drainQuietly();
+            job.stop(State.INTERRUPTED, "La aplicación se detuvo durante la importación");
+            save(job);
+            log.info("Importación {} interrumpida; se puede retomar", id);
+        } catch (IOException | RuntimeException e) {
+            job.drainQuietly();
+            job.stop(State.FAILED, e.getMessage());
+            save(job);
+            log.error("Importación {} fallida: {}", id, e.getMessage(), e);
+        } finally {
+            // Aun interrumpida o fallida, la importación ya escribió filas: los resultados geográficos se rehacen
+            geoRollup.requestRebuild();
+        }
+    }
+    
+    private String nextTable(ImportJob job, String table, long lineNumber) {
+        int index = MigrationExportService.TABLES.indexOf(table);
+        if (index < 0) {
+            throw new IllegalArgumentException("Línea " + lineNumber + ": tabla desconocida " + table);
+        }
+        if (index < job.lastTableIndex) {
+            throw new IllegalArgumentException("Línea " + lineNumber + ": la tabla " + table + " está fuera de orden");
+        }
+        job.lastTableIndex = index;
+        job.currentTable = table;
+        return table;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castRow(Map<?, ?> row) {
+        return (Map<String, Object>) row;
+    }
+    
+    /**
+     * Valida la fila y la agrega al lote, o la registra como inválida
+     */
+    private void accept(Batch batch, String table, Map<String, Object> row, long line) {
+        String reason = validate(table, row);
+        String key = Objects.toString(row.get("voters".equals(table) ? "dni" : "id"), null);
+        if (reason != null) {
+            batch.invalid(line, key, reason);
+            return;
+        }
+        if ("candidates".equals(table)) {
+            // vote_count lo reconstruye el trigger de votes al importar los votos
+            row.remove("vote_count");
+        }
+        batch.add(row, line, key);
+    }
+    
+    private static String validate(String table, Map<String, Object> row) {
+        for (String column : row.keySet()) {
+            if (!COLUMNS.get(table).contains(column)) {
+                return "Columna desconocida: " + column;
+            }
+        }
+        switch (table) {
+            case "voters" -> {
+                if (!(row.get("dni") instanceof String dni) || !DNI_PATTERN.matcher(dni).matches()) {
+                    return "DNI inválido: " + row.get("dni");
+                }
+                if (isBlank(row.get("full_name"))) {
+                    return "full_name es requerido";
+                }
+            }
+            case "candidates" -> {
+                if (isBlank(row.get("id")) || isBlank(row.get("name"))) {
+                    return "id y name son requeridos";
+                }
+                return category(row);
+            }
+            case "votes" -> {
+                if (isBlank(row.get("id"))) {
+                    return "id es requerido";
+                }
+                if (!(row.get("voter_dni") instanceof String dni) || !DNI_PATTERN.matcher(dni).matches()) {
+                    return "voter_dni inválido: " + row.get("voter_dni");
+                }
+                return category(row);
+            }
+            default -> {
+                return "Tabla desconocida: " + table;
+            }
+        }
+        return null;
+    }
+    
+    private static String category(Map<String, Object> row) {
+        Object category = row.get("category");
+        String normalized = category != null ? category.toString().toLowerCase() : null;
+        if (!CATEGORIES.contains(normalized)) {
+            return "Categoría inválida: " + category;
+        }
+        row.put("category", normalized);
+        return null;
+    }
+    
+    private static boolean isBlank(Object value) {
+        return value == null || value.toString().isBlank();
+    }
+    
+    private void checkHeader(Path file) throws IOException {
+        try (InputStream in = open(file)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            Map<String, Object> header = null;
+            try {
+                if (readLine(in, line)) {
+                    header = objectMapper.readValue(line.toByteArray(), MAP_TYPE);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // Se informa abajo
+            }
+            if (header == null || !"header".equals(header.get("type"))
+                    || !MigrationExportService.FORMAT.equals(header.get("format"))) {
+                throw new IllegalArgumentException("El archivo no es una exportación " + MigrationExportService.FORMAT);
+            }
+            if (!Objects.equals(header.get("version"), MigrationExportService.VERSION)) {
+                throw new IllegalArgumentException("Versión de exportación no soportada: " + header.get("version"));
+            }
+        }
+    }
+    
+    /**
+     * Abre el archivo descomprimiéndolo si empieza con la firma de gzip
+     */
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new BufferedInputStream(new GZIPInputStream(in, 64 * 1024), 64 * 1024);
+        }
+        return in;
+    }
+    
+    /**
+     * Lee una línea con su salto de línea (los bytes sobre los que se calcula el SHA-256)
+     */
+    private static boolean readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        int b;
+        while ((b = in.read()) >= 0) {
+            line.write(b);
+            if (b == '\n') {
+                return true;
+            }
+        }
+        if (line.size() > 0) {
+            throw new IllegalArgumentException("La última línea del archivo está cortada");
+        }
+        return false;
+    }
+    
+    // ========== ESCRITURA ==========
+    
+    private void submit(ImportJob job, Batch batch) throws InterruptedImport {
+        try {
+            job.inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedImport();
+        }
+        try {
+            writerPool.execute(() -> {
+                try {
+                    write(batch);
+                    job.complete(batch);
+                    if (job.checkpointDue()) {
+                        save(job);
+                    }
+                } catch (RuntimeException e) {
+                    job.fail(e);
+                } finally {
+                    job.inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            job.inFlight.release();
+            throw new InterruptedImport();
+        }
+    }
+    
+    /**
+     * Escribe el lote en una solicitud. Si la BD lo rechaza, reintenta fila por fila para que
+     * solo las filas rechazadas queden fuera.
+     */
+    private void write(Batch batch) {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        try {
+            upsert(batch.table, batch.rows);
+            batch.written = batch.rows.size();
+            return;
+        } catch (IllegalArgumentException rejected) {
+            log.debug("Lote de {} rechazado, se reintenta fila por fila: {}", batch.table, rejected.getMessage());
+        }
+        for (int i = 0; i < batch.rows.size(); i++) {
+            try {
+                upsert(batch.table, List.of(batch.rows.get(i)));
+                batch.written++;
+            } catch (IllegalArgumentException e) {
+                batch.invalid(batch.lines.get(i), batch.keys.get(i), e.getMessage());
+            }
+        }
+    }
+    
+    private void upsert(String table, List<Map<String, Object>> rows) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                electionDataRepository.upsertRows(table, rows);
+                return;
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (HttpClientErrorException.Unauthorized | HttpClientErrorException.Forbidden e) {
+                // Reintentar no sirve y las filas no tienen la culpa: se detiene sin marcarlas como inválidas
+                throw new IllegalStateException("Supabase rechazó la clave de servicio (" + e.getStatusCode().value() + "): la importación se detiene y se puede reanudar al corregirla", e);
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || stopping) {
+                    throw new RuntimeException("Error al escribir un lote de " + table + ": " + e.getMessage(), e);
+                }
+                log.warn("Error al escribir un lote de {} (intento {}): {}", table, attempt + 1, e.getMessage());
+                try {
+                    Thread.sleep(200L << attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Escritura interrumpida", e);
+                }
+            }
+        }
+    }
+    
+    // ========== CHECKPOINT ==========
+    
+    private Path archive(String id) {
+        return directory.resolve(id + ".ndjson");
+    }
+    
+    private void save(ImportJob job) {
+        Path target = directory.resolve(job.checkpoint.getId() + CHECKPOINT_SUFFIX);
+        Path tmp = directory.resolve(job.checkpoint.getId() + CHECKPOINT_SUFFIX + ".tmp");
+        try {
+            byte[] content;
+            synchronized (job) {
+                job.read.forEach((table, rows) -> job.progress(table).setRead(rows));
+                job.checkpoint.setUpdatedAt(Instant.now().toString());
+                content = objectMapper.writeValueAsBytes(job.checkpoint);
+            }
+            Files.write(tmp, content);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("No se pudo guardar el checkpoint de la importación {}: {}", job.checkpoint.getId(), e.getMessage());
+        }
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Estado persistido de una importación
+     */
+    @Data
+    static class Checkpoint {
+        private String id;
+        private State state;
+        private Map<String, TableProgress> tables = new LinkedHashMap<>();
+        private List<Map<String, Object>> failures = new ArrayList<>();
+        private long failureCount;
+        private String error;
+        private int runs;
+        private String startedAt;
+        private String updatedAt;
+        private String finishedAt;
+    }
+    
+    /**
+     * Avance de una tabla. committed cuenta filas del archivo (válidas o no) escritas sin huecos
+     */
+    @Data
+    static class TableProgress {
+        private long read;
+        private long committed;
+        private long written;
+        private long invalid;
+        private Long expectedRows;
+        private Boolean verified;
+    }
+    
+    /**
+     * Filas [start, end) de una tabla en el archivo; las inválidas quedan en failures
+     */
+    static final class Batch {
+        private final String table;
+        private final long start;
+        private long end;
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Map<String, Object>> failures = new ArrayList<>();
+        private int written;
+        
+        Batch(String table, long start) {
+            this.table = table;
+            this.start = start;
+        }
+        
+        void add(Map<String, Object> row, long line, String key) {
+            rows.add(row);
+            lines.add(line);
+            keys.add(key);
+        }
+        
+        void invalid(long line, String key, String reason) {
+            Map<String, Object> failure = new LinkedHashMap<>();
+            failure.put("table", table);
+            failure.put("line", line);
+            failure.put("key", key);
+            failure.put("reason", reason);
+            failures.add(failure);
+        }
+        
+        Batch close(long end) {
+            this.end = end;
+            return this;
+        }
+    }
+    
+    private static final class InterruptedImport extends Exception {
+        InterruptedImport() {
+            super(null, null, false, false);
+        }
+    }
+    
+    /**
+     * Importación en memoria: el checkpoint más lo que solo vale durante una ejecución
+     */
+    private final class ImportJob {
+        private final Checkpoint checkpoint;
+        // Lotes terminados que esperan a los anteriores para avanzar committed
+        private final Map<String, TreeMap<Long, Batch>> pending = new HashMap<>();
+        private final Map<String, Long> read = new ConcurrentHashMap<>();
+        private final LongAdder writtenThisRun = new LongAdder();
+        private Semaphore inFlight;
+        private int permits;
+        private volatile CompletableFuture<Void> run;
+        private volatile RuntimeException failure;
+        private volatile String currentTable;
+        private int lastTableIndex;
+        private long runStartNanos;
+        private long runEndNanos;
+        private long lastSaveNanos;
+        
+        ImportJob(Checkpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+        
+        synchronized void begin(int permits) {
+            this.permits = permits;
+            inFlight = new Semaphore(permits);
+            pending.clear();
+            read.clear();
+            writtenThisRun.reset();
+            failure = null;
+            currentTable = null;
+            lastTableIndex = 0;
+            runStartNanos = System.nanoTime();
+            runEndNanos = 0;
+            lastSaveNanos = runStartNanos;
+            checkpoint.setState(State.RUNNING);
+            checkpoint.setError(null);
+            checkpoint.setFinishedAt(null);
+            checkpoint.setRuns(checkpoint.getRuns() + 1);
+        }
+        
+        synchronized long committed(String table) {
+            return progress(table).getCommitted();
+        }
+        
+        void read(String table, long rows) {
+            read.put(table, rows);
+        }
+        
+        /**
+         * Avanza committed sobre los lotes terminados contiguos
+         */
+        synchronized void complete(Batch batch) {
+            writtenThisRun.add(batch.written);
+            TreeMap<Long, Batch> done = pending.computeIfAbsent(batch.table, key -> new TreeMap<>());
+            done.put(batch.start, batch);
+            TableProgress progress = progress(batch.table);
+            Batch next;
+            while ((next = done.remove(progress.getCommitted())) != null) {
+                progress.setCommitted(next.end);
+                progress.setWritten(progress.getWritten() + next.written);
+                progress.setInvalid(progress.getInvalid() + next.failures.size());
+                checkpoint.setFailureCount(checkpoint.getFailureCount() + next.failures.size());
+                for (Map<String, Object> failure : next.failures) {
+                    if (checkpoint.getFailures().size() < MAX_REPORTED_FAILURES) {
+                        checkpoint.getFailures().add(failure);
+                    }
+                }
+            }
+        }
+        
+        synchronized boolean checkpointDue() {
+            long now = System.nanoTime();
+            if (now - lastSaveNanos < CHECKPOINT_INTERVAL_NANOS) {
+                return false;
+            }
+            lastSaveNanos = now;
+            return true;
+        }
+        
+        void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        
+        void checkFailure() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        
+        /**
+         * Espera a que terminen los lotes en vuelo (fin de tabla)
+         */
+        void drain() throws InterruptedImport {
+            try {
+                inFlight.acquire(permits);
+                inFlight.release(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedImport();
+            }
+            checkFailure();
+        }
+        
+        void drainQuietly() {
+            try {
+                inFlight.acquire(permits);
+                inFlight.release(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        synchronized void verify(String table, long expectedRows, boolean verified) {
+            TableProgress progress = progress(table);
+            progress.setExpectedRows(expectedRows);
+            progress.setVerified(verified);
+            if (!verified) {
+                Map<String, Object> failure = new LinkedHashMap<>();
+                failure.put("table", table);
+                failure.put("reason", "Filas o SHA-256 no coinciden con la línea table del archivo");
+                checkpoint.getFailures().add(failure);
+                checkpoint.setFailureCount(checkpoint.getFailureCount() + 1);
+            }
+        }
+        
+        synchronized void finish() {
+            List<String> unverified = checkpoint.getTables().entrySet().stream()
+                .filter(entry -> !Boolean.TRUE.equals(entry.getValue().getVerified()))
+                .map(Map.Entry::getKey)
+                .toList();
+            if (unverified.isEmpty()) {
+                checkpoint.setState(State.COMPLETED);
+            } else {
+                checkpoint.setState(State.FAILED);
+                checkpoint.setError("El archivo no coincide con su manifiesto en: " + String.join(", ", unverified));
+            }
+            checkpoint.setFinishedAt(Instant.now().toString());
+            runEndNanos = System.nanoTime();
+            currentTable = null;
+        }
+        
+        synchronized void stop(State state, String error) {
+            checkpoint.setState(state);
+            checkpoint.setError(error);
+            checkpoint.setFinishedAt(Instant.now().toString());
+            runEndNanos = System.nanoTime();
+        }
+        
+        private TableProgress progress(String table) {
+            return checkpoint.getTables().computeIfAbsent(table, key -> new TableProgress());
+        }
+        
+        synchronized Map<String, Object> status() {
+            Map<String, Object> tables = new LinkedHashMap<>();
+            checkpoint.getTables().forEach((table, progress) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("read", read.getOrDefault(table, progress.getRead()));
+                row.put("committed", progress.getCommitted());
+                row.put("written", progress.getWritten());
+                row.put("invalid", progress.getInvalid());
+                row.put("expectedRows", progress.getExpectedRows());
+                row.put("verified", progress.getVerified());
+                tables.put(table, row);
+            });
+            // Filas por segundo de la última ejecución; 0 si no hubo ninguna desde que inició la aplicación
+            long elapsedNanos = runStartNanos == 0 ? 0 : (runEndNanos > 0 ? runEndNanos : System.nanoTime()) - runStartNanos;
+            
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("id", checkpoint.getId());
+            status.put("state", checkpoint.getState());
+            status.put("currentTable", currentTable);
+            status.put("tables", tables);
+            status.put("rowsPerSecond", elapsedNanos > 0 ? Math.round(writtenThisRun.sum() * 1e9 / elapsedNanos) : 0);
+            status.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            status.put("failureCount", checkpoint.getFailureCount());
+            status.put("failures", new ArrayList<>(checkpoint.getFailures()));
+            status.put("error", checkpoint.getError());
+            status.put("runs", checkpoint.getRuns());
+            status.put("startedAt", checkpoint.getStartedAt());
+            status.put("updatedAt", checkpoint.getUpdatedAt());
+            status.put("finishedAt", checkpoint.getFinishedAt());
+            status.put("resumable", (checkpoint.getState() == State.FAILED || checkpoint.getState() == State.INTERRUPTED)
+                && Files.exists(archive(checkpoint.getId())));
+            return status;
+        }
+    }
+}
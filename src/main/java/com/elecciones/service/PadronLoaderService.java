@@ -0,0 +1,791 @@
+package com.elecciones.service;
+
+import com.elecciones.config.BackgroundExecutors;
+import com.elecciones.geo.GeoRollup;
+import com.elecciones.repository.ElectionDataRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Carga masiva del padrón electoral desde un CSV en padron.directory.
+ *
+ * El archivo se lee con ventanas de memoria mapeada: las líneas se recorren sobre el mapeo y
+ * solo se copian al heap los campos que se usan. Cada fila se valida (DNI de 8 dígitos, nombre),
+ * se normaliza con las mismas reglas que la limpieza de datos (TextNormalizer) y se envía en
+ * lotes de upsert a voters con hasta "writers" hilos; con 2 x writers lotes en vuelo la lectura
+ * espera. Solo se escriben las columnas del padrón, así que has_voted y voted_at de los votantes
+ * existentes no cambian.
+ *
+ * El checkpoint guarda el byte del archivo hasta el que todas las filas están escritas; volver a
+ * cargar el mismo archivo (mismo tamaño y fecha de modificación) continúa desde ahí. La primera
+ * línea es el encabezado; el separador (coma o punto y coma) se detecta en ella.
+ */
+@Service
+@Slf4j
+public class PadronLoaderService {
+    
+    public enum State { RUNNING, COMPLETED, FAILED, INTERRUPTED }
+    
+    // Nombres aceptados en el encabezado (sin tildes, en minúsculas y con _ en lugar de espacios)
+    private static final Map<String, String> HEADER_ALIASES = Map.ofEntries(
+        Map.entry("dni", "dni"), Map.entry("documento", "dni"), Map.entry("numero_documento", "dni"),
+        Map.entry("full_name", "full_name"), Map.entry("nombre_completo", "full_name"),
+        Map.entry("nombres", "nombres"), Map.entry("apellido_paterno", "apellido_paterno"),
+        Map.entry("apellido_materno", "apellido_materno"),
+        Map.entry("address", "address"), Map.entry("direccion", "address"),
+        Map.entry("district", "district"), Map.entry("distrito", "district"),
+        Map.entry("province", "province"), Map.entry("provincia", "province"),
+        Map.entry("department", "department"), Map.entry("departamento", "department"),
+        Map.entry("birth_date", "birth_date"), Map.entry("fecha_nacimiento", "birth_date"),
+        Map.entry("fecha_de_nacimiento", "birth_date"));
+    private static final Pattern DNI_PATTERN = Pattern.compile("^\\d{8}$");
+    private static final DateTimeFormatter DAY_MONTH_YEAR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    private static final long CHECKPOINT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private final ElectionDataRepository electionDataRepository;
+    private final ObjectMapper objectMapper;
+    private final BackgroundExecutors executors;
+    private final GeoRollup geoRollup;
+    private final Path directory;
+    private final Charset charset;
+    private final int batchSize;
+    private final int writers;
+    private final int maxRetries;
+    
+    private Executor reader;
+    private Executor writerPool;
+    private volatile Load current;
+    private volatile boolean stopping;
+    
+    public PadronLoaderService(ElectionDataRepository electionDataRepository,
+                               ObjectMapper objectMapper,
+                               BackgroundExecutors executors,
+                               GeoRollup geoRollup,
+                               @Value("${padron.directory:./data/padron}") String directory,
+                               @Value("${padron.charset:UTF-8}") String charset,
+                               @Value("${padron.batch-size:1000}") int batchSize,
+                               @Value("${padron.writers:4}") int writers,
+                               @Value("${padron.max-retries:3}") int maxRetries) {
+        this.electionDataRepository = electionDataRepository;
+        this.objectMapper = objectMapper;
+        this.executors = executors;
+        this.geoRollup = geoRollup;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.charset = Charset.forName(charset);
+        this.batchSize = Math.max(1, batchSize);
+        this.writers = Math.max(1, writers);
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+    
+    @PostConstruct
+    public void init() throws IOException {
+        reader = executors.newExecutor("padron-load", 1);
+        writerPool = executors.newExecutor("padron-load-write", writers);
+        Files.createDirectories(directory);
+        Path path = checkpointPath();
+        if (Files.exists(path)) {
+            try {
+                Checkpoint checkpoint = objectMapper.readValue(path.toFile(), Checkpoint.class);
+                if (checkpoint.getState() == State.RUNNING) {
+                    checkpoint.setState(State.INTERRUPTED);
+                }
+                current = new Load(checkpoint);
+                log.info("Carga de padrón previa: {} en estado {}", checkpoint.getFile(), checkpoint.getState());
+            } catch (IOException e) {
+                log.warn("Checkpoint del padrón ilegible: {}", e.getMessage());
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        Load load = current;
+        if (load != null && load.run != null) {
+            try {
+                load.run.get(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("La carga del padrón no se detuvo a tiempo: {}", e.getMessage());
+            }
+        }
+    }
+    
+    // ========== API ==========
+    
+    /**
+     * Inicia la carga de un archivo de padron.directory en segundo plano. Si es el mismo archivo
+     * de la última carga y no terminó, continúa desde su checkpoint salvo que restart sea true.
+     */
+    public synchronized Map<String, Object> start(String fileName, boolean restart) throws IOException {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("Se requiere el nombre del archivo");
+        }
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.getParent().equals(directory)) {
+            throw new IllegalArgumentException("El archivo debe estar en el directorio del padrón");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No existe el archivo " + fileName);
+        }
+        Load previous = current;
+        if (previous != null && previous.checkpoint.getState() == State.RUNNING) {
+            throw new IllegalStateException("Ya hay una carga del padrón en curso: " + previous.checkpoint.getFile());
+        }
+        
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            readHeader(new Window(channel, size));
+        }
+        Load load;
+        if (!restart && previous != null && previous.checkpoint.getState() != State.COMPLETED
+                && fileName.equals(previous.checkpoint.getFile())
+                && size == previous.checkpoint.getSize() && modified == previous.checkpoint.getLastModified()) {
+            load = previous;
+        } else {
+            Checkpoint checkpoint = new Checkpoint();
+            checkpoint.setFile(fileName);
+            checkpoint.setSize(size);
+            checkpoint.setLastModified(modified);
+            checkpoint.setStartedAt(Instant.now().toString());
+            load = new Load(checkpoint);
+        }
+        load.begin(writers * 2);
+        current = load;
+        save(load);
+        Load started = load;
+        load.run = CompletableFuture.runAsync(() -> run(started, file), reader);
+        return load.status();
+    }
+    
+    public Optional<Map<String, Object>> status() {
+        return Optional.ofNullable(current).map(Load::status);
+    }
+    
+    // ========== LECTURA ==========
+    
+    private void run(Load load, Path file) {
+        Checkpoint checkpoint = load.checkpoint;
+        log.info("Padrón {}: carga desde el byte {} de {}", checkpoint.getFile(), checkpoint.getCommittedOffset(),
+            checkpoint.getSize());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size != checkpoint.getSize()) {
+                throw new IllegalStateException("El archivo cambió durante la carga");
+            }
+            Window window = new Window(channel, size);
+            Header header = readHeader(window);
+            long position = Math.max(checkpoint.getCommittedOffset(), header.end);
+            long line = Math.max(checkpoint.getCommittedLine(), 1);
+            load.resumeAt(position, line);
+            Batch batch = new Batch(position, line);
+            List<String> fields = new ArrayList<>(header.columns.length);
+            
+            while (position < size) {
+                if (stopping) {
+                    throw new InterruptedLoad();
+                }
+                load.checkFailure();
+                long end = window.lineEnd(position);
+                line++;
+                String error = window.split(position, end, header.separator, fields, charset);
+                Map<String, Object> row = error == null ? toRow(header, fields) : null;
+                if (row == null) {
+                    batch.invalid(line, null, error != null ? error : "Fila sin DNI");
+                } else {
+                    String reason = normalize(row);
+                    if (reason != null) {
+                        batch.invalid(line, (String) row.get("dni"), reason);
+                    } else {
+                        batch.add(row);
+                    }
+                }
+                position = Math.min(end + 1, size);
+                load.read(position, line);
+                if (batch.rows.size() >= batchSize) {
+                    submit(load, batch.close(position, line));
+                    batch = new Batch(position, line);
+                }
+            }
+            submit(load, batch.close(position, line));
+            load.drain();
+            load.stop(State.COMPLETED, null);
+            save(load);
+            log.info("Padrón {} cargado: {}", checkpoint.getFile(), load.status().get("rowsWritten"));
+        } catch (InterruptedLoad e) {
+            load.drainQuietly();
+            load.stop(State.INTERRUPTED, "La aplicación se detuvo durante la carga");
+            save(load);
+            log.info("Carga del padrón interrumpida en el byte {}", checkpoint.getCommittedOffset());
+        } catch (IOException | RuntimeException e) {
+            load.drainQuietly();
+            load.stop(State.FAILED, e.getMessage());
+            save(load);
+            log.error("Carga del padrón fallida: {}", e.getMessage(), e);
+        } finally {
+            // Aun interrumpida o fallida, la carga ya escribió filas: los resultados geográficos se rehacen
+            geoRollup.requestRebuild();
+        }
+    }
+    
+    private Header readHeader(Window window) throws IOException {
+        long start = window.startsWithBom() ? 3 : 0;
+        long end = window.lineEnd(start);
+        String text = window.text(start, end, charset);
+        char separator = text.indexOf(';') >= 0 && text.indexOf(',') < 0 ? ';' : ',';
+        List<String> names = new ArrayList<>();
+        window.split(start, end, separator, names, charset);
+        String[] columns = new String[names.size()];
+        for (int i = 0; i < columns.length; i++) {
+            String name = Normalizer.normalize(names.get(i).trim().toLowerCase(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("\\s+", "_");
+            columns[i] = HEADER_ALIASES.get(name);
+        }
+        List<String> known = Arrays.asList(columns);
+        if (!known.contains("dni")) {
+            throw new IllegalArgumentException("El encabezado no tiene columna DNI: " + text);
+        }
+        if (!known.contains("full_name") && !known.contains("nombres")) {
+            throw new IllegalArgumentException("El encabezado no tiene nombre_completo ni nombres: " + text);
+        }
+        return new Header(columns, separator, end + 1);
+    }
+    
+    private static Map<String, Object> toRow(Header header, List<String> fields) {
+        Map<String, Object> row = new HashMap<>();
+        for (int i = 0; i < header.columns.length && i < fields.size(); i++) {
+            if (header.columns[i] != null) {
+                row.put(header.columns[i], fields.get(i).trim());
+            }
+        }
+        return row.get("dni") != null ? row : null;
+    }
+    
+    /**
+     * Valida y normaliza la fila en el formato de la tabla voters; retorna el motivo si es inválida
+     */
+    private static String normalize(Map<String, Object> row) {
+        String dni = (String) row.get("dni");
+        if (!DNI_PATTERN.matcher(dni).matches()) {
+            return "DNI inválido: " + dni;
+        }
+        String fullName = (String) row.remove("full_name");
+        String nombres = (String) row.remove("nombres");
+        String paterno = (String) row.remove("apellido_paterno");
+        String materno = (String) row.remove("apellido_materno");
+        if (fullName == null || fullName.isEmpty()) {
+            // Mismo orden que convertirDatosReniec: nombres, apellido paterno y materno
+            fullName = String.join(" ", nonBlank(nombres), nonBlank(paterno), nonBlank(materno)).trim();
+        }
+        if (fullName.isEmpty()) {
+            return "Nombre vacío";
+        }
+        row.put("full_name", TextNormalizer.capitalizeWords(fullName));
+        for (String column : List.of("district", "province", "department")) {
+            if (row.containsKey(column)) {
+                String value = (String) row.get(column);
+                row.put(column, value.isEmpty() ? null : TextNormalizer.capitalizeWords(value));
+            }
+        }
+        if (row.containsKey("address") && ((String) row.get("address")).isEmpty()) {
+            row.put("address", null);
+        }
+        if (row.containsKey("birth_date")) {
+            String value = (String) row.get("birth_date");
+            try {
+                row.put("birth_date", value.isEmpty() ? null
+                    : (value.contains("/") ? LocalDate.parse(value, DAY_MONTH_YEAR) : LocalDate.parse(value)).toString());
+            } catch (DateTimeParseException e) {
+                return "Fecha de nacimiento inválida: " + value;
+            }
+        }
+        return null;
+    }
+    
+    private static String nonBlank(String value) {
+        return value != null ? value : "";
+    }
+    
+    // ========== ESCRITURA ==========
+    
+    private void submit(Load load, Batch batch) throws InterruptedLoad {
+        try {
+            load.inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedLoad();
+        }
+        try {
+            writerPool.execute(() -> {
+                try {
+                    write(batch);
+                    load.complete(batch);
+                    if (load.checkpointDue()) {
+                        save(load);
+                    }
+                } catch (RuntimeException e) {
+                    load.fail(e);
+                } finally {
+                    load.inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            load.inFlight.release();
+            throw new InterruptedLoad();
+        }
+    }
+    
+    /**
+     * Si la BD rechaza el lote se reintenta fila por fila para aislar las filas rechazadas
+     */
+    private void write(Batch batch) {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        try {
+            upsert(batch.rows);
+            batch.written = batch.rows.size();
+            return;
+        } catch (IllegalArgumentException rejected) {
+            log.debug("Lote del padrón rechazado, se reintenta fila por fila: {}", rejected.getMessage());
+        }
+        for (Map<String, Object> row : batch.rows) {
+            try {
+                upsert(List.of(row));
+                batch.written++;
+            } catch (IllegalArgumentException e) {
+                batch.invalid(null, (String) row.get("dni"), e.getMessage());
+            }
+        }
+    }
+    
+    private void upsert(List<Map<String, Object>> rows) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                electionDataRepository.upsertRows("voters", rows);
+                return;
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (HttpClientErrorException.Unauthorized | HttpClientErrorException.Forbidden e) {
+                // Reintentar no sirve y las filas no tienen la culpa: se detiene sin marcarlas como inválidas
+                throw new IllegalStateException("Supabase rechazó la clave de servicio (" + e.getStatusCode().value() + "): la carga se detiene y se puede reanudar al corregirla", e);
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || stopping) {
+                    throw new RuntimeException("Error al escribir un lote del padrón: " + e.getMessage(), e);
+                }
+                log.warn("Error al escribir un lote del padrón (intento {}): {}", attempt + 1, e.getMessage());
+                try {
+                    Thread.sleep(200L << attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Escritura interrumpida", e);
+                }
+            }
+        }
+    }
+    
+    // ========== CHECKPOINT ==========
+    
+    private Path checkpointPath() {
+        return directory.resolve("padron.checkpoint.json");
+    }
+    
+    private void save(Load load) {
+        Path tmp = directory.resolve("padron.checkpoint.json.tmp");
+        try {
+            byte[] content;
+            synchronized (load) {
+                load.checkpoint.setUpdatedAt(Instant.now().toString());
+                content = objectMapper.writeValueAsBytes(load.checkpoint);
+            }
+            Files.write(tmp, content);
+            Files.move(tmp, checkpointPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("No se pudo guardar el checkpoint del padrón: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Estado persistido de la última carga. committedOffset y committedLine marcan el inicio de
+     * la primera fila que todavía no se escribió con todas las anteriores
+     */
+    @Data
+    static class Checkpoint {
+        private String file;
+        private long size;
+        private long lastModified;
+        private State state;
+        private long committedOffset;
+        private long committedLine;
+        private long rowsWritten;
+        private long rowsInvalid;
+        private List<Map<String, Object>> failures = new ArrayList<>();
+        private String error;
+        private int runs;
+        private String startedAt;
+        private String updatedAt;
+        private String finishedAt;
+    }
+    
+    private record Header(String[] columns, char separator, long end) {
+    }
+    
+    /**
+     * Filas del archivo entre los bytes [start, end); las inválidas quedan en failures
+     */
+    private static final class Batch {
+        private final long start;
+        private final long startLine;
+        private long end;
+        private long endLine;
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        private final List<Map<String, Object>> failures = new ArrayList<>();
+        private int written;
+        
+        Batch(long start, long startLine) {
+            this.start = start;
+            this.startLine = startLine;
+        }
+        
+        void add(Map<String, Object> row) {
+            rows.add(row);
+        }
+        
+        void invalid(Long line, String dni, String reason) {
+            Map<String, Object> failure = new LinkedHashMap<>();
+            failure.put("line", line);
+            failure.put("dni", dni);
+            failure.put("reason", reason);
+            failures.add(failure);
+        }
+        
+        Batch close(long end, long endLine) {
+            this.end = end;
+            this.endLine = endLine;
+            return this;
+        }
+    }
+    
+    /**
+     * Ventana mapeada que avanza sobre el archivo. Las posiciones son absolutas; una línea
+     * siempre queda completa dentro de la ventana.
+     */
+    private static final class Window {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer buffer;
+        private long base;
+        private byte[] field = new byte[256];
+        
+        Window(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+        
+        boolean startsWithBom() throws IOException {
+            ensure(0);
+            return size >= 3 && (buffer.get(0) & 0xff) == 0xEF && (buffer.get(1) & 0xff) == 0xBB
+                && (buffer.get(2) & 0xff) == 0xBF;
+        }
+        
+        /**
+         * Posición del salto de línea que termina la línea que empieza en start (o el fin del archivo)
+         */
+        long lineEnd(long start) throws IOException {
+            ensure(start);
+            int limit = buffer.limit();
+            for (int i = (int) (start - base); i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    return base + i;
+                }
+            }
+            if (base + limit == size) {
+                return size;
+            }
+            // La línea cruza el final de la ventana: se vuelve a mapear desde su inicio
+            remap(start);
+            limit = buffer.limit();
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    return base + i;
+                }
+            }
+            if (base + limit == size) {
+                return size;
+            }
+            throw new IllegalArgumentException("Línea de más de " + WINDOW_BYTES + " bytes en el byte " + start);
+        }
+        
+        String text(long start, long end, Charset charset) {
+            int from = (int) (start - base);
+            int length = (int) (end - start);
+            if (length > 0 && buffer.get(from + length - 1) == '\r') {
+                length--;
+            }
+            return decode(from, length, charset);
+        }
+        
+        /**
+         * Separa la línea [start, end) en campos CSV (comillas dobles con "" como escape).
+         * Retorna un mensaje si la línea está mal formada.
+         */
+        String split(long start, long end, char separator, List<String> fields, Charset charset) {
+            fields.clear();
+            int i = (int) (start - base);
+            int stop = (int) (end - base);
+            if (stop > i && buffer.get(stop - 1) == '\r') {
+                stop--;
+            }
+            if (i == stop) {
+                return "Línea vacía";
+            }
+            while (true) {
+                if (i < stop && buffer.get(i) == '"') {
+                    int length = 0;
+                    i++;
+                    while (true) {
+                        if (i >= stop) {
+                            return "Comillas sin cerrar";
+                        }
+                        byte b = buffer.get(i++);
+                        if (b == '"') {
+                            if (i < stop && buffer.get(i) == '"') {
+                                i++;
+                            } else {
+                                break;
+                            }
+                        }
+                        field = grow(field, length);
+                        field[length++] = b;
+                    }
+                    fields.add(new String(field, 0, length, charset));
+                    if (i < stop && buffer.get(i) != separator) {
+                        return "Texto después de las comillas";
+                    }
+                } else {
+                    int from = i;
+                    while (i < stop && buffer.get(i) != separator) {
+                        i++;
+                    }
+                    fields.add(decode(from, i - from, charset));
+                }
+                if (i >= stop) {
+                    return null;
+                }
+                i++;
+            }
+        }
+        
+        private String decode(int from, int length, Charset charset) {
+            field = grow(field, length);
+            buffer.get(from, field, 0, length);
+            return new String(field, 0, length, charset);
+        }
+        
+        private static byte[] grow(byte[] array, int length) {
+            return length < array.length ? array : Arrays.copyOf(array, Math.max(length + 1, array.length * 2));
+        }
+        
+        private void ensure(long position) throws IOException {
+            if (buffer == null || position < base || position >= base + buffer.limit()) {
+                remap(position);
+            }
+        }
+        
+        private void remap(long position) throws IOException {
+            base = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, size - position));
+        }
+    }
+    
+    private static final class InterruptedLoad extends Exception {
+        InterruptedLoad() {
+            super(null, null, false, false);
+        }
+    }
+    
+    /**
+     * Carga en memoria: el checkpoint más lo que solo vale durante una ejecución
+     */
+    private final class Load {
+        private final Checkpoint checkpoint;
+        // Lotes terminados que esperan a los anteriores para avanzar committedOffset
+        private final TreeMap<Long, Batch> pending = new TreeMap<>();
+        private final LongAdder writtenThisRun = new LongAdder();
+        private Semaphore inFlight;
+        private int permits;
+        private volatile CompletableFuture<Void> run;
+        private volatile RuntimeException failure;
+        private volatile long readOffset;
+        private volatile long readLine;
+        private long runStartNanos;
+        private long runEndNanos;
+        private long lastSaveNanos;
+        
+        Load(Checkpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+        
+        synchronized void begin(int permits) {
+            this.permits = permits;
+            inFlight = new Semaphore(permits);
+            pending.clear();
+            writtenThisRun.reset();
+            failure = null;
+            readOffset = checkpoint.getCommittedOffset();
+            readLine = checkpoint.getCommittedLine();
+            runStartNanos = System.nanoTime();
+            runEndNanos = 0;
+            lastSaveNanos = runStartNanos;
+            checkpoint.setState(State.RUNNING);
+            checkpoint.setError(null);
+            checkpoint.setFinishedAt(null);
+            checkpoint.setRuns(checkpoint.getRuns() + 1);
+        }
+        
+        void read(long offset, long line) {
+            readOffset = offset;
+            readLine = line;
+        }
+        
+        /**
+         * Posición de la primera fila por escribir: el checkpoint o, si es una carga nueva, el fin del encabezado
+         */
+        synchronized void resumeAt(long offset, long line) {
+            checkpoint.setCommittedOffset(offset);
+            checkpoint.setCommittedLine(line);
+        }
+        
+        /**
+         * Avanza committedOffset sobre los lotes terminados contiguos
+         */
+        synchronized void complete(Batch batch) {
+            writtenThisRun.add(batch.written);
+            pending.put(batch.start, batch);
+            Batch next;
+            while ((next = pending.remove(checkpoint.getCommittedOffset())) != null) {
+                checkpoint.setCommittedOffset(next.end);
+                checkpoint.setCommittedLine(next.endLine);
+                checkpoint.setRowsWritten(checkpoint.getRowsWritten() + next.written);
+                checkpoint.setRowsInvalid(checkpoint.getRowsInvalid() + next.failures.size());
+                for (Map<String, Object> failure : next.failures) {
+                    if (checkpoint.getFailures().size() < MAX_REPORTED_FAILURES) {
+                        checkpoint.getFailures().add(failure);
+                    }
+                }
+            }
+        }
+        
+        synchronized boolean checkpointDue() {
+            long now = System.nanoTime();
+            if (now - lastSaveNanos < CHECKPOINT_INTERVAL_NANOS) {
+                return false;
+            }
+            lastSaveNanos = now;
+            return true;
+        }
+        
+        void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        
+        void checkFailure() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        
+        void drain() throws InterruptedLoad {
+            try {
+                inFlight.acquire(permits);
+                inFlight.release(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedLoad();
+            }
+            checkFailure();
+        }
+        
+        void drainQuietly() {
+            try {
+                inFlight.acquire(permits);
+                inFlight.release(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        synchronized void stop(State state, String error) {
+            checkpoint.setState(state);
+            checkpoint.setError(error);
+            checkpoint.setFinishedAt(Instant.now().toString());
+            runEndNanos = System.nanoTime();
+        }
+        
+        synchronized Map<String, Object> status() {
+            long elapsedNanos = runStartNanos == 0 ? 0 : (runEndNanos > 0 ? runEndNanos : System.nanoTime()) - runStartNanos;
+            long size = checkpoint.getSize();
+            
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("file", checkpoint.getFile());
+            status.put("state", checkpoint.getState());
+            status.put("sizeBytes", size);
+            status.put("readBytes", Math.max(readOffset, checkpoint.getCommittedOffset()));
+            status.put("committedBytes", checkpoint.getCommittedOffset());
+            status.put("percent", size > 0 ? Math.round(checkpoint.getCommittedOffset() * 1000.0 / size) / 10.0 : 100.0);
+            status.put("linesRead", Math.max(readLine, checkpoint.getCommittedLine()));
+            status.put("rowsWritten", checkpoint.getRowsWritten());
+            status.put("rowsInvalid", checkpoint.getRowsInvalid());
+            status.put("rowsPerSecond", elapsedNanos > 0 ? Math.round(writtenThisRun.sum() * 1e9 / elapsedNanos) : 0);
+            status.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            status.put("failures", new ArrayList<>(checkpoint.getFailures()));
+            status.put("error", checkpoint.getError());
+            status.put("runs", checkpoint.getRuns());
+            status.put("startedAt", checkpoint.getStartedAt());
+            status.put("updatedAt", checkpoint.getUpdatedAt());
+            status.put("finishedAt", checkpoint.getFinishedAt());
+            return status;
+        }
+    }
+}
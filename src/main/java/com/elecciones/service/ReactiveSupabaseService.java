@@ -0,0 +1,370 @@
+package com.elecciones.service;
+
+import com.elecciones.config.SupabaseConfig;
+import com.elecciones.metrics.OutboundCallMetrics;
+import com.elecciones.model.Candidate;
+import com.elecciones.model.Vote;
+import com.elecciones.model.Voter;
+import com.elecciones.repository.ReactiveElectionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Backend reactivo sobre la API REST de Supabase (PostgREST), con WebClient.
+ *
+ * Hace las mismas consultas que SupabaseService sin bloquear hilos: las respuestas se
+ * decodifican en los hilos del cliente HTTP directamente en los modelos. Las tablas completas
+ * se recorren por páginas con keyset (order=clave.asc y clave=gt.última) de
+ * supabase.reactive.page-size filas, que no supera el max-rows de PostgREST, y la página
+ * siguiente se pide recién cuando el consumidor llega al final de la anterior.
+ *
+ * Quien lo necesite inyecta ReactiveElectionRepository en lugar de los repositorios
+ * bloqueantes; el resto de la aplicación sigue con SupabaseService. Se desactiva con el
+ * perfil "inmemory".
+ */
+@Service
+@Profile("!inmemory")
+@Slf4j
+public class ReactiveSupabaseService implements ReactiveElectionRepository {
+    
+    private static final ParameterizedTypeReference<Map<String, Object>> ROW = new ParameterizedTypeReference<>() {};
+    
+    private final WebClient webClient;
+    private final SupabaseConfig supabaseConfig;
+    private final int pageSize;
+    
+    public ReactiveSupabaseService(@Qualifier("supabaseWebClient") WebClient webClient,
+                                   SupabaseConfig supabaseConfig,
+                                   @Value("${supabase.reactive.page-size:1000}") int pageSize) {
+        this.webClient = webClient;
+        this.supabaseConfig = supabaseConfig;
+        this.pageSize = pageSize;
+    }
+    
+    /**
+     * Service key para las tablas y operaciones que en SupabaseService requieren bypass de RLS
+     */
+    private void useServiceKey(HttpHeaders headers) {
+        headers.set("apikey", supabaseConfig.getSupabaseServiceKey());
+        headers.set("Authorization", supabaseConfig.getServiceAuthHeader());
+    }
+    
+    // ========== VOTERS ==========
+    
+    @Override
+    public Mono<Voter> findVoterByDni(String dni) {
+        return webClient.get()
+            .uri("/voters?dni=eq." + dni + "&select=*")
+            .headers(this::useServiceKey)
+            .retrieve()
+            .bodyToFlux(Voter.class)
+            .next()
+            .onErrorMap(failure("Error al buscar votante"))
+            .contextWrite(operation("findVoterByDni"));
+    }
+    
+    @Override
+    public Flux<Voter> streamVoters() {
+        return stream("voters", "*", "dni", ParameterizedTypeReference.forType(Voter.class), Voter::getDni)
+            .onErrorMap(failure("Error al leer votantes"))
+            .contextWrite(operation("streamVoters"));
+    }
+    
+    @Override
+    public Mono<Long> countVoters() {
+        return count("/voters?select=dni")
+            .onErrorMap(failure("Error al contar votantes"))
+            .contextWrite(operation("countVoters"));
+    }
+    
+    // ========== CANDIDATES ==========
+    
+    @Override
+    public Flux<Candidate> findAllCandidates() {
+        return candidates("/candidates?select=*&order=vote_count.desc")
+            .onErrorMap(failure("Error al obtener candidatos"))
+            .contextWrite(operation("findAllCandidates"));
+    }
+    
+    @Override
+    public Flux<Candidate> findCandidatesByCategory(String category) {
+        return candidates("/candidates?select=*&category=eq." + category + "&order=vote_count.desc")
+            .onErrorMap(failure("Error al obtener candidatos por categoría"))
+            .contextWrite(operation("findCandidatesByCategory"));
+    }
+    
+    @Override
+    public Mono<Candidate> findCandidateById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return Mono.empty();
+        }
+        return candidates("/candidates?id=eq." + id + "&select=*")
+            .next()
+            .onErrorMap(failure("Error al buscar candidato"))
+            .contextWrite(operation("findCandidateById"));
+    }
+    
+    @Override
+    public Flux<Candidate> findCandidatesByIds(Collection<String> ids) {
+        List<String> validIds = ids.stream()
+            .filter(id -> id != null && !id.trim().isEmpty())
+            .distinct()
+            .toList();
+        if (validIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return candidates("/candidates?id=in.(" + String.join(",", validIds) + ")&select=*")
+            .onErrorMap(failure("Error al obtener candidatos"))
+            .contextWrite(operation("findCandidatesByIds"));
+    }
+    
+    private Flux<Candidate> candidates(String uri) {
+        return webClient.get().uri(uri).retrieve().bodyToFlux(Candidate.class);
+    }
+    
+    // ========== VOTES ==========
+    
+    /**
+     * Los candidatos de todos los votos se piden en una sola consulta
+     */
+    @Override
+    public Flux<Vote> findVotesByVoterDni(String voterDni) {
+        return webClient.get()
+            .uri("/votes?select=*&voter_dni=eq." + voterDni)
+            .retrieve()
+            .bodyToFlux(Vote.class)
+            .collectList()
+            .flatMapMany(votes -> {
+                List<String> ids = new ArrayList<>();
+                for (Vote vote : votes) {
+                    if (vote.getCandidate() != null) {
+                        ids.add(vote.getCandidate().getId());
+                    }
+                }
+                return findCandidatesByIds(ids)
+                    .collectMap(Candidate::getId)
+                    .flatMapIterable(candidates -> withCandidates(votes, candidates));
+            })
+            .onErrorMap(failure("Error al obtener votos"))
+            .contextWrite(operation("findVotesByVoterDni"));
+    }
+    
+    /**
+     * La tabla de candidatos es chica: se lee una vez y se cruza con cada página de votos
+     */
+    @Override
+    public Flux<Vote> streamVotes() {
+        return findAllCandidates()
+            .collectMap(Candidate::getId)
+            .flatMapMany(candidates -> stream("votes", "*", "id", ParameterizedTypeReference.forType(Vote.class), Vote::getId)
+                .map(vote -> withCandidate(vote, candidates)))
+            .onErrorMap(failure("Error al leer votos"))
+            .contextWrite(operation("streamVotes"));
+    }
+    
+    /**
+     * PostgREST inserta el arreglo en una sola transacción: un duplicado rechaza la boleta completa
+     */
+    @Override
+    public Mono<Void> saveVotes(List<Vote> votes) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Vote vote : votes) {
+            rows.add(voteToMap(vote));
+        }
+        return webClient.post()
+            .uri("/votes")
+            .headers(headers -> {
+                useServiceKey(headers);
+                headers.set("Prefer", "return=minimal");
+            })
+            .bodyValue(rows)
+            .retrieve()
+            .toBodilessEntity()
+            .doOnSuccess(response -> log.info("{} votos guardados exitosamente", rows.size()))
+            .onErrorMap(WebClientResponseException.class,
+                e -> new RuntimeException("Error al guardar votos: " + e.getResponseBodyAsString(), e))
+            .then()
+            .contextWrite(operation("saveVotes"));
+    }
+    
+    @Override
+    public Mono<Long> countVotes() {
+        return count("/votes?select=id")
+            .onErrorMap(failure("Error al contar votos"))
+            .contextWrite(operation("countVotes"));
+    }
+    
+    @Override
+    public Mono<Long> countVotesByCategory(String category) {
+        return count("/votes?select=id&category=eq." + category)
+            .onErrorMap(failure("Error al contar votos por categoría"))
+            .contextWrite(operation("countVotesByCategory"));
+    }
+    
+    @Override
+    public Mono<Long> countDistinctVoters() {
+        return stream("votes", "id,voter_dni", "id", ROW, row -> row.get("id"))
+            .map(row -> Objects.toString(row.get("voter_dni"), ""))
+            .filter(dni -> !dni.isEmpty())
+            .distinct()
+            .count()
+            .onErrorMap(failure("Error al contar votantes únicos"))
+            .contextWrite(operation("countDistinctVoters"));
+    }
+    
+    // ========== TRAINING DATA ==========
+    
+    @Override
+    public Mono<List<Map<String, Object>>> getVotesByDate() {
+        return stream("votes", "id,voted_at", "id", ROW, row -> row.get("id"))
+            .collectList()
+            .map(ElectionAnalytics::votesByDate)
+            .onErrorResume(e -> {
+                log.error("Error al obtener votos por fecha: {}", e.getMessage(), e);
+                return Mono.just(new ArrayList<>());
+            })
+            .contextWrite(operation("getVotesByDate"));
+    }
+    
+    @Override
+    public Mono<Map<String, Object>> detectAnomalies() {
+        return stream("votes", "id,voter_dni,voted_at,category", "id", ROW, row -> row.get("id"))
+            .collectList()
+            .map(ElectionAnalytics::detectAnomalies)
+            .onErrorResume(e -> {
+                log.error("Error al detectar anomalías: {}", e.getMessage(), e);
+                return Mono.just(new HashMap<>());
+            })
+            .contextWrite(operation("detectAnomalies"));
+    }
+    
+    /**
+     * Votantes y votos se leen en paralelo
+     */
+    @Override
+    public Mono<Map<String, Object>> getParticipationData() {
+        Mono<List<Map<String, Object>>> voters = stream("voters", "dni,department", "dni", ROW, row -> row.get("dni"))
+            .collectList();
+        Mono<List<Map<String, Object>>> votes = stream("votes", "id,voter_dni", "id", ROW, row -> row.get("id"))
+            .collectList();
+        return Mono.zip(voters, votes)
+            .map(data -> ElectionAnalytics.participation(data.getT1(), data.getT2()))
+            .onErrorResume(e -> {
+                log.error("Error al obtener datos de participación: {}", e.getMessage(), e);
+                return Mono.just(new HashMap<>());
+            })
+            .contextWrite(operation("getParticipationData"));
+    }
+    
+    // ========== HELPERS ==========
+    
+    /**
+     * Recorre la tabla completa por páginas ordenadas por una columna única. Las páginas se
+     * piden de a una y hay como máximo una leída por adelantado, así que la memoria depende
+     * del tamaño de página y no del de la tabla.
+     */
+    private <T> Flux<T> stream(String table, String columns, String key,
+                               ParameterizedTypeReference<T> type, Function<T, Object> keyOf) {
+        return page(table, columns, key, null, type)
+            .expand(rows -> rows.size() < pageSize ? Mono.empty()
+                : page(table, columns, key, keyOf.apply(rows.get(rows.size() - 1)), type))
+            .concatMapIterable(Function.identity(), 1);
+    }
+    
+    private <T> Mono<List<T>> page(String table, String columns, String key, Object after,
+                                   ParameterizedTypeReference<T> type) {
+        String uri = "/" + table + "?select=" + columns + "&order=" + key + ".asc&limit=" + pageSize
+            + (after != null ? "&" + key + "=gt." + after : "");
+        return webClient.get()
+            .uri(uri)
+            .headers(this::useServiceKey)
+            .retrieve()
+            .bodyToFlux(type)
+            .collectList();
+    }
+    
+    /**
+     * Total de filas desde Content-Range (Prefer: count=exact), sin descargarlas
+     */
+    private Mono<Long> count(String uri) {
+        return webClient.head()
+            .uri(uri)
+            .headers(headers -> headers.set("Prefer", "count=exact"))
+            .retrieve()
+            .toBodilessEntity()
+            .map(response -> {
+                String contentRange = response.getHeaders().getFirst("Content-Range");
+                int slash = contentRange != null ? contentRange.lastIndexOf('/') : -1;
+                if (slash < 0 || contentRange.endsWith("*")) {
+                    throw new IllegalStateException("Content-Range sin total: " + contentRange);
+                }
+                return Long.parseLong(contentRange.substring(slash + 1));
+            });
+    }
+    
+    private List<Vote> withCandidates(List<Vote> votes, Map<String, Candidate> candidates) {
+        for (Vote vote : votes) {
+            withCandidate(vote, candidates);
+        }
+        return votes;
+    }
+    
+    /**
+     * Reemplaza la referencia decodificada de candidate_id por el candidato completo
+     */
+    private Vote withCandidate(Vote vote, Map<String, Candidate> candidates) {
+        if (vote.getCandidate() != null) {
+            Candidate candidate = candidates.get(vote.getCandidate().getId());
+            if (candidate == null) {
+                log.warn("Candidato {} del voto {} no encontrado", vote.getCandidate().getId(), vote.getId());
+            }
+            vote.setCandidate(candidate);
+        }
+        return vote;
+    }
+    
+    /**
+     * Nombre de la operación para las métricas de llamadas salientes
+     */
+    private static Context operation(String method) {
+        return Context.of(OutboundCallMetrics.OPERATION, "ReactiveSupabaseService." + method);
+    }
+    
+    private static Function<Throwable, Throwable> failure(String message) {
+        return e -> {
+            String detail = e instanceof WebClientResponseException response
+                ? response.getStatusCode() + " " + response.getResponseBodyAsString()
+                : e.getMessage();
+            log.error("{}: {}", message, detail);
+            return new RuntimeException(message + ": " + detail, e);
+        };
+    }
+    
+    private Map<String, Object> voteToMap(Vote vote) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("voter_dni", vote.getVoterDni());
+        map.put("candidate_id", vote.getCandidate() != null ? vote.getCandidate().getId() : null);
+        map.put("category", vote.getCategory() != null ? vote.getCategory().name().toLowerCase() : null);
+        map.put("voted_at", vote.getVotedAt() != null ? vote.getVotedAt().toString() : LocalDateTime.now().toString());
+        return map;
+    }
+}
@@ -0,0 +1,447 @@
+package com.elecciones.service;
+
+import com.elecciones.config.BackgroundExecutors;
+import com.elecciones.model.Candidate;
+import com.elecciones.repository.CandidateRepository;
+import com.elecciones.repository.VoteRepository;
+import com.elecciones.repository.VoterRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Resultados en vivo por Server-Sent Events (GET /api/dashboard/stream).
+ *
+ * Un solo hilo consulta Supabase en cada tick, mientras haya suscriptores, y publica una
+ * instantánea inmutable. Cada suscriptor recuerda la última instantánea que recibió y se le
+ * envía la diferencia con la actual; la diferencia se codifica una vez por versión de origen
+ * y se comparte entre todos los que estaban en esa versión. A un cliente lento no se le
+ * encolan eventos: mientras su envío anterior no termina se omite, y el siguiente envío
+ * agrupa todos los cambios pendientes.
+ *
+ * Cada envío tiene un plazo (results.stream.write-timeout-ms). La escritura bloqueada no se
+ * puede cancelar, así que el ticker saca al suscriptor que lo excede y agrega un hilo al pool
+ * de envío mientras siga atascado, para que un socket lento no detenga a los demás.
+ */
+@Service
+@Slf4j
+public class ResultsStreamService {
+    
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+    
+    private final CandidateRepository candidateRepository;
+    private final VoteRepository voteRepository;
+    private final VoterRepository voterRepository;
+    private final ObjectMapper objectMapper;
+    private final BackgroundExecutors executors;
+    private final long intervalMillis;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int sendThreads;
+    private final long retryMillis;
+    private final long writeTimeoutNanos;
+    private final int maxStalledSends;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot current;
+    private ThreadPoolExecutor sender;
+    // Envíos que vencieron su plazo y siguen ocupando un hilo; protegido por this
+    private int stalledSends;
+    private Thread ticker;
+    private volatile boolean running;
+    private volatile boolean idle;
+    
+    public ResultsStreamService(CandidateRepository candidateRepository,
+                                VoteRepository voteRepository,
+                                VoterRepository voterRepository,
+                                ObjectMapper objectMapper,
+                                BackgroundExecutors executors,
+                                @Value("${results.stream.interval-ms:2000}") long intervalMillis,
+                                @Value("${results.stream.timeout-ms:1800000}") long timeoutMillis,
+                                @Value("${results.stream.max-subscribers:5000}") int maxSubscribers,
+                                @Value("${results.stream.send-threads:4}") int sendThreads,
+                                @Value("${results.stream.retry-ms:10000}") long retryMillis,
+                                @Value("${results.stream.write-timeout-ms:10000}") long writeTimeoutMillis,
+                                @Value("${results.stream.max-stalled-sends:64}") int maxStalledSends) {
+        this.candidateRepository = candidateRepository;
+        this.voteRepository = voteRepository;
+        this.voterRepository = voterRepository;
+        this.objectMapper = objectMapper;
+        this.executors = executors;
+        this.intervalMillis = intervalMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.sendThreads = sendThreads;
+        this.retryMillis = retryMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        this.maxStalledSends = maxStalledSends;
+    }
+    
+    @PostConstruct
+    public void start() {
+        sender = executors.newExecutor("results-stream-send", sendThreads);
+        running = true;
+        ticker = new Thread(this::tickLoop, "results-stream-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(ticker);
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+    
+    /**
+     * Registra un suscriptor; recibe la instantánea completa y luego solo los cambios
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        if (subscribers.size() >= maxSubscribers) {
+            // El EventSource del navegador reintenta después del tiempo indicado
+            try {
+                emitter.send(SseEmitter.event().reconnectTime(retryMillis).comment("capacidad completa"));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+        
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        
+        if (current != null) {
+            deliver(subscriber);
+        }
+        // Solo el primer suscriptor despierta al ticker: los demás esperan el tick normal
+        if (idle) {
+            LockSupport.unpark(ticker);
+        }
+        return emitter;
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    // ========== TICK ==========
+    
+    private void tickLoop() {
+        long lastHeartbeat = System.nanoTime();
+        while (running) {
+            if (subscribers.isEmpty()) {
+                // Sin espectadores no se consulta Supabase
+                idle = true;
+                if (subscribers.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                continue;
+            }
+            long tickStart = System.nanoTime();
+            expireStalledSends();
+            try {
+                Snapshot next = compute(current);
+                if (current == null || !next.sameCounts(current)) {
+                    current = next;
+                    subscribers.forEach(this::deliver);
+                    lastHeartbeat = tickStart;
+                } else if (tickStart - lastHeartbeat >= HEARTBEAT_NANOS) {
+                    // Mantiene la conexión abierta a través de proxies cuando no hay cambios
+                    subscribers.forEach(this::heartbeat);
+                    lastHeartbeat = tickStart;
+                }
+            } catch (Exception e) {
+                log.error("Error al calcular resultados en vivo: {}", e.getMessage(), e);
+            }
+            long elapsed = System.nanoTime() - tickStart;
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(intervalMillis) - elapsed);
+        }
+    }
+    
+    private Snapshot compute(Snapshot previous) {
+        List<Candidate> candidates = candidateRepository.findCandidateSummaries();
+        long totalVoters = voterRepository.countVoters();
+        long votersWhoVoted = voteRepository.countDistinctVoters();
+        
+        Map<String, CandidateCount> counts = new LinkedHashMap<>();
+        Map<String, Long> categories = new LinkedHashMap<>();
+        for (Candidate.ElectoralCategory category : Candidate.ElectoralCategory.values()) {
+            categories.put(category.name().toLowerCase(), 0L);
+        }
+        long totalVotes = 0;
+        for (Candidate candidate : candidates) {
+            String category = candidate.getCategory() != null ? candidate.getCategory().name().toLowerCase() : null;
+            long voteCount = candidate.getVoteCount() != null ? candidate.getVoteCount() : 0;
+            counts.put(candidate.getId(), new CandidateCount(candidate.getId(), category, voteCount));
+            if (category != null) {
+                categories.merge(category, voteCount, Long::sum);
+            }
+            totalVotes += voteCount;
+        }
+        double participationRate = totalVoters > 0 ? (double) votersWhoVoted / totalVoters * 100 : 0;
+        long version = previous == null ? 1 : previous.version + 1;
+        return new Snapshot(version, counts, categories, totalVotes, totalVoters, participationRate);
+    }
+    
+    // ========== ENVÍO ==========
+    
+    /**
+     * Programa el envío de la última instantánea; si el suscriptor ya tiene un envío en curso
+     * no hace nada y ese envío recoge la instantánea nueva al terminar
+     */
+    private void deliver(Subscriber subscriber) {
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(subscriber));
+        } catch (RuntimeException e) {
+            // Executor detenido al apagar la aplicación
+            subscriber.sending.set(false);
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            Snapshot target;
+            while (subscribers.contains(subscriber) && (target = current) != subscriber.delivered) {
+                SseEmitter.SseEventBuilder event = SseEmitter.event()
+                    .id(Long.toString(target.version))
+                    .name(subscriber.delivered == null ? "snapshot" : "delta")
+                    .data(target.payloadSince(subscriber.delivered));
+                send(subscriber, event);
+                subscriber.delivered = target;
+            }
+            if (!subscribers.contains(subscriber)) {
+                // Expulsado por exceder el plazo mientras escribía
+                subscriber.emitter.complete();
+                return;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado o emisor ya completado
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Una instantánea publicada justo después del último envío no debe quedar sin entregar
+        if (current != subscriber.delivered && subscribers.contains(subscriber)) {
+            deliver(subscriber);
+        }
+    }
+    
+    private void heartbeat(Subscriber subscriber) {
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> {
+                try {
+                    send(subscriber, SseEmitter.event().comment("ping"));
+                    if (!subscribers.contains(subscriber)) {
+                        subscriber.emitter.complete();
+                        return;
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.completeWithError(e);
+                    return;
+                } finally {
+                    subscriber.sending.set(false);
+                }
+                // Una instantánea publicada durante el ping no pudo tomar el flag: se entrega ahora
+                if (current != subscriber.delivered && subscribers.contains(subscriber)) {
+                    deliver(subscriber);
+                }
+            });
+        } catch (RuntimeException e) {
+            subscriber.sending.set(false);
+        }
+    }
+    
+    /**
+     * Envía el evento registrando el inicio para que expireStalledSends() pueda vigilar el plazo
+     */
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        synchronized (subscriber) {
+            subscriber.sendStartedNanos = System.nanoTime();
+        }
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            boolean stalled;
+            synchronized (subscriber) {
+                subscriber.sendStartedNanos = 0;
+                stalled = subscriber.stalled;
+                subscriber.stalled = false;
+            }
+            if (stalled) {
+                releaseStalledThread();
+            }
+        }
+    }
+    
+    /**
+     * Saca a los suscriptores cuyo envío lleva más que el plazo. El emisor no se completa aquí:
+     * complete() espera al send bloqueado, así que lo completa el propio hilo al liberarse
+     */
+    private void expireStalledSends() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            boolean expired;
+            synchronized (subscriber) {
+                expired = subscriber.sendStartedNanos != 0 && !subscriber.stalled
+                    && now - subscriber.sendStartedNanos > writeTimeoutNanos;
+                subscriber.stalled |= expired;
+            }
+            if (expired) {
+                subscribers.remove(subscriber);
+                log.warn("Cliente de resultados en vivo expulsado: el envío superó {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                compensateStalledThread();
+            }
+        }
+    }
+    
+    private synchronized void compensateStalledThread() {
+        stalledSends++;
+        resizeSender();
+    }
+    
+    private synchronized void releaseStalledThread() {
+        stalledSends--;
+        resizeSender();
+    }
+    
+    private void resizeSender() {
+        int size = sendThreads + Math.min(stalledSends, maxStalledSends);
+        // El máximo nunca puede quedar por debajo del núcleo
+        if (size > sender.getMaximumPoolSize()) {
+            sender.setMaximumPoolSize(size);
+            sender.setCorePoolSize(size);
+        } else {
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+    
+    private String encode(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al serializar resultados: " + e.getMessage(), e);
+        }
+    }
+    
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Solo lo escribe el hilo que tiene el flag sending
+        private volatile Snapshot delivered;
+        // Inicio del envío en curso (0 = ninguno) y si ya venció su plazo; protegidos por el suscriptor
+        private long sendStartedNanos;
+        private boolean stalled;
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class CandidateCount {
+        private final String id;
+        private final String category;
+        private final long voteCount;
+    }
+    
+    /**
+     * Resultados de un tick. Guarda las diferencias ya codificadas por versión de origen
+     * (0 = instantánea completa)
+     */
+    private final class Snapshot {
+        private final long version;
+        private final Map<String, CandidateCount> counts;
+        private final Map<String, Long> categories;
+        private final long totalVotes;
+        private final long totalVoters;
+        private final double participationRate;
+        private final Map<Long, String> encoded = new ConcurrentHashMap<>();
+        
+        Snapshot(long version, Map<String, CandidateCount> counts, Map<String, Long> categories,
+                 long totalVotes, long totalVoters, double participationRate) {
+            this.version = version;
+            this.counts = counts;
+            this.categories = categories;
+            this.totalVotes = totalVotes;
+            this.totalVoters = totalVoters;
+            this.participationRate = participationRate;
+        }
+        
+        boolean sameCounts(Snapshot other) {
+            return counts.equals(other.counts) && totalVoters == other.totalVoters
+                && participationRate == other.participationRate;
+        }
+        
+        String payloadSince(Snapshot from) {
+            return encoded.computeIfAbsent(from == null ? 0L : from.version, v -> encode(build(from)));
+        }
+        
+        private Map<String, Object> build(Snapshot from) {
+            List<CandidateCount> changed = new ArrayList<>();
+            for (CandidateCount count : counts.values()) {
+                if (from == null || !Objects.equals(from.counts.get(count.getId()), count)) {
+                    changed.add(count);
+                }
+            }
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("version", version);
+            if (from != null) {
+                payload.put("since", from.version);
+            }
+            payload.put("totalVotes", totalVotes);
+            payload.put("totalVoters", totalVoters);
+            payload.put("participationRate", participationRate);
+            payload.put("categories", categories);
+            payload.put("candidates", changed);
+            if (from != null) {
+                // Candidatos eliminados desde la versión de origen
+                List<String> removed = from.counts.keySet().stream().filter(id -> !counts.containsKey(id)).toList();
+                if (!removed.isEmpty()) {
+                    payload.put("removed", removed);
+                }
+            }
+            return payload;
+        }
+    }
+}
@@ -4,6 +4,12 @@ import com.elecciones.config.SupabaseConfig;
 import com.elecciones.model.Candidate;
 import com.elecciones.model.Vote;
 import com.elecciones.model.Voter;
+import com.elecciones.repository.CandidateRepository;
+import com.elecciones.repository.ElectionDataRepository;
+import com.elecciones.repository.VoteRepository;
+import com.elecciones.repository.VoterRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -11,23 +17,38 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+/**
+ * Backend de repositorios sobre la API REST de Supabase (PostgREST).
+ * Se desactiva con el perfil "inmemory".
+ */
 @Service
+@Profile("!inmemory")
 @RequiredArgsConstructor
 @Slf4j
-public class SupabaseService {
+public class SupabaseService implements VoterRepository, CandidateRepository, VoteRepository, ElectionDataRepository {
+    
+    // Columnas de los listados; los textos largos solo se leen en el detalle
+    private static final String CANDIDATE_SUMMARY_COLUMNS = "id,name,photo_url,party_name,party_logo_url,category,vote_count";
     
     private final SupabaseConfig supabaseConfig;
     private final RestTemplate restTemplate;
@@ -60,6 +81,7 @@ public class SupabaseService {
     /**
      * Obtiene todos los votantes (solo para administradores)
      */
+    @Override
     public List<Voter> findAllVoters(String dniFilter) {
         try {
             String url = supabaseConfig.getApiUrl() + "/voters?select=*&order=created_at.desc";
@@ -89,6 +111,7 @@ public class SupabaseService {
         }
     }
     
+    @Override
     public Optional<Voter> findVoterByDni(String dni) {
         try {
             String url = supabaseConfig.getApiUrl() + "/voters?dni=eq." + dni + "&select=*";
@@ -125,6 +148,7 @@ public class SupabaseService {
         }
     }
     
+    @Override
     public Voter saveVoter(Voter voter) {
         try {
             // Usar UPSERT (INSERT ... ON CONFLICT) para manejar votantes existentes
@@ -210,6 +234,7 @@ public class SupabaseService {
         }
     }
     
+    @Override
     public Voter updateVoter(Voter voter) {
         try {
             Map<String, Object> voterMap = voterToMap(voter);
@@ -254,6 +279,7 @@ public class SupabaseService {
         }
     }
     
+    @Override
     public long countVoters() {
         try {
             String url = supabaseConfig.getApiUrl() + "/voters?select=dni";
@@ -274,6 +300,7 @@ public class SupabaseService {
     
     // ========== CANDIDATES ==========
     
+    @Override
     public List<Candidate> findAllCandidates() {
         try {
             String url = supabaseConfig.getApiUrl() + "/candidates?select=*&order=vote_count.desc";
@@ -298,6 +325,7 @@ public class SupabaseService {
         }
     }
     
+    @Override
     public List<Candidate> findCandidatesByCategory(String category) {
         try {
             String url = supabaseConfig.getApiUrl() + "/candidates?select=*&category=eq." + category + "&order=vote_count.desc";
@@ -322,6 +350,43 @@ public class SupabaseService {
         }
     }
     
+    @Override
+    public List<Candidate> findCandidateSummaries() {
+        return findCandidates("/candidates?select=" + CANDIDATE_SUMMARY_COLUMNS + "&order=vote_count.desc",
+            "Error al obtener resumen de candidatos");
+    }
+    
+    @Override
+    public List<Candidate> findCandidateSummariesByCategory(String category) {
+        return findCandidates("/candidates?select=" + CANDIDATE_SUMMARY_COLUMNS + "&category=eq." + category + "&order=vote_count.desc",
+            "Error al obtener resumen de candidatos por categoría");
+    }
+    
+    private List<Candidate> findCandidates(String path, String errorMessage) {
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(
+                supabaseConfig.getApiUrl() + path, Objects.requireNonNull(HttpMethod.GET),
+                new HttpEntity<>(Objects.requireNonNull(createHeaders())), String.class
+            );
+            
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                List<Map<String, Object>> data = objectMapper.readValue(
+                    response.getBody(), new TypeReference<List<Map<String, Object>>>() {}
+                );
+                List<Candidate> candidates = new ArrayList<>();
+                for (Map<String, Object> item : data) {
+                    candidates.add(mapToCandidate(item));
+                }
+                return candidates;
+            }
+            return new ArrayList<>();
+        } catch (Exception e) {
+            log.error("{}: {}", errorMessage, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+    
+    @Override
     public Optional<Candidate> findCandidateById(String id) {
         try {
             if (id == null || id.trim().isEmpty()) {
@@ -358,6 +423,39 @@ public class SupabaseService {
         }
     }
     
+    @Override
+    public List<Candidate> findCandidatesByIds(Collection<String> ids) {
+        List<String> validIds = ids.stream()
+            .filter(id -> id != null && !id.trim().isEmpty())
+            .distinct()
+            .toList();
+        if (validIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            String url = supabaseConfig.getApiUrl() + "/candidates?id=in.(" + String.join(",", validIds) + ")&select=*";
+            ResponseEntity<String> response = restTemplate.exchange(
+                url, Objects.requireNonNull(HttpMethod.GET), new HttpEntity<>(Objects.requireNonNull(createHeaders())), String.class
+            );
+            
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                List<Map<String, Object>> data = objectMapper.readValue(
+                    response.getBody(), new TypeReference<List<Map<String, Object>>>() {}
+                );
+                List<Candidate> candidates = new ArrayList<>();
+                for (Map<String, Object> item : data) {
+                    candidates.add(mapToCandidate(item));
+                }
+                return candidates;
+            }
+            return new ArrayList<>();
+        } catch (Exception e) {
+            log.error("Error al buscar candidatos {}: {}", validIds, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+    
+    @Override
     public Candidate updateCandidate(Candidate candidate) {
         try {
             Map<String, Object> candidateMap = candidateToMap(candidate);
@@ -424,6 +522,7 @@ public class SupabaseService {
     
     // ========== VOTES ==========
     
+    @Override
     public void saveVote(Vote vote) {
         try {
             Map<String, Object> voteMap = voteToMap(vote);
@@ -456,6 +555,82 @@ public class SupabaseService {
         }
     }
     
+    /**
+     * PostgREST inserta el arreglo en una sola transacción: un duplicado rechaza la boleta completa
+     */
+    @Override
+    public void saveVotes(List<Vote> votes) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Vote vote : votes) {
+            rows.add(voteToMap(vote));
+        }
+        try {
+            HttpHeaders headers = createServiceHeaders();
+            headers.set("Prefer", "return=minimal");
+            ResponseEntity<String> response = restTemplate.exchange(
+                supabaseConfig.getApiUrl() + "/votes", Objects.requireNonNull(HttpMethod.POST),
+                new HttpEntity<>(rows, headers), String.class
+            );
+            
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                log.error("Error al guardar votos. Status: {}, Body: {}", response.getStatusCode(), response.getBody());
+                throw new RuntimeException("Error al guardar votos. Status: " + response.getStatusCode());
+            }
+            log.info("{} votos guardados exitosamente", rows.size());
+        } catch (org.springframework.web.client.HttpClientErrorException e) {
+            log.error("Error HTTP al guardar votos: {} - Body: {}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw new RuntimeException("Error al guardar votos: " + e.getResponseBodyAsString(), e);
+        }
+    }
+    
+    /**
+     * Inserta un lote de votos en una sola solicitud.
+     * Los votos que ya existen (mismo voter_dni y categoría) se ignoran, así que
+     * reenviar un lote es seguro. Los errores 4xx se propagan sin envolver para que
+     * el llamador pueda distinguir un rechazo definitivo de una falla transitoria.
+     */
+    @Override
+    public void saveVotesBatch(List<Map<String, Object>> votes) {
+        String url = supabaseConfig.getApiUrl() + "/votes?on_conflict=voter_dni,category";
+        
+        HttpHeaders headers = createServiceHeaders();
+        headers.set("Prefer", "resolution=ignore-duplicates,return=minimal");
+        
+        HttpEntity<List<Map<String, Object>>> request = new HttpEntity<>(votes, headers);
+        ResponseEntity<String> response = restTemplate.exchange(
+            url, Objects.requireNonNull(HttpMethod.POST), request, String.class
+        );
+        
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new RuntimeException("Error al guardar lote de votos. Status: " + response.getStatusCode());
+        }
+        log.info("Lote de {} votos guardado", votes.size());
+    }
+    
+    /**
+     * Marca a los votantes indicados como que ya votaron
+     */
+    @Override
+    public void markVotersAsVoted(Collection<String> dnis) {
+        String url = supabaseConfig.getApiUrl() + "/voters?dni=in.(" + String.join(",", dnis) + ")";
+        
+        Map<String, Object> updateData = new HashMap<>();
+        updateData.put("has_voted", true);
+        updateData.put("voted_at", LocalDateTime.now().toString());
+        
+        HttpHeaders headers = createServiceHeaders();
+        headers.set("Prefer", "return=minimal");
+        
+        ResponseEntity<String> response = restTemplate.exchange(
+            url, Objects.requireNonNull(HttpMethod.PATCH), new HttpEntity<>(updateData, headers), String.class
+        );
+        
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new RuntimeException("Error al marcar votantes. Status: " + response.getStatusCode());
+        }
+    }
+    
+    @Override
     public List<Vote> findVotesByVoterDni(String voterDni) {
         try {
             String url = supabaseConfig.getApiUrl() + "/votes?select=*&voter_dni=eq." + voterDni;
@@ -467,9 +642,11 @@ public class SupabaseService {
                 List<Map<String, Object>> data = objectMapper.readValue(
                     response.getBody(), new TypeReference<List<Map<String, Object>>>() {}
                 );
+                // Los candidatos de todos los votos se piden en una sola consulta
+                Map<String, Candidate> candidates = candidatesById(data);
                 List<Vote> votes = new ArrayList<>();
                 for (Map<String, Object> item : data) {
-                    votes.add(mapToVote(item));
+                    votes.add(mapToVote(item, candidates));
                 }
                 return votes;
             }
@@ -480,6 +657,7 @@ public class SupabaseService {
         }
     }
     
+    @Override
     public long countVotes() {
         try {
             String url = supabaseConfig.getApiUrl() + "/votes?select=id";
@@ -498,6 +676,7 @@ public class SupabaseService {
         }
     }
     
+    @Override
     public long countVotesByCategory(String category) {
         try {
             String url = supabaseConfig.getApiUrl() + "/votes?select=id&category=eq." + category;
@@ -516,6 +695,7 @@ public class SupabaseService {
         }
     }
     
+    @Override
     public long countDistinctVoters() {
         try {
             String url = supabaseConfig.getApiUrl() + "/votes?select=voter_dni";
@@ -544,6 +724,7 @@ public class SupabaseService {
     /**
      * Elimina registros con valores nulos o vacíos
      */
+    @Override
     public int deleteNullValues() {
         int deletedCount = 0;
         try {
@@ -663,6 +844,7 @@ public class SupabaseService {
     /**
      * Elimina votos duplicados (mismo voter_dni y category)
      */
+    @Override
     public int deleteDuplicateVotes() {
         int deletedCount = 0;
         try {
@@ -718,6 +900,7 @@ public class SupabaseService {
     /**
      * Valida DNIs y retorna lista de DNIs inválidos
      */
+    @Override
     public List<String> validateDNIs() {
         List<String> invalidDNIs = new ArrayList<>();
         try {
@@ -776,6 +959,7 @@ public class SupabaseService {
     /**
      * Normaliza datos (nombres, direcciones, etc.)
      */
+    @Override
     public int normalizeData() {
         int normalizedCount = 0;
         try {
@@ -798,7 +982,7 @@ public class SupabaseService {
                     // Normalizar nombre completo
                     String fullName = (String) voter.get("full_name");
                     if (fullName != null) {
-                        String normalized = normalizeString(fullName);
+                        String normalized = TextNormalizer.capitalizeWords(fullName);
                         if (!normalized.equals(fullName)) {
                             updates.put("full_name", normalized);
                             needsUpdate = true;
@@ -819,7 +1003,7 @@ public class SupabaseService {
                     for (String field : new String[]{"district", "province", "department"}) {
                         String value = (String) voter.get(field);
                         if (value != null) {
-                            String normalized = normalizeString(value);
+                            String normalized = TextNormalizer.capitalizeWords(value);
                             if (!normalized.equals(value)) {
                                 updates.put(field, normalized);
                                 needsUpdate = true;
@@ -869,7 +1053,7 @@ public class SupabaseService {
                     // Normalizar nombre
                     String name = (String) candidate.get("name");
                     if (name != null) {
-                        String normalized = normalizeString(name);
+                        String normalized = TextNormalizer.capitalizeWords(name);
                         if (!normalized.equals(name)) {
                             updates.put("name", normalized);
                             needsUpdate = true;
@@ -917,75 +1101,31 @@ public class SupabaseService {
         return normalizedCount;
     }
     
-    /**
-     * Normaliza un string (capitaliza palabras)
-     */
-    private String normalizeString(String str) {
-        if (str == null || str.trim().isEmpty()) {
-            return str;
-        }
-        String[] words = str.trim().split("\\s+");
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < words.length; i++) {
-            if (i > 0) result.append(" ");
-            if (!words[i].isEmpty()) {
-                result.append(words[i].substring(0, 1).toUpperCase())
-                      .append(words[i].substring(1).toLowerCase());
-            }
-        }
-        return result.toString();
-    }
-    
     /**
      * Invalida los votos de un votante (marca candidate_id como NULL)
      */
+    @Override
     public int invalidarVotos(String voterDni) {
         try {
-            // Obtener todos los votos del votante directamente desde Supabase
-            String url = supabaseConfig.getApiUrl() + "/votes?select=id,candidate_id&voter_dni=eq." + voterDni;
+            // Un solo PATCH sobre los votos del votante que aún tienen candidato
+            String url = supabaseConfig.getApiUrl() + "/votes?voter_dni=eq." + voterDni + "&candidate_id=not.is.null";
+            
+            Map<String, Object> updateData = new HashMap<>();
+            updateData.put("candidate_id", null);
+            
+            HttpHeaders headers = createServiceHeaders();
+            headers.set("Prefer", "return=representation");
+            
             ResponseEntity<String> response = restTemplate.exchange(
-                url, Objects.requireNonNull(HttpMethod.GET), 
-                new HttpEntity<>(Objects.requireNonNull(createServiceHeaders())), String.class
+                url, Objects.requireNonNull(HttpMethod.PATCH), new HttpEntity<>(updateData, headers), String.class
             );
             
             int invalidatedCount = 0;
-            
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                List<Map<String, Object>> votes = objectMapper.readValue(
+                List<Map<String, Object>> invalidated = objectMapper.readValue(
                     response.getBody(), new TypeReference<List<Map<String, Object>>>() {}
                 );
-                
-                for (Map<String, Object> voteData : votes) {
-                    String voteId = (String) voteData.get("id");
-                    String candidateId = (String) voteData.get("candidate_id");
-                    
-                    // Solo invalidar si tiene candidate_id (no es NULL)
-                    if (candidateId != null && !candidateId.trim().isEmpty()) {
-                        // Actualizar el voto para poner candidate_id como NULL
-                        String updateUrl = supabaseConfig.getApiUrl() + "/votes?id=eq." + voteId;
-                        
-                        Map<String, Object> updateData = new HashMap<>();
-                        updateData.put("candidate_id", null);
-                        
-                        HttpHeaders headers = createServiceHeaders();
-                        headers.set("Prefer", "return=representation");
-                        
-                        HttpEntity<Map<String, Object>> request = new HttpEntity<>(updateData, headers);
-                        
-                        try {
-                            ResponseEntity<String> updateResponse = restTemplate.exchange(
-                                updateUrl, Objects.requireNonNull(HttpMethod.PATCH), request, String.class
-                            );
-                            
-                            if (updateResponse.getStatusCode().is2xxSuccessful()) {
-                                invalidatedCount++;
-                                log.info("Voto invalidado: {}", voteId);
-                            }
-                        } catch (Exception e) {
-                            log.error("Error al invalidar voto {}: {}", voteId, e.getMessage());
-                        }
-                    }
-                }
+                invalidatedCount = invalidated.size();
             }
             
             log.info("Invalidados {} votos para DNI: {}", invalidatedCount, voterDni);
@@ -998,7 +1138,8 @@ public class SupabaseService {
     
     // ========== MAPPER METHODS ==========
     
-    private Voter mapToVoter(Map<String, Object> data) {
+    // Los mappers son visibles en el paquete para los benchmarks de src/perf
+    Voter mapToVoter(Map<String, Object> data) {
         Voter voter = new Voter();
         voter.setDni((String) data.get("dni"));
         voter.setFullName((String) data.get("full_name"));
@@ -1041,7 +1182,7 @@ public class SupabaseService {
         return map;
     }
     
-    private Candidate mapToCandidate(Map<String, Object> data) {
+    Candidate mapToCandidate(Map<String, Object> data) {
         Candidate candidate = new Candidate();
         candidate.setId((String) data.get("id"));
         candidate.setName((String) data.get("name"));
@@ -1084,7 +1225,11 @@ public class SupabaseService {
         return map;
     }
     
-    private Vote mapToVote(Map<String, Object> data) {
+    Vote mapToVote(Map<String, Object> data) {
+        return mapToVote(data, candidatesById(List.of(data)));
+    }
+    
+    private Vote mapToVote(Map<String, Object> data, Map<String, Candidate> candidates) {
         Vote vote = new Vote();
         vote.setId((String) data.get("id"));
         vote.setVoterDni((String) data.get("voter_dni"));
@@ -1092,11 +1237,11 @@ public class SupabaseService {
         // Mapear candidate_id si existe
         String candidateId = (String) data.get("candidate_id");
         if (candidateId != null && !candidateId.trim().isEmpty()) {
-            try {
-                Optional<Candidate> candidate = findCandidateById(candidateId);
-                candidate.ifPresent(vote::setCandidate);
-            } catch (Exception e) {
-                log.warn("Error al obtener candidato para voto: {}", e.getMessage());
+            Candidate candidate = candidates.get(candidateId);
+            if (candidate != null) {
+                vote.setCandidate(candidate);
+            } else {
+                log.warn("Candidato {} del voto {} no encontrado", candidateId, data.get("id"));
             }
         }
         
@@ -1122,11 +1267,30 @@ public class SupabaseService {
         return vote;
     }
     
+    /**
+     * Candidatos referenciados por las filas de votos, indexados por id
+     */
+    private Map<String, Candidate> candidatesById(List<Map<String, Object>> voteRows) {
+        List<String> ids = new ArrayList<>();
+        for (Map<String, Object> row : voteRows) {
+            Object candidateId = row.get("candidate_id");
+            if (candidateId != null) {
+                ids.add(candidateId.toString());
+            }
+        }
+        Map<String, Candidate> candidates = new HashMap<>();
+        for (Candidate candidate : findCandidatesByIds(ids)) {
+            candidates.put(candidate.getId(), candidate);
+        }
+        return candidates;
+    }
+    
     // ========== TRAINING DATA METHODS ==========
     
     /**
      * Obtiene votos agrupados por fecha para análisis de tendencias
      */
+    @Override
     public List<Map<String, Object>> getVotesByDate() {
         try {
             String url = supabaseConfig.getApiUrl() + "/votes?select=voted_at&order=voted_at.asc";
@@ -1140,33 +1304,7 @@ public class SupabaseService {
                     response.getBody(), new TypeReference<List<Map<String, Object>>>() {}
                 );
                 
-                // Agrupar por fecha
-                Map<String, Integer> votesByDate = new HashMap<>();
-                for (Map<String, Object> vote : votes) {
-                    Object votedAtObj = vote.get("voted_at");
-                    if (votedAtObj != null) {
-                        String votedAtStr = votedAtObj.toString();
-                        try {
-                            LocalDateTime votedAt = LocalDateTime.parse(votedAtStr.replace("Z", "").replace("+00:00", ""));
-                            String dateKey = votedAt.toLocalDate().toString();
-                            votesByDate.put(dateKey, votesByDate.getOrDefault(dateKey, 0) + 1);
-                        } catch (Exception e) {
-                            log.warn("Error al parsear fecha: {}", votedAtStr);
-                        }
-                    }
-                }
-                
-                // Convertir a lista ordenada
-                List<Map<String, Object>> result = new ArrayList<>();
-                for (Map.Entry<String, Integer> entry : votesByDate.entrySet()) {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("date", entry.getKey());
-                    item.put("count", entry.getValue());
-                    result.add(item);
-                }
-                
-                result.sort((a, b) -> ((String) a.get("date")).compareTo((String) b.get("date")));
-                return result;
+                return ElectionAnalytics.votesByDate(votes);
             }
             return new ArrayList<>();
         } catch (Exception e) {
@@ -1178,6 +1316,7 @@ public class SupabaseService {
     /**
      * Analiza votos para detectar anomalías
      */
+    @Override
     public Map<String, Object> detectAnomalies() {
         Map<String, Object> result = new HashMap<>();
         try {
@@ -1192,121 +1331,7 @@ public class SupabaseService {
                     response.getBody(), new TypeReference<List<Map<String, Object>>>() {}
                 );
                 
-                // Detectar votos duplicados
-                Map<String, Integer> voterCategoryCount = new HashMap<>();
-                int duplicateVotes = 0;
-                for (Map<String, Object> vote : votes) {
-                    String voterDni = (String) vote.get("voter_dni");
-                    String category = (String) vote.get("category");
-                    if (voterDni != null && category != null) {
-                        String key = voterDni + "_" + category;
-                        int count = voterCategoryCount.getOrDefault(key, 0);
-                        if (count > 0) {
-                            duplicateVotes++;
-                        }
-                        voterCategoryCount.put(key, count + 1);
-                    }
-                }
-                
-                // Detectar votos fuera de horario (8am a 6pm)
-                int outOfHoursVotes = 0;
-                for (Map<String, Object> vote : votes) {
-                    Object votedAtObj = vote.get("voted_at");
-                    if (votedAtObj != null) {
-                        try {
-                            String votedAtStr = votedAtObj.toString();
-                            LocalDateTime votedAt = LocalDateTime.parse(votedAtStr.replace("Z", "").replace("+00:00", ""));
-                            int hour = votedAt.getHour();
-                            if (hour < 8 || hour >= 18) {
-                                outOfHoursVotes++;
-                            }
-                        } catch (Exception e) {
-                            // Ignorar errores de parsing
-                        }
-                    }
-                }
-                
-                // Detectar votos masivos en corto tiempo (mismo DNI en menos de 5 minutos)
-                Map<String, List<LocalDateTime>> voterTimes = new HashMap<>();
-                for (Map<String, Object> vote : votes) {
-                    String voterDni = (String) vote.get("voter_dni");
-                    Object votedAtObj = vote.get("voted_at");
-                    if (voterDni != null && votedAtObj != null) {
-                        try {
-                            String votedAtStr = votedAtObj.toString();
-                            LocalDateTime votedAt = LocalDateTime.parse(votedAtStr.replace("Z", "").replace("+00:00", ""));
-                            voterTimes.computeIfAbsent(voterDni, k -> new ArrayList<>()).add(votedAt);
-                        } catch (Exception e) {
-                            // Ignorar
-                        }
-                    }
-                }
-                
-                int rapidVotes = 0;
-                for (List<LocalDateTime> times : voterTimes.values()) {
-                    times.sort(LocalDateTime::compareTo);
-                    for (int i = 1; i < times.size(); i++) {
-                        long minutesBetween = java.time.Duration.between(times.get(i-1), times.get(i)).toMinutes();
-                        if (minutesBetween < 5) {
-                            rapidVotes++;
-                        }
-                    }
-                }
-                
-                List<Map<String, Object>> anomalies = new ArrayList<>();
-                if (duplicateVotes > 0) {
-                    Map<String, Object> anomaly = new HashMap<>();
-                    anomaly.put("type", "Votos duplicados");
-                    anomaly.put("count", duplicateVotes);
-                    anomaly.put("severity", duplicateVotes > 10 ? "high" : duplicateVotes > 5 ? "medium" : "low");
-                    anomalies.add(anomaly);
-                }
-                if (outOfHoursVotes > 0) {
-                    Map<String, Object> anomaly = new HashMap<>();
-                    anomaly.put("type", "Votaciones fuera de horario");
-                    anomaly.put("count", outOfHoursVotes);
-                    anomaly.put("severity", outOfHoursVotes > 20 ? "high" : outOfHoursVotes > 10 ? "medium" : "low");
-                    anomalies.add(anomaly);
-                }
-                if (rapidVotes > 0) {
-                    Map<String, Object> anomaly = new HashMap<>();
-                    anomaly.put("type", "Votación masiva en corto tiempo");
-                    anomaly.put("count", rapidVotes);
-                    anomaly.put("severity", rapidVotes > 15 ? "high" : rapidVotes > 8 ? "medium" : "low");
-                    anomalies.add(anomaly);
-                }
-                
-                // Generar patrones basados en las anomalías
-                List<Map<String, Object>> patterns = new ArrayList<>();
-                for (Map<String, Object> anomaly : anomalies) {
-                    String type = (String) anomaly.get("type");
-                    int count = (Integer) anomaly.get("count");
-                    
-                    Map<String, Object> pattern = new HashMap<>();
-                    pattern.put("pattern", type);
-                    pattern.put("frequency", count);
-                    
-                    switch (type) {
-                        case "Votos duplicados":
-                            pattern.put("description", "Múltiples votos del mismo votante en la misma categoría");
-                            break;
-                        case "Votaciones fuera de horario":
-                            pattern.put("description", "Votos registrados fuera del horario normal (8am-6pm)");
-                            break;
-                        case "Votación masiva en corto tiempo":
-                            pattern.put("description", "Múltiples votos desde la misma IP o DNI en menos de 5 minutos");
-                            break;
-                        default:
-                            pattern.put("description", "Patrón inusual detectado en los datos");
-                    }
-                    patterns.add(pattern);
-                }
-                
-                result.put("anomalies", anomalies);
-                result.put("anomalyPatterns", patterns);
-                result.put("totalVotes", votes.size());
-                // Incluir datos completos de votos para entrenamiento ML
-                result.put("rawVotes", votes);
+                result.putAll(ElectionAnalytics.detectAnomalies(votes));
             }
         } catch (Exception e) {
             log.error("Error al detectar anomalías: {}", e.getMessage(), e);
@@ -1317,6 +1342,7 @@ public class SupabaseService {
     /**
      * Obtiene datos de participación por región y demografía
      */
+    @Override
     public Map<String, Object> getParticipationData() {
         Map<String, Object> result = new HashMap<>();
         try {
@@ -1344,62 +1370,7 @@ public class SupabaseService {
                     votesResponse.getBody(), new TypeReference<List<Map<String, Object>>>() {}
                 );
                 
-                // Crear set de DNIs que votaron
-                java.util.Set<String> votedDnis = new java.util.HashSet<>();
-                for (Map<String, Object> vote : votes) {
-                    String voterDni = (String) vote.get("voter_dni");
-                    if (voterDni != null) {
-                        votedDnis.add(voterDni);
-                    }
-                }
-                
-                // Agrupar por departamento
-                Map<String, Integer> totalByDepartment = new HashMap<>();
-                Map<String, Integer> votedByDepartment = new HashMap<>();
-                
-                for (Map<String, Object> voter : voters) {
-                    String department = (String) voter.get("department");
-                    String dni = (String) voter.get("dni");
-                    if (department != null && dni != null) {
-                        totalByDepartment.put(department, totalByDepartment.getOrDefault(department, 0) + 1);
-                        if (votedDnis.contains(dni)) {
-                            votedByDepartment.put(department, votedByDepartment.getOrDefault(department, 0) + 1);
-                        }
-                    }
-                }
-                
-                // Calcular tasas de participación
-                Map<String, Map<String, Object>> participationByRegion = new HashMap<>();
-                for (String department : totalByDepartment.keySet()) {
-                    int total = totalByDepartment.get(department);
-                    int voted = votedByDepartment.getOrDefault(department, 0);
-                    double rate = total > 0 ? (voted * 100.0 / total) : 0;
-                    
-                    Map<String, Object> data = new HashMap<>();
-                    data.put("predicted", Math.round(rate * 10) / 10.0);
-                    data.put("actual", Math.round(rate * 10) / 10.0);
-                    data.put("demographic", "Mixto");
-                    participationByRegion.put(department, data);
-                }
-                
-                // Calcular participación por demografía (simplificado)
-                Map<String, Double> participationByDemographic = new HashMap<>();
-                int totalVoters = voters.size();
-                int totalVoted = votedDnis.size();
-                if (totalVoters > 0) {
-                    double overallRate = (totalVoted * 100.0) / totalVoters;
-                    participationByDemographic.put("18-30 años", Math.round((overallRate * 0.9) * 10) / 10.0);
-                    participationByDemographic.put("31-50 años", Math.round((overallRate * 1.1) * 10) / 10.0);
-                    participationByDemographic.put("51-70 años", Math.round((overallRate * 1.05) * 10) / 10.0);
-                    participationByDemographic.put("70+ años", Math.round((overallRate * 0.85) * 10) / 10.0);
-                    participationByDemographic.put("Urbano", Math.round((overallRate * 1.05) * 10) / 10.0);
-                    participationByDemographic.put("Rural", Math.round((overallRate * 0.95) * 10) / 10.0);
-                }
-                
-                result.put("participationByRegion", participationByRegion);
-                result.put("participationByDemographic", participationByDemographic);
-                result.put("totalVoters", totalVoters);
-                result.put("totalVoted", totalVoted);
+                result.putAll(ElectionAnalytics.participation(voters, votes));
             }
         } catch (Exception e) {
             log.error("Error al obtener datos de participación: {}", e.getMessage(), e);
@@ -1407,6 +1378,99 @@ public class SupabaseService {
         return result;
     }
     
+    // ========== MIGRATION ==========
+    
+    /**
+     * Páginas con keyset (order=clave.asc y clave=gt.última) para que cada página cueste lo
+     * mismo sin importar cuántas filas quedan atrás. El cuerpo de cada página se lee como
+     * stream y las filas se entregan una a una.
+     */
+    @Override
+    public void forEachRow(String table, int pageSize, Consumer<Map<String, Object>> consumer) {
+        String key = primaryKey(table);
+        String after = null;
+        long total = 0;
+        try {
+            while (true) {
+                String url = supabaseConfig.getApiUrl() + "/" + table + "?select=*&order=" + key + ".asc&limit=" + pageSize
+                    + (after != null ? "&" + key + "=gt." + after : "");
+                RowPage page = restTemplate.execute(url, Objects.requireNonNull(HttpMethod.GET),
+                    request -> request.getHeaders().putAll(createServiceHeaders()),
+                    response -> readRows(response.getBody(), key, consumer));
+                if (page == null || page.rows == 0) {
+                    break;
+                }
+                total += page.rows;
+                if (page.rows < pageSize) {
+                    break;
+                }
+                after = page.lastKey;
+            }
+            log.debug("Tabla {} recorrida: {} filas", table, total);
+        } catch (RuntimeException e) {
+            log.error("Error al recorrer la tabla {} después de {} filas: {}", table, total, e.getMessage(), e);
+            throw new RuntimeException("Error al leer la tabla " + table + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private RowPage readRows(InputStream body, String key, Consumer<Map<String, Object>> consumer) throws IOException {
+        RowPage page = new RowPage();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Se esperaba un arreglo de filas");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Map<String, Object> row = parser.readValueAs(new TypeReference<Map<String, Object>>() {});
+                page.rows++;
+                page.lastKey = Objects.toString(row.get(key), null);
+                consumer.accept(row);
+            }
+        }
+        return page;
+    }
+    
+    private static final class RowPage {
+        private int rows;
+        private String lastKey;
+    }
+    
+    /**
+     * POST con on_conflict sobre la clave primaria y resolution=merge-duplicates. columns lista
+     * las claves de todas las filas, así no hace falta que cada fila traiga las mismas.
+     */
+    @Override
+    public void upsertRows(String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        rows.forEach(row -> columns.addAll(row.keySet()));
+        String url = supabaseConfig.getApiUrl() + "/" + table + "?on_conflict=" + primaryKey(table)
+            + "&columns=" + String.join(",", columns);
+        
+        HttpHeaders headers = createServiceHeaders();
+        headers.set("Prefer", "resolution=merge-duplicates,return=minimal");
+        try {
+            restTemplate.exchange(url, Objects.requireNonNull(HttpMethod.POST), new HttpEntity<>(rows, headers), String.class);
+        } catch (org.springframework.web.client.HttpClientErrorException e) {
+            // Solo un error de los datos rechaza las filas; credenciales (401/403), timeout o throttling
+            // no dicen nada de ellas y se propagan tal cual para reintentar o detener la carga
+            int status = e.getStatusCode().value();
+            if (status == 400 || status == 409 || status == 422) {
+                throw new IllegalArgumentException("Lote rechazado en " + table + ": " + e.getResponseBodyAsString(), e);
+            }
+            throw e;
+        }
+    }
+    
+    private static String primaryKey(String table) {
+        return switch (table) {
+            case "voters" -> "dni";
+            case "candidates", "votes" -> "id";
+            default -> throw new IllegalArgumentException("Tabla desconocida: " + table);
+        };
+    }
+    
     private Map<String, Object> voteToMap(Vote vote) {
         Map<String, Object> map = new HashMap<>();
         map.put("voter_dni", vote.getVoterDni());
@@ -0,0 +1,70 @@
+package com.elecciones.service;
+
+import java.text.Normalizer;
+
+/**
+ * Normalización de textos de votantes y candidatos
+ */
+public final class TextNormalizer {
+    
+    private static final char[] FOLD = new char[0x250];
+    
+    static {
+        for (char c = 0; c < FOLD.length; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            FOLD[c] = Character.toLowerCase(decomposed.charAt(0));
+        }
+    }
+    
+    private TextNormalizer() {
+    }
+    
+    /**
+     * Minúscula sin tilde ni diéresis ("Á" -> 'a', "ñ" -> 'n'); fuera del rango latino solo pasa a minúscula
+     */
+    public static char fold(char c) {
+        return c < FOLD.length ? FOLD[c] : Character.toLowerCase(c);
+    }
+    
+    /**
+     * Clave de comparación: cada carácter plegado con fold(char), espacios colapsados y sin
+     * espacios en los extremos ("  Juan  Pérez " -> "juan perez")
+     */
+    public static String fold(String str) {
+        StringBuilder folded = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            char c = fold(str.charAt(i));
+            if (Character.isWhitespace(c)) {
+                if (folded.length() == 0 || folded.charAt(folded.length() - 1) == ' ') {
+                    continue;
+                }
+                c = ' ';
+            }
+            folded.append(c);
+        }
+        int end = folded.length();
+        while (end > 0 && folded.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return folded.substring(0, end);
+    }
+    
+    /**
+     * Normaliza un string (capitaliza palabras)
+     */
+    public static String capitalizeWords(String str) {
+        if (str == null || str.trim().isEmpty()) {
+            return str;
+        }
+        String[] words = str.trim().split("\\s+");
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) result.append(" ");
+            if (!words[i].isEmpty()) {
+                result.append(words[i].substring(0, 1).toUpperCase())
+                      .append(words[i].substring(1).toLowerCase());
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,301 @@
+package com.elecciones.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emite y verifica tokens HS256 sin estado en servidor.
+ * La validez depende solo de la firma y del claim "exp", por lo que cualquier
+ * nodo con el mismo jwt.secret puede verificarlos.
+ */
+@Service
+@Slf4j
+public class TokenService {
+    
+    public static final String ROLE_ADMIN = "admin";
+    public static final String ROLE_SUPERADMIN = "superadmin";
+    
+    private static final String HEADER = Base64.getUrlEncoder().withoutPadding()
+        .encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int MAX_TOKEN_LENGTH = 1024;
+    
+    private final byte[] secret;
+    private final long expirationMillis;
+    private final int maxRevokedTokens;
+    
+    // Firma del token -> instante de expiración; solo vive hasta que el token expira
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    
+    // Mac y buffers reutilizados por hilo para que verify() no asigne memoria en el camino feliz
+    private final ThreadLocal<Verifier> verifiers = ThreadLocal.withInitial(this::newVerifier);
+    
+    public TokenService(@Value("${jwt.secret}") String jwtSecret,
+                        @Value("${jwt.expiration:86400000}") long expirationMillis,
+                        @Value("${jwt.max-revoked-tokens:10000}") int maxRevokedTokens) {
+        this.secret = jwtSecret.getBytes(StandardCharsets.UTF_8);
+        this.expirationMillis = expirationMillis;
+        this.maxRevokedTokens = maxRevokedTokens;
+    }
+    
+    /**
+     * Genera un token firmado para el email y rol indicados
+     */
+    public String issue(String email, String role) {
+        long expiration = System.currentTimeMillis() + expirationMillis;
+        String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            String.format("{\"email\":\"%s\",\"exp\":%d,\"role\":\"%s\"}", email, expiration, role)
+                .getBytes(StandardCharsets.UTF_8)
+        );
+        String data = HEADER + "." + payload;
+        
+        Verifier verifier = verifiers.get();
+        byte[] signature = verifier.mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        return data + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+    
+    /**
+     * Verifica firma, expiración y revocación. Devuelve null si el token no es válido.
+     */
+    public TokenClaims verify(String token) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+        
+        Verifier verifier = verifiers.get();
+        try {
+            // Firma esperada sobre "header.payload"
+            byte[] data = verifier.ascii(token, secondDot);
+            verifier.mac.update(data, 0, secondDot);
+            verifier.mac.doFinal(verifier.expected, 0);
+        } catch (Exception e) {
+            log.warn("Error al calcular firma del token: {}", e.getMessage());
+            return null;
+        }
+        
+        int sigLength = decodeBase64Url(token, secondDot + 1, token.length(), verifier.scratch);
+        if (sigLength != SIGNATURE_LENGTH || !constantTimeEquals(verifier.expected, verifier.scratch, SIGNATURE_LENGTH)) {
+            return null;
+        }
+        
+        int payloadLength = decodeBase64Url(token, firstDot + 1, secondDot, verifier.scratch);
+        if (payloadLength < 0) {
+            return null;
+        }
+        
+        long expiration = readLongClaim(verifier.scratch, payloadLength, EXP_KEY);
+        if (expiration <= 0 || System.currentTimeMillis() > expiration) {
+            return null;
+        }
+        
+        if (!revokedTokens.isEmpty() && isRevoked(token, secondDot)) {
+            return null;
+        }
+        
+        String role = readStringClaim(verifier.scratch, payloadLength, ROLE_KEY);
+        String email = readStringClaim(verifier.scratch, payloadLength, EMAIL_KEY);
+        return new TokenClaims(email, role, expiration);
+    }
+    
+    /**
+     * Revoca un token válido hasta su expiración natural
+     */
+    public boolean revoke(String token) {
+        TokenClaims claims = verify(token);
+        if (claims == null) {
+            return false;
+        }
+        if (revokedTokens.size() >= maxRevokedTokens && purgeExpiredRevocations() == 0) {
+            // Las revocaciones vigentes no se descartan: un logout nunca debe deshacerse
+            log.warn("Se superó el máximo de {} tokens revocados vigentes", maxRevokedTokens);
+        }
+        // La verificación ya rechazó firmas no canónicas, así que el texto identifica a la firma
+        revokedTokens.put(token.substring(token.lastIndexOf('.') + 1), claims.getExpiresAt());
+        log.info("Token revocado para {} ({})", claims.getEmail(), claims.getRole());
+        return true;
+    }
+    
+    /**
+     * Elimina revocaciones de tokens que ya expiraron por sí solos
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-purge-ms:60000}")
+    public int purgeExpiredRevocations() {
+        long now = System.currentTimeMillis();
+        int before = revokedTokens.size();
+        revokedTokens.values().removeIf(expiration -> expiration < now);
+        return before - revokedTokens.size();
+    }
+    
+    /**
+     * Indica si el token fue revocado explícitamente
+     */
+    public boolean isRevoked(String token) {
+        return !revokedTokens.isEmpty() && token != null && isRevoked(token, token.lastIndexOf('.'));
+    }
+    
+    public int getRevokedCount() {
+        return revokedTokens.size();
+    }
+    
+    private boolean isRevoked(String token, int secondDot) {
+        String signature = token.substring(secondDot + 1);
+        Long expiration = revokedTokens.get(signature);
+        if (expiration == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() > expiration) {
+            revokedTokens.remove(signature);
+        }
+        return true;
+    }
+    
+    private Verifier newVerifier() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return new Verifier(mac);
+        } catch (Exception e) {
+            throw new IllegalStateException("HmacSHA256 no disponible: " + e.getMessage(), e);
+        }
+    }
+    
+    // ========== DECODING HELPERS ==========
+    
+    private static final byte[] EXP_KEY = "\"exp\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ROLE_KEY = "\"role\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMAIL_KEY = "\"email\":\"".getBytes(StandardCharsets.US_ASCII);
+    
+    private static final int[] BASE64_URL = new int[128];
+    static {
+        java.util.Arrays.fill(BASE64_URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = i;
+        }
+    }
+    
+    /**
+     * Decodifica base64url sin padding en out. Devuelve -1 si la entrada es inválida o no es
+     * canónica (bits sobrantes del último carácter distintos de cero): de lo contrario varias
+     * grafías del mismo token pasarían la verificación y esquivarían la revocación.
+     */
+    private static int decodeBase64Url(String src, int from, int to, byte[] out) {
+        int length = 0;
+        int buffer = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = src.charAt(i);
+            int value = c < 128 ? BASE64_URL[c] : -1;
+            if (value < 0 || length >= out.length) {
+                return -1;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[length++] = (byte) (buffer >> bits);
+            }
+        }
+        if (bits >= 6 || (buffer & ((1 << bits) - 1)) != 0) {
+            return -1;
+        }
+        return length;
+    }
+    
+    private static boolean constantTimeEquals(byte[] a, byte[] b, int length) {
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+    
+    private static int indexOf(byte[] data, int length, byte[] key) {
+        outer:
+        for (int i = 0; i <= length - key.length; i++) {
+            for (int j = 0; j < key.length; j++) {
+                if (data[i + j] != key[j]) {
+                    continue outer;
+                }
+            }
+            return i + key.length;
+        }
+        return -1;
+    }
+    
+    private static long readLongClaim(byte[] data, int length, byte[] key) {
+        int pos = indexOf(data, length, key);
+        if (pos < 0) {
+            return -1;
+        }
+        long value = 0;
+        int digits = 0;
+        while (pos < length && data[pos] >= '0' && data[pos] <= '9' && digits < 18) {
+            value = value * 10 + (data[pos++] - '0');
+            digits++;
+        }
+        return digits > 0 ? value : -1;
+    }
+    
+    private static String readStringClaim(byte[] data, int length, byte[] key) {
+        int start = indexOf(data, length, key);
+        if (start < 0) {
+            return null;
+        }
+        int end = start;
+        while (end < length && data[end] != '"') {
+            end++;
+        }
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+    
+    private static final class Verifier {
+        private final Mac mac;
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private final byte[] scratch = new byte[MAX_TOKEN_LENGTH];
+        private final byte[] ascii = new byte[MAX_TOKEN_LENGTH];
+        
+        private Verifier(Mac mac) {
+            this.mac = mac;
+        }
+        
+        private byte[] ascii(String token, int length) {
+            for (int i = 0; i < length; i++) {
+                ascii[i] = (byte) token.charAt(i);
+            }
+            return ascii;
+        }
+    }
+    
+    /**
+     * Claims extraídos de un token verificado
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class TokenClaims {
+        private final String email;
+        private final String role;
+        private final long expiresAt;
+        
+        public boolean hasRole(String expectedRole) {
+            return expectedRole.equals(role);
+        }
+    }
+}
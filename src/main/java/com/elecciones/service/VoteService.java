@@ -1,14 +1,26 @@
 package com.elecciones.service;
 
+import com.elecciones.audit.AuditEventType;
+import com.elecciones.audit.AuditLog;
 import com.elecciones.dto.VoteRequest;
+import com.elecciones.geo.GeoRollup;
 import com.elecciones.model.Candidate;
 import com.elecciones.model.Vote;
 import com.elecciones.model.Voter;
+import com.elecciones.repository.CandidateRepository;
+import com.elecciones.repository.VoteRepository;
+import com.elecciones.repository.VoterRepository;
+import com.elecciones.wal.BallotRecord;
+import com.elecciones.wal.WriteBehindVoteStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,7 +28,13 @@ import java.util.stream.Collectors;
 @Slf4j
 public class VoteService {
     
-    private final SupabaseService supabaseService;
+    private final VoterRepository voterRepository;
+    private final CandidateRepository candidateRepository;
+    private final VoteRepository voteRepository;
+    // Presente solo con votes.write-behind.enabled=true
+    private final Optional<WriteBehindVoteStore> writeBehind;
+    private final AuditLog auditLog;
+    private final GeoRollup geoRollup;
     
     /**
      * Registra los votos de un votante
@@ -30,11 +48,28 @@ public class VoteService {
         }
         
         // Verificar que el votante existe
-        Voter voter = supabaseService.findVoterByDni(voterDni)
+        Voter voter = voterRepository.findVoterByDni(voterDni)
             .orElseThrow(() -> new RuntimeException("Votante no encontrado con DNI: " + voterDni));
         
         // Obtener categorías ya votadas
         List<String> categoriasVotadas = obtenerCategoriasVotadas(voterDni);
+        boolean primeraBoleta = categoriasVotadas.isEmpty();
+        List<BallotRecord.Selection> boleta = new ArrayList<>();
+        List<Vote> votos = new ArrayList<>();
+        
+        // Una boleta repetida se rechaza antes de consultar sus candidatos
+        for (VoteRequest.VoteSelection selection : voteRequest.getSelections()) {
+            String categoria = selection.getCategory().toLowerCase();
+            if (categoriasVotadas.contains(categoria)) {
+                throw new IllegalStateException("Ya has votado en la categoría: " + categoria);
+            }
+        }
+        
+        // Candidatos de la boleta en una sola consulta
+        Map<String, Candidate> candidatos = candidateRepository.findCandidatesByIds(
+                voteRequest.getSelections().stream().map(VoteRequest.VoteSelection::getCandidateId).toList())
+            .stream()
+            .collect(Collectors.toMap(Candidate::getId, candidate -> candidate));
         
         // Procesar cada selección
         for (VoteRequest.VoteSelection selection : voteRequest.getSelections()) {
@@ -42,12 +77,11 @@ public class VoteService {
             
             // Verificar que no haya votado ya en esta categoría
             if (categoriasVotadas.contains(categoria)) {
-                throw new RuntimeException("Ya has votado en la categoría: " + categoria);
+                throw new IllegalStateException("Ya has votado en la categoría: " + categoria);
             }
             
             // Obtener candidato
-            log.info("Buscando candidato con ID: {}", selection.getCandidateId());
-            Candidate candidate = supabaseService.findCandidateById(selection.getCandidateId())
+            Candidate candidate = Optional.ofNullable(candidatos.get(selection.getCandidateId()))
                 .orElseThrow(() -> new RuntimeException("Candidato no encontrado con ID: " + selection.getCandidateId()));
             
             log.info("Candidato encontrado: {} - Categoría: {}", candidate.getName(), candidate.getCategory());
@@ -67,42 +101,69 @@ public class VoteService {
             vote.setCandidate(candidate);
             vote.setCategory(convertToVoteCategory(category));
             
-            log.info("Guardando voto para DNI: {}, Candidato: {}, Categoría: {}", 
-                voterDni, candidate.getName(), category);
-            
-            try {
-                supabaseService.saveVote(vote);
-                log.info("Voto guardado exitosamente");
-            } catch (Exception e) {
-                log.error("Error al guardar voto: {}", e.getMessage(), e);
-                // Verificar si es un error de restricción UNIQUE
-                if (e.getMessage() != null && e.getMessage().contains("UNIQUE") || 
-                    e.getMessage() != null && e.getMessage().contains("duplicate")) {
-                    throw new RuntimeException("Ya has votado en esta categoría: " + categoria);
-                }
-                throw new RuntimeException("Error al guardar voto: " + e.getMessage());
+            // La boleta completa se escribe en el WAL al final y se suma a los resultados geográficos
+            boleta.add(new BallotRecord.Selection(candidate.getId(), convertCategoryToString(vote.getCategory())));
+            if (writeBehind.isEmpty()) {
+                votos.add(vote);
             }
             
-            // NOTA: El vote_count se actualiza automáticamente por el trigger en Supabase
-            // No es necesario actualizarlo manualmente
-            log.debug("Voto guardado. El trigger de Supabase actualizará automáticamente el vote_count del candidato.");
-            
-            // Agregar a la lista de categorías votadas para evitar duplicados en la misma transacción
+            // Agregar a la lista de categorías votadas para evitar duplicados en la misma boleta
             categoriasVotadas.add(categoria);
         }
         
+        // Se reserva antes de escribir para que una reconstrucción en curso no la cuente dos veces
+        GeoRollup.Pending resultados = geoRollup.ballot(voter, boleta, primeraBoleta);
+        if (writeBehind.isPresent()) {
+            try {
+                // El envío a Supabase y la marca de has_voted los hace el shipper del WAL
+                writeBehind.get().submit(new BallotRecord(voterDni, LocalDateTime.now().toString(), boleta));
+            } catch (RuntimeException e) {
+                geoRollup.cancel(resultados);
+                throw e;
+            }
+            geoRollup.confirm(resultados);
+            log.info("Boleta de DNI {} confirmada en el WAL ({} votos)", voterDni, boleta.size());
+            return;
+        }
+        
+        log.info("Guardando {} votos para DNI: {}", votos.size(), voterDni);
+        try {
+            // Una sola inserción: si una categoría ya fue votada no se guarda ningún voto de la boleta
+            voteRepository.saveVotes(votos);
+            geoRollup.confirm(resultados);
+            log.info("Votos guardados exitosamente");
+        } catch (Exception e) {
+            geoRollup.cancel(resultados);
+            log.error("Error al guardar votos: {}", e.getMessage(), e);
+            // Verificar si es un error de restricción UNIQUE
+            if (e.getMessage() != null && e.getMessage().contains("UNIQUE") || 
+                e.getMessage() != null && e.getMessage().contains("duplicate")) {
+                throw new IllegalStateException("Ya has votado en alguna de estas categorías: " + String.join(", ",
+                    votos.stream().map(vote -> convertCategoryToString(vote.getCategory())).toList()));
+            }
+            throw new RuntimeException("Error al guardar voto: " + e.getMessage());
+        }
+        
+        // NOTA: El vote_count se actualiza automáticamente por el trigger en Supabase
+        // No es necesario actualizarlo manualmente
+        
         // Marcar votante como que ya votó
         voter.setHasVoted(true);
-        supabaseService.saveVoter(voter);
+        voterRepository.saveVoter(voter);
     }
     
     /**
      * Obtiene las categorías ya votadas por un votante
      */
     public List<String> obtenerCategoriasVotadas(String voterDni) {
-        return supabaseService.findVotesByVoterDni(voterDni).stream()
+        List<String> categorias = voteRepository.findVotesByVoterDni(voterDni).stream()
             .map(vote -> convertCategoryToString(vote.getCategory()))
             .collect(Collectors.toList());
+        // Boletas aceptadas en el WAL que todavía no llegan a Supabase
+        writeBehind.ifPresent(store -> store.pendingCategories(voterDni).stream()
+            .filter(categoria -> !categorias.contains(categoria))
+            .forEach(categorias::add));
+        return categorias;
     }
     
     private Candidate.ElectoralCategory convertToCategory(String category) {
@@ -135,6 +196,19 @@ public class VoteService {
      */
     public int invalidarVotos(String voterDni) {
         log.info("Invalidando votos para DNI: {}", voterDni);
-        return supabaseService.invalidarVotos(voterDni);
+        try {
+            // Los resultados geográficos necesitan saber qué candidatos pierden los votos y dónde
+            List<Vote> votos = geoRollup.isReady() ? voteRepository.findVotesByVoterDni(voterDni) : List.of();
+            Voter voter = votos.isEmpty() ? null : voterRepository.findVoterByDni(voterDni).orElse(null);
+            int invalidated = voteRepository.invalidarVotos(voterDni);
+            if (invalidated > 0) {
+                geoRollup.invalidated(voter, votos);
+            }
+            auditLog.record(AuditEventType.VOTE_INVALIDATION, null, true, "DNI " + voterDni + ": " + invalidated + " votos");
+            return invalidated;
+        } catch (RuntimeException e) {
+            auditLog.record(AuditEventType.VOTE_INVALIDATION, null, false, "DNI " + voterDni + ": " + e.getMessage());
+            throw e;
+        }
     }
 }
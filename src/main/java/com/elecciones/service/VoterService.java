@@ -2,9 +2,13 @@ package com.elecciones.service;
 
 import com.elecciones.dto.ReniecResponse;
 import com.elecciones.dto.VoterDTO;
+import com.elecciones.geo.GeoRollup;
 import com.elecciones.model.Voter;
+import com.elecciones.repository.VoterRepository;
+import com.elecciones.wal.WriteBehindVoteStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -18,13 +22,20 @@ import java.util.Optional;
 @Slf4j
 public class VoterService {
     
-    private final SupabaseService supabaseService;
+    private final VoterRepository voterRepository;
     private final FastApiService fastApiService;
+    private final Optional<WriteBehindVoteStore> writeBehind;
+    private final GeoRollup geoRollup;
+    
+    // Con el padrón cargado, un votante registrado ya está validado y no se consulta Factiliza
+    @Value("${padron.trust-registered:true}")
+    private boolean trustRegistered;
     
     /**
      * Verifica y registra/actualiza un votante
-     * SOLO permite el acceso si la API de Factiliza valida el DNI exitosamente.
-     * Si el votante existe en Supabase, lo devuelve (pero solo si fue validado previamente por la API).
+     * Si el votante ya está registrado (cargado del padrón o validado antes) y padron.trust-registered
+     * es true, lo devuelve con una sola lectura. Si no, SOLO permite el acceso si la API de Factiliza
+     * valida el DNI exitosamente, y registra o actualiza el votante con esos datos.
      */
     public VoterDTO verificarYRegistrarVotante(String dni) {
         // Validar DNI
@@ -32,6 +43,13 @@ public class VoterService {
             throw new RuntimeException("El DNI debe tener 8 dígitos");
         }
         
+        // Con padron.trust-registered la búsqueda se hace antes de Factiliza y se reutiliza después
+        Optional<Voter> existingVoter = trustRegistered ? voterRepository.findVoterByDni(dni) : null;
+        if (existingVoter != null && existingVoter.isPresent()) {
+            log.debug("Votante {} encontrado en el padrón", dni);
+            return convertToDTO(existingVoter.get());
+        }
+        
         // Verificar si el servicio de Factiliza está disponible
         if (fastApiService == null) {
             log.error("FastApiService es NULL - El servicio de validación de DNI no está disponible");
@@ -83,7 +101,9 @@ public class VoterService {
         
         // Si llegamos aquí, el DNI fue validado exitosamente por la API de Factiliza
         // Ahora buscar si el votante ya existe en Supabase
-        Optional<Voter> existingVoter = supabaseService.findVoterByDni(dni);
+        if (existingVoter == null) {
+            existingVoter = voterRepository.findVoterByDni(dni);
+        }
         
         if (existingVoter.isPresent()) {
             // Si existe, actualizar con los datos más recientes de RENIEC y devolverlo
@@ -92,6 +112,9 @@ public class VoterService {
             
             // Actualizar datos con información más reciente de RENIEC
             if (voterDataMap != null) {
+                String department = voter.getDepartment();
+                String province = voter.getProvince();
+                String district = voter.getDistrict();
                 voter.setFullName((String) voterDataMap.get("fullName"));
                 voter.setAddress((String) voterDataMap.get("address"));
                 voter.setDistrict((String) voterDataMap.get("district"));
@@ -110,7 +133,8 @@ public class VoterService {
                 
                 // Actualizar en Supabase
                 try {
-                    voter = supabaseService.saveVoter(voter);
+                    voter = voterRepository.saveVoter(voter);
+                    geoRollup.moved(department, province, district, voter);
                 } catch (Exception e) {
                     log.warn("Error al actualizar votante, usando datos existentes: {}", e.getMessage());
                 }
@@ -147,13 +171,16 @@ public class VoterService {
         voter.setHasVoted(false);
         
         // Guardar votante en Supabase
+        GeoRollup.Pending inscrito = geoRollup.registration(voter);
         try {
-            voter = supabaseService.saveVoter(voter);
+            voter = voterRepository.saveVoter(voter);
+            geoRollup.confirm(inscrito);
             log.info("Votante registrado exitosamente: {}", dni);
         } catch (RuntimeException e) {
+            geoRollup.cancel(inscrito);
             // Si hay un error, intentar buscar el votante una vez más
             log.warn("Error al guardar votante, intentando buscar existente: {}", e.getMessage());
-            Optional<Voter> retryVoter = supabaseService.findVoterByDni(dni);
+            Optional<Voter> retryVoter = voterRepository.findVoterByDni(dni);
             if (retryVoter.isPresent()) {
                 log.info("Votante encontrado después del error: {}", dni);
                 return convertToDTO(retryVoter.get());
@@ -169,7 +196,7 @@ public class VoterService {
      * Obtiene un votante por DNI
      */
     public Optional<VoterDTO> obtenerVotantePorDni(String dni) {
-        return supabaseService.findVoterByDni(dni)
+        return voterRepository.findVoterByDni(dni)
             .map(this::convertToDTO);
     }
     
@@ -177,7 +204,7 @@ public class VoterService {
      * Obtiene listado de votantes (solo para administradores)
      */
     public List<VoterDTO> obtenerListadoVotantes(String dniFilter) {
-        List<Voter> voters = supabaseService.findAllVoters(dniFilter);
+        List<Voter> voters = voterRepository.findAllVoters(dniFilter);
         return voters.stream()
             .map(this::convertToDTO)
             .collect(java.util.stream.Collectors.toList());
@@ -193,7 +220,9 @@ public class VoterService {
         dto.setDepartment(voter.getDepartment());
         dto.setBirthDate(voter.getBirthDate());
         dto.setPhotoUrl(null); // photo_url no existe en la tabla voters
-        dto.setHasVoted(voter.getHasVoted());
+        // Con write-behind, has_voted se actualiza en Supabase cuando se envía la boleta
+        boolean pendiente = writeBehind.map(store -> store.hasPending(voter.getDni())).orElse(false);
+        dto.setHasVoted(pendiente ? Boolean.TRUE : voter.getHasVoted());
         return dto;
     }
 }
@@ -0,0 +1,78 @@
+package com.elecciones.wal;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Boleta aceptada tal como se guarda en el WAL: todas las selecciones de un votante
+ * en un único registro, para que la boleta se recupere completa o no se recupere.
+ * Formato: dni TAB voted_at TAB categoria:candidato_id [TAB ...]
+ */
+@Getter
+@RequiredArgsConstructor
+public final class BallotRecord {
+    
+    private static final char SEPARATOR = '\t';
+    
+    private final String voterDni;
+    private final String votedAt;
+    private final List<Selection> selections;
+    
+    public byte[] encode() {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(checked(voterDni)).append(SEPARATOR).append(checked(votedAt));
+        for (Selection selection : selections) {
+            sb.append(SEPARATOR).append(checkedCategory(selection.getCategory()))
+                .append(':').append(checked(selection.getCandidateId()));
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    public static BallotRecord decode(byte[] payload) {
+        String[] parts = new String(payload, StandardCharsets.UTF_8).split(String.valueOf(SEPARATOR));
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Registro de boleta incompleto");
+        }
+        List<Selection> selections = new ArrayList<>(parts.length - 2);
+        for (int i = 2; i < parts.length; i++) {
+            int colon = parts[i].indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Selección inválida en registro de boleta: " + parts[i]);
+            }
+            selections.add(new Selection(parts[i].substring(colon + 1), parts[i].substring(0, colon)));
+        }
+        return new BallotRecord(parts[0], parts[1], Collections.unmodifiableList(selections));
+    }
+    
+    private static String checked(String value) {
+        if (value == null || value.indexOf(SEPARATOR) >= 0 || value.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Valor no válido para el registro de boleta: " + value);
+        }
+        return value;
+    }
+    
+    /**
+     * La categoría va antes del ':' de la selección, así que no puede contenerlo
+     */
+    private static String checkedCategory(String category) {
+        if (checked(category).indexOf(':') >= 0) {
+            throw new IllegalArgumentException("Categoría no válida para el registro de boleta: " + category);
+        }
+        return category;
+    }
+    
+    /**
+     * Candidato elegido en una categoría ("presidencial", "distrital", "regional")
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Selection {
+        private final String candidateId;
+        private final String category;
+    }
+}
@@ -0,0 +1,418 @@
+package com.elecciones.wal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log en segmentos de tamaño fijo mapeados en memoria.
+ *
+ * Cada registro es [longitud int][crc32 int][secuencia long][payload]. Una longitud 0
+ * marca el final del segmento. Las escrituras se serializan con un lock y un único
+ * hilo hace force() de lo escrito, de modo que todos los registros que llegaron mientras
+ * se sincronizaba el disco se confirman juntos en el siguiente fsync (group commit).
+ *
+ * El checkpoint guarda la última secuencia ya enviada a la base de datos; los segmentos
+ * que quedan completamente por debajo de él se eliminan.
+ *
+ * Al recuperar, solo el final del último segmento puede estar incompleto (caída durante
+ * un append no confirmado) y se descarta. Un registro dañado en cualquier otro punto, o un
+ * hueco de secuencias posterior al checkpoint, contiene boletas ya confirmadas: el log no
+ * se abre y requiere intervención manual.
+ */
+@Slf4j
+public class VoteWriteAheadLog implements Closeable {
+    
+    private static final int RECORD_HEADER = 4 + 4 + 8;
+    private static final String SEGMENT_PREFIX = "votes-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    
+    private final Path directory;
+    private final int segmentSize;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    
+    // Protegidos por lock
+    private final List<Segment> segments = new ArrayList<>();
+    private final List<Segment> unflushed = new ArrayList<>();
+    private Segment active;
+    private long lastSequence;
+    private long durableSequence;
+    private long checkpointSequence;
+    private boolean closed;
+    
+    private final Thread flusher;
+    private final CRC32 crc = new CRC32();
+    
+    /**
+     * Abre el log en el directorio indicado y recupera los registros válidos.
+     * Los registros posteriores al checkpoint se entregan a recovered en orden.
+     *
+     * @throws IOException si el log está dañado fuera de la cola del último segmento
+     */
+    public VoteWriteAheadLog(Path directory, int segmentSize, RecordConsumer recovered) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        
+        this.checkpointSequence = readCheckpoint();
+        recover(recovered);
+        this.durableSequence = lastSequence;
+        
+        this.flusher = new Thread(this::flushLoop, "vote-wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+    
+    /**
+     * Agrega un registro y devuelve su secuencia. El registro aún no es durable:
+     * usar awaitDurable antes de confirmar al cliente.
+     * onAssigned se ejecuta bajo el lock del log, antes de que otro registro pueda escribirse.
+     */
+    public long append(byte[] payload, LongConsumer onAssigned) throws IOException {
+        int recordLength = RECORD_HEADER + payload.length;
+        if (recordLength > segmentSize - 4) {
+            throw new IllegalArgumentException("Registro demasiado grande para el WAL: " + payload.length + " bytes");
+        }
+        
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("El WAL de votos está cerrado");
+            }
+            // Se reservan 4 bytes al final para que siempre quepa el marcador de fin
+            if (active.buffer.remaining() < recordLength + 4) {
+                rollSegment();
+            }
+            
+            long sequence = lastSequence + 1;
+            crc.reset();
+            crc.update(payload);
+            
+            MappedByteBuffer buffer = active.buffer;
+            buffer.putInt(payload.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.putLong(sequence);
+            buffer.put(payload);
+            
+            lastSequence = sequence;
+            active.lastSequence = sequence;
+            if (!unflushed.contains(active)) {
+                unflushed.add(active);
+            }
+            onAssigned.accept(sequence);
+            appended.signal();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Espera a que la secuencia esté sincronizada en disco
+     */
+    public boolean awaitDurable(long sequence, long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (remaining <= 0 || closed) {
+                    return durableSequence >= sequence;
+                }
+                remaining = durable.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getDurableSequence() {
+        lock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Registra que todas las secuencias hasta la indicada ya están en la base de datos
+     * y elimina los segmentos que ya no se necesitan
+     */
+    public void checkpoint(long sequence) throws IOException {
+        List<Segment> obsolete = new ArrayList<>();
+        lock.lock();
+        try {
+            if (sequence <= checkpointSequence) {
+                return;
+            }
+            checkpointSequence = sequence;
+            for (Segment segment : segments) {
+                if (segment != active && segment.lastSequence <= sequence) {
+                    obsolete.add(segment);
+                }
+            }
+            segments.removeAll(obsolete);
+        } finally {
+            lock.unlock();
+        }
+        
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(java.nio.ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        
+        for (Segment segment : obsolete) {
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                // En Windows un archivo mapeado no se puede borrar hasta que el GC libere el mapeo
+                log.debug("No se pudo eliminar el segmento {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+    
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // ========== GROUP COMMIT ==========
+    
+    private void flushLoop() {
+        while (true) {
+            List<Segment> toFlush;
+            long target;
+            lock.lock();
+            try {
+                while (unflushed.isEmpty() && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (unflushed.isEmpty()) {
+                    return;
+                }
+                toFlush = new ArrayList<>(unflushed);
+                unflushed.clear();
+                target = lastSequence;
+            } finally {
+                lock.unlock();
+            }
+            
+            try {
+                for (Segment segment : toFlush) {
+                    segment.buffer.force();
+                }
+            } catch (RuntimeException e) {
+                // Sin fsync no se confirma nada: los escritores vencen por timeout
+                log.error("Error al sincronizar el WAL de votos: {}", e.getMessage(), e);
+                lock.lock();
+                try {
+                    for (Segment segment : toFlush) {
+                        if (!unflushed.contains(segment)) {
+                            unflushed.add(segment);
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                sleepQuietly(100);
+                continue;
+            }
+            
+            lock.lock();
+            try {
+                durableSequence = Math.max(durableSequence, target);
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    // ========== SEGMENTS ==========
+    
+    private void rollSegment() throws IOException {
+        // El resto del segmento ya está en cero: el lector lo interpreta como fin
+        Segment next = openSegment(segmentPath(lastSequence + 1), true);
+        segments.add(next);
+        active = next;
+    }
+    
+    private Segment openSegment(Path path, boolean create) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (create) {
+                file.setLength(segmentSize);
+                file.getChannel().force(true);
+            }
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+            return new Segment(path, buffer);
+        }
+    }
+    
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+    
+    private void recover(RecordConsumer recovered) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files
+                .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+        
+        long lastRecovered = 0;
+        int replayed = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            boolean last = i == paths.size() - 1;
+            Segment segment = openSegment(path, false);
+            MappedByteBuffer buffer = segment.buffer;
+            while (buffer.remaining() >= RECORD_HEADER) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length == 0) {
+                    // Marcador de fin: el resto del segmento está en cero
+                    buffer.position(start);
+                    break;
+                }
+                String problem = null;
+                long sequence = 0;
+                byte[] payload = null;
+                if (length < 0 || length > buffer.remaining() - 12) {
+                    problem = "longitud " + length + " fuera del segmento";
+                } else {
+                    int checksum = buffer.getInt();
+                    sequence = buffer.getLong();
+                    payload = new byte[length];
+                    buffer.get(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        problem = "CRC inválido";
+                    }
+                }
+                if (problem != null) {
+                    if (!last) {
+                        throw corrupted(path, start, problem);
+                    }
+                    // Escritura incompleta al final del log (caída durante el append): nunca se confirmó
+                    log.warn("Registro incompleto al final de {} (posición {}): {}, se descarta", path, start, problem);
+                    buffer.position(start);
+                    break;
+                }
+                // Un hueco solo es válido si lo que falta ya estaba enviado (segmentos eliminados)
+                if (sequence <= lastRecovered || (sequence != lastRecovered + 1 && sequence - 1 > checkpointSequence)) {
+                    throw corrupted(path, start, "secuencia " + sequence + " después de " + lastRecovered
+                        + " (checkpoint " + checkpointSequence + ")");
+                }
+                lastRecovered = sequence;
+                segment.lastSequence = sequence;
+                if (sequence > checkpointSequence) {
+                    recovered.accept(sequence, payload);
+                    replayed++;
+                }
+            }
+            segments.add(segment);
+        }
+        
+        lastSequence = Math.max(lastRecovered, checkpointSequence);
+        if (segments.isEmpty()) {
+            rollSegment();
+        } else {
+            active = segments.get(segments.size() - 1);
+            // Limpia cualquier resto de una escritura incompleta para no confundir la próxima recuperación
+            MappedByteBuffer buffer = active.buffer;
+            int position = buffer.position();
+            while (buffer.hasRemaining()) {
+                buffer.put((byte) 0);
+            }
+            buffer.position(position);
+            buffer.force();
+        }
+        if (replayed > 0) {
+            log.info("WAL de votos recuperado: {} boletas pendientes de envío (checkpoint {})", replayed, checkpointSequence);
+        }
+    }
+    
+    private static IOException corrupted(Path path, int position, String problem) {
+        log.error("WAL de votos dañado en {} (posición {}): {}", path, position, problem);
+        return new IOException("WAL de votos dañado en " + path + " (posición " + position + "): " + problem
+            + ". Contiene boletas ya confirmadas; revisar el segmento antes de reiniciar.");
+    }
+    
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        String content = Files.readString(path, StandardCharsets.US_ASCII).trim();
+        return content.isEmpty() ? 0 : Long.parseLong(content);
+    }
+    
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private long lastSequence;
+        
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+    
+    /**
+     * Recibe los registros recuperados al abrir el log
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long sequence, byte[] payload);
+    }
+}
@@ -0,0 +1,321 @@
+package com.elecciones.wal;
+
+import com.elecciones.repository.VoteRepository;
+import com.elecciones.repository.VoterRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Modo write-behind para la emisión de votos.
+ *
+ * La boleta se confirma al votante cuando está sincronizada en el WAL local; un hilo
+ * de envío la replica después a Supabase en lotes, con reintentos, y marca al votante
+ * como que ya votó. Al iniciar se reenvían las boletas que quedaron sin enviar.
+ * Mientras una boleta está pendiente, sus categorías cuentan como ya votadas.
+ */
+@Component
+@ConditionalOnProperty(name = "votes.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindVoteStore {
+    
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final String REJECTED_FILE = "rejected.log";
+    
+    private final VoterRepository voterRepository;
+    private final VoteRepository voteRepository;
+    private final Path directory;
+    private final int segmentSize;
+    private final long syncTimeoutMillis;
+    private final int batchSize;
+    private final long shipIntervalMillis;
+    
+    // Boletas durables aún no enviadas, en orden de secuencia
+    private final ConcurrentSkipListMap<Long, BallotRecord> pending = new ConcurrentSkipListMap<>();
+    // DNI -> categorías con boleta pendiente; evita votos duplicados antes de llegar a Supabase
+    private final Map<String, Set<String>> pendingCategories = new ConcurrentHashMap<>();
+    
+    private VoteWriteAheadLog wal;
+    private Thread shipper;
+    private volatile boolean running;
+    
+    public WriteBehindVoteStore(VoteRepository voteRepository,
+                                VoterRepository voterRepository,
+                                @Value("${votes.wal.directory:./data/vote-wal}") String directory,
+                                @Value("${votes.wal.segment-size-bytes:8388608}") int segmentSize,
+                                @Value("${votes.wal.sync-timeout-ms:5000}") long syncTimeoutMillis,
+                                @Value("${votes.wal.ship-batch-size:200}") int batchSize,
+                                @Value("${votes.wal.ship-interval-ms:200}") long shipIntervalMillis) {
+        this.voteRepository = voteRepository;
+        this.voterRepository = voterRepository;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.syncTimeoutMillis = syncTimeoutMillis;
+        this.batchSize = batchSize;
+        this.shipIntervalMillis = shipIntervalMillis;
+    }
+    
+    @PostConstruct
+    public void start() throws IOException {
+        wal = new VoteWriteAheadLog(directory, segmentSize, (sequence, payload) -> {
+            BallotRecord ballot = BallotRecord.decode(payload);
+            pending.put(sequence, ballot);
+            // Al recuperar no se valida: la boleta ya fue confirmada al votante
+            Set<String> categories = pendingCategories.computeIfAbsent(ballot.getVoterDni(), dni -> ConcurrentHashMap.newKeySet());
+            ballot.getSelections().forEach(selection -> categories.add(selection.getCategory()));
+        });
+        running = true;
+        shipper = new Thread(this::shipLoop, "vote-wal-shipper");
+        shipper.setDaemon(true);
+        shipper.start();
+        log.info("Write-behind de votos activo - WAL en {} ({} boletas pendientes)", directory.toAbsolutePath(), pending.size());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(shipper);
+        try {
+            shipper.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        wal.close();
+        if (!pending.isEmpty()) {
+            log.warn("{} boletas quedan en el WAL y se enviarán al reiniciar", pending.size());
+        }
+    }
+    
+    /**
+     * Registra la boleta y retorna cuando es durable en disco
+     */
+    public void submit(BallotRecord ballot) {
+        reserve(ballot);
+        long sequence;
+        try {
+            sequence = wal.append(ballot.encode(), assigned -> pending.put(assigned, ballot));
+        } catch (IOException | RuntimeException e) {
+            release(ballot);
+            log.error("Error al escribir boleta en el WAL: {}", e.getMessage(), e);
+            throw new RuntimeException("Error al registrar voto: " + e.getMessage(), e);
+        }
+        
+        boolean synced;
+        try {
+            synced = wal.awaitDurable(sequence, syncTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synced = false;
+        }
+        if (!synced) {
+            // La boleta ya está en el log y puede llegar a enviarse: no se libera la reserva
+            log.error("Timeout al sincronizar el WAL para la secuencia {}", sequence);
+            throw new RuntimeException("El voto fue recibido pero no se pudo confirmar. "
+                + "Consulte sus categorías votadas antes de reintentar.");
+        }
+        LockSupport.unpark(shipper);
+    }
+    
+    /**
+     * Categorías con boleta aceptada que aún no llegó a Supabase
+     */
+    public Set<String> pendingCategories(String voterDni) {
+        Set<String> categories = pendingCategories.get(voterDni);
+        return categories == null ? Collections.emptySet() : Set.copyOf(categories);
+    }
+    
+    /**
+     * Boletas aceptadas que aún no llegan a Supabase, en orden de secuencia
+     */
+    public List<BallotRecord> pendingBallots() {
+        return List.copyOf(pending.values());
+    }
+    
+    public boolean hasPending(String voterDni) {
+        return pendingCategories.containsKey(voterDni);
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    private void reserve(BallotRecord ballot) {
+        pendingCategories.compute(ballot.getVoterDni(), (dni, current) -> {
+            Set<String> categories = current == null ? ConcurrentHashMap.newKeySet() : current;
+            for (BallotRecord.Selection selection : ballot.getSelections()) {
+                if (categories.contains(selection.getCategory())) {
+                    throw new IllegalStateException("Ya has votado en la categoría: " + selection.getCategory());
+                }
+            }
+            for (BallotRecord.Selection selection : ballot.getSelections()) {
+                categories.add(selection.getCategory());
+            }
+            return categories;
+        });
+    }
+    
+    private void release(BallotRecord ballot) {
+        pendingCategories.computeIfPresent(ballot.getVoterDni(), (dni, categories) -> {
+            for (BallotRecord.Selection selection : ballot.getSelections()) {
+                categories.remove(selection.getCategory());
+            }
+            return categories.isEmpty() ? null : categories;
+        });
+    }
+    
+    // ========== SHIPPER ==========
+    
+    private void shipLoop() {
+        long backoff = shipIntervalMillis;
+        while (running || !pending.isEmpty()) {
+            Map<Long, BallotRecord> batch = nextBatch();
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(shipIntervalMillis));
+                continue;
+            }
+            
+            try {
+                ship(batch);
+                backoff = shipIntervalMillis;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    // Al apagar no se insiste: el WAL conserva las boletas
+                    return;
+                }
+                log.warn("Error al enviar {} boletas a Supabase, reintento en {} ms: {}",
+                    batch.size(), backoff, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoff));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+    
+    private Map<Long, BallotRecord> nextBatch() {
+        long durable = wal.getDurableSequence();
+        Map<Long, BallotRecord> batch = new HashMap<>();
+        for (Map.Entry<Long, BallotRecord> entry : pending.headMap(durable, true).entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= batchSize) {
+                break;
+            }
+        }
+        return batch;
+    }
+    
+    private void ship(Map<Long, BallotRecord> batch) {
+        try {
+            voteRepository.saveVotesBatch(toRows(batch.values()));
+        } catch (HttpClientErrorException e) {
+            if (!isDefinitiveRejection(e)) {
+                // Clave inválida, throttling o timeout: el lote completo sigue pendiente
+                throw e;
+            }
+            // Un registro rechazado no debe bloquear al resto: se reintenta boleta por boleta
+            log.warn("Lote de votos rechazado ({}), enviando boletas individualmente", e.getStatusCode());
+            for (Map.Entry<Long, BallotRecord> entry : new ArrayList<>(batch.entrySet())) {
+                try {
+                    voteRepository.saveVotesBatch(toRows(List.of(entry.getValue())));
+                } catch (HttpClientErrorException rejected) {
+                    if (!isDefinitiveRejection(rejected)) {
+                        // Las boletas ya enviadas se reenvían sin efecto: Supabase ignora duplicados
+                        throw rejected;
+                    }
+                    deadLetter(entry.getKey(), entry.getValue(), rejected);
+                    batch.remove(entry.getKey());
+                    complete(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        
+        Set<String> voters = new LinkedHashSet<>();
+        for (BallotRecord ballot : batch.values()) {
+            voters.add(ballot.getVoterDni());
+        }
+        if (!voters.isEmpty()) {
+            voterRepository.markVotersAsVoted(voters);
+        }
+        
+        for (Map.Entry<Long, BallotRecord> entry : batch.entrySet()) {
+            complete(entry.getKey(), entry.getValue());
+        }
+        advanceCheckpoint();
+        log.debug("{} boletas enviadas a Supabase ({} pendientes)", batch.size(), pending.size());
+    }
+    
+    /**
+     * Solo un error de los datos descarta la boleta; el resto se reintenta con backoff
+     */
+    private static boolean isDefinitiveRejection(HttpClientErrorException e) {
+        int status = e.getStatusCode().value();
+        return status == 400 || status == 409 || status == 422;
+    }
+    
+    private void complete(long sequence, BallotRecord ballot) {
+        pending.remove(sequence);
+        release(ballot);
+    }
+    
+    private void advanceCheckpoint() {
+        long durable = wal.getDurableSequence();
+        long checkpoint = pending.isEmpty() ? durable : Math.min(durable, pending.firstKey() - 1);
+        try {
+            wal.checkpoint(checkpoint);
+        } catch (IOException e) {
+            // Sin checkpoint solo se reenvían boletas ya enviadas, que Supabase ignora como duplicadas
+            log.warn("No se pudo guardar el checkpoint del WAL: {}", e.getMessage());
+        }
+    }
+    
+    private static List<Map<String, Object>> toRows(Iterable<BallotRecord> ballots) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (BallotRecord ballot : ballots) {
+            for (BallotRecord.Selection selection : ballot.getSelections()) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("voter_dni", ballot.getVoterDni());
+                row.put("candidate_id", selection.getCandidateId());
+                row.put("category", selection.getCategory());
+                row.put("voted_at", ballot.getVotedAt());
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+    
+    private void deadLetter(long sequence, BallotRecord ballot, HttpClientErrorException e) {
+        log.error("Boleta {} de DNI {} rechazada por Supabase ({}): {}",
+            sequence, ballot.getVoterDni(), e.getStatusCode(), e.getResponseBodyAsString());
+        String line = sequence + "\t" + new String(ballot.encode(), StandardCharsets.UTF_8)
+            + "\t" + e.getStatusCode().value() + System.lineSeparator();
+        try {
+            Files.writeString(directory.resolve(REJECTED_FILE), line, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException io) {
+            log.error("No se pudo guardar la boleta rechazada {}: {}", sequence, io.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.elecciones.audit;
+
+import com.elecciones.perf.BenchmarkRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Costo de AuditLog.record() en la ruta de la solicitud (4 hilos registrando a la vez, con el
+ * hilo de escritura vaciando el buffer hacia un destino que descarta) y de una consulta
+ * filtrada por tipo sobre un índice con events eventos repartidos en una semana.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class AuditLogBenchmark {
+    
+    @Benchmark
+    @Threads(4)
+    public void record(Recording state) {
+        state.auditLog.record(AuditEventType.TOKEN_REJECTED, null, false, "Token no proporcionado: GET /api/admin/x");
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, Object> queryFirstPage(Querying state) {
+        return state.auditLog.query(state.from, null, EnumSet.of(AuditEventType.DATA_CLEANING), null, null, 50);
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Recording {
+        AuditLog auditLog;
+        
+        @Setup(Level.Trial)
+        public void start() {
+            BenchmarkRunner.discardLogs();
+            auditLog = new AuditLog(new DiscardingSink(List.of()), 8192, 500, 200, 10, 168, 200_000, 1);
+            auditLog.start();
+        }
+        
+        @TearDown(Level.Trial)
+        public void stop() {
+            auditLog.stop();
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Querying {
+        @Param({"10000", "200000"})
+        public int events;
+        
+        AuditLog auditLog;
+        long from;
+        
+        @Setup(Level.Trial)
+        public void start() {
+            BenchmarkRunner.discardLogs();
+            long now = System.currentTimeMillis();
+            long week = TimeUnit.DAYS.toMillis(7);
+            from = now - week;
+            AuditEventType[] types = AuditEventType.values();
+            List<AuditEvent> stored = new ArrayList<>(events);
+            for (int i = 0; i < events; i++) {
+                // Tipos en proporción desigual, como en producción: casi todo son tokens rechazados
+                AuditEventType type = i % 100 == 0 ? types[(i / 100) % types.length] : AuditEventType.TOKEN_REJECTED;
+                stored.add(new AuditEvent(i, from + week * i / events, type, "admin@elecciones.pe", "10.0.0.1",
+                    i % 7 != 0, "detalle " + i));
+            }
+            auditLog = new AuditLog(new DiscardingSink(stored), 8192, 500, 200, 10, 168, events, 1);
+            auditLog.start();
+        }
+        
+        @TearDown(Level.Trial)
+        public void stop() {
+            auditLog.stop();
+        }
+    }
+    
+    private static final class DiscardingSink implements AuditSink {
+        private final List<AuditEvent> stored;
+        
+        DiscardingSink(List<AuditEvent> stored) {
+            this.stored = stored;
+        }
+        
+        @Override
+        public void append(List<AuditEvent> batch) {
+        }
+        
+        @Override
+        public void readSince(long fromMillis, Consumer<AuditEvent> consumer) {
+            stored.forEach(consumer);
+        }
+        
+        @Override
+        public String describe() {
+            return "descarte";
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.elecciones.perf;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.helpers.NOPAppender;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ejecuta los benchmarks JMH de src/perf/java con el profiler de GC (tasa de asignación
+ * y bytes asignados por operación) y guarda el resultado en JSON con el commit en el nombre:
+ * target/jmh/jmh-{commit}.json. Comparar dos archivos muestra regresiones de throughput
+ * o de asignación entre commits.
+ *
+ * Acepta las opciones de línea de comandos de JMH, por ejemplo:
+ *
+ *   mvn -Pperf test-compile exec:java -Dexec.mainClass=com.elecciones.perf.BenchmarkRunner \
+ *       -Dexec.args="RowMappingBenchmark -p rows=10000"
+ *
+ * El dataset de 10 millones de filas necesita varios GB de heap: -jvmArgsAppend -Xmx16g
+ */
+public final class BenchmarkRunner {
+    
+    private BenchmarkRunner() {
+    }
+    
+    public static void main(String[] args) throws RunnerException, IOException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        
+        if (commandLine.getProfilers().stream().noneMatch(p -> p.getKlass().equals(GCProfiler.class.getName()))) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Path directory = Paths.get("target", "jmh");
+            Files.createDirectories(directory);
+            Path result = directory.resolve("jmh-" + commitId() + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(result.toString());
+            System.out.println("Resultados en " + result.toAbsolutePath());
+        }
+        
+        exposeClasspath();
+        new Runner(options.build()).run();
+    }
+    
+    /**
+     * Mantiene activos los niveles de log de la aplicación pero descarta la salida, para que
+     * el benchmark incluya el costo de los log.info de los métodos medidos sin escribir a consola
+     */
+    public static void discardLogs() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        NOPAppender<ch.qos.logback.classic.spi.ILoggingEvent> discard = new NOPAppender<>();
+        discard.setContext(context);
+        discard.start();
+        root.addAppender(discard);
+        root.setLevel(Level.INFO);
+        context.getLogger("com.elecciones").setLevel(Level.INFO);
+    }
+    
+    private static String commitId() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (InputStream in = process.getInputStream()) {
+                String output = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+                if (process.waitFor() == 0 && !output.isEmpty()) {
+                    return output;
+                }
+            }
+        } catch (IOException e) {
+            // Sin git se usa un nombre genérico
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "local";
+    }
+    
+    /**
+     * JMH lanza cada fork con java.class.path; bajo exec:java esa propiedad es el classpath
+     * de Maven, así que se reemplaza por el del class loader que cargó el proyecto
+     */
+    private static void exposeClasspath() {
+        if (!(Thread.currentThread().getContextClassLoader() instanceof URLClassLoader loader)) {
+            return;
+        }
+        List<String> entries = new ArrayList<>();
+        for (URL url : loader.getURLs()) {
+            try {
+                entries.add(new File(url.toURI()).getPath());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                entries.add(url.getPath());
+            }
+        }
+        if (!entries.isEmpty()) {
+            System.setProperty("java.class.path", String.join(File.pathSeparator, entries));
+        }
+    }
+}
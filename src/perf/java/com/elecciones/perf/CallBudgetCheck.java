@@ -0,0 +1,295 @@
+package com.elecciones.perf;
+
+import com.elecciones.filter.SlowRequestFilter;
+import com.elecciones.metrics.SlowRequestRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Presupuesto de llamadas salientes por endpoint (detector de N+1).
+ *
+ * Levanta la aplicación contra los stubs de Supabase y Factiliza con el registro de
+ * solicitudes lentas en umbral 0, de modo que cada solicitud deja su línea de tiempo de
+ * llamadas. Recorre los endpoints principales en el orden de la jornada del votante y
+ * compara las llamadas hechas por cada solicitud con su presupuesto. Cada escenario también
+ * fija el estado HTTP esperado: un endpoint que empieza a fallar antes hace menos llamadas y
+ * no debe pasar por eso. Si alguno supera su presupuesto o responde con otro estado muestra
+ * qué operaciones hicieron las llamadas y termina con código 1.
+ *
+ * Corre en la fase integration-test del perfil perf, así que un endpoint sobre su presupuesto
+ * hace fallar el build:
+ *
+ *   mvn -Pperf verify
+ *
+ * Al optimizar un endpoint se baja su presupuesto aquí para que no vuelva a subir.
+ *
+ * Los análisis de administración responden de forma asíncrona con el cliente reactivo, cuyas
+ * llamadas no quedan en la traza: para esos endpoints se cuentan con la métrica
+ * elecciones.outbound.requests antes y después de la solicitud.
+ */
+public final class CallBudgetCheck {
+    
+    private static final String ADMIN_EMAIL = "admin@elecciones.pe";
+    private static final String ADMIN_PASSWORD = "admin123";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final SlowRequestRecorder recorder;
+    private final MeterRegistry registry;
+    private final String baseUrl;
+    private final List<Result> results = new ArrayList<>();
+    
+    private CallBudgetCheck(SlowRequestRecorder recorder, MeterRegistry registry, String baseUrl) {
+        this.recorder = recorder;
+        this.registry = registry;
+        this.baseUrl = baseUrl;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        PostgrestStubServer postgrest = new PostgrestStubServer(PostgrestStubServer.Options.parse(new String[]{"--port=0"}));
+        postgrest.generate(new SyntheticDataGenerator(42, 1000, 0.5, 8));
+        postgrest.start();
+        FactilizaStubServer factiliza = new FactilizaStubServer(0, 0);
+        factiliza.start(0);
+        
+        ConfigurableApplicationContext app = null;
+        int exitCode;
+        try {
+            app = EmbeddedApp.start(postgrest.getBaseUrl(), factiliza.getBaseUrl(), List.of(
+                "--diagnostics.slow-requests.threshold-ms=0",
+                "--diagnostics.slow-requests.capacity=16"));
+            CallBudgetCheck check = new CallBudgetCheck(app.getBean(SlowRequestRecorder.class),
+                app.getBean(MeterRegistry.class), EmbeddedApp.baseUrl(app));
+            check.run();
+            exitCode = check.report() ? 0 : 1;
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            factiliza.close();
+            postgrest.close();
+        }
+        System.exit(exitCode);
+    }
+    
+    // ========== RECORRIDO ==========
+    
+    private void run() throws IOException, InterruptedException {
+        // DNI fuera del padrón generado: se registra en la verificación
+        String dni = SyntheticDataGenerator.voterDni(5000);
+        ObjectNode verify = MAPPER.createObjectNode().put("dni", dni);
+        
+        check("Verificar DNI nuevo", 200, 3, post("/api/voters/verify", verify, null));
+        // Un votante registrado se responde con una lectura, sin consultar Factiliza (padron.trust-registered)
+        check("Verificar DNI registrado", 200, 1, post("/api/voters/verify", verify, null));
+        check("Consultar votante", 200, 1, get("/api/voters/" + dni, null));
+        // Los candidatos salen de la instantánea del dashboard, que se recalcula en segundo plano
+        JsonNode candidates = check("Listar candidatos", 200, 0, get("/api/candidates", null));
+        check("Candidatos por categoría", 200, 0, get("/api/candidates/category/presidencial", null));
+        check("Categorías votadas (sin votos)", 200, 1, get("/api/votes/voter/" + dni + "/categories", null));
+        
+        ObjectNode ballot = MAPPER.createObjectNode().put("voterDni", dni);
+        ArrayNode selections = ballot.putArray("selections");
+        Map<String, String> byCategory = new LinkedHashMap<>();
+        for (JsonNode candidate : candidates) {
+            byCategory.putIfAbsent(candidate.path("category").asText(), candidate.path("id").asText());
+        }
+        byCategory.forEach((category, id) -> selections.addObject().put("category", category).put("candidateId", id));
+        // votante, votos previos, candidatos de la boleta, inserción de la boleta y marca de has_voted
+        check("Emitir boleta", 200, 5, post("/api/votes", ballot, null));
+        // votos y sus candidatos en una sola consulta
+        check("Categorías votadas (con votos)", 200, 2, get("/api/votes/voter/" + dni + "/categories", null));
+        // se rechaza con los votos previos, sin consultar los candidatos de la boleta
+        check("Boleta repetida (rechazada)", 409, 3, post("/api/votes", ballot, null));
+        // la instantánea se recalcula en su propio hilo: la solicitud solo lee memoria
+        check("Estadísticas del dashboard", 200, 0, get("/api/dashboard/stats", null));
+        // el chatbot responde con la misma instantánea, ya armada como texto
+        check("Chatbot con datos en vivo", 200, 0, post("/api/chatbot/message",
+            MAPPER.createObjectNode().put("message", "¿Quién va ganando?"), null));
+        
+        JsonNode login = send(post("/api/admin/login", MAPPER.createObjectNode()
+            .put("email", ADMIN_EMAIL).put("password", ADMIN_PASSWORD), null)).body;
+        String token = login.path("token").asText();
+        check("Listado de votantes (admin)", 200, 1, get("/api/voters/list", token));
+        // Lee los votos (con sus candidatos) y el votante para descontarlos de los resultados geográficos
+        check("Invalidar votos", 200, 4, post("/api/votes/invalidate/" + dni, MAPPER.createObjectNode(), null));
+        // Sale de los resultados geográficos en memoria
+        checkMetered("Participación (admin)", 200, 0, post("/api/admin/training/participation", MAPPER.createObjectNode(), token));
+        checkMetered("Anomalías (admin)", 200, 2, post("/api/admin/training/anomalies", MAPPER.createObjectNode(), token));
+        checkMetered("Tendencias (admin)", 200, 2, post("/api/admin/training/trends", MAPPER.createObjectNode(), token));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private JsonNode check(String name, int expectedStatus, int budget, HttpRequest request)
+            throws IOException, InterruptedException {
+        Response response = send(request);
+        Map<String, Object> trace = awaitTrace(response.requestId, request.uri().getPath());
+        Map<String, Integer> sites = new LinkedHashMap<>();
+        for (Map<String, Object> call : (List<Map<String, Object>>) trace.get("calls")) {
+            sites.merge(call.get("operation") + "  " + call.get("method") + " " + call.get("url"), 1, Integer::sum);
+        }
+        results.add(new Result(name, request.method() + " " + request.uri().getPath(), expectedStatus, response.status,
+            budget, ((Number) trace.get("outboundCalls")).intValue(), sites));
+        return response.body;
+    }
+    
+    /**
+     * Para endpoints asíncronos: llamadas registradas en las métricas mientras duró la solicitud
+     */
+    private void checkMetered(String name, int expectedStatus, int budget, HttpRequest request)
+            throws IOException, InterruptedException {
+        Map<String, Long> before = outboundCalls();
+        Response response = send(request);
+        Map<String, Integer> sites = new LinkedHashMap<>();
+        int calls = 0;
+        for (Map.Entry<String, Long> entry : outboundCalls().entrySet()) {
+            int made = (int) (entry.getValue() - before.getOrDefault(entry.getKey(), 0L));
+            if (made > 0) {
+                sites.put(entry.getKey(), made);
+                calls += made;
+            }
+        }
+        results.add(new Result(name, request.method() + " " + request.uri().getPath(), expectedStatus, response.status,
+            budget, calls, sites));
+    }
+    
+    private Map<String, Long> outboundCalls() {
+        Map<String, Long> calls = new LinkedHashMap<>();
+        for (Timer timer : registry.find("elecciones.outbound.requests").timers()) {
+            String site = timer.getId().getTag("operation") + "  " + timer.getId().getTag("method") + " "
+                + timer.getId().getTag("table");
+            calls.merge(site, timer.count(), Long::sum);
+        }
+        return calls;
+    }
+    
+    /**
+     * El filtro guarda la traza después de escribir la respuesta: se espera a que aparezca la
+     * del id devuelto en X-Request-Id, aunque otra solicitud haya terminado después
+     */
+    private Map<String, Object> awaitTrace(String requestId, String path) throws InterruptedException {
+        if (requestId == null) {
+            throw new IllegalStateException("La respuesta de " + path + " no trae " + SlowRequestFilter.REQUEST_ID_HEADER);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            for (Map<String, Object> trace : recorder.recent(recorder.getCapacity())) {
+                if (requestId.equals(trace.get("requestId"))) {
+                    return trace;
+                }
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No se registró la traza de " + path + " (" + requestId + ")");
+    }
+    
+    // ========== REPORTE ==========
+    
+    private boolean report() {
+        boolean ok = true;
+        System.out.println();
+        System.out.printf("%-34s %-48s %6s %8s %11s%n", "endpoint", "solicitud", "estado", "llamadas", "presupuesto");
+        for (Result result : results) {
+            ok &= result.passed();
+            String problem = result.status != result.expectedStatus ? "  ESTADO ESPERADO " + result.expectedStatus
+                : result.calls > result.budget ? "  EXCEDIDO" : "";
+            System.out.printf("%-34s %-48s %6d %8d %11d%s%n", result.name, result.request, result.status,
+                result.calls, result.budget, problem);
+        }
+        
+        for (Result result : results) {
+            if (result.passed()) {
+                continue;
+            }
+            System.out.printf("%n%s (%s): estado %d (esperado %d), %d llamadas, presupuesto %d%n", result.name,
+                result.request, result.status, result.expectedStatus, result.calls, result.budget);
+            result.sites.forEach((site, count) -> System.out.printf("  %3dx %s%n", count, site));
+        }
+        System.out.println();
+        System.out.println(ok ? "Todos los endpoints dentro del presupuesto"
+            : "Hay endpoints sobre su presupuesto de llamadas o con un estado inesperado");
+        return ok;
+    }
+    
+    // ========== HTTP ==========
+    
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+    
+    private HttpRequest post(String path, JsonNode body, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+    
+    private Response send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode body = response.body().isEmpty() ? MAPPER.nullNode() : MAPPER.readTree(response.body());
+        return new Response(response.statusCode(), body,
+            response.headers().firstValue(SlowRequestFilter.REQUEST_ID_HEADER).orElse(null));
+    }
+    
+    private static final class Response {
+        private final int status;
+        private final JsonNode body;
+        private final String requestId;
+        
+        Response(int status, JsonNode body, String requestId) {
+            this.status = status;
+            this.body = body;
+            this.requestId = requestId;
+        }
+    }
+    
+    private static final class Result {
+        private final String name;
+        private final String request;
+        private final int expectedStatus;
+        private final int status;
+        private final int budget;
+        private final int calls;
+        private final Map<String, Integer> sites;
+        
+        Result(String name, String request, int expectedStatus, int status, int budget, int calls,
+               Map<String, Integer> sites) {
+            this.name = name;
+            this.request = request;
+            this.expectedStatus = expectedStatus;
+            this.status = status;
+            this.budget = budget;
+            this.calls = calls;
+            this.sites = sites;
+        }
+        
+        boolean passed() {
+            return status == expectedStatus && calls <= budget;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.elecciones.perf;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Techo de concurrencia de la aplicación frente a un Supabase lento.
+ *
+ * Levanta el servidor PostgREST simulado con una latencia alta (la de Supabase desde Render
+ * en el peor caso) y la aplicación en la misma JVM. Luego mantiene N clientes en lazo cerrado
+ * (cada uno envía la siguiente solicitud al recibir la respuesta) contra un endpoint que hace
+ * una llamada bloqueante a Supabase, para N creciente. El throughput deja de crecer cuando N
+ * alcanza server.tomcat.threads.max (200 por defecto) y desde ahí solo crece la latencia.
+ *
+ *   mvn -Pperf test-compile exec:java -Dexec.mainClass=com.elecciones.perf.ConcurrencyCeilingBenchmark \
+ *       -Dexec.args="--levels=50,100,200,400,800 --supabase-latency-ms=250"
+ *
+ * Las opciones --app.clave=valor se pasan a la aplicación como --clave=valor, por ejemplo
+ * --app.server.tomcat.threads.max=400 para comparar tamaños del pool de Tomcat.
+ */
+public final class ConcurrencyCeilingBenchmark {
+    
+    private final Options options;
+    private final HttpClient client;
+    private final ExecutorService callbacks;
+    
+    private ConcurrencyCeilingBenchmark(Options options) {
+        this.options = options;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.callbacks = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "ceiling-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(callbacks)
+            .build();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        ConcurrencyCeilingBenchmark benchmark = new ConcurrencyCeilingBenchmark(options);
+        int maxLevel = options.levels.stream().mapToInt(Integer::intValue).max().orElse(1);
+        
+        // El stub no debe ser el cuello de botella: un hilo por cliente concurrente
+        PostgrestStubServer postgrest = new PostgrestStubServer(PostgrestStubServer.Options.parse(new String[]{
+            "--port=0",
+            "--threads=" + (maxLevel + 64),
+            "--latency-ms=" + options.supabaseLatencyMillis,
+            "--jitter-ms=" + options.supabaseJitterMillis
+        }));
+        postgrest.generate(new SyntheticDataGenerator(42, options.voters, 0.3, 8));
+        postgrest.start();
+        FactilizaStubServer factiliza = new FactilizaStubServer(0, 0);
+        factiliza.start(0);
+        
+        List<LevelResult> results = new ArrayList<>();
+        try {
+            List<String> appArgs = new ArrayList<>(options.appArgs);
+            // La cola de aceptación no debe rechazar conexiones antes de medir el techo de hilos
+            appArgs.add("--server.tomcat.accept-count=" + (maxLevel * 2));
+            ConfigurableApplicationContext app = EmbeddedApp.start(postgrest.getBaseUrl(), factiliza.getBaseUrl(), appArgs);
+            try {
+                System.out.printf("%nAplicación en %s%n", EmbeddedApp.baseUrl(app));
+                for (int level : options.levels) {
+                    LevelResult result = benchmark.runLevel(EmbeddedApp.baseUrl(app), level);
+                    results.add(result);
+                    System.out.printf("  %5d concurrentes: %8.1f req/s  p50 %7.1f ms  p99 %7.1f ms  errores %d%n",
+                        level, result.throughput, result.histogram.percentileMillis(50),
+                        result.histogram.percentileMillis(99), result.errors);
+                }
+            } finally {
+                app.close();
+            }
+        } finally {
+            factiliza.close();
+            postgrest.close();
+            benchmark.callbacks.shutdownNow();
+        }
+        printCeiling(results, options.supabaseLatencyMillis);
+        System.exit(0);
+    }
+    
+    /**
+     * N clientes en lazo cerrado: calentamiento y luego medición
+     */
+    private LevelResult runLevel(String baseUrl, int level) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        CountDownLatch done = new CountDownLatch(level);
+        for (int i = 0; i < level; i++) {
+            loop(baseUrl, i, level, measureFrom, stopAt, histogram, errors, done);
+        }
+        done.await(options.durationSeconds + options.warmupSeconds + options.requestTimeoutSeconds, TimeUnit.SECONDS);
+        return new LevelResult(level, histogram.getCount() / (double) options.durationSeconds, histogram, errors.sum());
+    }
+    
+    private void loop(String baseUrl, int client, int stride, long measureFrom, long stopAt,
+                      LatencyHistogram histogram, LongAdder errors, CountDownLatch done) {
+        long sent = System.nanoTime();
+        if (sent >= stopAt) {
+            done.countDown();
+            return;
+        }
+        String dni = SyntheticDataGenerator.voterDni(Math.floorMod(client + (int) (sent % 1000) * stride, options.voters));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + options.path.replace("{dni}", dni)))
+            .timeout(Duration.ofSeconds(options.requestTimeoutSeconds))
+            .GET()
+            .build();
+        this.client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long now = System.nanoTime();
+            // Solo cuentan las respuestas enviadas y recibidas dentro de la ventana de medición
+            if (sent >= measureFrom && now <= stopAt) {
+                if (error != null || response.statusCode() >= 500) {
+                    errors.increment();
+                } else {
+                    histogram.recordNanos(now - sent);
+                }
+            }
+            loop(baseUrl, client, stride, measureFrom, stopAt, histogram, errors, done);
+        });
+    }
+    
+    private static final class LevelResult {
+        private final int level;
+        private final double throughput;
+        private final LatencyHistogram histogram;
+        private final long errors;
+        
+        LevelResult(int level, double throughput, LatencyHistogram histogram, long errors) {
+            this.level = level;
+            this.throughput = throughput;
+            this.histogram = histogram;
+            this.errors = errors;
+        }
+    }
+    
+    /**
+     * Estimación del techo: el throughput máximo y la concurrencia a partir de la cual dejó de
+     * crecer más de un 10 % al subir el nivel
+     */
+    private static void printCeiling(List<LevelResult> results, long latencyMillis) {
+        if (results.isEmpty()) {
+            return;
+        }
+        System.out.printf("%nTecho de concurrencia (latencia de Supabase %d ms)%n", latencyMillis);
+        LevelResult best = results.get(0);
+        Integer saturation = null;
+        for (int i = 0; i < results.size(); i++) {
+            LevelResult result = results.get(i);
+            if (result.throughput > best.throughput) {
+                best = result;
+            }
+            if (saturation == null && i > 0 && result.throughput < results.get(i - 1).throughput * 1.1) {
+                saturation = results.get(i - 1).level;
+            }
+        }
+        System.out.printf("  máximo %.1f req/s con %d concurrentes; %s%n", best.throughput, best.level,
+            saturation == null ? "sin saturar en los niveles probados" : "satura desde " + saturation + " concurrentes");
+    }
+    
+    static final class Options {
+        final List<Integer> levels = new ArrayList<>(List.of(50, 100, 200, 400, 800));
+        String path = "/api/voters/{dni}";
+        int warmupSeconds = 3;
+        int durationSeconds = 10;
+        int requestTimeoutSeconds = 30;
+        int voters = 10_000;
+        long supabaseLatencyMillis = 250;
+        long supabaseJitterMillis = 0;
+        final List<String> appArgs = new ArrayList<>();
+        
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                    throw new IllegalArgumentException("Argumento inválido: " + arg + " (se espera --clave=valor)");
+                }
+                String key = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                if (key.startsWith("app.")) {
+                    options.appArgs.add("--" + key.substring(4) + "=" + value);
+                    continue;
+                }
+                switch (key) {
+                    case "levels" -> {
+                        options.levels.clear();
+                        for (String level : value.split(",")) {
+                            options.levels.add(Integer.parseInt(level.trim()));
+                        }
+                    }
+                    case "path" -> options.path = value;
+                    case "warmup-s" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "duration-s" -> options.durationSeconds = Integer.parseInt(value);
+                    case "request-timeout-s" -> options.requestTimeoutSeconds = Integer.parseInt(value);
+                    case "voters" -> options.voters = Integer.parseInt(value);
+                    case "supabase-latency-ms" -> options.supabaseLatencyMillis = Long.parseLong(value);
+                    case "supabase-jitter-ms" -> options.supabaseJitterMillis = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Opción desconocida: --" + key);
+                }
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.elecciones.perf;
+
+import com.elecciones.SistemaElectoralApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inicia la aplicación en la JVM actual, en un puerto libre, apuntando a los stubs de
+ * Supabase y Factiliza y sin límite de frecuencia.
+ */
+final class EmbeddedApp {
+    
+    private EmbeddedApp() {
+    }
+    
+    static ConfigurableApplicationContext start(String supabaseUrl, String factilizaUrl, List<String> extraArgs) {
+        // El reinicio de devtools cargaría la aplicación en otro classloader y otro hilo
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--management.server.port=0",
+            "--supabase.url=" + supabaseUrl,
+            "--supabase.key=perf",
+            "--supabase.service-key=perf",
+            "--fastapi.base-url=" + factilizaUrl,
+            "--fastapi.reniec-endpoint=" + FactilizaStubServer.ENDPOINT,
+            "--fastapi.api-key=",
+            "--ratelimit.enabled=false",
+            "--logging.level.com.elecciones=WARN"));
+        args.addAll(extraArgs);
+        return SpringApplication.run(SistemaElectoralApplication.class, args.toArray(String[]::new));
+    }
+    
+    static String baseUrl(ConfigurableApplicationContext app) {
+        return "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+    }
+}
@@ -0,0 +1,199 @@
+package com.elecciones.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Verifica una exportación de GET /api/superadmin/migration/export/stream.
+ *
+ * Lee el NDJSON comprimido línea por línea (sin cargarlo en memoria), recalcula filas y
+ * SHA-256 de cada tabla y los compara con las líneas "table" y con el manifest final.
+ * Con --url inicia sesión como super administrador y descarga la exportación; con --file
+ * lee un archivo ya descargado. Termina con código 1 si algo no coincide.
+ *
+ *   mvn -Pperf test-compile exec:java -Dexec.mainClass=com.elecciones.perf.ExportVerifier \
+ *       -Dexec.args="--url=http://localhost:8080"
+ *
+ * Para medir el heap del servidor: levantar el PostgrestStubServer con --voters=N en otro
+ * proceso y la aplicación con -Xmx512m apuntando a él.
+ */
+public final class ExportVerifier {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+    private JsonNode manifest;
+    private JsonNode error;
+    private long lines;
+    private long bytes;
+    
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        Path file = null;
+        String email = "superadmin@elecciones.pe";
+        String password = "superadmin123";
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (se espera --clave=valor)");
+            }
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (arg.substring(2, arg.indexOf('='))) {
+                case "url" -> url = value;
+                case "file" -> file = Path.of(value);
+                case "email" -> email = value;
+                case "password" -> password = value;
+                default -> throw new IllegalArgumentException("Opción desconocida: " + arg);
+            }
+        }
+        if ((url == null) == (file == null)) {
+            throw new IllegalArgumentException("Se requiere --url o --file");
+        }
+        
+        ExportVerifier verifier = new ExportVerifier();
+        long start = System.nanoTime();
+        if (file != null) {
+            try (InputStream in = Files.newInputStream(file)) {
+                verifier.read(in);
+            }
+        } else {
+            try (InputStream in = download(url, email, password)) {
+                verifier.read(in);
+            }
+        }
+        boolean ok = verifier.report((System.nanoTime() - start) / 1_000_000);
+        System.exit(ok ? 0 : 1);
+    }
+    
+    private static InputStream download(String baseUrl, String email, String password)
+            throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String credentials = MAPPER.createObjectNode().put("email", email).put("password", password).toString();
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/superadmin/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(credentials))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        String token = MAPPER.readTree(login.body()).path("token").asText();
+        if (token.isEmpty()) {
+            throw new IllegalStateException("Login de super administrador fallido: " + login.body());
+        }
+        HttpResponse<InputStream> response = client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/superadmin/migration/export/stream"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofHours(1))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("La exportación respondió " + response.statusCode() + ": "
+                + new String(response.body().readAllBytes()));
+        }
+        return response.body();
+    }
+    
+    private void read(InputStream compressed) throws IOException {
+        InputStream in = new BufferedInputStream(new GZIPInputStream(compressed, 64 * 1024), 64 * 1024);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b != '\n') {
+                line.write(b);
+                continue;
+            }
+            line.write('\n');
+            bytes += line.size();
+            lines++;
+            byte[] data = line.toByteArray();
+            line.reset();
+            JsonNode node = MAPPER.readTree(data);
+            switch (node.path("type").asText()) {
+                case "row" -> table(node.path("table").asText()).add(data);
+                case "table" -> table(node.path("table").asText()).declared = node;
+                case "manifest" -> manifest = node;
+                case "error" -> error = node;
+                case "header" -> System.out.println("Exportación " + node.path("format").asText() + " v"
+                    + node.path("version").asInt() + " del " + node.path("exportedAt").asText());
+                default -> throw new IllegalStateException("Línea " + lines + " sin tipo conocido");
+            }
+        }
+        if (line.size() > 0) {
+            throw new IllegalStateException("La última línea no termina en salto de línea");
+        }
+    }
+    
+    private Table table(String name) {
+        return tables.computeIfAbsent(name, Table::new);
+    }
+    
+    private boolean report(long millis) {
+        boolean ok = error == null && manifest != null;
+        System.out.printf("%d líneas, %.1f MB sin comprimir, leídas en %d ms%n", lines, bytes / 1e6, millis);
+        if (error != null) {
+            System.out.println("La exportación terminó con error en " + error.path("table").asText() + ": "
+                + error.path("message").asText());
+        }
+        if (manifest == null) {
+            System.out.println("Falta la línea manifest: la exportación está incompleta");
+        }
+        Map<String, JsonNode> inManifest = new LinkedHashMap<>();
+        if (manifest != null) {
+            manifest.path("tables").forEach(node -> inManifest.put(node.path("table").asText(), node));
+        }
+        for (Table table : tables.values()) {
+            String sha = table.sha256();
+            boolean declared = table.declared != null
+                && table.declared.path("rows").asLong() == table.rows
+                && table.declared.path("sha256").asText().equals(sha);
+            JsonNode summary = inManifest.get(table.name);
+            boolean listed = summary != null
+                && summary.path("rows").asLong() == table.rows
+                && summary.path("sha256").asText().equals(sha);
+            ok &= declared && listed;
+            System.out.printf("  %-12s %10d filas  sha256 %s  %s%n", table.name, table.rows, sha,
+                declared && listed ? "ok" : "NO COINCIDE");
+        }
+        System.out.println(ok ? "Exportación verificada" : "Exportación inválida");
+        return ok;
+    }
+    
+    private static final class Table {
+        private final String name;
+        private final MessageDigest digest;
+        private long rows;
+        private JsonNode declared;
+        
+        Table(String name) {
+            this.name = name;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        void add(byte[] line) {
+            digest.update(line);
+            rows++;
+        }
+        
+        String sha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
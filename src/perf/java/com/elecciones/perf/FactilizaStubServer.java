@@ -0,0 +1,122 @@
+package com.elecciones.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Imitación de GET /v1/dni/info/{dni} de Factiliza: responde a cualquier DNI de 8 dígitos
+ * con datos derivados del número, tras una latencia configurable
+ */
+public final class FactilizaStubServer implements Closeable {
+    
+    static final String ENDPOINT = "/v1/dni/info";
+    
+    private static final String[] NAMES = {"JUAN", "MARIA", "JOSE", "ROSA", "LUIS", "CARMEN", "CARLOS", "ANA"};
+    private static final String[] LAST_NAMES = {"QUISPE", "FLORES", "SANCHEZ", "RODRIGUEZ", "GARCIA", "ROJAS"};
+    
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final ObjectMapper mapper = new ObjectMapper();
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    public FactilizaStubServer(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+    
+    public void start(int port) throws IOException {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(64, runnable -> {
+            Thread thread = new Thread(runnable, "factiliza-stub-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(ENDPOINT + "/", this::handle);
+        server.start();
+    }
+    
+    /**
+     * URL a usar como fastapi.base-url
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        long started = System.nanoTime();
+        try {
+            String dni = exchange.getRequestURI().getPath().substring(ENDPOINT.length() + 1);
+            Map<String, Object> body = new LinkedHashMap<>();
+            int status;
+            if (dni.matches("\\d{8}")) {
+                int seed = Integer.parseInt(dni);
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("numero", dni);
+                data.put("nombres", NAMES[seed % NAMES.length]);
+                data.put("apellido_paterno", LAST_NAMES[seed % LAST_NAMES.length]);
+                data.put("apellido_materno", LAST_NAMES[(seed / 7) % LAST_NAMES.length]);
+                data.put("departamento", SyntheticDataGenerator.DEPARTMENTS[seed % SyntheticDataGenerator.DEPARTMENTS.length].toUpperCase());
+                data.put("provincia", "PROVINCIA " + seed % 20);
+                data.put("distrito", "DISTRITO " + seed % 50);
+                data.put("direccion", "AV. PRINCIPAL " + seed % 2000);
+                data.put("fecha_nacimiento", String.format("%02d/%02d/%d", 1 + seed % 28, 1 + seed % 12, 1950 + seed % 55));
+                body.put("status", 200);
+                body.put("success", true);
+                body.put("message", "Exito");
+                body.put("data", data);
+                status = 200;
+            } else {
+                body.put("status", 400);
+                body.put("success", false);
+                body.put("message", "DNI inválido");
+                status = 400;
+            }
+            
+            long target = TimeUnit.MILLISECONDS.toNanos(latencyMillis)
+                + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(TimeUnit.MILLISECONDS.toNanos(jitterMillis) + 1) : 0);
+            long remaining;
+            while ((remaining = started + target - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+            
+            byte[] bytes = mapper.writeValueAsBytes(body);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.elecciones.perf;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Filtro horizontal de PostgREST (columna=operador.valor).
+ * Soporta eq, neq, gt, gte, lt, lte, like, ilike (con * como comodín), in.(...) e is,
+ * y su negación con el prefijo not. (p. ej. not.is.null).
+ * Los valores se comparan por su representación textual, como llegan en la URL.
+ */
+final class Filter {
+    
+    private final String column;
+    private final String operator;
+    private final String value;
+    private final Set<String> values;
+    private final Pattern pattern;
+    private final boolean negated;
+    
+    private Filter(String column, String operator, String value) {
+        this(column, operator, value, false);
+    }
+    
+    private Filter(String column, String operator, String value, boolean negated) {
+        this.column = column;
+        this.operator = operator;
+        this.value = value;
+        this.values = "in".equals(operator) ? parseList(value) : null;
+        this.pattern = "like".equals(operator) || "ilike".equals(operator) ? toPattern(value, "ilike".equals(operator)) : null;
+        this.negated = negated;
+    }
+    
+    static Filter parse(String column, String expression) {
+        int dot = expression.indexOf('.');
+        if (dot <= 0) {
+            throw new StubException(400, "PGRST100", "\"failed to parse filter (" + expression + ")\"");
+        }
+        String operator = expression.substring(0, dot);
+        if ("not".equals(operator)) {
+            Filter inner = parse(column, expression.substring(dot + 1));
+            if (inner.negated) {
+                throw new StubException(400, "PGRST100", "\"failed to parse filter (" + expression + ")\"");
+            }
+            return new Filter(column, inner.operator, inner.value, true);
+        }
+        switch (operator) {
+            case "eq", "neq", "gt", "gte", "lt", "lte", "like", "ilike", "in", "is":
+                return new Filter(column, operator, expression.substring(dot + 1));
+            default:
+                throw new StubException(400, "PGRST100", "\"failed to parse filter (" + expression + ")\"");
+        }
+    }
+    
+    String getColumn() {
+        return column;
+    }
+    
+    String getValue() {
+        return value;
+    }
+    
+    boolean isEquality() {
+        return "eq".equals(operator) && !negated;
+    }
+    
+    boolean test(Object cell) {
+        if (!negated) {
+            return matches(cell);
+        }
+        // NOT de una comparación con NULL sigue siendo NULL, salvo con is
+        return (cell != null || "is".equals(operator)) && !matches(cell);
+    }
+    
+    private boolean matches(Object cell) {
+        switch (operator) {
+            case "is":
+                if ("null".equals(value)) {
+                    return cell == null;
+                }
+                return cell != null && String.valueOf(cell).equalsIgnoreCase(value);
+            case "neq":
+                return cell != null && !String.valueOf(cell).equals(value);
+            default:
+                break;
+        }
+        if (cell == null) {
+            // Cualquier comparación con NULL es falsa en SQL
+            return false;
+        }
+        String text = String.valueOf(cell);
+        switch (operator) {
+            case "eq":
+                return text.equals(value);
+            case "in":
+                return values.contains(text);
+            case "like", "ilike":
+                return pattern.matcher(text).matches();
+            default:
+                int comparison = compare(cell, value);
+                return switch (operator) {
+                    case "gt" -> comparison > 0;
+                    case "gte" -> comparison >= 0;
+                    case "lt" -> comparison < 0;
+                    default -> comparison <= 0;
+                };
+        }
+    }
+    
+    private static int compare(Object cell, String value) {
+        if (cell instanceof Number number) {
+            try {
+                return Double.compare(number.doubleValue(), Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                throw new StubException(400, "22P02", "invalid input syntax for type numeric: \"" + value + "\"");
+            }
+        }
+        // Las fechas ISO-8601 se ordenan correctamente como texto
+        return String.valueOf(cell).compareTo(value);
+    }
+    
+    private static Set<String> parseList(String value) {
+        if (!value.startsWith("(") || !value.endsWith(")")) {
+            throw new StubException(400, "PGRST100", "\"failed to parse filter (in." + value + ")\"");
+        }
+        Set<String> items = new HashSet<>();
+        Arrays.stream(value.substring(1, value.length() - 1).split(","))
+            .map(item -> item.trim().replaceAll("^\"|\"$", ""))
+            .filter(item -> !item.isEmpty())
+            .forEach(items::add);
+        return items;
+    }
+    
+    private static Pattern toPattern(String value, boolean caseInsensitive) {
+        String regex = Arrays.stream(value.replace('%', '*').split("\\*", -1))
+            .map(Pattern::quote)
+            .collect(Collectors.joining(".*"));
+        return Pattern.compile(regex, caseInsensitive ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+    }
+}
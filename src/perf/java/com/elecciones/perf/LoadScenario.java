@@ -0,0 +1,118 @@
+package com.elecciones.perf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Perfil de llegadas de un modelo abierto: una secuencia de fases con tasa de llegada
+ * (jornadas de votante por segundo) que varía linealmente entre el inicio y el fin de cada fase.
+ * Las llegadas no dependen de cuánto tarda el sistema en responder.
+ */
+final class LoadScenario {
+    
+    private final String name;
+    private final List<Phase> phases;
+    
+    private LoadScenario(String name, List<Phase> phases) {
+        this.name = name;
+        this.phases = Collections.unmodifiableList(phases);
+    }
+    
+    /**
+     * Carga constante
+     */
+    static LoadScenario steady(double rate, int durationSeconds) {
+        List<Phase> phases = new ArrayList<>();
+        phases.add(new Phase("rampa", Math.min(10, durationSeconds / 6), 0, rate));
+        phases.add(new Phase("estable", durationSeconds, rate, rate));
+        return new LoadScenario("steady", phases);
+    }
+    
+    /**
+     * Apertura de mesas: carga base, salto brusco al pico, meseta y descenso de vuelta a la base
+     */
+    static LoadScenario opening(double baseRate, double peakRate, int durationSeconds, int spikeSeconds) {
+        int before = Math.max(1, (durationSeconds - 2 * spikeSeconds) / 2);
+        int after = Math.max(1, durationSeconds - 2 * spikeSeconds - before);
+        List<Phase> phases = new ArrayList<>();
+        phases.add(new Phase("previa", before, baseRate, baseRate));
+        phases.add(new Phase("apertura", spikeSeconds, peakRate, peakRate));
+        phases.add(new Phase("descenso", spikeSeconds, peakRate, baseRate));
+        phases.add(new Phase("estable", after, baseRate, baseRate));
+        return new LoadScenario("opening", phases);
+    }
+    
+    String getName() {
+        return name;
+    }
+    
+    List<Phase> getPhases() {
+        return phases;
+    }
+    
+    double getDurationSeconds() {
+        return phases.stream().mapToDouble(Phase::getDurationSeconds).sum();
+    }
+    
+    /**
+     * Tasa máxima del escenario, cota para generar las llegadas por aceptación y rechazo
+     */
+    double getPeakRate() {
+        return phases.stream().mapToDouble(phase -> Math.max(phase.startRate, phase.endRate)).max().orElse(0);
+    }
+    
+    /**
+     * Fase activa a los segundos indicados desde el inicio, o null si el escenario terminó
+     */
+    Phase phaseAt(double seconds) {
+        double start = 0;
+        for (Phase phase : phases) {
+            if (seconds < start + phase.durationSeconds) {
+                return phase;
+            }
+            start += phase.durationSeconds;
+        }
+        return null;
+    }
+    
+    double rateAt(double seconds) {
+        double start = 0;
+        for (Phase phase : phases) {
+            if (seconds < start + phase.durationSeconds) {
+                double progress = (seconds - start) / phase.durationSeconds;
+                return phase.startRate + (phase.endRate - phase.startRate) * progress;
+            }
+            start += phase.durationSeconds;
+        }
+        return 0;
+    }
+    
+    static final class Phase {
+        private final String name;
+        private final double durationSeconds;
+        private final double startRate;
+        private final double endRate;
+        
+        Phase(String name, double durationSeconds, double startRate, double endRate) {
+            this.name = name;
+            this.durationSeconds = durationSeconds;
+            this.startRate = startRate;
+            this.endRate = endRate;
+        }
+        
+        String getName() {
+            return name;
+        }
+        
+        double getDurationSeconds() {
+            return durationSeconds;
+        }
+        
+        String describe() {
+            return startRate == endRate
+                ? String.format("%.0f/s", startRate)
+                : String.format("%.0f→%.0f/s", startRate, endRate);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.elecciones.perf;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+
+/**
+ * Genera un CSV de padrón para POST /api/superadmin/padron/load.
+ *
+ * El formato es el de una exportación de RENIEC: separador punto y coma, nombres en
+ * mayúsculas, apellidos en columnas propias y fecha dd/MM/yyyy. Los DNI siguen la convención
+ * de SyntheticDataGenerator (10000000 + i). Una de cada --invalid-every filas tiene un DNI
+ * inválido para que aparezca en el reporte de fallas.
+ *
+ *   mvn -Pperf test-compile exec:java -Dexec.mainClass=com.elecciones.perf.PadronCsvGenerator \
+ *       -Dexec.args="--file=data/padron/padron.csv --rows=1000000"
+ */
+public final class PadronCsvGenerator {
+    
+    private static final String[] NAMES = {
+        "JOSÉ", "MARÍA", "LUIS", "ROSA", "CARLOS", "ANA", "JORGE", "CARMEN", "MIGUEL", "LUCÍA",
+        "PEDRO", "ELENA", "JUAN", "SOFÍA", "VÍCTOR", "PATRICIA", "RAÚL", "GLORIA", "CÉSAR", "INÉS"
+    };
+    private static final String[] SURNAMES = {
+        "QUISPE", "FLORES", "SÁNCHEZ", "RODRÍGUEZ", "GARCÍA", "MAMANI", "HUAMÁN", "CHÁVEZ", "RAMOS", "TORRES",
+        "VARGAS", "CASTILLO", "MENDOZA", "ROJAS", "GUTIÉRREZ", "DÍAZ", "CRUZ", "PÉREZ", "LÓPEZ", "CONDORI"
+    };
+    private static final DateTimeFormatter DAY_MONTH_YEAR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of("data/padron/padron.csv");
+        int rows = 100_000;
+        int invalidEvery = 1000;
+        long seed = 42;
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (se espera --clave=valor)");
+            }
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (arg.substring(2, arg.indexOf('='))) {
+                case "file" -> file = Path.of(value);
+                case "rows" -> rows = Integer.parseInt(value);
+                case "invalid-every" -> invalidEvery = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Opción desconocida: " + arg);
+            }
+        }
+        
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate oldest = LocalDate.of(1940, 1, 1);
+        int invalid = 0;
+        long start = System.nanoTime();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("DNI;NOMBRES;APELLIDO_PATERNO;APELLIDO_MATERNO;DIRECCION;DISTRITO;PROVINCIA;DEPARTAMENTO;FECHA_NACIMIENTO\r\n");
+            for (int i = 0; i < rows; i++) {
+                boolean bad = invalidEvery > 0 && i % invalidEvery == invalidEvery - 1;
+                String department = SyntheticDataGenerator.DEPARTMENTS[random.nextInt(SyntheticDataGenerator.DEPARTMENTS.length)]
+                    .toUpperCase();
+                out.write(bad ? "1234X" + i % 1000 : SyntheticDataGenerator.voterDni(i));
+                out.write(';');
+                out.write(NAMES[random.nextInt(NAMES.length)]);
+                out.write(';');
+                out.write(SURNAMES[random.nextInt(SURNAMES.length)]);
+                out.write(';');
+                out.write(SURNAMES[random.nextInt(SURNAMES.length)]);
+                out.write(";\"AV. LOS OLIVOS ");
+                out.write(Integer.toString(100 + random.nextInt(900)));
+                out.write(", MZ. ");
+                out.write((char) ('A' + random.nextInt(26)));
+                out.write("\";");
+                out.write(department);
+                out.write(';');
+                out.write(department);
+                out.write(';');
+                out.write(department);
+                out.write(';');
+                out.write(oldest.plusDays(random.nextInt(365 * 65)).format(DAY_MONTH_YEAR));
+                out.write("\r\n");
+                if (bad) {
+                    invalid++;
+                }
+            }
+        }
+        System.out.printf("%s: %d filas (%d con DNI inválido), %.1f MB en %d ms%n", file, rows, invalid,
+            Files.size(file) / 1e6, (System.nanoTime() - start) / 1_000_000);
+    }
+}
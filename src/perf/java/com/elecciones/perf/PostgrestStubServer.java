@@ -0,0 +1,646 @@
+package com.elecciones.perf;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Servidor HTTP embebido que imita el subconjunto de PostgREST que usa SupabaseService,
+ * para pruebas de carga sin depender del proyecto real de Supabase.
+ *
+ * Implementa /rest/v1/{voters,candidates,votes} con filtros eq/neq/gt/gte/lt/lte/like/ilike/in/is,
+ * select de columnas, order, limit/offset, Content-Range (con total si Prefer: count=exact),
+ * POST de objetos o arreglos con Prefer resolution=merge-duplicates|ignore-duplicates y
+ * return=representation|minimal, PATCH y DELETE con filtros. Respeta la clave primaria, la
+ * restricción única (voter_dni, category) de votes y el trigger que incrementa vote_count.
+ *
+ * La latencia inyectada (base + jitter + costo por fila devuelta) permite reproducir los
+ * tiempos de red de Supabase. Uso:
+ *
+ *   mvn -Pperf test-compile exec:java -Dexec.mainClass=com.elecciones.perf.PostgrestStubServer \
+ *       -Dexec.args="--port=54321 --voters=1000000 --turnout=0.6 --latency-ms=20 --jitter-ms=10"
+ *
+ * y luego iniciar la aplicación con --supabase.url=http://localhost:54321
+ */
+public final class PostgrestStubServer implements Closeable {
+    
+    static final String API_PREFIX = "/rest/v1/";
+    
+    private final Options options;
+    private final Map<String, StubTable> tables = new LinkedHashMap<>();
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper = new ObjectMapper();
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    public PostgrestStubServer(Options options) {
+        this.options = options;
+        tables.put("voters", new StubTable("voters", new String[]{
+            "dni", "full_name", "address", "district", "province", "department", "birth_date",
+            "has_voted", "voted_at", "created_at"
+        }, "dni", null));
+        tables.put("candidates", new StubTable("candidates", new String[]{
+            "id", "name", "photo_url", "description", "party_name", "party_logo_url", "party_description",
+            "category", "academic_formation", "professional_experience", "campaign_proposal", "vote_count",
+            "created_at", "updated_at"
+        }, "id", null, "category"));
+        tables.put("votes", new StubTable("votes", new String[]{
+            "id", "voter_dni", "candidate_id", "category", "voted_at", "created_at"
+        }, "id", new String[]{"voter_dni", "category"}, "voter_dni", "category"));
+        tables.put("security_audit_log", new StubTable("security_audit_log", new String[]{
+            "seq", "occurred_at", "type", "actor", "ip", "status", "detail"
+        }, "seq", null, "type"));
+    }
+    
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        PostgrestStubServer server = new PostgrestStubServer(options);
+        
+        long started = System.nanoTime();
+        server.generate(new SyntheticDataGenerator(options.seed, options.voters, options.turnout,
+            options.candidatesPerCategory));
+        System.out.printf("Datos sintéticos generados en %d ms: %d votantes, %d candidatos, %d votos%n",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), server.table("voters").size(),
+            server.table("candidates").size(), server.table("votes").size());
+        
+        server.start();
+        System.out.printf("PostgREST de pruebas escuchando en %s (latencia %d ms + hasta %d ms, %d µs por fila)%n",
+            server.getBaseUrl(), options.latencyMillis, options.jitterMillis, options.perRowMicros);
+        System.out.println("Iniciar la aplicación con --supabase.url=" + server.getBaseUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+    }
+    
+    public void generate(SyntheticDataGenerator generator) {
+        generator.populate(this);
+    }
+    
+    public void start() throws IOException {
+        // Sin TCP_NODELAY el servidor del JDK envía headers y cuerpo en segmentos separados y el
+        // ACK retardado del cliente agrega ~40 ms a cada respuesta; se lee al cargar la clase
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(options.host, options.port), options.backlog);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(options.threads, runnable -> {
+            Thread thread = new Thread(runnable, "postgrest-stub-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(API_PREFIX, this::handle);
+        server.start();
+    }
+    
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+    
+    /**
+     * URL a usar como supabase.url (la aplicación agrega /rest/v1)
+     */
+    public String getBaseUrl() {
+        return "http://" + options.host + ":" + server.getAddress().getPort();
+    }
+    
+    /**
+     * Solicitudes recibidas por "MÉTODO tabla", para verificar cuántas llamadas hace cada operación
+     */
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestCounts.forEach((key, count) -> counts.put(key, count.sum()));
+        return counts;
+    }
+    
+    public void resetRequestCounts() {
+        requestCounts.clear();
+    }
+    
+    StubTable table(String name) {
+        return tables.get(name);
+    }
+    
+    Object[] newRow(StubTable table) {
+        return new Object[table.getColumns().length];
+    }
+    
+    // ========== HTTP ==========
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        long started = System.nanoTime();
+        try {
+            String tableName = exchange.getRequestURI().getPath().substring(API_PREFIX.length());
+            StubTable table = tables.get(tableName);
+            requestCounts.computeIfAbsent(exchange.getRequestMethod() + " " + tableName, k -> new LongAdder()).increment();
+            if (table == null) {
+                throw new StubException(404, "42P01", "relation \"public." + tableName + "\" does not exist");
+            }
+            
+            Query query = Query.parse(exchange.getRequestURI().getRawQuery(), table);
+            Prefer prefer = Prefer.parse(exchange.getRequestHeaders().getFirst("Prefer"));
+            Response response = switch (exchange.getRequestMethod()) {
+                case "GET", "HEAD" -> handleSelect(exchange, table, query, prefer);
+                case "POST" -> handleInsert(exchange, table, query, prefer);
+                case "PATCH" -> handleUpdate(exchange, table, query, prefer);
+                case "DELETE" -> handleDelete(table, query, prefer);
+                default -> throw new StubException(405, "PGRST117",
+                    "Unsupported HTTP method: " + exchange.getRequestMethod());
+            };
+            delay(started, response.rows);
+            send(exchange, response.status, response.body);
+        } catch (StubException e) {
+            delay(started, 0);
+            writeError(exchange, e);
+        } catch (IOException | RuntimeException e) {
+            delay(started, 0);
+            writeError(exchange, new StubException(500, "XX000", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private Response handleSelect(HttpExchange exchange, StubTable table, Query query, Prefer prefer) throws IOException {
+        List<Object[]> rows = table.select(query.filters);
+        if (query.order != null) {
+            rows.sort(query.order);
+        }
+        int total = rows.size();
+        int from = Math.min(query.offset, total);
+        int to = query.limit < 0 ? total : (int) Math.min((long) from + query.limit, total);
+        List<Object[]> page = rows.subList(from, to);
+        
+        String range = page.isEmpty() ? "*" : from + "-" + (to - 1);
+        exchange.getResponseHeaders().set("Content-Range", range + "/" + (prefer.countExact ? total : "*"));
+        byte[] body = "HEAD".equals(exchange.getRequestMethod()) ? new byte[0] : writeRows(table, page, query.select);
+        return new Response(200, body, page.size());
+    }
+    
+    private Response handleInsert(HttpExchange exchange, StubTable table, Query query, Prefer prefer) throws IOException {
+        JsonNode payload = readBody(exchange);
+        List<JsonNode> items = new ArrayList<>();
+        if (payload.isArray()) {
+            payload.forEach(items::add);
+        } else {
+            items.add(payload);
+        }
+        
+        List<Object[]> written = new ArrayList<>();
+        List<Object> inserted = new ArrayList<>();
+        try {
+            for (JsonNode item : items) {
+                Map<String, Object> values = toValues(table, item);
+                Object[] row = defaults(table, values);
+                StubTable.Written result = table.insert(row, values, prefer.resolution);
+                if (result == null) {
+                    continue;
+                }
+                written.add(result.getRow());
+                if (result.isInserted()) {
+                    inserted.add(result.getKey());
+                    afterInsert(table, result.getRow());
+                }
+            }
+        } catch (StubException e) {
+            // Una solicitud es una transacción: un error deshace las filas insertadas
+            for (Object key : inserted) {
+                for (Object[] row : table.delete(List.of(Filter.parse(table.getPrimaryKey(), "eq." + key)))) {
+                    afterDelete(table, row);
+                }
+            }
+            throw e;
+        }
+        
+        exchange.getResponseHeaders().set("Content-Range", "*/*");
+        byte[] body = prefer.returnRepresentation ? writeRows(table, written, query.select) : new byte[0];
+        return new Response(201, body, written.size());
+    }
+    
+    private Response handleUpdate(HttpExchange exchange, StubTable table, Query query, Prefer prefer) throws IOException {
+        JsonNode payload = readBody(exchange);
+        if (!payload.isObject()) {
+            throw new StubException(400, "PGRST102", "Empty or invalid json");
+        }
+        List<Object[]> updated = table.update(query.filters, toValues(table, payload));
+        return respondWithRows(table, query, prefer, updated);
+    }
+    
+    private Response handleDelete(StubTable table, Query query, Prefer prefer) throws IOException {
+        List<Object[]> deleted = table.delete(query.filters);
+        for (Object[] row : deleted) {
+            afterDelete(table, row);
+        }
+        return respondWithRows(table, query, prefer, deleted);
+    }
+    
+    private Response respondWithRows(StubTable table, Query query, Prefer prefer, List<Object[]> rows)
+            throws IOException {
+        if (prefer.returnRepresentation) {
+            return new Response(200, writeRows(table, rows, query.select), rows.size());
+        }
+        return new Response(204, null, rows.size());
+    }
+    
+    // ========== TRIGGERS Y VALORES POR DEFECTO ==========
+    
+    private Object[] defaults(StubTable table, Map<String, Object> values) {
+        Object[] row = newRow(table);
+        String now = SyntheticDataGenerator.format(LocalDateTime.now());
+        switch (table.getName()) {
+            case "voters" -> row[table.column("has_voted")] = false;
+            case "candidates" -> row[table.column("vote_count")] = 0L;
+            default -> { }
+        }
+        if (table.hasColumn("id")) {
+            row[table.column("id")] = UUID.randomUUID().toString();
+        }
+        if (table.hasColumn("voted_at") && "votes".equals(table.getName())) {
+            row[table.column("voted_at")] = now;
+        }
+        if (table.hasColumn("created_at")) {
+            row[table.column("created_at")] = now;
+        }
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            row[table.column(entry.getKey())] = entry.getValue();
+        }
+        return row;
+    }
+    
+    /**
+     * Equivalente al trigger de Supabase que mantiene candidates.vote_count
+     */
+    private void afterInsert(StubTable table, Object[] row) {
+        if ("votes".equals(table.getName())) {
+            Object candidateId = row[table.column("candidate_id")];
+            if (candidateId != null) {
+                tables.get("candidates").increment(candidateId, "vote_count", 1);
+            }
+        }
+    }
+    
+    private void afterDelete(StubTable table, Object[] row) {
+        if ("votes".equals(table.getName())) {
+            Object candidateId = row[table.column("candidate_id")];
+            if (candidateId != null) {
+                tables.get("candidates").increment(candidateId, "vote_count", -1);
+            }
+        }
+    }
+    
+    // ========== SERIALIZACIÓN ==========
+    
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readAllBytes();
+            if (body.length == 0) {
+                throw new StubException(400, "PGRST102", "Empty or invalid json");
+            }
+            return mapper.readTree(body);
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new StubException(400, "PGRST102", "Empty or invalid json");
+        }
+    }
+    
+    private Map<String, Object> toValues(StubTable table, JsonNode item) {
+        if (!item.isObject()) {
+            throw new StubException(400, "PGRST102", "Empty or invalid json");
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        item.fields().forEachRemaining(field -> {
+            table.column(field.getKey());
+            JsonNode node = field.getValue();
+            Object value;
+            if (node.isNull()) {
+                value = null;
+            } else if (node.isBoolean()) {
+                value = node.booleanValue();
+            } else if (node.isIntegralNumber()) {
+                value = node.longValue();
+            } else if (node.isNumber()) {
+                value = node.doubleValue();
+            } else if (node.isTextual()) {
+                value = node.textValue();
+            } else {
+                value = node.toString();
+            }
+            values.put(field.getKey(), value);
+        });
+        return values;
+    }
+    
+    private byte[] writeRows(StubTable table, List<Object[]> rows, int[] select) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, rows.size() * 64));
+        String[] columns = table.getColumns();
+        try (JsonGenerator json = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (Object[] row : rows) {
+                json.writeStartObject();
+                for (int index : select) {
+                    json.writeFieldName(columns[index]);
+                    writeValue(json, row[index]);
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        return out.toByteArray();
+    }
+    
+    private static void writeValue(JsonGenerator json, Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof Boolean bool) {
+            json.writeBoolean(bool);
+        } else if (value instanceof Long number) {
+            json.writeNumber(number);
+        } else if (value instanceof Number number) {
+            json.writeNumber(number.doubleValue());
+        } else {
+            json.writeString(value.toString());
+        }
+    }
+    
+    private void writeError(HttpExchange exchange, StubException e) throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", e.getCode());
+        error.put("details", e.getDetails());
+        error.put("hint", null);
+        error.put("message", e.getMessage());
+        send(exchange, e.getStatus(), mapper.writeValueAsBytes(error));
+    }
+    
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+    
+    // ========== LATENCIA ==========
+    
+    /**
+     * Espera hasta completar la latencia simulada, descontando lo que ya tomó procesar la solicitud
+     */
+    private void delay(long started, int rows) {
+        long target = TimeUnit.MILLISECONDS.toNanos(options.latencyMillis)
+            + TimeUnit.MICROSECONDS.toNanos((long) options.perRowMicros * rows);
+        if (options.jitterMillis > 0) {
+            target += ThreadLocalRandom.current().nextLong(TimeUnit.MILLISECONDS.toNanos(options.jitterMillis) + 1);
+        }
+        long deadline = started + target;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+    
+    private static final class Response {
+        private final int status;
+        private final byte[] body;
+        private final int rows;
+        
+        private Response(int status, byte[] body, int rows) {
+            this.status = status;
+            this.body = body;
+            this.rows = rows;
+        }
+    }
+    
+    // ========== PARÁMETROS ==========
+    
+    /**
+     * Parámetros de consulta: select, order, limit, offset y filtros horizontales
+     */
+    private static final class Query {
+        private static final Set<String> RESERVED = Set.of("select", "order", "limit", "offset", "on_conflict", "columns");
+        
+        private final List<Filter> filters = new ArrayList<>();
+        private int[] select;
+        private Comparator<Object[]> order;
+        private int limit = -1;
+        private int offset;
+        
+        static Query parse(String rawQuery, StubTable table) {
+            Query query = new Query();
+            Map<String, String> params = new HashMap<>();
+            if (rawQuery != null && !rawQuery.isEmpty()) {
+                for (String pair : rawQuery.split("&")) {
+                    int eq = pair.indexOf('=');
+                    if (eq <= 0) {
+                        continue;
+                    }
+                    String key = URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8);
+                    String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                    if (RESERVED.contains(key)) {
+                        params.put(key, value);
+                    } else {
+                        table.column(key);
+                        query.filters.add(Filter.parse(key, value));
+                    }
+                }
+            }
+            
+            query.select = parseSelect(params.getOrDefault("select", "*"), table);
+            if (params.containsKey("order")) {
+                query.order = parseOrder(params.get("order"), table);
+            }
+            if (params.containsKey("on_conflict")) {
+                for (String column : params.get("on_conflict").split(",")) {
+                    table.column(column.trim());
+                }
+            }
+            try {
+                if (params.containsKey("limit")) {
+                    query.limit = Integer.parseInt(params.get("limit"));
+                }
+                if (params.containsKey("offset")) {
+                    query.offset = Integer.parseInt(params.get("offset"));
+                }
+            } catch (NumberFormatException e) {
+                throw new StubException(400, "PGRST100", "\"failed to parse limit/offset\"");
+            }
+            return query;
+        }
+        
+        private static int[] parseSelect(String select, StubTable table) {
+            if ("*".equals(select.trim())) {
+                int[] all = new int[table.getColumns().length];
+                for (int i = 0; i < all.length; i++) {
+                    all[i] = i;
+                }
+                return all;
+            }
+            String[] names = select.split(",");
+            int[] indexes = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i].trim();
+                if (!table.hasColumn(name)) {
+                    throw new StubException(400, "42703", "column " + table.getName() + "." + name + " does not exist");
+                }
+                indexes[i] = table.column(name);
+            }
+            return indexes;
+        }
+        
+        private static Comparator<Object[]> parseOrder(String order, StubTable table) {
+            Comparator<Object[]> comparator = null;
+            for (String term : order.split(",")) {
+                String[] parts = term.trim().split("\\.");
+                int index = table.column(parts[0]);
+                boolean descending = false;
+                boolean nullsFirst = false;
+                boolean nullsExplicit = false;
+                for (int i = 1; i < parts.length; i++) {
+                    switch (parts[i]) {
+                        case "desc" -> descending = true;
+                        case "asc" -> descending = false;
+                        case "nullsfirst" -> {
+                            nullsFirst = true;
+                            nullsExplicit = true;
+                        }
+                        case "nullslast" -> {
+                            nullsFirst = false;
+                            nullsExplicit = true;
+                        }
+                        default -> throw new StubException(400, "PGRST100", "\"failed to parse order (" + order + ")\"");
+                    }
+                }
+                // Como en PostgreSQL, los NULL van al final en orden ascendente y al inicio en descendente
+                if (!nullsExplicit) {
+                    nullsFirst = descending;
+                }
+                Comparator<Object> values = PostgrestStubServer::compareValues;
+                if (descending) {
+                    values = values.reversed();
+                }
+                values = nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+                Comparator<Object> column = values;
+                Comparator<Object[]> next = (a, b) -> column.compare(a[index], b[index]);
+                comparator = comparator == null ? next : comparator.thenComparing(next);
+            }
+            return comparator;
+        }
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a instanceof Number x && b instanceof Number y) {
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        if (a.getClass() == b.getClass() && a instanceof Comparable comparable) {
+            return comparable.compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+    
+    /**
+     * Header Prefer: return, resolution y count
+     */
+    private static final class Prefer {
+        private boolean returnRepresentation;
+        private boolean countExact;
+        private StubTable.Resolution resolution = StubTable.Resolution.NONE;
+        
+        static Prefer parse(String header) {
+            Prefer prefer = new Prefer();
+            if (header == null) {
+                return prefer;
+            }
+            for (String token : header.split(",")) {
+                switch (token.trim()) {
+                    case "return=representation" -> prefer.returnRepresentation = true;
+                    case "count=exact", "count=planned", "count=estimated" -> prefer.countExact = true;
+                    case "resolution=merge-duplicates" -> prefer.resolution = StubTable.Resolution.MERGE;
+                    case "resolution=ignore-duplicates" -> prefer.resolution = StubTable.Resolution.IGNORE;
+                    default -> { }
+                }
+            }
+            return prefer;
+        }
+    }
+    
+    /**
+     * Opciones de línea de comandos (--clave=valor)
+     */
+    public static final class Options {
+        String host = "127.0.0.1";
+        int port = 54321;
+        int threads = 64;
+        int backlog = 1024;
+        long latencyMillis;
+        long jitterMillis;
+        int perRowMicros;
+        long seed = 42;
+        int voters = 100_000;
+        double turnout = 0.5;
+        int candidatesPerCategory = 8;
+        
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                    throw new IllegalArgumentException("Argumento inválido: " + arg + " (se espera --clave=valor)");
+                }
+                String key = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (key) {
+                    case "host" -> options.host = value;
+                    case "port" -> options.port = Integer.parseInt(value);
+                    case "threads" -> options.threads = Integer.parseInt(value);
+                    case "backlog" -> options.backlog = Integer.parseInt(value);
+                    case "latency-ms" -> options.latencyMillis = Long.parseLong(value);
+                    case "jitter-ms" -> options.jitterMillis = Long.parseLong(value);
+                    case "per-row-us" -> options.perRowMicros = Integer.parseInt(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "voters" -> options.voters = Integer.parseInt(value);
+                    case "turnout" -> options.turnout = Double.parseDouble(value);
+                    case "candidates-per-category" -> options.candidatesPerCategory = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Opción desconocida: --" + key);
+                }
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.elecciones.perf;
+
+import com.elecciones.model.Candidate;
+import com.elecciones.model.Vote;
+import com.elecciones.model.Voter;
+import com.elecciones.repository.ReactiveElectionRepository;
+import com.elecciones.service.SupabaseService;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara ReactiveSupabaseService con SupabaseService sobre los mismos datos.
+ *
+ * Levanta el servidor PostgREST simulado y la aplicación con páginas chicas para que los
+ * recorridos completos usen varias páginas, y verifica que ambas variantes retornen los mismos
+ * votantes, candidatos, votos, conteos y análisis. Luego lanza --concurrency análisis de
+ * participación a la vez por la variante reactiva y muestra cuántos hilos del cliente los
+ * atendieron. Termina con código 1 si alguna comparación falla.
+ *
+ *   mvn -Pperf test-compile exec:java -Dexec.mainClass=com.elecciones.perf.ReactiveRepositoryCheck \
+ *       -Dexec.args="--voters=5000 --page-size=500 --concurrency=50 --latency-ms=50"
+ */
+public final class ReactiveRepositoryCheck {
+    
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    
+    private final SupabaseService blocking;
+    private final ReactiveElectionRepository reactive;
+    private final List<String> failures = new ArrayList<>();
+    
+    private ReactiveRepositoryCheck(SupabaseService blocking, ReactiveElectionRepository reactive) {
+        this.blocking = blocking;
+        this.reactive = reactive;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int voters = 2000;
+        int pageSize = 300;
+        int concurrency = 50;
+        long latencyMillis = 0;
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (se espera --clave=valor)");
+            }
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (arg.substring(2, arg.indexOf('='))) {
+                case "voters" -> voters = Integer.parseInt(value);
+                case "page-size" -> pageSize = Integer.parseInt(value);
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "latency-ms" -> latencyMillis = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Opción desconocida: " + arg);
+            }
+        }
+        
+        PostgrestStubServer postgrest = new PostgrestStubServer(PostgrestStubServer.Options.parse(new String[]{
+            "--port=0", "--threads=" + (concurrency * 2 + 8), "--latency-ms=" + latencyMillis}));
+        postgrest.generate(new SyntheticDataGenerator(42, voters, 0.4, 8));
+        postgrest.start();
+        FactilizaStubServer factiliza = new FactilizaStubServer(0, 0);
+        factiliza.start(0);
+        
+        ConfigurableApplicationContext app = null;
+        int exitCode;
+        try {
+            app = EmbeddedApp.start(postgrest.getBaseUrl(), factiliza.getBaseUrl(), List.of(
+                "--supabase.reactive.page-size=" + pageSize));
+            ReactiveRepositoryCheck check = new ReactiveRepositoryCheck(
+                app.getBean(SupabaseService.class), app.getBean(ReactiveElectionRepository.class));
+            check.compare(voters);
+            check.fanOut(concurrency);
+            exitCode = check.report() ? 0 : 1;
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            factiliza.close();
+            postgrest.close();
+        }
+        System.exit(exitCode);
+    }
+    
+    // ========== PARIDAD ==========
+    
+    private void compare(int voters) {
+        String dni = SyntheticDataGenerator.voterDni(1);
+        Voter expectedVoter = blocking.findVoterByDni(dni).orElseThrow();
+        Voter voter = reactive.findVoterByDni(dni).block(TIMEOUT);
+        expect("findVoterByDni", voterKey(expectedVoter), voter == null ? null : voterKey(voter));
+        expect("findVoterByDni (inexistente)", null, reactive.findVoterByDni("00000000").block(TIMEOUT));
+        
+        long streamed = count(reactive.streamVoters());
+        expect("countVoters", blocking.countVoters(), reactive.countVoters().block(TIMEOUT));
+        expect("streamVoters", (long) voters, streamed);
+        
+        expect("findAllCandidates", candidateKeys(blocking.findAllCandidates()),
+            candidateKeys(reactive.findAllCandidates().collectList().block(TIMEOUT)));
+        expect("findCandidatesByCategory", candidateKeys(blocking.findCandidatesByCategory("regional")),
+            candidateKeys(reactive.findCandidatesByCategory("regional").collectList().block(TIMEOUT)));
+        Candidate first = blocking.findAllCandidates().get(0);
+        Candidate byId = reactive.findCandidateById(first.getId()).block(TIMEOUT);
+        expect("findCandidateById", candidateKeys(List.of(first)), byId == null ? null : candidateKeys(List.of(byId)));
+        
+        expect("findVotesByVoterDni", voteKeys(blocking.findVotesByVoterDni(dni)),
+            voteKeys(reactive.findVotesByVoterDni(dni).collectList().block(TIMEOUT)));
+        List<Vote> allVotes = reactive.streamVotes().collectList().block(TIMEOUT);
+        expect("countVotes", blocking.countVotes(), reactive.countVotes().block(TIMEOUT));
+        expect("streamVotes", blocking.countVotes(), allVotes == null ? null : (long) allVotes.size());
+        expect("streamVotes (candidatos resueltos)", true,
+            allVotes != null && allVotes.stream().allMatch(vote -> vote.getCandidate() != null
+                && vote.getCandidate().getName() != null && vote.getCategory() != null && vote.getVotedAt() != null));
+        for (String category : List.of("presidencial", "distrital", "regional")) {
+            expect("countVotesByCategory " + category, blocking.countVotesByCategory(category),
+                reactive.countVotesByCategory(category).block(TIMEOUT));
+        }
+        expect("countDistinctVoters", blocking.countDistinctVoters(), reactive.countDistinctVoters().block(TIMEOUT));
+        
+        expect("getVotesByDate", blocking.getVotesByDate(), reactive.getVotesByDate().block(TIMEOUT));
+        expect("getParticipationData", blocking.getParticipationData(), reactive.getParticipationData().block(TIMEOUT));
+        Map<String, Object> anomalies = reactive.detectAnomalies().block(TIMEOUT);
+        expect("detectAnomalies (totalVotes)", blocking.detectAnomalies().get("totalVotes"),
+            anomalies == null ? null : anomalies.get("totalVotes"));
+    }
+    
+    private static long count(Flux<?> flux) {
+        Long count = flux.count().block(TIMEOUT);
+        return count == null ? -1 : count;
+    }
+    
+    private static String voterKey(Voter voter) {
+        return voter.getDni() + "|" + voter.getFullName() + "|" + voter.getDepartment() + "|" + voter.getBirthDate()
+            + "|" + voter.getHasVoted() + "|" + voter.getVotedAt();
+    }
+    
+    private static List<String> candidateKeys(List<Candidate> candidates) {
+        List<String> keys = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            keys.add(candidate.getId() + "|" + candidate.getName() + "|" + candidate.getCategory() + "|"
+                + candidate.getVoteCount() + "|" + candidate.getCampaignProposal());
+        }
+        return keys;
+    }
+    
+    private static List<String> voteKeys(List<Vote> votes) {
+        List<String> keys = new ArrayList<>();
+        for (Vote vote : votes) {
+            keys.add(vote.getId() + "|" + vote.getCategory() + "|" + vote.getVotedAt() + "|"
+                + (vote.getCandidate() != null ? vote.getCandidate().getId() + "|" + vote.getCandidate().getName() : null));
+        }
+        keys.sort(null);
+        return keys;
+    }
+    
+    private void expect(String name, Object expected, Object actual) {
+        boolean ok = Objects.equals(expected, actual);
+        System.out.printf("  %-40s %s%n", name, ok ? "ok" : "DIFERENTE");
+        if (!ok) {
+            failures.add(name + ": esperado " + abbreviate(expected) + ", obtenido " + abbreviate(actual));
+        }
+    }
+    
+    private static String abbreviate(Object value) {
+        String text = String.valueOf(value);
+        return text.length() > 300 ? text.substring(0, 300) + "..." : text;
+    }
+    
+    // ========== ANÁLISIS CONCURRENTES ==========
+    
+    private void fanOut(int concurrency) {
+        long start = System.nanoTime();
+        List<Map<String, Object>> results = Flux.range(0, concurrency)
+            .flatMap(i -> reactive.getParticipationData(), concurrency)
+            .collectList()
+            .block(TIMEOUT.multipliedBy(5));
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long clientThreads = Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getName().startsWith("supabase-reactive-"))
+            .count();
+        System.out.printf("%n  %d análisis de participación concurrentes en %d ms con %d hilos del cliente%n",
+            concurrency, millis, clientThreads);
+        expect("análisis concurrentes completos", concurrency, results == null ? 0 : results.size());
+    }
+    
+    private boolean report() {
+        System.out.println();
+        if (failures.isEmpty()) {
+            System.out.println("La variante reactiva coincide con SupabaseService");
+            return true;
+        }
+        failures.forEach(failure -> System.out.println("  " + failure));
+        return false;
+    }
+}
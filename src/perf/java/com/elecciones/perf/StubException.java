@@ -0,0 +1,34 @@
+package com.elecciones.perf;
+
+/**
+ * Error devuelto al cliente con el formato de PostgREST (code, message, details, hint)
+ */
+final class StubException extends RuntimeException {
+    
+    private final int status;
+    private final String code;
+    private final String details;
+    
+    StubException(int status, String code, String message) {
+        this(status, code, message, null);
+    }
+    
+    StubException(int status, String code, String message, String details) {
+        super(message);
+        this.status = status;
+        this.code = code;
+        this.details = details;
+    }
+    
+    int getStatus() {
+        return status;
+    }
+    
+    String getCode() {
+        return code;
+    }
+    
+    String getDetails() {
+        return details;
+    }
+}
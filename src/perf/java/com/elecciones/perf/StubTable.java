@@ -0,0 +1,355 @@
+package com.elecciones.perf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Tabla en memoria del servidor PostgREST de pruebas.
+ *
+ * Las filas se guardan como Object[] según el esquema de columnas para que millones de
+ * registros quepan en el heap. La clave primaria, la restricción única y las columnas
+ * indexadas permiten resolver los filtros eq. sin recorrer la tabla, igual que los
+ * índices de la base real.
+ */
+final class StubTable {
+    
+    private final String name;
+    private final String[] columns;
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private final int primaryKey;
+    private final int[] uniqueKey;
+    private final String uniqueConstraint;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Protegidos por lock
+    private final Map<Object, Object[]> byPrimaryKey = new HashMap<>();
+    private final Map<String, Object[]> byUniqueKey = new HashMap<>();
+    private final Map<Integer, Map<Object, List<Object[]>>> secondary = new HashMap<>();
+    
+    StubTable(String name, String[] columns, String primaryKey, String[] uniqueKey, String... indexed) {
+        this.name = name;
+        this.columns = columns;
+        for (int i = 0; i < columns.length; i++) {
+            columnIndex.put(columns[i], i);
+        }
+        this.primaryKey = column(primaryKey);
+        this.uniqueKey = uniqueKey == null ? null : Arrays.stream(uniqueKey).mapToInt(this::column).toArray();
+        this.uniqueConstraint = uniqueKey == null ? null : name + "_" + String.join("_", uniqueKey) + "_key";
+        for (String column : indexed) {
+            secondary.put(column(column), new HashMap<>());
+        }
+    }
+    
+    String getName() {
+        return name;
+    }
+    
+    String[] getColumns() {
+        return columns;
+    }
+    
+    String getPrimaryKey() {
+        return columns[primaryKey];
+    }
+    
+    boolean hasColumn(String column) {
+        return columnIndex.containsKey(column);
+    }
+    
+    int column(String column) {
+        Integer index = columnIndex.get(column);
+        if (index == null) {
+            throw new StubException(400, "PGRST204",
+                "Could not find the '" + column + "' column of '" + name + "' in the schema cache");
+        }
+        return index;
+    }
+    
+    int size() {
+        lock.readLock().lock();
+        try {
+            return byPrimaryKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // ========== LECTURA ==========
+    
+    /**
+     * Filas que cumplen los filtros, en una copia que el llamador puede ordenar.
+     * Si hay un filtro eq. sobre una columna indexada se parte del índice.
+     */
+    List<Object[]> select(List<Filter> filters) {
+        lock.readLock().lock();
+        try {
+            Iterable<Object[]> candidates = byPrimaryKey.values();
+            for (Filter filter : filters) {
+                if (!filter.isEquality()) {
+                    continue;
+                }
+                int index = column(filter.getColumn());
+                if (index == primaryKey) {
+                    Object[] row = byPrimaryKey.get(filter.getValue());
+                    candidates = row == null ? Collections.<Object[]>emptyList() : List.<Object[]>of(row);
+                    break;
+                }
+                Map<Object, List<Object[]>> rows = secondary.get(index);
+                if (rows != null) {
+                    candidates = rows.getOrDefault(filter.getValue(), Collections.emptyList());
+                    break;
+                }
+            }
+            
+            Predicate<Object[]> predicate = predicate(filters);
+            List<Object[]> result = new ArrayList<>();
+            for (Object[] row : candidates) {
+                if (predicate.test(row)) {
+                    result.add(row.clone());
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // ========== ESCRITURA ==========
+    
+    /**
+     * Inserta una fila completa. Con conflicto en la clave primaria o la restricción única:
+     * merge actualiza la fila existente, ignore la deja intacta y devuelve null, y sin
+     * resolución se lanza el error 23505 de PostgreSQL.
+     */
+    Written insert(Object[] row, Map<String, Object> provided, Resolution resolution) {
+        lock.writeLock().lock();
+        try {
+            Object[] existing = byPrimaryKey.get(row[primaryKey]);
+            boolean onPrimaryKey = existing != null;
+            String uniqueValue = uniqueValue(row);
+            if (existing == null && uniqueValue != null) {
+                existing = byUniqueKey.get(uniqueValue);
+            }
+            if (existing != null) {
+                switch (resolution) {
+                    case MERGE:
+                        Object[] before = existing.clone();
+                        for (Map.Entry<String, Object> entry : provided.entrySet()) {
+                            existing[column(entry.getKey())] = entry.getValue();
+                        }
+                        reindex(before, existing);
+                        return new Written(existing.clone(), existing[primaryKey], false);
+                    case IGNORE:
+                        return null;
+                    default:
+                        throw duplicate(existing, onPrimaryKey);
+                }
+            }
+            index(row);
+            return new Written(row.clone(), row[primaryKey], true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Aplica los valores a todas las filas que cumplen los filtros y devuelve las filas resultantes
+     */
+    List<Object[]> update(List<Filter> filters, Map<String, Object> values) {
+        int[] targets = new int[values.size()];
+        Object[] newValues = new Object[values.size()];
+        int i = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            targets[i] = column(entry.getKey());
+            newValues[i++] = entry.getValue();
+        }
+        
+        lock.writeLock().lock();
+        try {
+            List<Object[]> updated = new ArrayList<>();
+            for (Object[] copy : select(filters)) {
+                Object[] row = byPrimaryKey.get(copy[primaryKey]);
+                Object[] before = row.clone();
+                for (int t = 0; t < targets.length; t++) {
+                    row[targets[t]] = newValues[t];
+                }
+                reindex(before, row);
+                updated.add(row.clone());
+            }
+            return updated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    List<Object[]> delete(List<Filter> filters) {
+        lock.writeLock().lock();
+        try {
+            List<Object[]> deleted = select(filters);
+            for (Object[] row : deleted) {
+                unindex(byPrimaryKey.get(row[primaryKey]));
+            }
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Suma delta a una columna numérica de la fila con la clave indicada (equivale a un trigger)
+     */
+    void increment(Object key, String column, long delta) {
+        int index = column(column);
+        lock.writeLock().lock();
+        try {
+            Object[] row = byPrimaryKey.get(key);
+            if (row != null) {
+                long current = row[index] == null ? 0 : ((Number) row[index]).longValue();
+                row[index] = current + delta;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Carga masiva sin copias ni validación de duplicados, para el generador de datos
+     */
+    void load(Object[] row) {
+        lock.writeLock().lock();
+        try {
+            index(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // ========== ÍNDICES ==========
+    
+    private void index(Object[] row) {
+        byPrimaryKey.put(row[primaryKey], row);
+        String uniqueValue = uniqueValue(row);
+        if (uniqueValue != null) {
+            byUniqueKey.put(uniqueValue, row);
+        }
+        for (Map.Entry<Integer, Map<Object, List<Object[]>>> entry : secondary.entrySet()) {
+            entry.getValue().computeIfAbsent(row[entry.getKey()], k -> new ArrayList<>(2)).add(row);
+        }
+    }
+    
+    private void unindex(Object[] row) {
+        byPrimaryKey.remove(row[primaryKey]);
+        String uniqueValue = uniqueValue(row);
+        if (uniqueValue != null) {
+            byUniqueKey.remove(uniqueValue, row);
+        }
+        for (Map.Entry<Integer, Map<Object, List<Object[]>>> entry : secondary.entrySet()) {
+            List<Object[]> rows = entry.getValue().get(row[entry.getKey()]);
+            if (rows != null) {
+                rows.removeIf(candidate -> candidate == row);
+                if (rows.isEmpty()) {
+                    entry.getValue().remove(row[entry.getKey()]);
+                }
+            }
+        }
+    }
+    
+    private void reindex(Object[] before, Object[] after) {
+        String uniqueValue = uniqueValue(after);
+        if (uniqueValue != null && !uniqueValue.equals(uniqueValue(before))) {
+            Object[] other = byUniqueKey.get(uniqueValue);
+            if (other != null && other != after) {
+                System.arraycopy(before, 0, after, 0, after.length);
+                throw duplicate(other, false);
+            }
+        }
+        // Se quita con los valores anteriores y se vuelve a indexar con los nuevos
+        Object[] current = after.clone();
+        System.arraycopy(before, 0, after, 0, after.length);
+        unindex(after);
+        System.arraycopy(current, 0, after, 0, after.length);
+        index(after);
+    }
+    
+    private String uniqueValue(Object[] row) {
+        if (uniqueKey == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int index : uniqueKey) {
+            if (row[index] == null) {
+                // En PostgreSQL los NULL no violan restricciones únicas
+                return null;
+            }
+            sb.append(row[index]).append('\u0000');
+        }
+        return sb.toString();
+    }
+    
+    private StubException duplicate(Object[] existing, boolean onPrimaryKey) {
+        int[] key = onPrimaryKey ? new int[]{primaryKey} : uniqueKey;
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int index : key) {
+            if (names.length() > 0) {
+                names.append(", ");
+                values.append(", ");
+            }
+            names.append(columns[index]);
+            values.append(existing[index]);
+        }
+        String constraint = onPrimaryKey ? name + "_pkey" : uniqueConstraint;
+        return new StubException(409, "23505",
+            "duplicate key value violates unique constraint \"" + constraint + "\"",
+            "Key (" + names + ")=(" + values + ") already exists.");
+    }
+    
+    private Predicate<Object[]> predicate(List<Filter> filters) {
+        Predicate<Object[]> predicate = row -> true;
+        for (Filter filter : filters) {
+            int index = column(filter.getColumn());
+            predicate = predicate.and(row -> filter.test(row[index]));
+        }
+        return predicate;
+    }
+    
+    /**
+     * Fila resultante de un insert y si fue nueva o actualizó una existente
+     */
+    static final class Written {
+        private final Object[] row;
+        private final Object key;
+        private final boolean inserted;
+        
+        private Written(Object[] row, Object key, boolean inserted) {
+            this.row = row;
+            this.key = key;
+            this.inserted = inserted;
+        }
+        
+        Object[] getRow() {
+            return row;
+        }
+        
+        Object getKey() {
+            return key;
+        }
+        
+        boolean isInserted() {
+            return inserted;
+        }
+    }
+    
+    /**
+     * Comportamiento ante conflicto de clave según el header Prefer: resolution=...
+     */
+    enum Resolution {
+        NONE, MERGE, IGNORE
+    }
+}
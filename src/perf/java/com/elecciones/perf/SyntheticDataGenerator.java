@@ -0,0 +1,169 @@
+package com.elecciones.perf;
+
+import com.elecciones.model.Candidate;
+import com.elecciones.repository.InMemoryElectionRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Genera un padrón, candidatos y votos reproducibles a partir de una semilla.
+ *
+ * Usa las mismas convenciones que el perfil inmemory (DNI 10000000 + i e ids de candidato
+ * de InMemoryElectionRepository.seedCandidateId) para que un generador de carga funcione
+ * igual contra ambos backends. Los votos se reparten en la jornada electoral de 8:00 a 16:00
+ * y el candidato se elige con una distribución sesgada, como en una elección real.
+ */
+public final class SyntheticDataGenerator {
+    
+    static final String[] DEPARTMENTS = {
+        "Lima", "Arequipa", "Cusco", "La Libertad", "Piura", "Junín", "Lambayeque", "Puno", "Loreto", "Ica",
+        "Áncash", "Cajamarca", "San Martín", "Huánuco", "Ucayali", "Ayacucho", "Tacna", "Amazonas",
+        "Huancavelica", "Apurímac", "Pasco", "Tumbes", "Moquegua", "Madre de Dios", "Callao"
+    };
+    static final LocalDateTime ELECTION_START = LocalDateTime.of(2026, 4, 12, 8, 0);
+    static final int ELECTION_HOURS = 8;
+    
+    private final long seed;
+    private final int voters;
+    private final double turnout;
+    private final int candidatesPerCategory;
+    private final double[] cumulativeWeights;
+    
+    public SyntheticDataGenerator(long seed, int voters, double turnout, int candidatesPerCategory) {
+        this.seed = seed;
+        this.voters = voters;
+        this.turnout = turnout;
+        this.candidatesPerCategory = candidatesPerCategory;
+        this.cumulativeWeights = new double[candidatesPerCategory];
+        double total = 0;
+        for (int i = 0; i < candidatesPerCategory; i++) {
+            total += 1.0 / (i + 1);
+            cumulativeWeights[i] = total;
+        }
+    }
+    
+    public static String voterDni(int index) {
+        return Integer.toString(10000000 + index);
+    }
+    
+    /**
+     * Carga los datos en las tablas del servidor. Los votantes con índice menor a
+     * voters * turnout ya votaron en todas las categorías.
+     */
+    void populate(PostgrestStubServer server) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StubTable voterTable = server.table("voters");
+        StubTable candidateTable = server.table("candidates");
+        StubTable voteTable = server.table("votes");
+        String created = format(ELECTION_START.minusMonths(3));
+        
+        Candidate.ElectoralCategory[] categories = Candidate.ElectoralCategory.values();
+        Object[][][] candidateRows = new Object[categories.length][candidatesPerCategory][];
+        for (int c = 0; c < categories.length; c++) {
+            for (int i = 1; i <= candidatesPerCategory; i++) {
+                String category = categories[c].name().toLowerCase();
+                Object[] row = server.newRow(candidateTable);
+                row[candidateTable.column("id")] = InMemoryElectionRepository.seedCandidateId(categories[c], i);
+                row[candidateTable.column("name")] = "Candidato " + category + " " + i;
+                row[candidateTable.column("party_name")] = "Partido " + i;
+                row[candidateTable.column("description")] = "Candidato generado para pruebas";
+                row[candidateTable.column("photo_url")] = "https://example.com/candidatos/" + i + ".png";
+                row[candidateTable.column("category")] = category;
+                row[candidateTable.column("vote_count")] = 0L;
+                row[candidateTable.column("created_at")] = created;
+                candidateTable.load(row);
+                candidateRows[c][i - 1] = row;
+            }
+        }
+        
+        // Índices de columna resueltos una vez: el bucle de votantes corre millones de veces
+        int dniColumn = voterTable.column("dni");
+        int fullNameColumn = voterTable.column("full_name");
+        int addressColumn = voterTable.column("address");
+        int districtColumn = voterTable.column("district");
+        int provinceColumn = voterTable.column("province");
+        int departmentColumn = voterTable.column("department");
+        int birthDateColumn = voterTable.column("birth_date");
+        int hasVotedColumn = voterTable.column("has_voted");
+        int voterVotedAtColumn = voterTable.column("voted_at");
+        int voterCreatedAtColumn = voterTable.column("created_at");
+        int voteIdColumn = voteTable.column("id");
+        int voteDniColumn = voteTable.column("voter_dni");
+        int voteCandidateColumn = voteTable.column("candidate_id");
+        int voteCategoryColumn = voteTable.column("category");
+        int voteVotedAtColumn = voteTable.column("voted_at");
+        int voteCreatedAtColumn = voteTable.column("created_at");
+        int candidateIdColumn = candidateTable.column("id");
+        int candidateCategoryColumn = candidateTable.column("category");
+        int voteCountColumn = candidateTable.column("vote_count");
+        
+        String[] districts = labels("Distrito ", 50);
+        String[] provinces = labels("Provincia ", 20);
+        int votedVoters = (int) Math.round(voters * turnout);
+        long electionSeconds = ELECTION_HOURS * 3600L;
+        for (int i = 0; i < voters; i++) {
+            String dni = voterDni(i);
+            boolean voted = i < votedVoters;
+            String votedAt = voted ? format(ELECTION_START.plusSeconds(random.nextLong(electionSeconds))) : null;
+            
+            Object[] row = server.newRow(voterTable);
+            row[dniColumn] = dni;
+            row[fullNameColumn] = "Votante " + i;
+            row[addressColumn] = "Av. Principal " + i;
+            row[districtColumn] = districts[i % districts.length];
+            row[provinceColumn] = provinces[i % provinces.length];
+            row[departmentColumn] = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+            row[birthDateColumn] = LocalDate.of(1950 + random.nextInt(58), 1 + random.nextInt(12),
+                1 + random.nextInt(28)).toString();
+            row[hasVotedColumn] = voted;
+            row[voterVotedAtColumn] = votedAt;
+            row[voterCreatedAtColumn] = created;
+            voterTable.load(row);
+            
+            if (!voted || candidatesPerCategory == 0) {
+                continue;
+            }
+            for (int c = 0; c < categories.length; c++) {
+                Object[] candidate = candidateRows[c][skewedIndex(random)];
+                Object[] vote = server.newRow(voteTable);
+                vote[voteIdColumn] = new UUID(random.nextLong(), random.nextLong()).toString();
+                vote[voteDniColumn] = dni;
+                vote[voteCandidateColumn] = candidate[candidateIdColumn];
+                vote[voteCategoryColumn] = candidate[candidateCategoryColumn];
+                vote[voteVotedAtColumn] = votedAt;
+                vote[voteCreatedAtColumn] = votedAt;
+                voteTable.load(vote);
+                candidate[voteCountColumn] = (Long) candidate[voteCountColumn] + 1;
+            }
+        }
+    }
+    
+    /**
+     * Formato de las columnas timestamp de Supabase (sin zona horaria)
+     */
+    static String format(LocalDateTime timestamp) {
+        return timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+    
+    private static String[] labels(String prefix, int count) {
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = prefix + i;
+        }
+        return labels;
+    }
+    
+    /**
+     * Índice de candidato con pesos decrecientes (1, 1/2, 1/3, ...)
+     */
+    private int skewedIndex(SplittableRandom random) {
+        double target = random.nextDouble() * cumulativeWeights[candidatesPerCategory - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        return Math.min(index >= 0 ? index : -index - 1, candidatesPerCategory - 1);
+    }
+}
@@ -0,0 +1,422 @@
+package com.elecciones.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de la jornada del votante: verificar DNI → listar candidatos → consultar
+ * categorías votadas → emitir la boleta → consultar el dashboard.
+ *
+ * Usa un modelo abierto: las jornadas llegan como un proceso de Poisson con la tasa del
+ * escenario, sin esperar a que terminen las anteriores, y la latencia de la jornada se mide
+ * desde el instante programado de llegada (no desde que se pudo enviar), para no esconder
+ * la cola cuando el sistema se satura.
+ *
+ * Por defecto levanta en la misma JVM el servidor PostgREST simulado, la imitación de
+ * Factiliza y la aplicación apuntando a ambos. Con --target=http://host:puerto se usa una
+ * aplicación ya iniciada (que debe apuntar a los stubs que se imprimen al arrancar).
+ *
+ *   mvn -Pperf test-compile exec:java -Dexec.mainClass=com.elecciones.perf.VoterJourneyLoadTest \
+ *       -Dexec.args="--scenario=opening --rate=20 --peak-rate=200 --duration-s=120 --supabase-latency-ms=15"
+ *
+ * Las opciones --app.clave=valor se pasan a la aplicación como --clave=valor.
+ */
+public final class VoterJourneyLoadTest {
+    
+    static final String VERIFY = "verificar DNI";
+    static final String CANDIDATES = "candidatos";
+    static final String CATEGORIES = "categorías votadas";
+    static final String BALLOT = "emitir boleta";
+    static final String DASHBOARD = "dashboard";
+    static final String JOURNEY = "jornada completa";
+    static final List<String> STEPS = List.of(VERIFY, CANDIDATES, CATEGORIES, BALLOT, DASHBOARD, JOURNEY);
+    
+    private final Options options;
+    private final HttpClient client;
+    private final ExecutorService callbacks;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger nextVoter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private String baseUrl;
+    
+    private VoterJourneyLoadTest(Options options) {
+        this.options = options;
+        this.nextVoter = new AtomicInteger(options.voters);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.callbacks = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "load-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(callbacks)
+            .build();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        VoterJourneyLoadTest test = new VoterJourneyLoadTest(options);
+        
+        PostgrestStubServer postgrest = new PostgrestStubServer(PostgrestStubServer.Options.parse(new String[]{
+            "--port=" + options.supabasePort,
+            "--latency-ms=" + options.supabaseLatencyMillis,
+            "--jitter-ms=" + options.supabaseJitterMillis,
+            "--per-row-us=" + options.supabasePerRowMicros
+        }));
+        postgrest.generate(new SyntheticDataGenerator(options.seed, options.voters, options.turnout, 8));
+        postgrest.start();
+        FactilizaStubServer factiliza = new FactilizaStubServer(options.factilizaLatencyMillis, options.factilizaJitterMillis);
+        factiliza.start(options.factilizaPort);
+        System.out.printf("Supabase simulado en %s (%d votantes), Factiliza simulado en %s%n",
+            postgrest.getBaseUrl(), options.voters, factiliza.getBaseUrl());
+        
+        ConfigurableApplicationContext app = null;
+        try {
+            if (options.target != null) {
+                test.baseUrl = options.target;
+            } else {
+                app = EmbeddedApp.start(postgrest.getBaseUrl(), factiliza.getBaseUrl(), options.appArgs);
+                test.baseUrl = EmbeddedApp.baseUrl(app);
+            }
+            System.out.println("Aplicación bajo prueba: " + test.baseUrl);
+            
+            if (options.warmupSeconds > 0) {
+                System.out.printf("Calentamiento: %d s a %.0f jornadas/s%n", options.warmupSeconds, options.rate);
+                test.run(LoadScenario.steady(options.rate, options.warmupSeconds), false);
+            }
+            LoadScenario scenario = "steady".equals(options.scenario)
+                ? LoadScenario.steady(options.rate, options.durationSeconds)
+                : LoadScenario.opening(options.rate, options.peakRate, options.durationSeconds, options.spikeSeconds);
+            test.run(scenario, true);
+            System.out.println("Llamadas a Supabase durante la prueba: " + postgrest.getRequestCounts());
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            factiliza.close();
+            postgrest.close();
+            test.callbacks.shutdownNow();
+        }
+        System.exit(0);
+    }
+    
+    // ========== GENERADOR DE LLEGADAS ==========
+    
+    private void run(LoadScenario scenario, boolean report) throws InterruptedException {
+        Recorder recorder = new Recorder(scenario);
+        SplittableRandom random = new SplittableRandom(options.seed);
+        long origin = System.nanoTime();
+        double elapsed = 0;
+        double duration = scenario.getDurationSeconds();
+        double peakRate = scenario.getPeakRate();
+        if (peakRate <= 0) {
+            return;
+        }
+        
+        while (true) {
+            // Proceso de Poisson no homogéneo por aceptación y rechazo: candidatas a la tasa
+            // máxima, aceptadas con probabilidad tasa(t) / tasa máxima
+            elapsed += -Math.log(1 - random.nextDouble()) / peakRate;
+            if (elapsed >= duration) {
+                break;
+            }
+            if (random.nextDouble() * peakRate >= scenario.rateAt(elapsed)) {
+                continue;
+            }
+            long scheduled = origin + (long) (elapsed * 1e9);
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            
+            LoadScenario.Phase phase = scenario.phaseAt(elapsed);
+            if (inFlight.get() >= options.maxInFlight) {
+                recorder.dropped(phase);
+                continue;
+            }
+            startJourney(recorder, phase, scheduled);
+        }
+        
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.drainSeconds);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(50);
+        }
+        if (report) {
+            recorder.print(inFlight.get());
+        }
+    }
+    
+    // ========== JORNADA ==========
+    
+    private void startJourney(Recorder recorder, LoadScenario.Phase phase, long scheduled) {
+        String dni = SyntheticDataGenerator.voterDni(nextVoter.getAndIncrement());
+        inFlight.incrementAndGet();
+        recorder.started(phase);
+        
+        ObjectNode verify = mapper.createObjectNode().put("dni", dni);
+        CompletableFuture<List<JsonNode>> candidates = step(recorder, phase, VERIFY, post("/api/voters/verify", verify))
+            .thenCompose(response -> step(recorder, phase, CANDIDATES, get("/api/candidates")))
+            .thenApply(response -> readList(response.body()));
+        candidates
+            .thenCompose(list -> step(recorder, phase, CATEGORIES, get("/api/votes/voter/" + dni + "/categories"))
+                .thenCompose(response -> step(recorder, phase, BALLOT,
+                    post("/api/votes", ballot(dni, list, readList(response.body()))))))
+            .thenCompose(response -> step(recorder, phase, DASHBOARD, get("/api/dashboard/stats")))
+            .whenComplete((response, error) -> {
+                inFlight.decrementAndGet();
+                recorder.record(phase, JOURNEY, System.nanoTime() - scheduled, error == null);
+            });
+    }
+    
+    private CompletableFuture<HttpResponse<String>> step(Recorder recorder, LoadScenario.Phase phase, String name,
+                                                         HttpRequest request) {
+        long started = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, error) -> {
+            long elapsed = System.nanoTime() - started;
+            boolean ok = error == null && response.statusCode() / 100 == 2;
+            recorder.record(phase, name, elapsed, ok);
+            if (!ok) {
+                String reason = error != null
+                    ? error.getClass().getSimpleName()
+                    : "HTTP " + response.statusCode();
+                recorder.failure(name + ": " + reason);
+                throw new CompletionException(new IllegalStateException(name + " falló: " + reason));
+            }
+            return response;
+        });
+    }
+    
+    /**
+     * Elige al azar un candidato por cada categoría que el votante aún no votó
+     */
+    private ObjectNode ballot(String dni, List<JsonNode> candidates, List<JsonNode> voted) {
+        Set<String> votedCategories = new HashSet<>();
+        voted.forEach(category -> votedCategories.add(category.asText()));
+        Map<String, List<String>> byCategory = new LinkedHashMap<>();
+        for (JsonNode candidate : candidates) {
+            String category = candidate.path("category").asText();
+            if (!votedCategories.contains(category)) {
+                byCategory.computeIfAbsent(category, k -> new ArrayList<>()).add(candidate.path("id").asText());
+            }
+        }
+        
+        ObjectNode request = mapper.createObjectNode().put("voterDni", dni);
+        ArrayNode selections = request.putArray("selections");
+        byCategory.forEach((category, ids) -> selections.addObject()
+            .put("category", category)
+            .put("candidateId", ids.get(ThreadLocalRandom.current().nextInt(ids.size()))));
+        return request;
+    }
+    
+    private List<JsonNode> readList(String body) {
+        try {
+            List<JsonNode> items = new ArrayList<>();
+            mapper.readTree(body).forEach(items::add);
+            return items;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+    
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(options.requestTimeoutSeconds))
+            .GET()
+            .build();
+    }
+    
+    private HttpRequest post(String path, JsonNode body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(options.requestTimeoutSeconds))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+    }
+    
+    // ========== RESULTADOS ==========
+    
+    /**
+     * Histogramas por fase y paso, más jornadas iniciadas, descartadas y causas de error
+     */
+    private static final class Recorder {
+        private final LoadScenario scenario;
+        private final Map<String, Map<String, StepStats>> stats = new LinkedHashMap<>();
+        private final Map<String, LongAdder> started = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> dropped = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        
+        Recorder(LoadScenario scenario) {
+            this.scenario = scenario;
+            for (LoadScenario.Phase phase : scenario.getPhases()) {
+                Map<String, StepStats> steps = new LinkedHashMap<>();
+                STEPS.forEach(step -> steps.put(step, new StepStats()));
+                stats.put(phase.getName(), steps);
+                started.put(phase.getName(), new LongAdder());
+                dropped.put(phase.getName(), new LongAdder());
+            }
+        }
+        
+        void started(LoadScenario.Phase phase) {
+            started.get(phase.getName()).increment();
+        }
+        
+        void dropped(LoadScenario.Phase phase) {
+            dropped.get(phase.getName()).increment();
+        }
+        
+        void failure(String reason) {
+            failures.computeIfAbsent(reason, k -> new LongAdder()).increment();
+        }
+        
+        void record(LoadScenario.Phase phase, String step, long nanos, boolean ok) {
+            StepStats stepStats = stats.get(phase.getName()).get(step);
+            if (ok) {
+                stepStats.latency.recordNanos(nanos);
+            } else {
+                stepStats.errors.increment();
+            }
+        }
+        
+        void print(int stillInFlight) {
+            System.out.println();
+            System.out.printf("=== Escenario %s: %.0f s ===%n", scenario.getName(), scenario.getDurationSeconds());
+            for (LoadScenario.Phase phase : scenario.getPhases()) {
+                if (phase.getDurationSeconds() <= 0) {
+                    continue;
+                }
+                System.out.printf("%nFase %s (%.0f s, %s): %d jornadas iniciadas, %d descartadas por límite de concurrencia%n",
+                    phase.getName(), phase.getDurationSeconds(), phase.describe(),
+                    started.get(phase.getName()).sum(), dropped.get(phase.getName()).sum());
+                System.out.printf("  %-20s %8s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                    "paso", "ok", "error", "req/s", "media", "p50", "p90", "p99", "p99.9", "máx");
+                for (Map.Entry<String, StepStats> entry : stats.get(phase.getName()).entrySet()) {
+                    LatencyHistogram latency = entry.getValue().latency;
+                    System.out.printf("  %-20s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                        entry.getKey(), latency.getCount(), entry.getValue().errors.sum(),
+                        latency.getCount() / phase.getDurationSeconds(), latency.getMeanMillis(),
+                        latency.percentileMillis(50), latency.percentileMillis(90), latency.percentileMillis(99),
+                        latency.percentileMillis(99.9), latency.getMaxMillis());
+                }
+            }
+            System.out.println();
+            System.out.println("Latencias en ms; la jornada completa se mide desde la llegada programada.");
+            if (stillInFlight > 0) {
+                System.out.println("Jornadas sin terminar al cierre: " + stillInFlight);
+            }
+            if (!failures.isEmpty()) {
+                System.out.println("Errores:");
+                failures.forEach((reason, count) -> System.out.printf("  %-45s %d%n", reason, count.sum()));
+            }
+        }
+    }
+    
+    private static final class StepStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+    }
+    
+    /**
+     * Opciones de línea de comandos (--clave=valor)
+     */
+    static final class Options {
+        String scenario = "opening";
+        double rate = 20;
+        double peakRate = 200;
+        int durationSeconds = 120;
+        int spikeSeconds = 20;
+        int warmupSeconds = 15;
+        int drainSeconds = 30;
+        int maxInFlight = 5000;
+        int requestTimeoutSeconds = 30;
+        String target;
+        long seed = 42;
+        int voters = 100_000;
+        double turnout = 0.3;
+        int supabasePort;
+        long supabaseLatencyMillis = 10;
+        long supabaseJitterMillis = 5;
+        int supabasePerRowMicros;
+        int factilizaPort;
+        long factilizaLatencyMillis = 80;
+        long factilizaJitterMillis = 40;
+        final List<String> appArgs = new ArrayList<>();
+        
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                    throw new IllegalArgumentException("Argumento inválido: " + arg + " (se espera --clave=valor)");
+                }
+                String key = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                if (key.startsWith("app.")) {
+                    options.appArgs.add("--" + key.substring(4) + "=" + value);
+                    continue;
+                }
+                switch (key) {
+                    case "scenario" -> {
+                        if (!value.equals("opening") && !value.equals("steady")) {
+                            throw new IllegalArgumentException("Escenario desconocido: " + value + " (opening|steady)");
+                        }
+                        options.scenario = value;
+                    }
+                    case "rate" -> options.rate = Double.parseDouble(value);
+                    case "peak-rate" -> options.peakRate = Double.parseDouble(value);
+                    case "duration-s" -> options.durationSeconds = Integer.parseInt(value);
+                    case "spike-s" -> options.spikeSeconds = Integer.parseInt(value);
+                    case "warmup-s" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "drain-s" -> options.drainSeconds = Integer.parseInt(value);
+                    case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                    case "request-timeout-s" -> options.requestTimeoutSeconds = Integer.parseInt(value);
+                    case "target" -> options.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "voters" -> options.voters = Integer.parseInt(value);
+                    case "turnout" -> options.turnout = Double.parseDouble(value);
+                    case "supabase-port" -> options.supabasePort = Integer.parseInt(value);
+                    case "supabase-latency-ms" -> options.supabaseLatencyMillis = Long.parseLong(value);
+                    case "supabase-jitter-ms" -> options.supabaseJitterMillis = Long.parseLong(value);
+                    case "supabase-per-row-us" -> options.supabasePerRowMicros = Integer.parseInt(value);
+                    case "factiliza-port" -> options.factilizaPort = Integer.parseInt(value);
+                    case "factiliza-latency-ms" -> options.factilizaLatencyMillis = Long.parseLong(value);
+                    case "factiliza-jitter-ms" -> options.factilizaJitterMillis = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Opción desconocida: --" + key);
+                }
+            }
+            if (options.target != null) {
+                // Una aplicación externa necesita puertos fijos para apuntar a los stubs
+                options.supabasePort = options.supabasePort == 0 ? 54321 : options.supabasePort;
+                options.factilizaPort = options.factilizaPort == 0 ? 54322 : options.factilizaPort;
+            }
+            return options;
+        }
+    }
+}
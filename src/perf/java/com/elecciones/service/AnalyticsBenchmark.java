@@ -0,0 +1,94 @@
+package com.elecciones.service;
+
+import com.elecciones.perf.BenchmarkRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculos de ElectionAnalytics sobre la tabla de votos completa, como los ejecutan
+ * getVotesByDate, detectAnomalies y getParticipationData después de descargarla.
+ * rows es el número de votos; el padrón tiene rows / 2 votantes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class AnalyticsBenchmark {
+    
+    @Benchmark
+    public List<Map<String, Object>> getVotesByDate(VotesByDate data) {
+        return ElectionAnalytics.votesByDate(data.votes);
+    }
+    
+    @Benchmark
+    public Map<String, Object> detectAnomalies(Anomalies data) {
+        return ElectionAnalytics.detectAnomalies(data.votes);
+    }
+    
+    @Benchmark
+    public Map<String, Object> getParticipationData(Participation data) {
+        return ElectionAnalytics.participation(data.voters, data.votes);
+    }
+    
+    @State(Scope.Benchmark)
+    public static class VotesByDate {
+        @Param({"10000", "1000000", "10000000"})
+        public int rows;
+        
+        List<Map<String, Object>> votes;
+        
+        @Setup(Level.Trial)
+        public void load() {
+            BenchmarkRunner.discardLogs();
+            // votes?select=voted_at
+            votes = BenchmarkData.votes(rows, "voted_at");
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Anomalies {
+        @Param({"10000", "1000000", "10000000"})
+        public int rows;
+        
+        List<Map<String, Object>> votes;
+        
+        @Setup(Level.Trial)
+        public void load() {
+            BenchmarkRunner.discardLogs();
+            // votes?select=id,voter_dni,voted_at,category
+            votes = BenchmarkData.votes(rows, "id", "voter_dni", "voted_at", "category");
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Participation {
+        @Param({"10000", "1000000", "10000000"})
+        public int rows;
+        
+        List<Map<String, Object>> voters;
+        List<Map<String, Object>> votes;
+        
+        @Setup(Level.Trial)
+        public void load() {
+            BenchmarkRunner.discardLogs();
+            // voters?select=dni,department y votes?select=voter_dni
+            voters = BenchmarkData.voterDepartments(rows / 2);
+            votes = BenchmarkData.votes(rows, "voter_dni");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.elecciones.service;
+
+import com.elecciones.model.Candidate;
+import com.elecciones.repository.InMemoryElectionRepository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Filas sintéticas con la misma forma que devuelve PostgREST una vez deserializadas por
+ * Jackson (LinkedHashMap con String, Integer y Boolean), con solo las columnas que pide
+ * cada consulta de SupabaseService.
+ *
+ * Cada votante emite un voto por categoría con el mismo voted_at; los horarios van de 6:00
+ * a 20:00 para que una parte caiga fuera del horario que revisa detectAnomalies.
+ */
+final class BenchmarkData {
+    
+    static final long SEED = 20260412L;
+    static final String[] CATEGORIES = {"presidencial", "distrital", "regional"};
+    static final int CANDIDATES_PER_CATEGORY = 8;
+    
+    private static final String[] DEPARTMENTS = {
+        "Lima", "Arequipa", "Cusco", "La Libertad", "Piura", "Junín", "Lambayeque", "Puno", "Loreto", "Ica",
+        "Áncash", "Cajamarca", "San Martín", "Huánuco", "Ucayali", "Ayacucho", "Tacna", "Amazonas",
+        "Huancavelica", "Apurímac", "Pasco", "Tumbes", "Moquegua", "Madre de Dios", "Callao"
+    };
+    private static final String[] FIRST_NAMES = {
+        "JUAN", "MARIA", "JOSE", "ROSA", "LUIS", "CARMEN", "CARLOS", "ANA", "JORGE", "LUZ", "MIGUEL", "ELENA"
+    };
+    private static final String[] LAST_NAMES = {
+        "QUISPE", "FLORES", "SANCHEZ", "RODRIGUEZ", "GARCIA", "ROJAS", "MAMANI", "HUAMAN", "CHAVEZ", "TORRES"
+    };
+    private static final LocalDateTime DAY_START = LocalDateTime.of(2026, 4, 12, 6, 0);
+    private static final int DAY_SECONDS = 14 * 3600;
+    
+    private BenchmarkData() {
+    }
+    
+    static String dni(int index) {
+        return Integer.toString(10000000 + index);
+    }
+    
+    /**
+     * voters?select=* (los textos repetidos se comparten, como haría un pool de strings)
+     */
+    static List<Map<String, Object>> voters(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] votedAt = votedAtPool();
+        List<Map<String, Object>> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            boolean voted = random.nextInt(100) < 60;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("dni", dni(i));
+            row.put("full_name", FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            row.put("address", "AV. PRINCIPAL " + random.nextInt(2000));
+            row.put("district", "DISTRITO " + random.nextInt(50));
+            row.put("province", "PROVINCIA " + random.nextInt(20));
+            row.put("department", DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+            row.put("birth_date", (1950 + random.nextInt(58)) + "-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10));
+            row.put("has_voted", voted);
+            row.put("voted_at", voted ? votedAt[random.nextInt(votedAt.length)] : null);
+            row.put("created_at", "2026-01-12T08:00:00");
+            result.add(row);
+        }
+        return result;
+    }
+    
+    /**
+     * voters?select=dni,department
+     */
+    static List<Map<String, Object>> voterDepartments(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Map<String, Object>> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("dni", dni(i));
+            row.put("department", DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+            result.add(row);
+        }
+        return result;
+    }
+    
+    /**
+     * candidates?select=*
+     */
+    static List<Map<String, Object>> candidates(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Map<String, Object>> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String category = CATEGORIES[i % CATEGORIES.length];
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", new UUID(random.nextLong(), random.nextLong()).toString());
+            row.put("name", "Candidato " + category + " " + i);
+            row.put("photo_url", "https://example.com/candidatos/" + i + ".png");
+            row.put("description", "Candidato generado para pruebas");
+            row.put("party_name", "Partido " + (i % 40));
+            row.put("party_logo_url", null);
+            row.put("party_description", null);
+            row.put("category", category);
+            row.put("academic_formation", null);
+            row.put("professional_experience", null);
+            row.put("campaign_proposal", null);
+            row.put("vote_count", random.nextInt(1_000_000));
+            row.put("created_at", "2026-01-12T08:00:00");
+            row.put("updated_at", null);
+            result.add(row);
+        }
+        return result;
+    }
+    
+    /**
+     * votes con las columnas indicadas; candidate_id apunta a los candidatos de
+     * InMemoryElectionRepository.seedCandidateId y del servidor PostgREST simulado
+     */
+    static List<Map<String, Object>> votes(int rows, String... columns) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] votedAtPool = votedAtPool();
+        String[][] candidateIds = new String[CATEGORIES.length][CANDIDATES_PER_CATEGORY];
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            for (int i = 0; i < CANDIDATES_PER_CATEGORY; i++) {
+                candidateIds[c][i] = InMemoryElectionRepository.seedCandidateId(
+                    Candidate.ElectoralCategory.valueOf(CATEGORIES[c].toUpperCase()), i + 1);
+            }
+        }
+        
+        List<Map<String, Object>> result = new ArrayList<>(rows);
+        String voterDni = null;
+        String votedAt = null;
+        for (int i = 0; i < rows; i++) {
+            int category = i % CATEGORIES.length;
+            if (category == 0) {
+                voterDni = dni(i / CATEGORIES.length);
+                votedAt = votedAtPool[random.nextInt(votedAtPool.length)];
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String column : columns) {
+                switch (column) {
+                    case "id" -> row.put("id", new UUID(random.nextLong(), random.nextLong()).toString());
+                    case "voter_dni" -> row.put("voter_dni", voterDni);
+                    case "candidate_id" -> row.put("candidate_id",
+                        candidateIds[category][random.nextInt(CANDIDATES_PER_CATEGORY)]);
+                    case "category" -> row.put("category", CATEGORIES[category]);
+                    case "voted_at" -> row.put("voted_at", votedAt);
+                    default -> throw new IllegalArgumentException("Columna desconocida: " + column);
+                }
+            }
+            result.add(row);
+        }
+        return result;
+    }
+    
+    /**
+     * Respuestas de Factiliza (el objeto "data" de /v1/dni/info/{dni})
+     */
+    static List<Map<String, Object>> factilizaResponses(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Map<String, Object>> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String nombres = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String paterno = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String materno = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String department = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)].toUpperCase();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("numero", dni(i));
+            row.put("nombres", nombres);
+            row.put("apellido_paterno", paterno);
+            row.put("apellido_materno", materno);
+            row.put("nombre_completo", paterno + " " + materno + ", " + nombres);
+            row.put("departamento", department);
+            row.put("provincia", department);
+            row.put("distrito", "DISTRITO " + random.nextInt(50));
+            row.put("direccion", "AV. PRINCIPAL " + random.nextInt(2000));
+            row.put("direccion_completa", "AV. PRINCIPAL " + random.nextInt(2000) + ", " + department);
+            row.put("ubigeo_reniec", String.format("%06d", random.nextInt(250000)));
+            row.put("ubigeo_sunat", String.format("%06d", random.nextInt(250000)));
+            row.put("fecha_nacimiento", "1" + random.nextInt(10) + "/0" + (1 + random.nextInt(9)) + "/19" + (50 + random.nextInt(50)));
+            row.put("sexo", random.nextBoolean() ? "MASCULINO" : "FEMENINO");
+            result.add(row);
+        }
+        return result;
+    }
+    
+    /**
+     * Nombres en mayúsculas con espacios extra, como llegan de RENIEC antes de normalizar
+     */
+    static List<String> rawNames(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<String> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            result.add(" " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + "  "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        }
+        return result;
+    }
+    
+    /**
+     * Un valor por segundo de la jornada: en millones de filas los horarios se repiten
+     */
+    private static String[] votedAtPool() {
+        String[] pool = new String[DAY_SECONDS];
+        for (int i = 0; i < DAY_SECONDS; i++) {
+            pool[i] = DAY_START.plusSeconds(i).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,107 @@
+package com.elecciones.service;
+
+import com.elecciones.perf.BenchmarkRunner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconocimiento de intents del chatbot con los intents de chatbot/intents.json más
+ * extraIntents intents sintéticos de 5 palabras clave. matchAutomaton es el recorrido de
+ * IntentAutomaton; containsChain es la cadena de String.contains que reemplazó (minúsculas y
+ * una comparación por palabra clave), como referencia de cómo crece con los intents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ChatbotBenchmark {
+    
+    private static final String[] MESSAGES = {
+        "Hola, buenos días. ¿Cómo puedo votar por mi candidato?",
+        "no puedo ingresar con mi DNI, me sale un error",
+        "¿Cuánto tiempo tengo para completar la votación?",
+        "quisiera saber las estadísticas y quién va ganando",
+        "mi abuela pregunta si esto es una página del gobierno o de otra empresa privada"
+    };
+    
+    @State(Scope.Benchmark)
+    public static class Intents {
+        @Param({"0", "1000", "10000"})
+        public int extraIntents;
+        
+        IntentAutomaton automaton;
+        List<String> keywords;
+        int next;
+        
+        @Setup(Level.Trial)
+        public void build() throws Exception {
+            BenchmarkRunner.discardLogs();
+            ChatbotService.IntentFile file;
+            try (InputStream in = ChatbotBenchmark.class.getResourceAsStream("/chatbot/intents.json")) {
+                file = new ObjectMapper().readValue(in, ChatbotService.IntentFile.class);
+            }
+            List<List<String>> byIntent = new ArrayList<>();
+            for (ChatbotService.IntentDefinition intent : file.getIntents()) {
+                byIntent.add(intent.getKeywords());
+            }
+            Random random = new Random(42);
+            for (int i = 0; i < extraIntents; i++) {
+                List<String> synthetic = new ArrayList<>();
+                for (int k = 0; k < 5; k++) {
+                    synthetic.add(word(random));
+                }
+                byIntent.add(synthetic);
+            }
+            automaton = new IntentAutomaton(byIntent);
+            keywords = new ArrayList<>();
+            byIntent.forEach(list -> list.forEach(keyword -> keywords.add(IntentAutomaton.foldKeyword(keyword))));
+        }
+        
+        String message() {
+            return MESSAGES[next++ % MESSAGES.length];
+        }
+        
+        private static String word(Random random) {
+            char[] letters = new char[5 + random.nextInt(6)];
+            for (int i = 0; i < letters.length; i++) {
+                letters[i] = (char) ('a' + random.nextInt(26));
+            }
+            return new String(letters);
+        }
+    }
+    
+    @Benchmark
+    public Object matchAutomaton(Intents state) {
+        return state.automaton.match(state.message());
+    }
+    
+    @Benchmark
+    public int containsChain(Intents state) {
+        String message = state.message().toLowerCase().trim();
+        int found = 0;
+        for (String keyword : state.keywords) {
+            if (message.contains(keyword)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,169 @@
+package com.elecciones.service;
+
+import com.elecciones.config.RestTemplateConfig;
+import com.elecciones.config.SupabaseConfig;
+import com.elecciones.dto.ReniecResponse;
+import com.elecciones.metrics.OutboundCallMetrics;
+import com.elecciones.model.Candidate;
+import com.elecciones.model.Vote;
+import com.elecciones.model.Voter;
+import com.elecciones.perf.BenchmarkRunner;
+import com.elecciones.perf.PostgrestStubServer;
+import com.elecciones.perf.SyntheticDataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por fila de los mappers de SupabaseService, la normalización de nombres y la
+ * conversión de respuestas de Factiliza.
+ *
+ * Cada operación procesa la siguiente fila del dataset, así que el tamaño (rows) mide el
+ * efecto de recorrer millones de mapas fuera de la caché. mapToVote busca el candidato con
+ * una solicitud HTTP por voto; aquí la atiende el servidor PostgREST simulado sin latencia.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+    
+    @Benchmark
+    public Voter mapToVoter(Services services, VoterRows rows) {
+        return services.supabaseService.mapToVoter(rows.next());
+    }
+    
+    @Benchmark
+    public Candidate mapToCandidate(Services services, CandidateRows rows) {
+        return services.supabaseService.mapToCandidate(rows.next());
+    }
+    
+    @Benchmark
+    public Vote mapToVote(Services services, VoteRows rows) {
+        return services.supabaseService.mapToVote(rows.next());
+    }
+    
+    @Benchmark
+    public String normalizeString(NameRows rows) {
+        return TextNormalizer.capitalizeWords(rows.next());
+    }
+    
+    @Benchmark
+    public ReniecResponse.ReniecData convertFactilizaToReniecData(Services services, FactilizaRows rows) {
+        return services.fastApiService.convertFactilizaToReniecData(rows.next());
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Services {
+        SupabaseService supabaseService;
+        FastApiService fastApiService;
+        private PostgrestStubServer stub;
+        
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            BenchmarkRunner.discardLogs();
+            stub = new PostgrestStubServer(PostgrestStubServer.Options.parse(new String[]{"--port=0"}));
+            stub.generate(new SyntheticDataGenerator(BenchmarkData.SEED, 0, 0, BenchmarkData.CANDIDATES_PER_CATEGORY));
+            stub.start();
+            
+            SupabaseConfig config = new SupabaseConfig();
+            ReflectionTestUtils.setField(config, "supabaseUrl", stub.getBaseUrl());
+            ReflectionTestUtils.setField(config, "supabaseKey", "benchmark");
+            ReflectionTestUtils.setField(config, "supabaseServiceKey", "benchmark");
+            RestTemplate restTemplate = new RestTemplateConfig().restTemplate(
+                new OutboundCallMetrics(new SimpleMeterRegistry()));
+            supabaseService = new SupabaseService(config, restTemplate);
+            fastApiService = new FastApiService(restTemplate);
+        }
+        
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stub.close();
+        }
+    }
+    
+    /**
+     * Recorre las filas en orden y vuelve a empezar al llegar al final
+     */
+    @State(Scope.Thread)
+    public abstract static class Rows<T> {
+        @Param({"10000", "1000000", "10000000"})
+        public int rows;
+        
+        private List<T> data;
+        private int cursor;
+        
+        @Setup(Level.Trial)
+        public void load() {
+            data = generate(rows);
+        }
+        
+        protected abstract List<T> generate(int rows);
+        
+        T next() {
+            if (++cursor >= data.size()) {
+                cursor = 0;
+            }
+            return data.get(cursor);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class VoterRows extends Rows<Map<String, Object>> {
+        @Override
+        protected List<Map<String, Object>> generate(int rows) {
+            return BenchmarkData.voters(rows);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class CandidateRows extends Rows<Map<String, Object>> {
+        @Override
+        protected List<Map<String, Object>> generate(int rows) {
+            return BenchmarkData.candidates(rows);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class VoteRows extends Rows<Map<String, Object>> {
+        @Override
+        protected List<Map<String, Object>> generate(int rows) {
+            return BenchmarkData.votes(rows, "id", "voter_dni", "candidate_id", "category", "voted_at");
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class NameRows extends Rows<String> {
+        @Override
+        protected List<String> generate(int rows) {
+            return BenchmarkData.rawNames(rows);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class FactilizaRows extends Rows<Map<String, Object>> {
+        @Override
+        protected List<Map<String, Object>> generate(int rows) {
+            return BenchmarkData.factilizaResponses(rows);
+        }
+    }
+}
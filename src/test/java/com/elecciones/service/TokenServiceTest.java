@@ -0,0 +1,40 @@
+package com.elecciones.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTest {
+    
+    private final TokenService tokenService = new TokenService("secreto-de-prueba", 60_000, 100);
+    
+    @Test
+    void tokenEmitidoSeVerifica() {
+        String token = tokenService.issue("admin@elecciones.pe", TokenService.ROLE_ADMIN);
+        
+        TokenService.TokenClaims claims = tokenService.verify(token);
+        
+        assertNotNull(claims);
+        assertEquals("admin@elecciones.pe", claims.getEmail());
+        assertEquals(TokenService.ROLE_ADMIN, claims.getRole());
+    }
+    
+    @Test
+    void tokenRevocadoNoSeAceptaConOtraGrafiaDeLaFirma() {
+        String token = tokenService.issue("admin@elecciones.pe", TokenService.ROLE_ADMIN);
+        assertTrue(tokenService.revoke(token));
+        assertNull(tokenService.verify(token));
+        
+        // El último carácter de la firma lleva 2 bits sobrantes: sus variantes decodifican a la misma MAC
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        char last = token.charAt(token.length() - 1);
+        for (int flip = 1; flip <= 3; flip++) {
+            char variant = alphabet.charAt(alphabet.indexOf(last) ^ flip);
+            String mutated = token.substring(0, token.length() - 1) + variant;
+            assertNull(tokenService.verify(mutated), "variante " + mutated);
+        }
+    }
+}